@@ -0,0 +1,261 @@
+package mancala.bench;
+
+import java.lang.management.ManagementFactory;
+import mancala.engine.Perft;
+import mancala.engine.Rules;
+import mancala.engine.SearchEngine;
+import mancala.engine.WeightedEvaluator;
+import mancala.model.MancalaModel;
+
+/**
+ * Checks that the hot paths stay within their allocation budgets, measured
+ * with the JVM's per-thread allocated-bytes counter. The build runs it in
+ * the test phase and fails when a budget is broken.
+ *
+ * <p>Budgets, in bytes per operation:
+ * <ul>
+ *   <li>model move: the GameState undo needs and its copy of the board</li>
+ *   <li>model move with a listener: the same; listeners get no event object</li>
+ *   <li>model undo: nothing</li>
+ *   <li>random playouts with Rules: nothing</li>
+ *   <li>engine search and perft: nothing, per search or per count</li>
+ * </ul>
+ * Each path runs until the JIT has compiled it, then is measured several
+ * times; the lowest measurement counts, so a one-off allocation by the
+ * JVM itself (a deoptimization, say) does not fail the check. A zero
+ * budget allows less than one byte per operation on average: a single
+ * object per operation is at least 16 bytes.
+ *
+ * <p>To run from command line:
+ * <pre>
+ * java -cp app/target/classes:bench/target/classes mancala.bench.AllocationBudget
+ * </pre>
+ *
+ * @author CS151 Group Project
+ * @version 1.0
+ */
+public class AllocationBudget {
+    /** GameState (24 bytes) and its board (72 bytes for 6 pits), with room for larger headers */
+    public static final long MODEL_MOVE_BUDGET = 128;
+    /** ModelListener.modelChanged() takes no event object */
+    public static final long LISTENER_BUDGET = 0;
+    public static final long MODEL_UNDO_BUDGET = 0;
+    public static final long ENGINE_BUDGET = 0;
+
+    private static final int PITS_PER_SIDE = 6;
+    private static final int STONES_PER_PIT = 4;
+    private static final int WARMUP_ROUNDS = 20;
+    private static final int ROUNDS = 5;
+    private static final int GAMES_PER_ROUND = 2_000;
+    private static final int SEARCHES_PER_ROUND = 50;
+    private static final int SEARCH_DEPTH = 6;
+    private static final int PERFT_DEPTH = 6;
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private final int[] startBoard = Rules.newBoard(PITS_PER_SIDE, STONES_PER_PIT);
+    private final int[] board = new int[startBoard.length];
+    private long seed = 151;
+    private boolean failed;
+
+    /**
+     * A path to measure. One call runs it many times.
+     */
+    private interface Path {
+        /**
+         * Runs the path and measures what the operations allocate.
+         *
+         * @return Bytes allocated per operation
+         */
+        double run();
+    }
+
+    /**
+     * Runs every check and exits with 1 if any budget is broken.
+     *
+     * @param args Not used
+     */
+    public static void main(String[] args) {
+        if (!THREADS.isThreadAllocatedMemorySupported()) {
+            System.out.println("Allocated bytes are not counted by this JVM; skipping the allocation budgets");
+            return;
+        }
+        THREADS.setThreadAllocatedMemoryEnabled(true);
+        AllocationBudget budget = new AllocationBudget();
+        budget.runAll();
+        if (budget.failed) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Measures every path against its budget.
+     */
+    private void runAll() {
+        MancalaModel model = new MancalaModel(PITS_PER_SIDE, STONES_PER_PIT);
+        model.startGame(1);
+        check("model move", MODEL_MOVE_BUDGET, () -> playModelGames(model));
+
+        MancalaModel listened = new MancalaModel(PITS_PER_SIDE, STONES_PER_PIT);
+        listened.startGame(1);
+        int[] notified = new int[1];
+        listened.addListener(() -> notified[0]++);
+        check("model move, one listener", MODEL_MOVE_BUDGET + LISTENER_BUDGET, () -> playModelGames(listened));
+
+        MancalaModel undone = new MancalaModel(PITS_PER_SIDE, STONES_PER_PIT);
+        undone.startGame(1);
+        check("model undo", MODEL_UNDO_BUDGET, () -> undoModelMoves(undone));
+
+        check("rules playout move", ENGINE_BUDGET, this::playRulesGames);
+
+        SearchEngine engine = new SearchEngine(SEARCH_DEPTH, 0);
+        check("engine search", ENGINE_BUDGET, () -> search(engine));
+
+        SearchEngine weighted = new SearchEngine(SEARCH_DEPTH, 0);
+        weighted.setEvaluator(new WeightedEvaluator(WeightedEvaluator.DEFAULT_WEIGHTS));
+        check("engine search, weighted", ENGINE_BUDGET, () -> search(weighted));
+
+        Perft perft = new Perft(PITS_PER_SIDE, PERFT_DEPTH);
+        check("perft count", ENGINE_BUDGET, () -> {
+            long before = allocated();
+            perft.count(startBoard, 1, PERFT_DEPTH);
+            return allocated() - before;
+        });
+    }
+
+    /**
+     * Warms a path up, measures it and prints the result.
+     */
+    private void check(String name, long budget, Path path) {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            path.run();
+        }
+        double best = Double.MAX_VALUE;
+        for (int i = 0; i < ROUNDS; i++) {
+            best = Math.min(best, path.run());
+        }
+        boolean ok = budget == 0 ? best < 1 : best <= budget;
+        System.out.printf("%-26s %8.2f bytes/op  budget %4d  %s%n", name, best, budget, ok ? "ok" : "OVER BUDGET");
+        failed |= !ok;
+    }
+
+    /**
+     * Plays random games on a model, restoring the start between games.
+     *
+     * @return Bytes allocated per move
+     */
+    private double playModelGames(MancalaModel model) {
+        long before = allocated();
+        long moves = 0;
+        for (int game = 0; game < GAMES_PER_ROUND; game++) {
+            model.restore(startBoard, 1, -1, null);
+            while (!model.isGameOver()) {
+                model.applyMove(randomPit(model.getCurrentPlayer(), modelBoard(model)));
+                moves++;
+            }
+        }
+        return (double) (allocated() - before) / moves;
+    }
+
+    /**
+     * Plays random games on a model, taking every move back once and
+     * playing it again. Only the undos are measured.
+     *
+     * @return Bytes allocated per undo
+     */
+    private double undoModelMoves(MancalaModel model) {
+        long undos = 0;
+        long undoBytes = 0;
+        for (int game = 0; game < GAMES_PER_ROUND / 4; game++) {
+            model.restore(startBoard, 1, -1, null);
+            while (!model.isGameOver()) {
+                int pit = randomPit(model.getCurrentPlayer(), modelBoard(model));
+                model.applyMove(pit);
+                if (model.isGameOver()) {
+                    break; // Undo does not bring a finished game back
+                }
+                long before = allocated();
+                model.undo();
+                undoBytes += allocated() - before;
+                undos++;
+                model.applyMove(pit);
+            }
+        }
+        return (double) undoBytes / undos;
+    }
+
+    /**
+     * Plays random games with Rules on one reused board.
+     *
+     * @return Bytes allocated per move
+     */
+    private double playRulesGames() {
+        long before = allocated();
+        long moves = 0;
+        for (int game = 0; game < GAMES_PER_ROUND; game++) {
+            System.arraycopy(startBoard, 0, board, 0, board.length);
+            int player = 1;
+            while (player != Rules.GAME_OVER) {
+                player = Rules.applyMove(board, PITS_PER_SIDE, player, randomPit(player, board));
+                moves++;
+            }
+        }
+        return (double) (allocated() - before) / moves;
+    }
+
+    /**
+     * Searches positions a few random moves into the game.
+     *
+     * @return Bytes allocated per search
+     */
+    private double search(SearchEngine engine) {
+        long before = allocated();
+        for (int i = 0; i < SEARCHES_PER_ROUND; i++) {
+            System.arraycopy(startBoard, 0, board, 0, board.length);
+            int player = 1;
+            for (int ply = 0; ply < 4 && player != Rules.GAME_OVER; ply++) {
+                player = Rules.applyMove(board, PITS_PER_SIDE, player, randomPit(player, board));
+            }
+            if (player != Rules.GAME_OVER) {
+                engine.findBestMove(board, PITS_PER_SIDE, player);
+            }
+        }
+        return (double) (allocated() - before) / SEARCHES_PER_ROUND;
+    }
+
+    /**
+     * Reads the current thread's allocated-bytes counter, which itself
+     * allocates nothing.
+     */
+    private static long allocated() {
+        return THREADS.getCurrentThreadAllocatedBytes();
+    }
+
+    /**
+     * Copies a model's board into the reused board, without allocating.
+     */
+    private int[] modelBoard(MancalaModel model) {
+        for (int i = 0; i < board.length; i++) {
+            board[i] = model.getStonesAtPit(i);
+        }
+        return board;
+    }
+
+    /**
+     * Picks one of the player's non-empty pits with a small inline
+     * generator, so picking allocates nothing.
+     */
+    private int randomPit(int player, int[] board) {
+        seed = seed * 6364136223846793005L + 1442695040888963407L;
+        int first = Rules.firstPit(PITS_PER_SIDE, player);
+        int start = (int) ((seed >>> 33) % PITS_PER_SIDE);
+        for (int i = 0; i < PITS_PER_SIDE; i++) {
+            int pit = first + (start + i) % PITS_PER_SIDE;
+            if (board[pit] > 0) {
+                return pit;
+            }
+        }
+        throw new IllegalStateException("No legal move for player " + player);
+    }
+}
@@ -0,0 +1,56 @@
+package mancala.bench;
+
+import java.io.IOException;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the JMH benchmarks with the GC profiler added, so every result
+ * reports its allocation rate (gc.alloc.rate.norm is bytes per operation)
+ * next to its throughput.
+ *
+ * <p>Takes the usual JMH command line, for example:
+ * <pre>
+ * java -jar bench/target/benchmarks.jar ModelBenchmark.applyMove -p pitsPerSide=6
+ * java -jar bench/target/benchmarks.jar -rf json -rff baseline.json
+ * </pre>
+ *
+ * @author CS151 Group Project
+ * @version 1.0
+ */
+public class BenchmarkMain {
+    /**
+     * Runs the benchmarks selected on the command line.
+     *
+     * @param args JMH options; -h lists them, -l lists the benchmarks
+     * @throws RunnerException If a benchmark fails
+     * @throws CommandLineOptionException If the options are not valid
+     * @throws IOException If the help cannot be printed
+     */
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException, IOException {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        if (commandLine.shouldHelp()) {
+            commandLine.showHelp();
+            return;
+        }
+        Runner lister = new Runner(commandLine);
+        if (commandLine.shouldList()) {
+            lister.list();
+            return;
+        }
+        if (commandLine.shouldListWithParams()) {
+            lister.listWithParams(commandLine);
+            return;
+        }
+        Options options = new OptionsBuilder()
+            .parent(commandLine)
+            .addProfiler(GCProfiler.class)
+            .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,135 @@
+package mancala.bench;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import mancala.engine.Evaluator;
+import mancala.engine.Rules;
+import mancala.engine.SearchEngine;
+import mancala.engine.WeightedEvaluator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmarks for the static evaluation: one evaluation with the store
+ * difference and with WeightedEvaluator, and a fixed-depth search with
+ * each, which shows what the evaluation costs the search.
+ *
+ * <p>Evaluations run on a pool of positions from random games, one per
+ * call, so the branch predictor cannot learn a single board.
+ *
+ * @author CS151 Group Project
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class EvaluatorBenchmark {
+    private static final int PITS_PER_SIDE = 6;
+    private static final int STONES_PER_PIT = 4;
+    private static final int POSITIONS = 1024;
+    private static final int SEARCH_DEPTH = 8;
+    private static final long SEED = 151;
+
+    private int[][] boards;
+    private int[] players;
+    private int next;
+    private Evaluator storeDifference;
+    private Evaluator weighted;
+    private SearchEngine storeDifferenceEngine;
+    private SearchEngine weightedEngine;
+
+    /**
+     * Collects positions from random games and sets up the engines.
+     */
+    @Setup
+    public void setup() {
+        SplittableRandom random = new SplittableRandom(SEED);
+        boards = new int[POSITIONS][];
+        players = new int[POSITIONS];
+        int count = 0;
+        while (count < POSITIONS) {
+            int[] board = Rules.newBoard(PITS_PER_SIDE, STONES_PER_PIT);
+            int player = 1;
+            while (player != Rules.GAME_OVER && count < POSITIONS) {
+                boards[count] = board.clone();
+                players[count] = player;
+                count++;
+                int first = Rules.firstPit(PITS_PER_SIDE, player);
+                int pit;
+                do {
+                    pit = first + random.nextInt(PITS_PER_SIDE);
+                } while (board[pit] == 0);
+                player = Rules.applyMove(board, PITS_PER_SIDE, player, pit);
+            }
+        }
+
+        storeDifference = Evaluator.STORE_DIFFERENCE;
+        weighted = new WeightedEvaluator(WeightedEvaluator.DEFAULT_WEIGHTS);
+        storeDifferenceEngine = new SearchEngine(SEARCH_DEPTH, 0);
+        weightedEngine = new SearchEngine(SEARCH_DEPTH, 0);
+        weightedEngine.setEvaluator(weighted);
+    }
+
+    /**
+     * Evaluates the next position by its store difference
+     *
+     * @return The score
+     */
+    @Benchmark
+    public int storeDifference() {
+        int i = nextPosition();
+        return storeDifference.evaluate(boards[i], PITS_PER_SIDE, players[i]);
+    }
+
+    /**
+     * Evaluates the next position with the default weights
+     *
+     * @return The score
+     */
+    @Benchmark
+    public int weighted() {
+        int i = nextPosition();
+        return weighted.evaluate(boards[i], PITS_PER_SIDE, players[i]);
+    }
+
+    /**
+     * Searches the next position to a fixed depth by its store difference
+     *
+     * @return The best pit
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public int searchStoreDifference() {
+        int i = nextPosition();
+        return storeDifferenceEngine.findBestMove(boards[i], PITS_PER_SIDE, players[i]);
+    }
+
+    /**
+     * Searches the next position to a fixed depth with the default weights
+     *
+     * @return The best pit
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public int searchWeighted() {
+        int i = nextPosition();
+        return weightedEngine.findBestMove(boards[i], PITS_PER_SIDE, players[i]);
+    }
+
+    private int nextPosition() {
+        int i = next;
+        next = (i + 1) & (POSITIONS - 1);
+        return i;
+    }
+}
@@ -0,0 +1,200 @@
+/**
+ * This is the ModelBenchmark class.
+ * JMH benchmarks for the hot paths of MancalaModel, on several board sizes.
+ *
+ * <p>The single-step benchmarks run on a pool of positions taken from
+ * random games, one position per call, so the branch predictor cannot learn
+ * a single move. Each call first restores its position; the restore
+ * benchmark measures that alone, to be subtracted from applyMove. Undo
+ * needs a move to take back, so applyMoveAndUndo measures both, and undo
+ * costs the difference from applyMove. checkGameEnd is package-private for
+ * this benchmark, which is why it lives in the model package.
+ *
+ * <p>randomGame plays a whole game, from the constructor to endGame, with
+ * random legal moves.
+ *
+ * @author CS151 Group Project
+ * @version 1.0
+ */
+
+package mancala.model;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ModelBenchmark {
+  private static final int POSITIONS = 1024;
+  private static final long SEED = 151;
+
+  @Param({"4", "6", "8"})
+  public int pitsPerSide;
+
+  @Param({"3", "4", "6"})
+  public int stonesPerPit;
+
+  private MancalaModel model;
+  private int[][] boards;
+  private int[] players;
+  private int[] pits;
+  private int next;
+  private SplittableRandom random;
+
+  /**
+   * This collects positions from random games: the board, the player to move
+   * and a legal pit to play
+   */
+  @Setup
+  public void setup() {
+    random = new SplittableRandom(SEED);
+    boards = new int[POSITIONS][];
+    players = new int[POSITIONS];
+    pits = new int[POSITIONS];
+
+    int count = 0;
+    while (count < POSITIONS) {
+      MancalaModel game = new MancalaModel(pitsPerSide, stonesPerPit);
+      game.startGame(1);
+      while (!game.isGameOver() && count < POSITIONS) {
+        int pit = randomMove(game, random);
+        boards[count] = game.getBoardState();
+        players[count] = game.getCurrentPlayer();
+        pits[count] = pit;
+        ++count;
+        game.applyMove(pit);
+      }
+    }
+
+    model = new MancalaModel(pitsPerSide, stonesPerPit);
+    model.startGame(1);
+  }
+
+  /**
+   * Restores the next position; the cost every single-step benchmark pays
+   *
+   * @return The index of the position
+   */
+  @Benchmark
+  public int restore() {
+    int i = nextPosition();
+    model.restore(boards[i], players[i], -1, null);
+    return i;
+  }
+
+  /**
+   * Restores the next position and plays a move in it
+   *
+   * @return True if the move earned an extra turn
+   */
+  @Benchmark
+  public boolean applyMove() {
+    int i = nextPosition();
+    model.restore(boards[i], players[i], -1, null);
+    return model.applyMove(pits[i]);
+  }
+
+  /**
+   * Restores the next position, plays a move and takes it back
+   *
+   * @return The player to move after the undo
+   */
+  @Benchmark
+  public int applyMoveAndUndo() {
+    int i = nextPosition();
+    model.restore(boards[i], players[i], -1, null);
+    model.applyMove(pits[i]);
+    model.undo();
+    return model.getCurrentPlayer();
+  }
+
+  /**
+   * Restores the next position and copies its board
+   *
+   * @return The copy
+   */
+  @Benchmark
+  public int[] getBoardState() {
+    int i = nextPosition();
+    model.restore(boards[i], players[i], -1, null);
+    return model.getBoardState();
+  }
+
+  /**
+   * Restores the next position and checks if either side is empty
+   *
+   * @return True if the game ended
+   */
+  @Benchmark
+  public boolean checkGameEnd() {
+    int i = nextPosition();
+    model.restore(boards[i], players[i], -1, null);
+    return model.checkGameEnd();
+  }
+
+  /**
+   * Plays a whole game with random legal moves
+   *
+   * @return Player A's final store
+   */
+  @Benchmark
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public int randomGame() {
+    MancalaModel game = new MancalaModel(pitsPerSide, stonesPerPit);
+    game.startGame(1);
+    while (!game.isGameOver()) {
+      game.applyMove(randomMove(game, random));
+    }
+    return game.getStonesAtPit(game.getPlayerStore(1));
+  }
+
+  /**
+   * This steps through the position pool
+   *
+   * @return The index of the next position
+   */
+  private int nextPosition() {
+    int i = next;
+    next = (i + 1) & (POSITIONS - 1);
+    return i;
+  }
+
+  /**
+   * This picks one of the current player's non-empty pits at random
+   *
+   * @param game   A game that is not over
+   * @param random The source of randomness
+   * @return The pit index
+   */
+  private static int randomMove(MancalaModel game, SplittableRandom random) {
+    int pitsPerSide = game.getPlayerStore(1);
+    int first = game.getCurrentPlayer() == 1 ? 0 : pitsPerSide + 1;
+    int legal = 0;
+    for (int pit = first; pit < first + pitsPerSide; ++pit) {
+      if (game.getStonesAtPit(pit) > 0) {
+        ++legal;
+      }
+    }
+    int pick = random.nextInt(legal);
+    for (int pit = first; ; ++pit) {
+      if (game.getStonesAtPit(pit) > 0 && pick-- == 0) {
+        return pit;
+      }
+    }
+  }
+}
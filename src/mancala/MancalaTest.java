@@ -10,6 +10,39 @@
  * 
  * <p>Or from IDE: Run MancalaTest.main()
  * 
+ * <p>Add -Dmancala.activeRendering=true to render the board on a dedicated
+ * render thread instead of through Swing's repaint manager.
+ * 
+ * <p>Add -Dmancala.journal=&lt;file&gt; to record every game in a game journal
+ * (read it back with mancala.persist.JournalReader).
+ * 
+ * <p>Add -Dmancala.engine=&lt;millis&gt; to play against the computer as
+ * Player A; the engine plays Player B, thinking up to that long per move.
+ * 
+ * <p>Click Hints, or add -Dmancala.hints=true, to see the engine's score of
+ * every move on the pits of the player to move, refined in the background
+ * as its search deepens.
+ * 
+ * <p>Press F3 on the board, or add -Dmancala.perfOverlay=true, for live
+ * numbers: frames per second, paint, move and listener dispatch times, and
+ * the allocation rate.
+ * 
+ * <p>Add -Dmancala.fastStartup=true to show the first window sooner: only the
+ * style selection screen is built before it appears, and the game screen
+ * follows in the background. mancala.StartupBenchmark measures the
+ * difference, and how much a class data sharing (CDS) archive adds.
+ * 
+ * <p>Add -Dmancala.jmx=true to publish game, engine and paint metrics as
+ * MBeans (mancala:type=Game, Engine and Paint) for JConsole or VisualVM.
+ * 
+ * <p>To see where each frame's time goes, record the game with Java Flight
+ * Recorder and look at the mancala.Move, mancala.ListenerDispatch,
+ * mancala.BoardUpdate and mancala.Paint events (package mancala.diag):
+ * <pre>
+ * java -XX:StartFlightRecording=filename=mancala.jfr mancala.MancalaTest
+ * jfr print --events mancala.Move,mancala.Paint mancala.jfr
+ * </pre>
+ * 
  * <p>Test flow:
  * <ol>
  *   <li>Style selection screen appears</li>
@@ -24,11 +57,23 @@
  */
 package mancala;
 
+import java.awt.GraphicsEnvironment;
+import java.io.IOException;
+import java.nio.file.Path;
 import javax.swing.*;
 import mancala.view.MancalaFrame;
+import mancala.controller.EnginePipeline;
 import mancala.controller.MancalaController;
+import mancala.diag.Metrics;
+import mancala.persist.GameJournal;
 
 public class MancalaTest {
+    private static final int ENGINE_MAX_DEPTH = 40;
+    /** Printed by a startup probe once the first frame is painted */
+    static final String FIRST_FRAME = "first frame";
+    /** Printed by a startup probe once the game screen is built */
+    static final String GAME_SCREEN = "game screen";
+    
     /**
      * Main entry point for the application.
      * Sets up the system look and feel, creates the main frame and controller,
@@ -44,13 +89,36 @@ public class MancalaTest {
             System.err.println("Could not set system look and feel: " + e.getMessage());
         }
         
+        Metrics.registerIfRequested();
+        GameJournal journal = openJournal();
+        
         // Launch UI on Event Dispatch Thread (required for Swing)
+        boolean fastStartup = Boolean.getBoolean("mancala.fastStartup");
+        if (Boolean.getBoolean("mancala.startupProbe") && GraphicsEnvironment.isHeadless()) {
+            System.err.println("The startup probe paints a frame, which needs a display");
+            System.exit(1);
+        }
         SwingUtilities.invokeLater(() -> {
-            MancalaFrame frame = new MancalaFrame();
+            MancalaFrame frame = new MancalaFrame(Boolean.getBoolean("mancala.activeRendering"), fastStartup);
             // Controller sets up all event listeners and connects model to view
-            @SuppressWarnings("unused")
             MancalaController controller = new MancalaController(frame);
+            controller.setJournal(journal);
+            long engineMillis = Long.getLong("mancala.engine", 0);
+            if (engineMillis > 0) {
+                controller.setEngine(new EnginePipeline(ENGINE_MAX_DEPTH, engineMillis,
+                    EnginePipeline.DEFAULT_UPDATE_MILLIS));
+            }
+            if (Boolean.getBoolean("mancala.hints")) {
+                // Waits for the game screen, so a fast startup still shows the first screen first
+                frame.whenGameScreenBuilt(() -> controller.setHintsOn(true));
+            }
+            if (Boolean.getBoolean("mancala.startupProbe")) {
+                probeStartup(frame);
+            }
             frame.setVisible(true);
+            if (fastStartup) {
+                frame.prepareGameScreen();
+            }
             
             // Test flow:
             // 1. Style selection screen appears
@@ -60,4 +128,57 @@ public class MancalaTest {
             // 5. Board updates automatically after each move
         });
     }
+    
+    /**
+     * Reports startup progress for StartupBenchmark on standard output: a
+     * line when the first frame is painted and one when the game screen is
+     * built. Exits once both are done, so a CDS archive dumped at exit holds
+     * every class the game screen needs.
+     * 
+     * @param frame The frame about to be shown
+     */
+    private static void probeStartup(MancalaFrame frame) {
+        boolean[] done = new boolean[2]; // first frame, game screen; only used on the EDT
+        frame.whenFirstPainted(() -> {
+            System.out.println(FIRST_FRAME);
+            done[0] = true;
+            if (done[1]) {
+                System.exit(0);
+            }
+        });
+        frame.whenGameScreenBuilt(() -> {
+            System.out.println(GAME_SCREEN);
+            done[1] = true;
+            if (done[0]) {
+                System.exit(0);
+            }
+        });
+    }
+    
+    /**
+     * Opens the game journal named by the mancala.journal system property.
+     * The journal is closed on exit, which also records unfinished games.
+     * 
+     * @return The journal, or null if none was requested or it cannot be opened
+     */
+    private static GameJournal openJournal() {
+        String path = System.getProperty("mancala.journal");
+        if (path == null) {
+            return null;
+        }
+        try {
+            GameJournal journal = GameJournal.open(Path.of(path));
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    journal.close();
+                } catch (IOException e) {
+                    System.err.println("Could not close game journal: " + e.getMessage());
+                }
+            }));
+            return journal;
+        } catch (IOException e) {
+            System.err.println("Could not open game journal: " + e.getMessage());
+            return null;
+        }
+    }
 }
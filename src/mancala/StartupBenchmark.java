@@ -0,0 +1,161 @@
+/**
+ * Measures how long the game takes to start: from launching the JVM to the
+ * first painted frame, and to the game screen being built.
+ *
+ * <p>Each run starts MancalaTest in a new JVM as a startup probe
+ * (-Dmancala.startupProbe=true), which prints a line at each point and exits
+ * once both are reached; the times are taken here, when the lines arrive.
+ * The benchmark compares the normal launch, which builds every screen before
+ * showing the window, with the fast startup path (-Dmancala.fastStartup=true),
+ * and each of those with a class data sharing (CDS) archive, if one is given.
+ * Runs of the different launches take turns, so a busy machine slows them all.
+ *
+ * <p>It needs a display. The CDS archive has to be made from the same jar
+ * the benchmark runs from; the app module's cds profile does both:
+ * <pre>
+ * mvn -B package -Pcds
+ * java -cp app/target/mancala-1.0.jar mancala.StartupBenchmark 20 app/target/mancala.jsa
+ * </pre>
+ *
+ * <p>To run from command line:
+ * <pre>
+ * java mancala.StartupBenchmark [runs] [cdsArchive]
+ * </pre>
+ *
+ * @author CS151 Group Project
+ * @version 1.0
+ */
+package mancala;
+
+import java.awt.GraphicsEnvironment;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+public class StartupBenchmark {
+    private static final int DEFAULT_RUNS = 10;
+
+    /**
+     * One way of launching the game, and the times measured for it.
+     */
+    private static class Launch {
+        private final String name;
+        private final List<String> options;
+        private final List<Long> firstFrameMillis = new ArrayList<>();
+        private final List<Long> gameScreenMillis = new ArrayList<>();
+
+        Launch(String name, List<String> options) {
+            this.name = name;
+            this.options = options;
+        }
+    }
+
+    /**
+     * Runs the benchmark and prints the median and fastest times of each launch.
+     *
+     * @param args Number of runs per launch, and a CDS archive to compare with
+     * @throws IOException If a JVM cannot be started
+     * @throws InterruptedException If interrupted while waiting for a JVM
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int runs = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_RUNS;
+        Path archive = args.length > 1 ? Path.of(args[1]) : null;
+        if (GraphicsEnvironment.isHeadless()) {
+            System.out.println("Startup is measured to the first painted frame, which needs a display");
+            return;
+        }
+        if (archive != null && !Files.isRegularFile(archive)) {
+            System.out.println("No CDS archive at " + archive + "; build one with mvn -B package -Pcds");
+            archive = null;
+        }
+
+        List<Launch> launches = new ArrayList<>();
+        launches.add(new Launch("normal", List.of()));
+        launches.add(new Launch("fast startup", List.of("-Dmancala.fastStartup=true")));
+        if (archive != null) {
+            String cds = "-XX:SharedArchiveFile=" + archive;
+            launches.add(new Launch("normal, CDS", List.of(cds)));
+            launches.add(new Launch("fast startup, CDS", List.of(cds, "-Dmancala.fastStartup=true")));
+        }
+
+        for (int run = 0; run < runs; run++) {
+            for (Launch launch : launches) {
+                measure(launch);
+            }
+        }
+
+        System.out.printf("%d runs each, times from launching the JVM%n", runs);
+        for (Launch launch : launches) {
+            System.out.printf("%-18s first frame: median %4d ms, best %4d ms   game screen: median %4d ms, best %4d ms%n",
+                launch.name, median(launch.firstFrameMillis), best(launch.firstFrameMillis),
+                median(launch.gameScreenMillis), best(launch.gameScreenMillis));
+        }
+    }
+
+    /**
+     * Starts the game once as a startup probe and records when it reports
+     * each point.
+     *
+     * @param launch The launch to run and record
+     * @throws IOException If the JVM cannot be started
+     * @throws InterruptedException If interrupted while waiting for the JVM
+     */
+    private static void measure(Launch launch) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(launch.options);
+        command.addAll(Arrays.asList("-Dmancala.startupProbe=true",
+            "-cp", System.getProperty("java.class.path"), MancalaTest.class.getName()));
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+            .redirectError(ProcessBuilder.Redirect.INHERIT)
+            .start();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                if (MancalaTest.FIRST_FRAME.equals(line)) {
+                    launch.firstFrameMillis.add(millis);
+                } else if (MancalaTest.GAME_SCREEN.equals(line)) {
+                    launch.gameScreenMillis.add(millis);
+                }
+            }
+        }
+        int exitCode = process.waitFor();
+        if (exitCode != 0) {
+            throw new IllegalStateException("The " + launch.name + " launch failed with exit code " + exitCode);
+        }
+    }
+
+    /**
+     * Gets the median of the times.
+     *
+     * @param millis The times, in milliseconds
+     * @return The median, or -1 if there are none
+     */
+    private static long median(List<Long> millis) {
+        if (millis.isEmpty()) {
+            return -1;
+        }
+        List<Long> sorted = new ArrayList<>(millis);
+        sorted.sort(null);
+        return sorted.get(sorted.size() / 2);
+    }
+
+    /**
+     * Gets the fastest of the times.
+     *
+     * @param millis The times, in milliseconds
+     * @return The fastest, or -1 if there are none
+     */
+    private static long best(List<Long> millis) {
+        return millis.stream().mapToLong(Long::longValue).min().orElse(-1);
+    }
+}
@@ -0,0 +1,34 @@
+package mancala.controller;
+
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
+import mancala.model.ModelListener;
+
+/**
+ * Lets a Swing ChangeListener listen to a model, which only knows its own
+ * ModelListener. Every change is passed on as the same ChangeEvent, with
+ * the model as its source.
+ *
+ * @author CS151 Group Project
+ * @version 1.0
+ */
+public class ChangeListenerAdapter implements ModelListener {
+    private final ChangeEvent event;
+    private final ChangeListener listener;
+
+    /**
+     * Creates an adapter for one model.
+     *
+     * @param source The model, passed on as the source of each ChangeEvent
+     * @param listener The Swing listener to tell
+     */
+    public ChangeListenerAdapter(Object source, ChangeListener listener) {
+        this.event = new ChangeEvent(source);
+        this.listener = listener;
+    }
+
+    @Override
+    public void modelChanged() {
+        listener.stateChanged(event);
+    }
+}
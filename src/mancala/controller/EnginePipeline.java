@@ -0,0 +1,285 @@
+package mancala.controller;
+
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+import mancala.engine.SearchEngine;
+
+/**
+ * Runs engine searches on a background thread so the Event Dispatch Thread
+ * (EDT) never waits for one.
+ *
+ * <p>submit() copies the position, queues the search and returns at once
+ * with a Future. While the search deepens, its best move and score are
+ * passed to the Listener on the EDT, at most once per update interval; the
+ * final move follows when the search ends. Cancelling the Future (with
+ * cancel(true)) interrupts the search, which stops within a few thousand
+ * nodes, a few milliseconds at most. A cancelled search never calls its
+ * Listener again, even with updates or its final move already on their way
+ * to the EDT: those check on the EDT, where cancel is called, whether the
+ * search was abandoned. That holds for a search that has already finished
+ * too, which cancel() alone would leave uncancelled.
+ *
+ * <p>submitScores() searches the same way but scores every move exactly
+ * and passes all the scores to a ScoresListener, for hints.
+ *
+ * @author CS151 Group Project
+ * @version 1.0
+ */
+public class EnginePipeline {
+    /** Default time between progress updates on the EDT */
+    public static final long DEFAULT_UPDATE_MILLIS = 100;
+
+    private final ExecutorService executor;
+    private final long updateMillis;
+    // Only used on the executor thread
+    private final SearchEngine engine;
+
+    /**
+     * Called on the EDT with the results of a search.
+     */
+    public interface Listener {
+        /**
+         * The search completed another depth.
+         *
+         * @param depth The depth in plies
+         * @param bestMove The best pit so far
+         * @param score The score of that move for the player to move
+         */
+        void progress(int depth, int bestMove, int score);
+
+        /**
+         * The search is over.
+         *
+         * @param bestMove The pit to play, or -1 if there is no legal move
+         * @param score The score of that move for the player to move
+         */
+        void bestMove(int bestMove, int score);
+    }
+
+    /**
+     * Called on the EDT with the move scores of a search that scores every move.
+     */
+    public interface ScoresListener {
+        /**
+         * The search completed another depth, or is over.
+         *
+         * @param depth The depth in plies the scores come from
+         * @param moveScores The score of each pit for the player to move, or
+         *                   SearchEngine.NO_SCORE for pits that cannot be played
+         * @param finished true if the search is over and these are its final scores
+         */
+        void scores(int depth, int[] moveScores, boolean finished);
+    }
+
+    /**
+     * Creates a pipeline with its own engine thread.
+     *
+     * @param maxDepth Maximum search depth in plies
+     * @param moveTimeMillis Time limit per search in milliseconds, 0 for none
+     * @param updateMillis Minimum time between progress updates
+     */
+    public EnginePipeline(int maxDepth, long moveTimeMillis, long updateMillis) {
+        this.engine = new SearchEngine(maxDepth, moveTimeMillis);
+        this.updateMillis = updateMillis;
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "Mancala-Engine");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Queues a search of a position. Call on the EDT.
+     *
+     * @param board The board to search (copied)
+     * @param pitsPerSide Number of pits each side has
+     * @param player The player to move
+     * @param listener Told about progress and the result, on the EDT
+     * @return The search; its result is the best pit
+     */
+    public Future<Integer> submit(int[] board, int pitsPerSide, int player, Listener listener) {
+        Search search = new Search(board.clone(), pitsPerSide, player, listener, null);
+        executor.execute(search);
+        return search;
+    }
+
+    /**
+     * Queues a search that scores every move of a position. Call on the EDT.
+     *
+     * @param board The board to search (copied)
+     * @param pitsPerSide Number of pits each side has
+     * @param player The player to move
+     * @param listener Told about the scores at each depth, on the EDT
+     * @return The search; its result is the best pit
+     */
+    public Future<Integer> submitScores(int[] board, int pitsPerSide, int player, ScoresListener listener) {
+        Search search = new Search(board.clone(), pitsPerSide, player, null, listener);
+        executor.execute(search);
+        return search;
+    }
+
+    /**
+     * Stops the engine thread, interrupting any search.
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * One queued search and the updates it sends to the EDT.
+     */
+    private class Search extends FutureTask<Integer> {
+        private final Listener listener;
+        private final ScoresListener scoresListener;
+        private final int boardLength;
+        // Latest {depth, bestMove, score, move scores...}, reused for every update; guarded by itself
+        private final int[] update;
+        private boolean hasUpdate; // Guarded by update
+        private final int[] scores; // Only used on the engine thread
+        // Shows the update on the EDT; restarted, never recreated, for each one
+        private final Timer updateTimer;
+        private final AtomicBoolean updateScheduled = new AtomicBoolean();
+        private volatile long lastUpdate;
+        // Set by cancel(), even once the search is done; only used on the EDT
+        private boolean abandoned;
+        // Written before the result is set, so get() makes them visible
+        private int score;
+        private int depth;
+        private int[] moveScores;
+
+        Search(int[] board, int pitsPerSide, int player, Listener listener, ScoresListener scoresListener) {
+            super(() -> engine.findBestMove(board, pitsPerSide, player));
+            this.listener = listener;
+            this.scoresListener = scoresListener;
+            this.boardLength = board.length;
+            this.update = new int[scoresListener != null ? 3 + boardLength : 3];
+            this.scores = scoresListener != null ? new int[boardLength] : null;
+            this.updateTimer = new Timer(0, e -> showProgress());
+            updateTimer.setRepeats(false);
+        }
+
+        @Override
+        public void run() {
+            engine.setListener((depth, bestMove, score, nodes) -> progress(depth, bestMove, score));
+            engine.setScoreAllMoves(scoresListener != null);
+            try {
+                super.run();
+            } finally {
+                engine.setListener(null);
+                engine.setScoreAllMoves(false);
+            }
+        }
+
+        /**
+         * Keeps the latest result and makes sure one update is on its way,
+         * no sooner than updateMillis after the last one. Allocates nothing.
+         */
+        private void progress(int depth, int bestMove, int score) {
+            if (scores != null) {
+                engine.getMoveScores(scores);
+            }
+            synchronized (update) {
+                update[0] = depth;
+                update[1] = bestMove;
+                update[2] = score;
+                if (scores != null) {
+                    System.arraycopy(scores, 0, update, 3, boardLength);
+                }
+                hasUpdate = true;
+            }
+            if (updateScheduled.compareAndSet(false, true)) {
+                long wait = Math.max(0, lastUpdate + updateMillis - System.currentTimeMillis());
+                updateTimer.setInitialDelay((int) wait);
+                updateTimer.restart();
+            }
+        }
+
+        /**
+         * Runs on the EDT. The scores listener gets its own copy of the
+         * scores, since it may keep them.
+         */
+        private void showProgress() {
+            lastUpdate = System.currentTimeMillis();
+            updateScheduled.set(false);
+            if (isDone() || abandoned) {
+                return;
+            }
+            int shownDepth;
+            int shownMove;
+            int shownScore;
+            int[] moveScores = null;
+            synchronized (update) {
+                if (!hasUpdate) {
+                    return;
+                }
+                hasUpdate = false;
+                shownDepth = update[0];
+                shownMove = update[1];
+                shownScore = update[2];
+                if (scoresListener != null) {
+                    moveScores = Arrays.copyOfRange(update, 3, update.length);
+                }
+            }
+            if (scoresListener != null) {
+                scoresListener.scores(shownDepth, moveScores, false);
+            } else {
+                listener.progress(shownDepth, shownMove, shownScore);
+            }
+        }
+
+        /**
+         * Abandons the search: it never calls its listener again. Call on
+         * the EDT.
+         */
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            abandoned = true;
+            updateTimer.stop();
+            return super.cancel(mayInterruptIfRunning);
+        }
+
+        /**
+         * Runs on the engine thread, before the next search can change the
+         * engine's last score.
+         */
+        @Override
+        protected void set(Integer bestMove) {
+            score = engine.getLastScore();
+            depth = engine.getLastDepth();
+            if (scoresListener != null) {
+                moveScores = new int[boardLength];
+                engine.getMoveScores(moveScores);
+            }
+            super.set(bestMove);
+        }
+
+        @Override
+        protected void done() {
+            if (isCancelled()) {
+                return;
+            }
+            SwingUtilities.invokeLater(() -> {
+                if (abandoned) {
+                    return;
+                }
+                try {
+                    int bestMove = get();
+                    if (scoresListener != null) {
+                        scoresListener.scores(depth, moveScores, true);
+                    } else {
+                        listener.bestMove(bestMove, score);
+                    }
+                } catch (InterruptedException | ExecutionException e) {
+                    System.err.println("Engine search failed: " + e.getMessage());
+                }
+            });
+        }
+    }
+}
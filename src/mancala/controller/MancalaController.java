@@ -10,6 +10,10 @@
  *   <li>Updates view components when model state changes</li>
  *   <li>Manages style switching (Wood/Neon)</li>
  *   <li>Initializes game with user-selected stone count</li>
+ *   <li>Records games in the game journal, if one is set</li>
+ *   <li>Lets the engine play Player B, if one is set, searching off the EDT;
+ *       undo then takes back the engine's replies with the player's move</li>
+ *   <li>Shows the engine's hints for the player to move, in hint mode</li>
  * </ul>
  * 
  * @author CS151 Group Project
@@ -19,13 +23,16 @@ package mancala.controller;
 
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.util.concurrent.Future;
 import javax.swing.event.ChangeEvent;
 import javax.swing.event.ChangeListener;
 import mancala.model.MancalaModel;
+import mancala.persist.GameJournal;
+import mancala.persist.GameRecorder;
 import mancala.style.BoardStyle;
 import mancala.style.StyleA;
 import mancala.style.StyleB;
-import mancala.view.BoardPanel;
+import mancala.view.BoardView;
 import mancala.view.ControlPanel;
 import mancala.view.MancalaFrame;
 import mancala.view.PitClickListener;
@@ -35,11 +42,18 @@ public class MancalaController implements PitClickListener {
     private MancalaFrame frame;
     private BoardStyle currentStyle;
     private MancalaModel model;
+    private GameJournal journal;
+    private GameRecorder recorder;
+    private EnginePipeline engine;
+    private Future<Integer> engineSearch;
+    private MoveHints hints; // Created when hint mode is first turned on
+    private boolean hintsOn;
     
     private int undosThisTurn = 0;
     private int currentPlayerUndo = 0;
     private boolean lastActionWasUndo = false;
     private static final int MAX_UNDOS_PER_TURN = 3;
+    private static final int ENGINE_PLAYER = 2;
     
     /**
      * Constructs a new MancalaController and sets up all event listeners.
@@ -61,7 +75,7 @@ public class MancalaController implements PitClickListener {
         }
         
         ControlPanel controlPanel = frame.getControlPanel();
-        BoardPanel boardPanel = frame.getBoardPanel();
+        BoardView boardView = frame.getBoardView();
         
         // Update status label based on game state
         if (model.isGameOver()) {
@@ -94,10 +108,42 @@ public class MancalaController implements PitClickListener {
         int[] boardState = model.getBoardState();
         int currentPlayer = model.getCurrentPlayer();
         boolean gameOver = model.isGameOver();
-        boardPanel.setBoardState(boardState, currentPlayer, gameOver);
+        boardView.setBoardState(boardState, currentPlayer, gameOver);
         
         // Update undo button based on all constraints
         controlPanel.setUndoEnabled(canUndo());
+        
+        updateHints();
+    }
+    
+    /**
+     * Shows the hints for the position on the board, or takes them off
+     * when hint mode is off, the game is over or the engine is to move.
+     */
+    private void updateHints() {
+        if (hints == null) {
+            return;
+        }
+        if (!hintsOn || model == null || model.isGameOver() || isEngineTurn()) {
+            hints.clear();
+        } else {
+            hints.show(model.getBoardState(), 6, model.getCurrentPlayer());
+        }
+    }
+    
+    /**
+     * Turns hint mode on or off. The hints' engine thread is started the
+     * first time hint mode is turned on.
+     * 
+     * @param on true to show hints
+     */
+    public void setHintsOn(boolean on) {
+        hintsOn = on;
+        if (on && hints == null) {
+            hints = new MoveHints(frame.getBoardView(), MoveHints.DEFAULT_SEARCH_MILLIS);
+        }
+        frame.getControlPanel().getHintsButton().setSelected(on);
+        updateHints();
     }
     
     /**
@@ -111,38 +157,38 @@ public class MancalaController implements PitClickListener {
         if (model == null) {
             return;
         }
-        
-        ControlPanel controlPanel = frame.getControlPanel();
-        
-        // Validate: game must not be over
-        if (model.isGameOver()) {
-        	controlPanel.setStatusText("Game is over! No more moves allowed.");
-            return; // Ignore clicks when game is over
-        }
-        
-        // Validate: pit must belong to current player
-        int currentPlayer = model.getCurrentPlayer();
-        boolean isPlayerPit = false;
-        if (currentPlayer == 1) {
-            // Player 1 owns indices 0-5 (pits) and 6 (Mancala, but not clickable)
-            isPlayerPit = (pitIndex >= 0 && pitIndex <= 5);
-        } else if (currentPlayer == 2) {
-            // Player 2 owns indices 7-12 (pits) and 13 (Mancala, but not clickable)
-            isPlayerPit = (pitIndex >= 7 && pitIndex <= 12);
+        if (isEngineTurn()) {
+            frame.getControlPanel().setStatusText("Wait for the computer to move.");
+            return; // Ignore clicks while the engine is thinking
         }
+        playMove(pitIndex);
+    }
+    
+    /**
+     * Validates a move and calls model.applyMove if valid, for either a
+     * click or the engine. Starts the engine's search if it moves next.
+     * 
+     * @param pitIndex The model index of the pit to play
+     */
+    private void playMove(int pitIndex) {
+        ControlPanel controlPanel = frame.getControlPanel();
         
-        if (!isPlayerPit) {
-        	String playerName = (currentPlayer == 1) ? "Player A" : "Player B";
-            controlPanel.setStatusText("Not your pit! It's " + playerName + "'s turn.");
-            return; // Ignore clicks on opponent's pits
+        // Validate with the model's rules: game not over, own pit, pit not empty
+        switch (model.checkMove(pitIndex)) {
+            case GAME_OVER:
+                controlPanel.setStatusText("Game is over! No more moves allowed.");
+                return; // Ignore clicks when game is over
+            case NOT_YOUR_PIT:
+                String playerName = (model.getCurrentPlayer() == 1) ? "Player A" : "Player B";
+                controlPanel.setStatusText("Not your pit! It's " + playerName + "'s turn.");
+                return; // Ignore clicks on opponent's pits
+            case EMPTY_PIT:
+                controlPanel.setStatusText("That pit is empty! Choose a pit with stones.");
+                return; // Ignore clicks on empty pits
+            default:
+                break;
         }
         
-        // Validate: pit must have stones
-        int stones = model.getStonesAtPit(pitIndex);
-        if (stones == 0) {
-        	controlPanel.setStatusText("That pit is empty! Choose a pit with stones.");
-            return; // Ignore clicks on empty pits
-        }
         // Track player before move to detect turn changes
         int playerBefore = model.getCurrentPlayer();
         
@@ -151,6 +197,12 @@ public class MancalaController implements PitClickListener {
 
         // All validations passed, apply the move
         model.applyMove(pitIndex);
+        if (recorder != null) {
+            recorder.move(pitIndex, playerBefore);
+            if (model.isGameOver()) {
+                recorder.finish();
+            }
+        }
         
         // Check if turn changed after the move
         int playerAfter = model.getCurrentPlayer();
@@ -160,53 +212,76 @@ public class MancalaController implements PitClickListener {
             currentPlayerUndo = playerBefore;
         }
         updateView();
+        startEngineSearch();
+    }
+    
+    /**
+     * Undoes the last move in the model and the recorder.
+     */
+    private void undoMove() {
+        model.undo();
+        if (recorder != null) {
+            recorder.undo();
+        }
+    }
+    
+    /**
+     * Checks if it is the engine's turn in a running game.
+     * 
+     * @return true if the engine plays the current player
+     */
+    private boolean isEngineTurn() {
+        return engine != null && model != null && !model.isGameOver()
+            && model.getCurrentPlayer() == ENGINE_PLAYER;
+    }
+    
+    /**
+     * Cancels the search in flight and, if the engine moves next, starts a
+     * new one. The search runs on the engine thread; its progress is shown
+     * in the status text and its move is played here, on the EDT.
+     */
+    private void startEngineSearch() {
+        cancelEngineSearch();
+        if (!isEngineTurn()) {
+            return;
+        }
+        engineSearch = engine.submit(model.getBoardState(), 6, ENGINE_PLAYER,
+            new EnginePipeline.Listener() {
+                @Override
+                public void progress(int depth, int bestMove, int score) {
+                    frame.getControlPanel().setStatusText(String.format(
+                        "Player B (computer) is thinking: pit %d, score %+d, depth %d",
+                        bestMove - 6, score, depth));
+                }
+                
+                @Override
+                public void bestMove(int bestMove, int score) {
+                    engineSearch = null;
+                    if (bestMove >= 0) {
+                        playMove(bestMove);
+                    }
+                }
+            });
+    }
+    
+    /**
+     * Cancels the engine's search, if one is in flight. Its listener is
+     * never called again.
+     */
+    private void cancelEngineSearch() {
+        if (engineSearch != null) {
+            engineSearch.cancel(true);
+            engineSearch = null;
+        }
     }
     
     /**
      * Sets up all event listeners for view components.
-     * Configures listeners for style selection, pit clicks, and style switching during gameplay.
+     * Configures the style selection listener now; the game screen's listeners
+     * follow once the frame has built that screen, which a lazy frame does later.
      */
     private void setupListeners() {
         StyleSelectPanel styleSelectPanel = frame.getStyleSelectPanel();
-        ControlPanel controlPanel = frame.getControlPanel();
-        BoardPanel boardPanel = frame.getBoardPanel();
-        
-        // Set up pit click listener
-        boardPanel.setPitClickListener(this);
-        
-     // Listen for undo button clicks
-        controlPanel.getUndoButton().addActionListener(new ActionListener() {
-            @Override
-            public void actionPerformed(ActionEvent e) {
-                if (model != null && canUndo()) {
-                    model.undo();
-                    undosThisTurn++;
-                    lastActionWasUndo = true;
-                    currentPlayerUndo = model.getCurrentPlayer();
-                    updateView(); // Make sure view refreshes
-                }
-            }
-        });
-        
-     // Listen for new game button clicks
-        controlPanel.getNewGameButton().addActionListener(new ActionListener() {
-            @Override
-            public void actionPerformed(ActionEvent e) {
-                // Go back to style select screen
-                frame.showStyleSelect();
-                
-                // Reset controller state
-                undosThisTurn = 0;
-                lastActionWasUndo = false;
-                model = null;
-                
-                // Re-enable the stones field
-                styleSelectPanel.enableStonesField(); 
-                
-                // Go back to style select screen
-                frame.showStyleSelect();
-            }
-        });
         
         // Listen for style selection from the initial style select screen
         // Format: "styleName:stones" (e.g., "Wood:3" or "Neon:4")
@@ -226,14 +301,17 @@ public class MancalaController implements PitClickListener {
                 model = new MancalaModel(6, stones); // 6 pits per side
                 model.startGame(1); // Start with Player 1 (Player A)
                 currentPlayerUndo = 1;
+                if (journal != null) {
+                    recorder = journal.startGame(6, stones, 1);
+                }
                 
                 // Add ChangeListener to model to update view when state changes
-                model.addListener(new ChangeListener() {
+                model.addListener(new ChangeListenerAdapter(model, new ChangeListener() {
                     @Override
                     public void stateChanged(ChangeEvent e) {
                         updateView();
                     }
-                });
+                }));
                 
                 // Initial view update
                 updateView();
@@ -246,9 +324,74 @@ public class MancalaController implements PitClickListener {
             }
         });
         
+        frame.whenGameScreenBuilt(this::setupGameScreenListeners);
+    }
+    
+    /**
+     * Sets up the listeners for the game screen: pit clicks, undo, new game
+     * and style switching during gameplay.
+     */
+    private void setupGameScreenListeners() {
+        StyleSelectPanel styleSelectPanel = frame.getStyleSelectPanel();
+        ControlPanel controlPanel = frame.getControlPanel();
+        BoardView boardView = frame.getBoardView();
+        
+        // Set up pit click listener
+        boardView.setPitClickListener(this);
+        
+     // Listen for undo button clicks
+        controlPanel.getUndoButton().addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                if (model != null && canUndo()) {
+                    cancelEngineSearch();
+                    undoMove();
+                    // Against the engine, take back its replies and the player's own move
+                    while (engine != null && model.getCurrentPlayer() == ENGINE_PLAYER && model.hasHistory()) {
+                        undoMove();
+                    }
+                    undosThisTurn++;
+                    lastActionWasUndo = true;
+                    currentPlayerUndo = model.getCurrentPlayer();
+                    updateView(); // Make sure view refreshes
+                    startEngineSearch(); // Only if the history began on the engine's turn
+                }
+            }
+        });
+        
+     // Listen for new game button clicks
+        controlPanel.getNewGameButton().addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                // Go back to style select screen
+                frame.showStyleSelect();
+                
+                // Reset controller state
+                cancelEngineSearch();
+                undosThisTurn = 0;
+                lastActionWasUndo = false;
+                model = null;
+                updateHints();
+                if (recorder != null) {
+                    recorder.abandon(); // Keeps an unfinished game as in progress
+                    recorder = null;
+                }
+                
+                // Re-enable the stones field
+                styleSelectPanel.enableStonesField(); 
+                
+                // Go back to style select screen
+                frame.showStyleSelect();
+            }
+        });
+        
         // Listen for style switching during gameplay
         controlPanel.getWoodButton().addActionListener(e -> switchStyle(new StyleA()));
         controlPanel.getNeonButton().addActionListener(e -> switchStyle(new StyleB()));
+        
+        // Toggle hint mode
+        controlPanel.getHintsButton().addActionListener(
+            e -> setHintsOn(controlPanel.getHintsButton().isSelected()));
     }
     
     /**
@@ -273,11 +416,14 @@ public class MancalaController implements PitClickListener {
      * @param style The BoardStyle object to switch to
      */
     private void switchStyle(BoardStyle style) {
+        // The board is rebuilt; stop the search and start over afterwards
+        cancelEngineSearch();
         currentStyle = style;
         
-        // Apply style to board panel
-        BoardPanel boardPanel = frame.getBoardPanel();
-        boardPanel.setStyle(currentStyle);
+        // Apply style to board view
+        BoardView boardView = frame.getBoardView();
+        boardView.setStyle(currentStyle);
+        startEngineSearch();
     }
     
     /**
@@ -289,6 +435,26 @@ public class MancalaController implements PitClickListener {
         return currentStyle;
     }
     
+    /**
+     * Sets the journal new games are recorded in.
+     * 
+     * @param journal The game journal, or null to stop recording
+     */
+    public void setJournal(GameJournal journal) {
+        this.journal = journal;
+    }
+    
+    /**
+     * Sets the engine that plays Player B in new and running games.
+     * 
+     * @param engine The engine pipeline, or null for two human players
+     */
+    public void setEngine(EnginePipeline engine) {
+        cancelEngineSearch();
+        this.engine = engine;
+        startEngineSearch();
+    }
+    
     /**
      * Returns the model instance. Used by view components that need direct model access.
      * 
@@ -0,0 +1,160 @@
+package mancala.controller;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Future;
+import mancala.engine.Rules;
+import mancala.view.BoardView;
+
+/**
+ * Hint mode: shows the engine's score of every move the player to move
+ * has, on the board view.
+ *
+ * <p>show() is called on the EDT whenever the position changes. The moves
+ * are scored in the background by an EnginePipeline, and the scores on the
+ * board are replaced as the search reaches each new depth. Every position's
+ * scores are kept in a cache keyed by its hash (Rules.hash), so going back
+ * to a position seen before, as after an undo, shows its hints at once;
+ * a position whose search finished is not searched again. A search that
+ * was cut short is started again, and its scores are shown only once it
+ * gets deeper than the cached ones.
+ *
+ * @author CS151 Group Project
+ * @version 1.0
+ */
+public class MoveHints {
+    /** Default time limit of a hint search */
+    public static final long DEFAULT_SEARCH_MILLIS = 3000;
+
+    private static final int MAX_DEPTH = 40;
+    private static final int CACHE_POSITIONS = 1024;
+
+    private final BoardView view;
+    private final EnginePipeline pipeline;
+    // Least recently shown positions are dropped first
+    private final Map<Long, Hints> cache;
+    private Hints shown; // Position whose hints are on the board, null for none
+    private Future<Integer> search;
+
+    /**
+     * Scores of one position, as deep as they have been searched.
+     */
+    private static final class Hints {
+        private final int[] board;
+        private final int player;
+        private int[] scores;
+        private int depth;
+        private boolean finished;
+
+        Hints(int[] board, int player) {
+            this.board = board;
+            this.player = player;
+        }
+
+        boolean isPosition(int[] board, int player) {
+            return this.player == player && Arrays.equals(this.board, board);
+        }
+    }
+
+    /**
+     * Creates hints for a board view, with their own engine thread.
+     *
+     * @param view The view the hints are shown on
+     * @param searchMillis Time limit of a hint search in milliseconds
+     */
+    public MoveHints(BoardView view, long searchMillis) {
+        this.view = view;
+        this.pipeline = new EnginePipeline(MAX_DEPTH, searchMillis, EnginePipeline.DEFAULT_UPDATE_MILLIS);
+        this.cache = new LinkedHashMap<Long, Hints>(CACHE_POSITIONS, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Hints> eldest) {
+                return size() > CACHE_POSITIONS;
+            }
+        };
+    }
+
+    /**
+     * Shows the hints for a position, from the cache if it has them, and
+     * searches it unless that search has already finished. Call on the EDT.
+     *
+     * @param board The board
+     * @param pitsPerSide Number of pits each side has
+     * @param player The player to move
+     */
+    public void show(int[] board, int pitsPerSide, int player) {
+        if (shown != null && shown.isPosition(board, player)) {
+            return; // Already shown, and searched if it needs to be
+        }
+        cancelSearch();
+
+        long key = Rules.hash(board, player);
+        Hints hints = cache.get(key);
+        if (hints == null || !hints.isPosition(board, player)) {
+            // New position, or one that shares its hash with a cached one: replace it
+            hints = new Hints(board.clone(), player);
+            cache.put(key, hints);
+        }
+        shown = hints;
+        view.setMoveHints(hints.scores, hints.depth);
+        if (hints.finished) {
+            return;
+        }
+
+        Hints searched = hints;
+        Future<?>[] self = new Future<?>[1]; // This search, for its callback; only used on the EDT
+        search = pipeline.submitScores(board, pitsPerSide, player, (depth, moveScores, finished) -> {
+            if (depth > searched.depth) {
+                searched.scores = moveScores;
+                searched.depth = depth;
+            }
+            searched.finished |= finished;
+            if (finished && search == self[0]) {
+                search = null; // Only this search's own reference, never a newer one
+            }
+            if (shown == searched) {
+                view.setMoveHints(searched.scores, searched.depth);
+            }
+        });
+        self[0] = search;
+    }
+
+    /**
+     * Takes the hints off the board and stops searching. The cache is kept.
+     * Call on the EDT.
+     */
+    public void clear() {
+        cancelSearch();
+        if (shown != null) {
+            shown = null;
+            view.setMoveHints(null, 0);
+        }
+    }
+
+    /**
+     * Stops the engine thread. The hints cannot be shown again.
+     */
+    public void shutdown() {
+        clear();
+        pipeline.shutdown();
+    }
+
+    /**
+     * Gets the number of positions whose hints are cached.
+     *
+     * @return The number of positions
+     */
+    public int getCachedPositions() {
+        return cache.size();
+    }
+
+    /**
+     * Cancels the search in flight, if any. Its listener is never called again.
+     */
+    private void cancelSearch() {
+        if (search != null) {
+            search.cancel(true);
+            search = null;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package mancala.diag;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event for BoardPanel.setBoardState, which rebuilds the rocks of
+ * every pit from the new stone counts.
+ *
+ * @author CS151 Group Project
+ * @version 1.0
+ */
+@Name("mancala.BoardUpdate")
+@Label("Board Update")
+@Category({"Mancala", "View"})
+@Description("Pits updated from a new board state; only pits whose count changed touch their rocks")
+@StackTrace(false)
+public class BoardUpdateEvent extends Event {
+    @Label("Stones")
+    @Description("Stones on the board, stores included")
+    public int stones;
+
+    @Label("Rocks Rebuilt")
+    @Description("Stones drawn one by one in the pits that changed, whose stone layers are re-rendered; fuller pits draw a texture instead")
+    public int rocksRebuilt;
+
+    @Label("Pits Changed")
+    public int pitsChanged;
+}
@@ -0,0 +1,65 @@
+package mancala.diag;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts engine searches and nodes for JMX, over every SearchEngine in the
+ * process. Recorded once per search, so it costs nothing per node.
+ *
+ * @author CS151 Group Project
+ * @version 1.0
+ */
+public final class EngineMetrics implements EngineMetricsMBean {
+    /** The one instance, registered by Metrics */
+    public static final EngineMetrics INSTANCE = new EngineMetrics();
+
+    private final LongAdder searches = new LongAdder();
+    private final LongAdder nodes = new LongAdder();
+    private final LongAdder searchNanos = new LongAdder();
+
+    private EngineMetrics() {
+    }
+
+    /**
+     * Records a finished search.
+     *
+     * @param nodeCount Nodes the search visited
+     * @param nanos Time the search took
+     */
+    public static void searchFinished(long nodeCount, long nanos) {
+        if (Metrics.isEnabled()) {
+            INSTANCE.searches.increment();
+            INSTANCE.nodes.add(nodeCount);
+            INSTANCE.searchNanos.add(nanos);
+        }
+    }
+
+    @Override
+    public long getSearches() {
+        return searches.sum();
+    }
+
+    @Override
+    public long getNodes() {
+        return nodes.sum();
+    }
+
+    @Override
+    public double getNodesPerSecond() {
+        long nanos = searchNanos.sum();
+        return nanos == 0 ? 0 : nodes.sum() * 1e9 / nanos;
+    }
+
+    @Override
+    public double getSearchAverageMillis() {
+        long count = searches.sum();
+        return count == 0 ? 0 : searchNanos.sum() / 1e6 / count;
+    }
+
+    @Override
+    public void reset() {
+        searches.reset();
+        nodes.reset();
+        searchNanos.reset();
+    }
+}
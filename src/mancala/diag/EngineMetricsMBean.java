@@ -0,0 +1,42 @@
+package mancala.diag;
+
+/**
+ * JMX view of EngineMetrics, registered as mancala:type=Engine.
+ *
+ * @author CS151 Group Project
+ * @version 1.0
+ */
+public interface EngineMetricsMBean {
+    /**
+     * Getter
+     *
+     * @return Searches finished
+     */
+    long getSearches();
+
+    /**
+     * Getter
+     *
+     * @return Nodes searched
+     */
+    long getNodes();
+
+    /**
+     * Getter
+     *
+     * @return Nodes per second of search time, over all searches
+     */
+    double getNodesPerSecond();
+
+    /**
+     * Getter
+     *
+     * @return Mean search time in milliseconds
+     */
+    double getSearchAverageMillis();
+
+    /**
+     * Sets every counter back to zero.
+     */
+    void reset();
+}
@@ -0,0 +1,32 @@
+package mancala.diag;
+
+import jdk.jfr.FlightRecorder;
+
+/**
+ * Tells the instrumented code whether to create its JFR events at all.
+ *
+ * <p>Loading the first event class sets up JFR's event metadata, which
+ * takes hundreds of classes and milliseconds, even with no recording
+ * running. Code that may run in a headless tool checks isActive() first,
+ * so the events are only loaded once Java Flight Recorder has been started,
+ * on the command line or later with jcmd:
+ * <pre>
+ * MoveEvent event = FlightRecording.isActive() ? new MoveEvent() : null;
+ * </pre>
+ *
+ * @author CS151 Group Project
+ * @version 1.0
+ */
+public final class FlightRecording {
+    private FlightRecording() {
+    }
+
+    /**
+     * Checks if Java Flight Recorder has been started in this JVM.
+     *
+     * @return True once JFR is running, so events may be recorded
+     */
+    public static boolean isActive() {
+        return FlightRecorder.isInitialized();
+    }
+}
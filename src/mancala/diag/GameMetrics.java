@@ -0,0 +1,116 @@
+package mancala.diag;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts games, moves and undos for JMX, over every model in the process:
+ * the desktop game, hosted games and server sessions.
+ *
+ * <p>The record methods are called on the hot path. They do nothing while
+ * Metrics is disabled and otherwise only add to LongAdders, so threads
+ * recording at once do not contend.
+ *
+ * @author CS151 Group Project
+ * @version 1.0
+ */
+public final class GameMetrics implements GameMetricsMBean {
+    /** The one instance, registered by Metrics */
+    public static final GameMetrics INSTANCE = new GameMetrics();
+
+    private final LongAdder gamesStarted = new LongAdder();
+    private final LongAdder gamesFinished = new LongAdder();
+    private final LongAdder moves = new LongAdder();
+    private final LongAdder undos = new LongAdder();
+    private final LatencyHistogram applyMove = new LatencyHistogram();
+    private final RateSampler moveRate = new RateSampler();
+
+    private GameMetrics() {
+    }
+
+    /**
+     * Records a new game.
+     */
+    public static void gameStarted() {
+        if (Metrics.isEnabled()) {
+            INSTANCE.gamesStarted.increment();
+        }
+    }
+
+    /**
+     * Records a move.
+     *
+     * @param nanos Time the move took, or 0 if it was not timed
+     * @param gameOver True if the move ended the game
+     */
+    public static void moveApplied(long nanos, boolean gameOver) {
+        if (Metrics.isEnabled()) {
+            INSTANCE.moves.increment();
+            if (gameOver) {
+                INSTANCE.gamesFinished.increment();
+            }
+            if (nanos > 0) {
+                INSTANCE.applyMove.record(nanos);
+            }
+        }
+    }
+
+    /**
+     * Records an undo.
+     */
+    public static void undone() {
+        if (Metrics.isEnabled()) {
+            INSTANCE.undos.increment();
+        }
+    }
+
+    @Override
+    public long getGamesStarted() {
+        return gamesStarted.sum();
+    }
+
+    @Override
+    public long getGamesFinished() {
+        return gamesFinished.sum();
+    }
+
+    @Override
+    public long getMoves() {
+        return moves.sum();
+    }
+
+    @Override
+    public double getMovesPerSecond() {
+        return moveRate.rate(moves.sum());
+    }
+
+    @Override
+    public long getUndos() {
+        return undos.sum();
+    }
+
+    @Override
+    public double getUndoRate() {
+        long moveCount = moves.sum();
+        return moveCount == 0 ? 0 : (double) undos.sum() / moveCount;
+    }
+
+    @Override
+    public double getApplyMoveAverageMicros() {
+        return applyMove.mean() / 1e3;
+    }
+
+    @Override
+    public double getApplyMoveP99Micros() {
+        return applyMove.percentile(99) / 1e3;
+    }
+
+    @Override
+    public void reset() {
+        gamesStarted.reset();
+        gamesFinished.reset();
+        moves.reset();
+        undos.reset();
+        applyMove.reset();
+        moveRate.reset();
+    }
+}
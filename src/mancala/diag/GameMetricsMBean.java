@@ -0,0 +1,70 @@
+package mancala.diag;
+
+/**
+ * JMX view of GameMetrics, registered as mancala:type=Game.
+ *
+ * @author CS151 Group Project
+ * @version 1.0
+ */
+public interface GameMetricsMBean {
+    /**
+     * Getter
+     *
+     * @return Games started
+     */
+    long getGamesStarted();
+
+    /**
+     * Getter
+     *
+     * @return Games played to the end
+     */
+    long getGamesFinished();
+
+    /**
+     * Getter
+     *
+     * @return Moves applied
+     */
+    long getMoves();
+
+    /**
+     * Getter
+     *
+     * @return Moves per second since the previous read, at least a second ago
+     */
+    double getMovesPerSecond();
+
+    /**
+     * Getter
+     *
+     * @return Moves taken back
+     */
+    long getUndos();
+
+    /**
+     * Getter
+     *
+     * @return Undos per move applied
+     */
+    double getUndoRate();
+
+    /**
+     * Getter
+     *
+     * @return Mean MancalaModel.applyMove time in microseconds, listener dispatch excluded
+     */
+    double getApplyMoveAverageMicros();
+
+    /**
+     * Getter
+     *
+     * @return 99th percentile applyMove time in microseconds
+     */
+    double getApplyMoveP99Micros();
+
+    /**
+     * Sets every counter back to zero.
+     */
+    void reset();
+}
@@ -0,0 +1,131 @@
+package mancala.diag;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram of durations in nanoseconds, for any number of recording
+ * threads.
+ *
+ * <p>Every bucket is a LongAdder, so threads recording at the same time
+ * update different cells instead of fighting over one counter. Buckets
+ * split every power of two into four, so percentiles are accurate to
+ * about 12%, from nanoseconds to hours.
+ *
+ * @author CS151 Group Project
+ * @version 1.0
+ */
+public final class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 2;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = 64 * SUB_BUCKETS;
+
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+
+    /**
+     * Creates an empty histogram.
+     */
+    public LatencyHistogram() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Records a duration.
+     *
+     * @param nanos The duration in nanoseconds; negative values count as 0
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        buckets[bucket(value)].increment();
+        count.increment();
+        sum.add(value);
+    }
+
+    /**
+     * Getter
+     *
+     * @return The number of durations recorded
+     */
+    public long count() {
+        return count.sum();
+    }
+
+    /**
+     * Getter
+     *
+     * @return The mean duration in nanoseconds, or 0 if none was recorded
+     */
+    public double mean() {
+        long n = count.sum();
+        return n == 0 ? 0 : (double) sum.sum() / n;
+    }
+
+    /**
+     * Works out a percentile. Recording may go on meanwhile; the result
+     * then includes some of the new durations.
+     *
+     * @param percentile The percentile, 0 to 100
+     * @return The middle of the bucket holding that percentile, in nanoseconds, or 0 if empty
+     */
+    public double percentile(double percentile) {
+        long[] counts = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets[i].sum();
+            total += counts[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return (lowerBound(i) + (double) lowerBound(i + 1)) / 2;
+            }
+        }
+        return lowerBound(BUCKETS - 1);
+    }
+
+    /**
+     * Clears the histogram. Durations recorded meanwhile may be kept or lost.
+     */
+    public void reset() {
+        for (LongAdder bucket : buckets) {
+            bucket.reset();
+        }
+        count.reset();
+        sum.reset();
+    }
+
+    /**
+     * The bucket of a value: its power of two, then which quarter of it.
+     */
+    private static int bucket(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    /**
+     * The smallest value in a bucket.
+     */
+    private static long lowerBound(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        int sub = bucket % SUB_BUCKETS;
+        if (exponent >= 63) {
+            return Long.MAX_VALUE;
+        }
+        return (long) (SUB_BUCKETS + sub) << (exponent - SUB_BUCKET_BITS);
+    }
+}
@@ -0,0 +1,104 @@
+package mancala.diag;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size ring of the latest samples, such as durations in nanoseconds.
+ *
+ * <p>Recording is lock-free and allocation-free: one atomic increment to
+ * claim a slot and one store, from any number of threads. Readers copy the
+ * ring without stopping the writers; a copy taken while a sample is being
+ * recorded may miss that sample, which is fine for statistics.
+ *
+ * @author CS151 Group Project
+ * @version 1.0
+ */
+public final class LatencyRing {
+    private final AtomicLongArray samples;
+    private final AtomicLong recorded = new AtomicLong();
+    private final int mask;
+
+    /**
+     * Creates a ring.
+     *
+     * @param capacity Number of samples kept, a power of two
+     */
+    public LatencyRing(int capacity) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two: " + capacity);
+        }
+        this.samples = new AtomicLongArray(capacity);
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Records a sample, overwriting the oldest once the ring is full.
+     *
+     * @param value The sample
+     */
+    public void record(long value) {
+        long slot = recorded.getAndIncrement();
+        samples.setRelease((int) (slot & mask), value);
+    }
+
+    /**
+     * Getter
+     *
+     * @return The latest sample, or 0 if none was recorded
+     */
+    public long last() {
+        long count = recorded.get();
+        return count == 0 ? 0 : samples.getAcquire((int) ((count - 1) & mask));
+    }
+
+    /**
+     * Getter
+     *
+     * @return The number of samples ever recorded
+     */
+    public long count() {
+        return recorded.get();
+    }
+
+    /**
+     * Getter
+     *
+     * @return The number of samples the ring keeps
+     */
+    public int capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Copies the samples kept, in no particular order.
+     *
+     * @param into Receives the samples; at least capacity() long
+     * @return The number of samples copied
+     */
+    public int copyTo(long[] into) {
+        int count = (int) Math.min(recorded.get(), mask + 1);
+        for (int i = 0; i < count; i++) {
+            into[i] = samples.getAcquire(i);
+        }
+        return count;
+    }
+
+    /**
+     * Works out a percentile of the samples kept.
+     *
+     * @param percentile The percentile, 0 to 100
+     * @param scratch Work space; at least capacity() long
+     * @return The sample at that percentile, or 0 if there are none
+     */
+    public long percentile(double percentile, long[] scratch) {
+        int count = copyTo(scratch);
+        if (count == 0) {
+            return 0;
+        }
+        Arrays.sort(scratch, 0, count);
+        int index = (int) Math.ceil(percentile / 100 * count) - 1;
+        return scratch[Math.max(0, Math.min(count - 1, index))];
+    }
+}
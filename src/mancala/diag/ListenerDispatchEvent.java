@@ -0,0 +1,26 @@
+package mancala.diag;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event for notifying a model's listeners of a change. On the EDT
+ * this includes everything the listeners do, such as the controller
+ * updating the view (see BoardUpdateEvent).
+ *
+ * @author CS151 Group Project
+ * @version 1.0
+ */
+@Name("mancala.ListenerDispatch")
+@Label("Listener Dispatch")
+@Category({"Mancala", "Model"})
+@Description("Model listeners notified of a change")
+@StackTrace(false)
+public class ListenerDispatchEvent extends Event {
+    @Label("Listeners")
+    public int listenerCount;
+}
@@ -0,0 +1,66 @@
+package mancala.diag;
+
+import java.lang.management.ManagementFactory;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Publishes GameMetrics, EngineMetrics and PaintMetrics as MBeans, for
+ * JConsole, VisualVM or any other JMX client attached to the process.
+ *
+ * <p>Nothing is recorded until register() is called, so a process that
+ * does not ask for metrics pays one volatile read per hook. The entry
+ * points call registerIfRequested(), which registers when the system
+ * property mancala.jmx is true.
+ *
+ * @author CS151 Group Project
+ * @version 1.0
+ */
+public final class Metrics {
+    private static volatile boolean enabled;
+
+    private Metrics() {
+    }
+
+    /**
+     * Getter
+     *
+     * @return True once the MBeans are registered and recording
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Registers the MBeans if -Dmancala.jmx=true was given. Reports a
+     * failure instead of throwing it, since metrics are optional.
+     */
+    public static void registerIfRequested() {
+        if (!Boolean.getBoolean("mancala.jmx")) {
+            return;
+        }
+        try {
+            register();
+        } catch (JMException e) {
+            System.err.println("Could not register the JMX metrics: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Registers the MBeans with the platform MBean server and starts
+     * recording. Calling it again does nothing.
+     *
+     * @throws JMException If the MBeans cannot be registered
+     */
+    public static synchronized void register() throws JMException {
+        if (enabled) {
+            return;
+        }
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        server.registerMBean(GameMetrics.INSTANCE, new ObjectName("mancala:type=Game"));
+        server.registerMBean(EngineMetrics.INSTANCE, new ObjectName("mancala:type=Engine"));
+        server.registerMBean(PaintMetrics.INSTANCE, new ObjectName("mancala:type=Paint"));
+        enabled = true;
+    }
+}
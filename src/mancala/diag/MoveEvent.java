@@ -0,0 +1,38 @@
+package mancala.diag;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event for one MancalaModel.applyMove: sowing, captures and the end
+ * of game check, without the listener dispatch that follows it (see
+ * ListenerDispatchEvent).
+ *
+ * @author CS151 Group Project
+ * @version 1.0
+ */
+@Name("mancala.Move")
+@Label("Move")
+@Category({"Mancala", "Model"})
+@Description("A move applied to the model")
+@StackTrace(false)
+public class MoveEvent extends Event {
+    @Label("Pit")
+    public int pit;
+
+    @Label("Player")
+    public int player;
+
+    @Label("Stones Sown")
+    public int stonesSown;
+
+    @Label("Extra Turn")
+    public boolean extraTurn;
+
+    @Label("Game Over")
+    public boolean gameOver;
+}
@@ -0,0 +1,36 @@
+package mancala.diag;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event for one BoardPanel.paintComponent, on the EDT or on the
+ * active rendering thread.
+ *
+ * @author CS151 Group Project
+ * @version 1.0
+ */
+@Name("mancala.Paint")
+@Label("Board Paint")
+@Category({"Mancala", "View"})
+@Description("The board painted once")
+@StackTrace(false)
+public class PaintEvent extends Event {
+    @Label("Width")
+    public int width;
+
+    @Label("Height")
+    public int height;
+
+    @Label("Layer Rendered")
+    @Description("The cached board layer was rendered again, not just copied")
+    public boolean layerRendered;
+
+    @Label("Stones Painted")
+    @Description("Stones on the board when the layer was rendered, 0 if it was copied")
+    public int stonesPainted;
+}
@@ -0,0 +1,77 @@
+package mancala.diag;
+
+/**
+ * Times board paints on the Event Dispatch Thread (EDT) for JMX. Paints on
+ * the active rendering thread do not hold up the EDT and are not counted;
+ * instead that thread reports its frame pacing once a second, which the
+ * performance overlay shows too.
+ *
+ * @author CS151 Group Project
+ * @version 1.0
+ */
+public final class PaintMetrics implements PaintMetricsMBean {
+    /** The one instance, registered by Metrics */
+    public static final PaintMetrics INSTANCE = new PaintMetrics();
+
+    private final LatencyHistogram paints = new LatencyHistogram();
+    // Frame pacing of the active rendering thread over its last full second, -1 before one
+    private volatile double activeFrameAverageMillis = -1;
+    private volatile double activeFrameMaxMillis = -1;
+
+    private PaintMetrics() {
+    }
+
+    /**
+     * Records a paint on the EDT.
+     *
+     * @param nanos Time the paint took, or 0 if it was not timed
+     */
+    public static void edtPainted(long nanos) {
+        if (nanos > 0 && Metrics.isEnabled()) {
+            INSTANCE.paints.record(nanos);
+        }
+    }
+
+    /**
+     * Records the frame pacing of the active rendering thread over the
+     * last second. Always kept, whether or not metrics are enabled: it
+     * costs one call a second.
+     *
+     * @param averageMillis Average time between frames in milliseconds
+     * @param maxMillis Longest time between two frames in milliseconds
+     */
+    public static void activeFramePacing(double averageMillis, double maxMillis) {
+        INSTANCE.activeFrameAverageMillis = averageMillis;
+        INSTANCE.activeFrameMaxMillis = maxMillis;
+    }
+
+    @Override
+    public double getActiveFrameIntervalAverageMillis() {
+        return activeFrameAverageMillis;
+    }
+
+    @Override
+    public double getActiveFrameIntervalMaxMillis() {
+        return activeFrameMaxMillis;
+    }
+
+    @Override
+    public long getEdtPaints() {
+        return paints.count();
+    }
+
+    @Override
+    public double getEdtPaintAverageMillis() {
+        return paints.mean() / 1e6;
+    }
+
+    @Override
+    public double getEdtPaintP99Millis() {
+        return paints.percentile(99) / 1e6;
+    }
+
+    @Override
+    public void reset() {
+        paints.reset();
+    }
+}
@@ -0,0 +1,51 @@
+package mancala.diag;
+
+/**
+ * JMX view of PaintMetrics, registered as mancala:type=Paint.
+ *
+ * @author CS151 Group Project
+ * @version 1.0
+ */
+public interface PaintMetricsMBean {
+    /**
+     * Getter
+     *
+     * @return Board paints on the EDT
+     */
+    long getEdtPaints();
+
+    /**
+     * Getter
+     *
+     * @return Mean board paint time on the EDT in milliseconds
+     */
+    double getEdtPaintAverageMillis();
+
+    /**
+     * Getter
+     *
+     * @return 99th percentile board paint time on the EDT in milliseconds
+     */
+    double getEdtPaintP99Millis();
+
+    /**
+     * Getter
+     *
+     * @return Average time between active rendering frames over the last
+     *         second in milliseconds, or -1 without active rendering
+     */
+    double getActiveFrameIntervalAverageMillis();
+
+    /**
+     * Getter
+     *
+     * @return Longest time between two active rendering frames over the
+     *         last second in milliseconds, or -1 without active rendering
+     */
+    double getActiveFrameIntervalMaxMillis();
+
+    /**
+     * Sets every counter back to zero.
+     */
+    void reset();
+}
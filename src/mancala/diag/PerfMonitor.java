@@ -0,0 +1,114 @@
+package mancala.diag;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Live timings for the performance overlay: model moves, listener
+ * dispatch, board paints and frame times, each kept in a LatencyRing.
+ *
+ * <p>Collection is on while at least one user, such as a shown overlay,
+ * holds it through acquire() and has not called release() yet. While it is
+ * off, and the JMX Metrics are not registered either, the code being measured pays two
+ * volatile reads per measurement and never reads the clock. stop() hands
+ * the duration back for the JMX metrics:
+ * <pre>
+ * long start = PerfMonitor.start();
+ * ...
+ * long nanos = PerfMonitor.stop(PerfMonitor.MOVE, start);
+ * </pre>
+ *
+ * @author CS151 Group Project
+ * @version 1.0
+ */
+public final class PerfMonitor {
+    /** Samples kept per ring */
+    public static final int SAMPLES = 256;
+
+    /** MancalaModel.applyMove durations in nanoseconds, without listener dispatch */
+    public static final LatencyRing MOVE = new LatencyRing(SAMPLES);
+    /** Durations of notifying a model's listeners, in nanoseconds */
+    public static final LatencyRing DISPATCH = new LatencyRing(SAMPLES);
+    /** BoardPanel.paintComponent durations in nanoseconds */
+    public static final LatencyRing PAINT = new LatencyRing(SAMPLES);
+    /** System.nanoTime() at the end of every board paint, for frames per second */
+    public static final LatencyRing FRAMES = new LatencyRing(SAMPLES);
+
+    private static volatile boolean enabled;
+    private static int users; // Guarded by the class lock
+
+    private PerfMonitor() {
+    }
+
+    /**
+     * Turns collection on for one more user. Every call must be matched by
+     * one call to release().
+     */
+    public static synchronized void acquire() {
+        users++;
+        enabled = true;
+    }
+
+    /**
+     * Gives up one user's hold on collection; it stops when no user is left.
+     */
+    public static synchronized void release() {
+        if (users > 0) {
+            users--;
+        }
+        enabled = users > 0;
+    }
+
+    /**
+     * Getter
+     *
+     * @return True if timings are being collected
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Starts a measurement.
+     *
+     * @return The start time, or 0 if neither the overlay nor JMX wants timings
+     */
+    public static long start() {
+        return enabled || Metrics.isEnabled() ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Ends a measurement and records its duration in the ring if
+     * collection is on.
+     *
+     * @param ring The ring to record in
+     * @param start The value start() returned; nothing is measured if it is 0
+     * @return The duration in nanoseconds, or 0 if nothing was measured
+     */
+    public static long stop(LatencyRing ring, long start) {
+        if (start == 0) {
+            return 0;
+        }
+        long nanos = System.nanoTime() - start;
+        if (enabled) {
+            ring.record(nanos);
+        }
+        return nanos;
+    }
+
+    /**
+     * Reads the bytes allocated by all live threads so far, as counted by
+     * the JVM's ThreadMXBean.
+     *
+     * @return Bytes allocated, or -1 if the JVM does not count them
+     */
+    public static long allocatedBytes() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean sunThreads
+                && sunThreads.isThreadAllocatedMemorySupported()
+                && sunThreads.isThreadAllocatedMemoryEnabled()) {
+            return sunThreads.getTotalThreadAllocatedBytes();
+        }
+        return -1;
+    }
+}
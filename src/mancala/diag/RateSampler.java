@@ -0,0 +1,44 @@
+package mancala.diag;
+
+/**
+ * Turns a growing counter into a rate per second for JMX attributes.
+ * The rate is measured between reads at least a second apart; a read
+ * sooner than that returns the last rate, so a console polling fast does
+ * not see noise.
+ *
+ * @author CS151 Group Project
+ * @version 1.0
+ */
+final class RateSampler {
+    private static final long MIN_INTERVAL_NANOS = 1_000_000_000L;
+
+    private long lastCount;
+    private long lastNanos = System.nanoTime();
+    private double rate;
+
+    /**
+     * Works out the rate.
+     *
+     * @param count The counter now
+     * @return Counts per second
+     */
+    synchronized double rate(long count) {
+        long now = System.nanoTime();
+        long elapsed = now - lastNanos;
+        if (elapsed >= MIN_INTERVAL_NANOS) {
+            rate = (count - lastCount) * 1e9 / elapsed;
+            lastCount = count;
+            lastNanos = now;
+        }
+        return rate;
+    }
+
+    /**
+     * Starts measuring again from zero.
+     */
+    synchronized void reset() {
+        lastCount = 0;
+        lastNanos = System.nanoTime();
+        rate = 0;
+    }
+}
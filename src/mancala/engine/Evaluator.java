@@ -0,0 +1,31 @@
+package mancala.engine;
+
+/**
+ * Static evaluation for SearchEngine: scores a position where the game is
+ * not over, from the point of view of the player to move.
+ *
+ * <p>The search calls it at every leaf, so an implementation must not
+ * allocate and should be cheap. Scores may use any unit, but must stay
+ * far below SearchEngine.WIN_SCORE, so a won game ranks above any
+ * evaluation. Implementations that share state between calls are not
+ * thread-safe; SearchEngine only calls its evaluator from its own thread.
+ *
+ * @author CS151 Group Project
+ * @version 1.0
+ */
+@FunctionalInterface
+public interface Evaluator {
+    /** Store difference alone, in stones: the engine's default */
+    Evaluator STORE_DIFFERENCE = (board, pitsPerSide, player) ->
+        board[Rules.store(pitsPerSide, player)] - board[Rules.store(pitsPerSide, 3 - player)];
+
+    /**
+     * Scores a position.
+     *
+     * @param board The board (not modified)
+     * @param pitsPerSide Number of pits each side has
+     * @param player The player to move
+     * @return The score for the player to move; higher is better
+     */
+    int evaluate(int[] board, int pitsPerSide, int player);
+}
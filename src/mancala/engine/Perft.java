@@ -0,0 +1,387 @@
+package mancala.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import mancala.model.MancalaModel;
+
+/**
+ * Perft: counts the leaves of the game tree to a fixed depth, as a
+ * correctness check and a speed measure for rules implementations.
+ *
+ * <p>Every move is one ply, an extra turn included, and a game that ends
+ * before the depth is reached is a leaf too. Counting the same tree with
+ * Rules and with MancalaModel must give the same numbers, since both
+ * implement sowing, extra turns, captures and the end of the game; the
+ * counts for the standard board are kept in KNOWN_COUNTS, so a faster
+ * Rules can be checked in seconds.
+ *
+ * <p>Modes:
+ * <ul>
+ *   <li>count: the number of leaves, with nodes per second</li>
+ *   <li>divide: the number of leaves under each first move</li>
+ *   <li>check: counts every depth up to the given one with both Rules and
+ *       MancalaModel, and with KNOWN_COUNTS on the standard board</li>
+ * </ul>
+ * With more than one thread, the tree is split into subtrees a few plies
+ * down and the subtrees are counted in parallel.
+ *
+ * <p>To run from command line:
+ * <pre>
+ * java mancala.engine.Perft &lt;count|divide|check&gt; &lt;depth&gt; [threads] [position]
+ * </pre>
+ * The position is a starting board such as 6x4 (pits per side x stones
+ * per pit, the default), or the player to move and the whole board, such
+ * as 2:0,5,5,5,5,4,0,4,4,4,4,4,4,0.
+ *
+ * @author CS151 Group Project
+ * @version 1.0
+ */
+public class Perft {
+    /** Leaves from the standard start, 6 pits of 4 stones, by depth starting at 1 */
+    public static final long[] KNOWN_COUNTS = {
+        6, 35, 185, 942, 4690, 23233, 114430, 563055, 2763490, 13519608, 65870790, 318739906,
+    };
+
+    /** Subtrees to split into per thread, so threads finish at about the same time */
+    private static final int TASKS_PER_THREAD = 16;
+
+    private final int pitsPerSide;
+    // boards[d] holds the children of a node with d plies left
+    private final int[][] boards;
+
+    /**
+     * Creates a counter for trees up to a depth.
+     *
+     * @param pitsPerSide Number of pits each side has
+     * @param maxDepth The deepest tree it will count
+     */
+    public Perft(int pitsPerSide, int maxDepth) {
+        this.pitsPerSide = pitsPerSide;
+        this.boards = new int[maxDepth + 1][pitsPerSide * 2 + 2];
+    }
+
+    /**
+     * Counts the leaves below a position. Allocates nothing.
+     *
+     * @param board The board, not modified
+     * @param player The player to move, or Rules.GAME_OVER
+     * @param depth Plies to look ahead, at most the counter's maximum depth
+     * @return The number of leaves
+     */
+    public long count(int[] board, int player, int depth) {
+        if (depth == 0 || player == Rules.GAME_OVER) {
+            return 1;
+        }
+        int first = Rules.firstPit(pitsPerSide, player);
+        int end = first + pitsPerSide;
+        if (depth == 1) {
+            // Every move leads to a leaf, whether the game ends or not
+            int moves = 0;
+            for (int pit = first; pit < end; pit++) {
+                if (board[pit] > 0) {
+                    moves++;
+                }
+            }
+            return moves;
+        }
+        int[] child = boards[depth];
+        long nodes = 0;
+        for (int pit = first; pit < end; pit++) {
+            if (board[pit] > 0) {
+                System.arraycopy(board, 0, child, 0, board.length);
+                int next = Rules.applyMove(child, pitsPerSide, player, pit);
+                nodes += count(child, next, depth - 1);
+            }
+        }
+        return nodes;
+    }
+
+    /**
+     * Counts the leaves below a position with MancalaModel instead of Rules.
+     * Much slower; for checking Rules against the model.
+     *
+     * @param model The game, returned to its position afterwards
+     * @param depth Plies to look ahead
+     * @return The number of leaves
+     */
+    public static long countWithModel(MancalaModel model, int depth) {
+        if (depth == 0 || model.isGameOver()) {
+            return 1;
+        }
+        int[] board = model.getBoardState();
+        int player = model.getCurrentPlayer();
+        long nodes = 0;
+        for (int pit = 0; pit < board.length; pit++) {
+            if (model.isValidMove(pit)) {
+                model.applyMove(pit);
+                nodes += countWithModel(model, depth - 1);
+                model.restore(board, player, -1, null);
+            }
+        }
+        return nodes;
+    }
+
+    /**
+     * Counts the leaves under each first move, splitting the tree across
+     * threads.
+     *
+     * @param board The board
+     * @param pitsPerSide Number of pits each side has
+     * @param player The player to move, 1 or 2
+     * @param depth Plies to look ahead, at least 1
+     * @param threads Threads to count with
+     * @return Leaves by pit index of the first move, 0 for pits that cannot be played
+     * @throws InterruptedException If interrupted while waiting for the threads
+     * @throws IllegalArgumentException If the depth is below 1 or no player is to move
+     */
+    public static long[] divide(int[] board, int pitsPerSide, int player, int depth, int threads)
+            throws InterruptedException {
+        if (depth < 1) {
+            throw new IllegalArgumentException("Divide needs a depth of at least 1, got " + depth);
+        }
+        if (player != 1 && player != 2) {
+            throw new IllegalArgumentException("Divide needs a player to move, got " + player);
+        }
+        long[] counts = new long[board.length];
+        List<Subtree> subtrees = split(board, pitsPerSide, player, depth, threads, counts);
+
+        if (threads <= 1) {
+            Perft perft = new Perft(pitsPerSide, depth);
+            for (Subtree subtree : subtrees) {
+                counts[subtree.rootPit] += perft.count(subtree.board, subtree.player, subtree.depth);
+            }
+            return counts;
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Long>> results = new ArrayList<>();
+            for (Subtree subtree : subtrees) {
+                results.add(pool.submit(
+                    () -> new Perft(pitsPerSide, subtree.depth).count(subtree.board, subtree.player, subtree.depth)));
+            }
+            for (int i = 0; i < subtrees.size(); i++) {
+                counts[subtrees.get(i).rootPit] += results.get(i).get();
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Counting a subtree failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+        return counts;
+    }
+
+    /**
+     * Counts the leaves below a position, splitting the tree across threads.
+     *
+     * @param board The board
+     * @param pitsPerSide Number of pits each side has
+     * @param player The player to move, or Rules.GAME_OVER
+     * @param depth Plies to look ahead
+     * @param threads Threads to count with
+     * @return The number of leaves
+     * @throws InterruptedException If interrupted while waiting for the threads
+     */
+    public static long count(int[] board, int pitsPerSide, int player, int depth, int threads)
+            throws InterruptedException {
+        if (depth == 0 || player == Rules.GAME_OVER) {
+            return 1;
+        }
+        long nodes = 0;
+        for (long count : divide(board, pitsPerSide, player, depth, threads)) {
+            nodes += count;
+        }
+        return nodes;
+    }
+
+    /**
+     * A position a few plies down, counted on its own.
+     */
+    private static final class Subtree {
+        private final int rootPit;
+        private final int[] board;
+        private final int player;
+        private final int depth;
+
+        Subtree(int rootPit, int[] board, int player, int depth) {
+            this.rootPit = rootPit;
+            this.board = board;
+            this.player = player;
+            this.depth = depth;
+        }
+    }
+
+    /**
+     * Expands the tree ply by ply until there are enough subtrees for the
+     * threads. Leaves met on the way are added to counts directly.
+     */
+    private static List<Subtree> split(int[] board, int pitsPerSide, int player, int depth, int threads,
+            long[] counts) {
+        List<Subtree> subtrees = expand(List.of(new Subtree(-1, board, player, depth)), pitsPerSide, counts);
+        while (subtrees.size() < threads * TASKS_PER_THREAD && threads > 1) {
+            List<Subtree> next = expand(subtrees, pitsPerSide, counts);
+            if (next.size() <= subtrees.size()) {
+                return next;
+            }
+            subtrees = next;
+        }
+        return subtrees;
+    }
+
+    /**
+     * Plays every move of every subtree one ply deep.
+     */
+    private static List<Subtree> expand(List<Subtree> subtrees, int pitsPerSide, long[] counts) {
+        List<Subtree> children = new ArrayList<>();
+        for (Subtree subtree : subtrees) {
+            if (subtree.depth == 0 || subtree.player == Rules.GAME_OVER) {
+                counts[subtree.rootPit]++;
+                continue;
+            }
+            int first = Rules.firstPit(pitsPerSide, subtree.player);
+            for (int pit = first; pit < first + pitsPerSide; pit++) {
+                if (subtree.board[pit] > 0) {
+                    int[] child = subtree.board.clone();
+                    int next = Rules.applyMove(child, pitsPerSide, subtree.player, pit);
+                    int rootPit = subtree.rootPit < 0 ? pit : subtree.rootPit;
+                    children.add(new Subtree(rootPit, child, next, subtree.depth - 1));
+                }
+            }
+        }
+        return children;
+    }
+
+    /**
+     * Runs perft from the command line.
+     *
+     * @param args count, divide or check; the depth; optionally the number of threads and the position
+     * @throws InterruptedException If interrupted while counting
+     */
+    public static void main(String[] args) throws InterruptedException {
+        if (args.length < 2) {
+            System.err.println("Usage: java mancala.engine.Perft <count|divide|check> <depth> [threads] [position]");
+            System.err.println("  position: 6x4 (pits per side x stones per pit, the default)");
+            System.err.println("            or player:board, such as 2:0,5,5,5,5,4,0,4,4,4,4,4,4,0");
+            System.exit(2);
+        }
+        String mode = args[0];
+        int depth = Integer.parseInt(args[1]);
+        if (depth < 0) {
+            System.err.println("Depth must not be negative: " + depth);
+            System.exit(2);
+        }
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        String position = args.length > 3 ? args[3] : "6x4";
+
+        int player = 1;
+        int[] board;
+        boolean standardStart = false;
+        if (position.contains("x")) {
+            String[] size = position.split("x");
+            board = Rules.newBoard(Integer.parseInt(size[0]), Integer.parseInt(size[1]));
+            standardStart = position.equals("6x4");
+        } else {
+            String[] parts = position.split(":");
+            player = Integer.parseInt(parts[0]);
+            if (player != 1 && player != 2) {
+                System.err.println("Player to move must be 1 or 2: " + parts[0]);
+                System.exit(2);
+            }
+            String[] pits = parts[1].split(",");
+            board = new int[pits.length];
+            for (int i = 0; i < pits.length; i++) {
+                board[i] = Integer.parseInt(pits[i].trim());
+            }
+        }
+        if (board.length < 4 || board.length % 2 != 0) {
+            System.err.println("A board needs two sides of at least one pit and a store each: " + position);
+            System.exit(2);
+        }
+        int pitsPerSide = board.length / 2 - 1;
+
+        switch (mode) {
+            case "count":
+                printCount(board, pitsPerSide, player, depth, threads);
+                break;
+            case "divide":
+                printDivide(board, pitsPerSide, player, depth, threads);
+                break;
+            case "check":
+                if (!check(board, pitsPerSide, player, depth, threads, standardStart)) {
+                    System.exit(1);
+                }
+                break;
+            default:
+                System.err.println("Unknown mode: " + mode);
+                System.exit(2);
+        }
+    }
+
+    /**
+     * Prints the number of leaves and the speed.
+     */
+    private static void printCount(int[] board, int pitsPerSide, int player, int depth, int threads)
+            throws InterruptedException {
+        long start = System.nanoTime();
+        long nodes = count(board, pitsPerSide, player, depth, threads);
+        long nanos = System.nanoTime() - start;
+        System.out.printf("perft(%d) = %d in %.3f s, %.1f M nodes/s, %d threads%n",
+            depth, nodes, nanos / 1e9, nodes * 1e3 / Math.max(1, nanos), threads);
+    }
+
+    /**
+     * Prints the number of leaves under each first move, labelled like the
+     * board (A1 to A6 for Player A, B1 to B6 for Player B). At depth 0 the
+     * root is the only leaf, as with count.
+     */
+    private static void printDivide(int[] board, int pitsPerSide, int player, int depth, int threads)
+            throws InterruptedException {
+        if (depth == 0) {
+            System.out.println("total 1 (the root)");
+            return;
+        }
+        long start = System.nanoTime();
+        long[] counts = divide(board, pitsPerSide, player, depth, threads);
+        long nanos = System.nanoTime() - start;
+        int first = Rules.firstPit(pitsPerSide, player);
+        long nodes = 0;
+        for (int pit = first; pit < first + pitsPerSide; pit++) {
+            if (board[pit] > 0) {
+                System.out.printf("%s%d %d%n", player == 1 ? "A" : "B", pit - first + 1, counts[pit]);
+                nodes += counts[pit];
+            }
+        }
+        System.out.printf("total %d in %.3f s%n", nodes, nanos / 1e9);
+    }
+
+    /**
+     * Counts every depth up to the given one with Rules, MancalaModel and,
+     * on the standard start, KNOWN_COUNTS, and prints any difference.
+     *
+     * @return True if all counts agree
+     */
+    private static boolean check(int[] board, int pitsPerSide, int player, int depth, int threads,
+            boolean standardStart) throws InterruptedException {
+        MancalaModel model = new MancalaModel(pitsPerSide, 0);
+        model.restore(board, player, -1, null);
+        boolean ok = true;
+        for (int d = 1; d <= depth; d++) {
+            long rules = count(board, pitsPerSide, player, d, threads);
+            long fromModel = countWithModel(model, d);
+            boolean agree = rules == fromModel;
+            String known = "";
+            if (standardStart && d <= KNOWN_COUNTS.length) {
+                agree &= rules == KNOWN_COUNTS[d - 1];
+                known = " known " + KNOWN_COUNTS[d - 1];
+            }
+            System.out.printf("depth %d: rules %d model %d%s %s%n", d, rules, fromModel, known,
+                agree ? "ok" : "MISMATCH");
+            ok &= agree;
+        }
+        return ok;
+    }
+}
@@ -0,0 +1,221 @@
+/**
+ * Allocation-free implementation of the Mancala rules on a plain board array.
+ * Uses the same board layout and rules as MancalaModel (sowing that skips the
+ * opponent's store, extra turn in the own store, captures and the end-of-game
+ * sweep), but keeps no history and notifies nobody, so engines and tools can
+ * play millions of moves quickly.
+ *
+ * <p>Board layout: Player 1 pits 0 to pitsPerSide - 1, Player 1 store at
+ * pitsPerSide, Player 2 pits pitsPerSide + 1 to pitsPerSide * 2, Player 2 store
+ * at pitsPerSide * 2 + 1.
+ *
+ * @author CS151 Group Project
+ * @version 1.0
+ */
+
+package mancala.engine;
+
+public final class Rules {
+  /** Returned by applyMove when the move ended the game */
+  public static final int GAME_OVER = 0;
+
+  private Rules() {
+  }
+
+  /**
+   * This creates the starting board
+   *
+   * @param pitsPerSide  Number of pits each side has
+   * @param stonesPerPit The initial amount of stones each pits has
+   * @return The starting board
+   */
+  public static int[] newBoard(int pitsPerSide, int stonesPerPit) {
+    int[] board = new int[pitsPerSide * 2 + 2];
+    for (int i = 0; i < pitsPerSide; ++i) {
+      board[i] = board[i + pitsPerSide + 1] = stonesPerPit;
+    }
+    return board;
+  }
+
+  /**
+   * This get the mancala index for the specific player
+   *
+   * @param pitsPerSide Number of pits each side has
+   * @param player      The specific player
+   * @return Mancala index for the pit
+   */
+  public static int store(int pitsPerSide, int player) {
+    return player == 1 ? pitsPerSide : pitsPerSide * 2 + 1;
+  }
+
+  /**
+   * This get the starting index for the row relative to the player
+   *
+   * @param pitsPerSide Number of pits each side has
+   * @param player      The player id
+   * @return The starting index for row
+   */
+  public static int firstPit(int pitsPerSide, int player) {
+    return player == 1 ? 0 : pitsPerSide + 1;
+  }
+
+  /**
+   * This checks if a pit can be played by a player
+   *
+   * @param board       The board
+   * @param pitsPerSide Number of pits each side has
+   * @param player      The player to move
+   * @param pit         The pit index
+   * @return True if the pit is one of the player's pits and has stones
+   */
+  public static boolean isLegal(int[] board, int pitsPerSide, int player, int pit) {
+    int first = firstPit(pitsPerSide, player);
+    return pit >= first && pit < first + pitsPerSide && board[pit] > 0;
+  }
+
+  /**
+   * This plays a move on the board in place, including captures and, when a
+   * side runs empty, the end-of-game sweep. The move must be legal.
+   *
+   * @param board       The board, modified
+   * @param pitsPerSide Number of pits each side has
+   * @param player      The player to move
+   * @param pit         The pit to sow from
+   * @return The player to move next (the same player on an extra turn), or
+   *         GAME_OVER if the game ended
+   */
+  public static int applyMove(int[] board, int pitsPerSide, int player, int pit) {
+    int length = board.length;
+    int ownStore = store(pitsPerSide, player);
+    int opponentStore = store(pitsPerSide, 3 - player);
+
+    int stones = board[pit];
+    board[pit] = 0;
+
+    int landing = pit;
+    while (stones != 0) {
+      landing++;
+      if (landing == length) {
+        landing = 0;
+      }
+      if (landing != opponentStore) {
+        board[landing]++;
+        stones--;
+      }
+    }
+
+    boolean extraTurn = landing == ownStore;
+    if (!extraTurn) {
+      int first = firstPit(pitsPerSide, player);
+      if (landing >= first && landing < first + pitsPerSide && board[landing] == 1) {
+        int opposite = pitsPerSide * 2 - landing;
+        if (board[opposite] > 0) {
+          board[ownStore] += board[opposite] + 1;
+          board[opposite] = 0;
+          board[landing] = 0;
+        }
+      }
+    }
+
+    if (isSideEmpty(board, pitsPerSide, 1) || isSideEmpty(board, pitsPerSide, 2)) {
+      sweep(board, pitsPerSide);
+      return GAME_OVER;
+    }
+    return extraTurn ? player : 3 - player;
+  }
+
+  /**
+   * This finds where the last stone of a move lands, without playing it.
+   * Together with the board after the move this tells captures apart: the
+   * landing pit is in the mover's row and was emptied.
+   *
+   * @param board       The board before the move
+   * @param pitsPerSide Number of pits each side has
+   * @param player      The player to move
+   * @param pit         The pit to sow from
+   * @return The index of the pit or store the last stone lands in
+   */
+  public static int landingPit(int[] board, int pitsPerSide, int player, int pit) {
+    int length = board.length;
+    int opponentStore = store(pitsPerSide, 3 - player);
+    // Sowing cycles through every position except the opponent's store
+    int steps = (board[pit] - 1) % (length - 1) + 1;
+
+    int landing = pit;
+    while (steps != 0) {
+      landing++;
+      if (landing == length) {
+        landing = 0;
+      }
+      if (landing != opponentStore) {
+        steps--;
+      }
+    }
+    return landing;
+  }
+
+  /**
+   * This checks if all of a player's pits are empty
+   *
+   * @param board       The board
+   * @param pitsPerSide Number of pits each side has
+   * @param player      The player id
+   * @return True if the player has no stones left in their pits
+   */
+  public static boolean isSideEmpty(int[] board, int pitsPerSide, int player) {
+    int first = firstPit(pitsPerSide, player);
+    for (int i = first; i < first + pitsPerSide; ++i) {
+      if (board[i] > 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * This adds every stone left in the pits to its owner's store. Like
+   * MancalaModel.endGame, the pits keep their counts, so boards from both
+   * implementations stay identical.
+   *
+   * @param board       The board, modified
+   * @param pitsPerSide Number of pits each side has
+   */
+  public static void sweep(int[] board, int pitsPerSide) {
+    for (int player = 1; player <= 2; ++player) {
+      int store = store(pitsPerSide, player);
+      int first = firstPit(pitsPerSide, player);
+      for (int i = first; i < first + pitsPerSide; ++i) {
+        board[store] += board[i];
+      }
+    }
+  }
+
+  /**
+   * This gets the winner of a finished game
+   *
+   * @param board       The swept board
+   * @param pitsPerSide Number of pits each side has
+   * @return 1 or 2 for the winner, 0 for a tie
+   */
+  public static int winner(int[] board, int pitsPerSide) {
+    int margin = board[store(pitsPerSide, 1)] - board[store(pitsPerSide, 2)];
+    return margin > 0 ? 1 : margin < 0 ? 2 : 0;
+  }
+
+  /**
+   * This hashes a position (FNV-1a over the pits and the player to move),
+   * for caches keyed by position. Different positions may share a hash, so
+   * a cache should keep the board and compare it too.
+   *
+   * @param board  The board
+   * @param player The player to move
+   * @return The hash
+   */
+  public static long hash(int[] board, int player) {
+    long hash = 0xcbf29ce484222325L ^ player;
+    for (int stones : board) {
+      hash = (hash ^ stones) * 0x100000001b3L;
+    }
+    return hash;
+  }
+}
@@ -0,0 +1,349 @@
+package mancala.engine;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import mancala.diag.EngineMetrics;
+
+/**
+ * Game tree search that picks a move for the player to move.
+ * Uses iterative deepening alpha-beta (negamax) on top of Rules. An extra
+ * turn keeps the same side to move, so the score is not negated for it.
+ *
+ * <p>The search allocates nothing per node: every ply has a preallocated
+ * board that the move is played into. An instance is not thread-safe; use
+ * one engine per thread. Leaves are scored by an Evaluator, by default the
+ * store difference.
+ *
+ * <p>Interrupting the searching thread stops the search within a few
+ * thousand nodes, and a Listener hears about every completed depth, so
+ * the search can run in the background and report as it deepens.
+ *
+ * <p>Normally only the best move's score is exact: the other moves at the
+ * root are cut off as soon as they are known to be worse. With
+ * setScoreAllMoves(true) every root move is searched with a full window,
+ * which costs more but scores each one exactly, for showing hints.
+ *
+ * @author CS151 Group Project
+ * @version 1.0
+ */
+public class SearchEngine {
+    /** Score offset for a won game, so any win ranks above any heuristic score */
+    public static final int WIN_SCORE = 100_000;
+    /** Move score of a pit that cannot be played */
+    public static final int NO_SCORE = Integer.MIN_VALUE;
+
+    private static final int TIME_CHECK_INTERVAL = 4096;
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    private final int maxDepth;
+    private final long moveTimeMillis;
+    private boolean cpuTime;
+    private Listener listener;
+    private Evaluator evaluator = Evaluator.STORE_DIFFERENCE;
+    private boolean scoreAllMoves;
+
+    private int pitsPerSide;
+    private int[][] boards;
+    private int[] depthScores; // Root move scores of the depth being searched
+    private int[] moveScores; // Root move scores of the last completed depth
+    private long deadline;
+    private boolean aborted;
+
+    private long nodes;
+    private int lastScore;
+    private int lastDepth;
+
+    /**
+     * Hears about the progress of a search, on the searching thread.
+     */
+    public interface Listener {
+        /**
+         * Called when a depth is searched completely.
+         *
+         * @param depth The depth in plies
+         * @param bestMove The best pit at this depth
+         * @param score The score of the best move, from the mover's point of view
+         * @param nodes Nodes searched so far by this call
+         */
+        void depthCompleted(int depth, int bestMove, int score, long nodes);
+    }
+
+    /**
+     * Constructs an engine.
+     *
+     * @param maxDepth Maximum search depth in plies
+     * @param moveTimeMillis Time limit per move in milliseconds, 0 for none
+     */
+    public SearchEngine(int maxDepth, long moveTimeMillis) {
+        this.maxDepth = Math.max(1, maxDepth);
+        this.moveTimeMillis = moveTimeMillis;
+    }
+
+    /**
+     * Searches for the best move.
+     *
+     * @param board The current board (not modified)
+     * @param pitsPerSide Number of pits each side has
+     * @param player The player to move
+     * @return The best pit index, or -1 if the player has no legal move
+     */
+    public int findBestMove(int[] board, int pitsPerSide, int player) {
+        return findBestMove(board, pitsPerSide, player, moveTimeMillis);
+    }
+
+    /**
+     * Searches for the best move with a time limit for this move only.
+     *
+     * @param board The current board (not modified)
+     * @param pitsPerSide Number of pits each side has
+     * @param player The player to move
+     * @param timeMillis Time limit in milliseconds, 0 for none
+     * @return The best pit index, or -1 if the player has no legal move
+     */
+    public int findBestMove(int[] board, int pitsPerSide, int player, long timeMillis) {
+        long searchStart = System.nanoTime();
+        prepare(board, pitsPerSide);
+        nodes = 0;
+        lastDepth = 0;
+        aborted = false;
+        deadline = timeMillis > 0 ? now() + timeMillis * 1_000_000 : Long.MAX_VALUE;
+
+        int bestMove = -1;
+        int first = Rules.firstPit(pitsPerSide, player);
+        Arrays.fill(moveScores, NO_SCORE);
+        Arrays.fill(depthScores, NO_SCORE);
+        for (int depth = 1; depth <= maxDepth; depth++) {
+            int depthBest = -1;
+            int alpha = -Integer.MAX_VALUE;
+            boolean decided = true; // Every move scored is a won or lost game
+            for (int pit = first; pit < first + pitsPerSide; pit++) {
+                if (boards[0][pit] == 0) {
+                    continue;
+                }
+                int score = searchMove(pit, depth, scoreAllMoves ? -Integer.MAX_VALUE : alpha,
+                                       Integer.MAX_VALUE, player, 0);
+                if (aborted) {
+                    break;
+                }
+                depthScores[pit] = score;
+                decided &= Math.abs(score) >= WIN_SCORE;
+                if (score > alpha || depthBest < 0) {
+                    alpha = score;
+                    depthBest = pit;
+                }
+            }
+            if (aborted) {
+                break; // Keep the result of the last completed depth
+            }
+            bestMove = depthBest;
+            lastScore = alpha;
+            lastDepth = depth;
+            System.arraycopy(depthScores, 0, moveScores, 0, moveScores.length);
+            if (listener != null && depthBest >= 0) {
+                listener.depthCompleted(depth, depthBest, alpha, nodes);
+            }
+            if (depthBest < 0 || (scoreAllMoves ? decided : Math.abs(alpha) >= WIN_SCORE)) {
+                break; // No moves, or the result is already decided
+            }
+        }
+
+        EngineMetrics.searchFinished(nodes, System.nanoTime() - searchStart);
+
+        if (bestMove < 0) {
+            // Out of time before depth 1 finished: play any legal move
+            for (int pit = first; pit < first + pitsPerSide; pit++) {
+                if (boards[0][pit] > 0) {
+                    return pit;
+                }
+            }
+        }
+        return bestMove;
+    }
+
+    /**
+     * Plays a move into the next ply's board and scores it for the mover.
+     */
+    private int searchMove(int pit, int depth, int alpha, int beta, int player, int ply) {
+        int[] child = boards[ply + 1];
+        System.arraycopy(boards[ply], 0, child, 0, child.length);
+        int next = Rules.applyMove(child, pitsPerSide, player, pit);
+
+        if (next == Rules.GAME_OVER) {
+            nodes++;
+            return terminalScore(child, player);
+        }
+        if (next == player) {
+            return search(depth - 1, alpha, beta, player, ply + 1);
+        }
+        return -search(depth - 1, -beta, -alpha, next, ply + 1);
+    }
+
+    /**
+     * Negamax alpha-beta search.
+     *
+     * @return The score of the position for the player to move
+     */
+    private int search(int depth, int alpha, int beta, int player, int ply) {
+        nodes++;
+        if ((nodes & (TIME_CHECK_INTERVAL - 1)) == 0
+            && (now() > deadline || Thread.currentThread().isInterrupted())) {
+            aborted = true;
+        }
+        if (aborted) {
+            return 0;
+        }
+
+        int[] board = boards[ply];
+        if (depth == 0) {
+            return evaluator.evaluate(board, pitsPerSide, player);
+        }
+
+        int first = Rules.firstPit(pitsPerSide, player);
+        // Try pits closest to the store first: they are most likely to give extra turns
+        for (int pit = first + pitsPerSide - 1; pit >= first; pit--) {
+            if (board[pit] == 0) {
+                continue;
+            }
+            int score = searchMove(pit, depth, alpha, beta, player, ply);
+            if (score > alpha) {
+                alpha = score;
+                if (alpha >= beta) {
+                    break;
+                }
+            }
+        }
+        return alpha;
+    }
+
+    /**
+     * Score of a finished game from the mover's point of view: a win or a
+     * loss, by the final store difference in stones, whatever the evaluator.
+     */
+    private int terminalScore(int[] board, int player) {
+        int margin = board[Rules.store(pitsPerSide, player)] - board[Rules.store(pitsPerSide, 3 - player)];
+        if (margin > 0) {
+            return WIN_SCORE + margin;
+        }
+        if (margin < 0) {
+            return -WIN_SCORE + margin;
+        }
+        return 0;
+    }
+
+    /**
+     * Gets the time the limit is measured in, in nanoseconds.
+     */
+    private long now() {
+        return cpuTime ? THREADS.getCurrentThreadCpuTime() : System.nanoTime();
+    }
+
+    /**
+     * Allocates the per-ply boards on first use and copies the root position.
+     */
+    private void prepare(int[] board, int pitsPerSide) {
+        if (boards == null || this.pitsPerSide != pitsPerSide) {
+            boards = new int[maxDepth + 2][board.length];
+            depthScores = new int[board.length];
+            moveScores = new int[board.length];
+            this.pitsPerSide = pitsPerSide;
+        }
+        System.arraycopy(board, 0, boards[0], 0, board.length);
+    }
+
+    /**
+     * Sets the listener told about every completed depth.
+     *
+     * @param listener The listener, or null for none
+     */
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Sets the static evaluation used at the leaves of the search.
+     *
+     * @param evaluator The evaluator; Evaluator.STORE_DIFFERENCE is the default
+     */
+    public void setEvaluator(Evaluator evaluator) {
+        this.evaluator = evaluator;
+    }
+
+    /**
+     * Gets the static evaluation used at the leaves of the search.
+     *
+     * @return The evaluator
+     */
+    public Evaluator getEvaluator() {
+        return evaluator;
+    }
+
+    /**
+     * Scores every move at the root exactly instead of only the best one.
+     * The search is slower, since the root moves cannot be cut off.
+     *
+     * @param scoreAllMoves true to score every move exactly
+     */
+    public void setScoreAllMoves(boolean scoreAllMoves) {
+        this.scoreAllMoves = scoreAllMoves;
+    }
+
+    /**
+     * Measures time limits in CPU time of the searching thread instead of
+     * wall-clock time, so a limit buys the same search however many other
+     * threads share the processors.
+     *
+     * @param cpuTime true for CPU time, false for wall-clock time
+     */
+    public void setCpuTime(boolean cpuTime) {
+        this.cpuTime = cpuTime;
+    }
+
+    /**
+     * Gets the CPU time used by the calling thread so far.
+     *
+     * @return The CPU time in nanoseconds
+     */
+    public static long threadCpuTime() {
+        return THREADS.getCurrentThreadCpuTime();
+    }
+
+    /**
+     * Gets the number of nodes searched by the last call.
+     *
+     * @return The node count
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Gets the score of the last completed search, from the mover's point of view.
+     *
+     * @return The score
+     */
+    public int getLastScore() {
+        return lastScore;
+    }
+
+    /**
+     * Copies the score of every root move at the last completed depth, from
+     * the mover's point of view. Only the best move's score is exact unless
+     * every move is scored; the others are at most what they show.
+     *
+     * @param scores Filled with the score of each pit, or NO_SCORE for pits
+     *               that cannot be played; as long as the board
+     */
+    public void getMoveScores(int[] scores) {
+        System.arraycopy(moveScores, 0, scores, 0, scores.length);
+    }
+
+    /**
+     * Gets the depth of the last completed search iteration.
+     *
+     * @return The depth in plies
+     */
+    public int getLastDepth() {
+        return lastDepth;
+    }
+}
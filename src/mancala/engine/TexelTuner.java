@@ -0,0 +1,589 @@
+package mancala.engine;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Fits WeightedEvaluator weights to self-play games, Texel style: every
+ * position of a game is labeled with the game's result for the player to
+ * move (1 for a win, 0.5 for a draw, 0 for a loss), and the weights are
+ * chosen to minimize the mean squared difference between the results and
+ * sigmoid(k * score).
+ *
+ * <p>Tuning runs in two steps, which can be run apart:
+ * <ol>
+ *   <li>generate plays games between two copies of a SearchEngine at a
+ *       fixed depth, from random openings so the games differ, and writes
+ *       the features of every position with its result to a CSV file.
+ *       Games run in parallel, one batch per thread.</li>
+ *   <li>fit reads the positions, fixes k so the store margin alone (weighing
+ *       WeightedEvaluator.STONE) predicts the results best, which keeps
+ *       scores in hundredths of a stone, then fits all the weights with
+ *       Gauss-Newton steps (Levenberg-Marquardt damped). Each step sums the
+ *       error over the positions in parallel.</li>
+ * </ol>
+ * The fitted weights are printed ready for Tournament, which can play them
+ * against the store difference to check that they are stronger.
+ *
+ * <p>To run from command line:
+ * <pre>
+ * java mancala.engine.TexelTuner generate &lt;positions.csv&gt; &lt;games&gt; &lt;depth&gt; &lt;threads&gt; [weights]
+ * java mancala.engine.TexelTuner fit &lt;positions.csv&gt; &lt;threads&gt;
+ * </pre>
+ *
+ * @author CS151 Group Project
+ * @version 1.0
+ */
+public class TexelTuner {
+    public static final int PITS_PER_SIDE = Tournament.PITS_PER_SIDE;
+    public static final int STONES_PER_PIT = Tournament.STONES_PER_PIT;
+    /** Random plies played before the engines take over, up to this many */
+    public static final int MAX_OPENING_PLIES = 8;
+
+    private static final int GAMES_PER_TASK = 100;
+    private static final int CHUNKS_PER_THREAD = 4;
+    private static final int MAX_ITERATIONS = 100;
+    private static final double MIN_IMPROVEMENT = 1e-9;
+
+    private final Positions positions;
+    private final ExecutorService pool;
+    private final int chunks;
+
+    /**
+     * Positions with their features and results, stored flat so millions
+     * of them stay compact.
+     */
+    public static final class Positions {
+        private int[] features = new int[1024 * WeightedEvaluator.FEATURES];
+        private float[] results = new float[1024];
+        private int size;
+
+        /**
+         * Adds a position.
+         *
+         * @param positionFeatures Its features, in feature index order
+         * @param result The result for the player to move: 1, 0.5 or 0
+         */
+        public void add(int[] positionFeatures, float result) {
+            if (size == results.length) {
+                results = Arrays.copyOf(results, size * 2);
+                features = Arrays.copyOf(features, size * 2 * WeightedEvaluator.FEATURES);
+            }
+            System.arraycopy(positionFeatures, 0, features, size * WeightedEvaluator.FEATURES,
+                             WeightedEvaluator.FEATURES);
+            results[size++] = result;
+        }
+
+        /**
+         * Adds every position of another set.
+         *
+         * @param other The positions to add
+         */
+        public void addAll(Positions other) {
+            int[] row = new int[WeightedEvaluator.FEATURES];
+            for (int i = 0; i < other.size; i++) {
+                System.arraycopy(other.features, i * WeightedEvaluator.FEATURES, row, 0, row.length);
+                add(row, other.results[i]);
+            }
+        }
+
+        /**
+         * Getter
+         *
+         * @return The number of positions
+         */
+        public int size() {
+            return size;
+        }
+
+        /**
+         * Writes the positions as CSV, one line per position: the features,
+         * then the result.
+         *
+         * @param file The file, overwritten
+         * @throws IOException If the file cannot be written
+         */
+        public void write(Path file) throws IOException {
+            try (BufferedWriter csv = Files.newBufferedWriter(file)) {
+                csv.write(String.join(",", WeightedEvaluator.FEATURE_NAMES) + ",result");
+                csv.newLine();
+                StringBuilder line = new StringBuilder();
+                for (int i = 0; i < size; i++) {
+                    line.setLength(0);
+                    for (int feature = 0; feature < WeightedEvaluator.FEATURES; feature++) {
+                        line.append(features[i * WeightedEvaluator.FEATURES + feature]).append(',');
+                    }
+                    line.append(results[i]);
+                    csv.write(line.toString());
+                    csv.newLine();
+                }
+            }
+        }
+
+        /**
+         * Reads positions written by write().
+         *
+         * @param file The file
+         * @return The positions
+         * @throws IOException If the file cannot be read or is malformed
+         */
+        public static Positions read(Path file) throws IOException {
+            Positions positions = new Positions();
+            int[] row = new int[WeightedEvaluator.FEATURES];
+            try (BufferedReader csv = Files.newBufferedReader(file)) {
+                String line = csv.readLine(); // Header
+                int lineNumber = 1;
+                while ((line = csv.readLine()) != null) {
+                    lineNumber++;
+                    String[] parts = line.split(",");
+                    if (parts.length != WeightedEvaluator.FEATURES + 1) {
+                        throw new IOException(file + ":" + lineNumber + ": expected "
+                                              + (WeightedEvaluator.FEATURES + 1) + " values");
+                    }
+                    try {
+                        for (int feature = 0; feature < WeightedEvaluator.FEATURES; feature++) {
+                            row[feature] = Integer.parseInt(parts[feature]);
+                        }
+                        positions.add(row, Float.parseFloat(parts[WeightedEvaluator.FEATURES]));
+                    } catch (NumberFormatException e) {
+                        throw new IOException(file + ":" + lineNumber + ": " + e.getMessage(), e);
+                    }
+                }
+            }
+            return positions;
+        }
+    }
+
+    /**
+     * Creates a tuner for a set of positions.
+     *
+     * @param positions The positions to fit to
+     * @param threads Threads to sum the error with
+     */
+    public TexelTuner(Positions positions, int threads) {
+        this.positions = positions;
+        this.pool = Executors.newFixedThreadPool(threads);
+        this.chunks = threads * CHUNKS_PER_THREAD;
+    }
+
+    /**
+     * Stops the tuner's threads.
+     */
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Plays self-play games in parallel and collects their positions.
+     *
+     * @param games Number of games
+     * @param depth Search depth of both engines, in plies
+     * @param evaluator Evaluation both engines search with
+     * @param threads Games played at once
+     * @param seed Seed for the random openings
+     * @return The position before every engine move, with the game's result
+     * @throws InterruptedException If interrupted while waiting for the games
+     */
+    public static Positions selfPlay(int games, int depth, Evaluator evaluator, int threads, long seed)
+            throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Positions>> batches = new ArrayList<>();
+            for (int first = 0; first < games; first += GAMES_PER_TASK) {
+                int from = first;
+                int to = Math.min(games, first + GAMES_PER_TASK);
+                batches.add(pool.submit(() -> playGames(from, to, depth, evaluator, seed)));
+            }
+            Positions positions = new Positions();
+            for (Future<Positions> batch : batches) {
+                positions.addAll(batch.get());
+            }
+            return positions;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Self-play failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Plays a batch of games on this thread, with one engine for both sides.
+     * Game number n always gets the same opening for the same seed.
+     */
+    private static Positions playGames(int from, int to, int depth, Evaluator evaluator, long seed) {
+        SearchEngine engine = new SearchEngine(depth, 0);
+        engine.setEvaluator(evaluator);
+        Positions positions = new Positions();
+        int[] board = new int[PITS_PER_SIDE * 2 + 2];
+        int[] players = new int[board.length * STONES_PER_PIT * 2];
+        int[][] features = new int[players.length][WeightedEvaluator.FEATURES];
+
+        for (int game = from; game < to; game++) {
+            SplittableRandom random = new SplittableRandom(seed * 1_000_003 + game);
+            System.arraycopy(Rules.newBoard(PITS_PER_SIDE, STONES_PER_PIT), 0, board, 0, board.length);
+            int player = 1;
+            int openingPlies = random.nextInt(MAX_OPENING_PLIES + 1);
+            for (int ply = 0; ply < openingPlies && player != Rules.GAME_OVER; ply++) {
+                int first = Rules.firstPit(PITS_PER_SIDE, player);
+                int pit;
+                do {
+                    pit = first + random.nextInt(PITS_PER_SIDE);
+                } while (board[pit] == 0);
+                player = Rules.applyMove(board, PITS_PER_SIDE, player, pit);
+            }
+
+            int count = 0;
+            while (player != Rules.GAME_OVER) {
+                if (count == players.length) {
+                    players = Arrays.copyOf(players, count * 2);
+                    features = Arrays.copyOf(features, count * 2);
+                    for (int i = count; i < features.length; i++) {
+                        features[i] = new int[WeightedEvaluator.FEATURES];
+                    }
+                }
+                players[count] = player;
+                WeightedEvaluator.features(board, PITS_PER_SIDE, player, features[count]);
+                count++;
+                int pit = engine.findBestMove(board, PITS_PER_SIDE, player);
+                player = Rules.applyMove(board, PITS_PER_SIDE, player, pit);
+            }
+
+            int winner = Rules.winner(board, PITS_PER_SIDE);
+            for (int i = 0; i < count; i++) {
+                float result = winner == 0 ? 0.5f : winner == players[i] ? 1 : 0;
+                positions.add(features[i], result);
+            }
+        }
+        return positions;
+    }
+
+    /**
+     * Finds the k that makes sigmoid(k * score) predict the results best
+     * for the given weights, by golden section search.
+     *
+     * @param weights The weights
+     * @return The best k
+     * @throws InterruptedException If interrupted while summing the error
+     */
+    public double fitScale(double[] weights) throws InterruptedException {
+        // Search log10(k); scores of a few stones should matter, so k is near 1 / STONE
+        double low = -6;
+        double high = 0;
+        double ratio = (Math.sqrt(5) - 1) / 2;
+        double a = high - ratio * (high - low);
+        double b = low + ratio * (high - low);
+        double errorA = error(weights, Math.pow(10, a));
+        double errorB = error(weights, Math.pow(10, b));
+        while (high - low > 1e-4) {
+            if (errorA < errorB) {
+                high = b;
+                b = a;
+                errorB = errorA;
+                a = high - ratio * (high - low);
+                errorA = error(weights, Math.pow(10, a));
+            } else {
+                low = a;
+                a = b;
+                errorA = errorB;
+                b = low + ratio * (high - low);
+                errorB = error(weights, Math.pow(10, b));
+            }
+        }
+        return Math.pow(10, (low + high) / 2);
+    }
+
+    /**
+     * Gets the mean squared error of the predicted results.
+     *
+     * @param weights The weights
+     * @param k The scale of the sigmoid
+     * @return The mean squared error
+     * @throws InterruptedException If interrupted while summing the error
+     */
+    public double error(double[] weights, double k) throws InterruptedException {
+        double sum = 0;
+        for (double[] chunk : sumChunks(weights, k, false)) {
+            sum += chunk[0];
+        }
+        return sum / positions.size();
+    }
+
+    /**
+     * Fits the weights, with k fixed, by Gauss-Newton steps on the squared
+     * error. A step that makes the error worse is taken again with more
+     * damping, which shortens it and turns it towards gradient descent.
+     *
+     * @param start The weights to start from
+     * @param k The scale of the sigmoid
+     * @param progress Where to report each step, or null
+     * @return The fitted weights
+     * @throws InterruptedException If interrupted while summing the error
+     */
+    public double[] fit(double[] start, double k, PrintStream progress) throws InterruptedException {
+        int n = WeightedEvaluator.FEATURES;
+        double[] weights = start.clone();
+        double damping = 1e-3;
+        double error = error(weights, k);
+        for (int iteration = 1; iteration <= MAX_ITERATIONS; iteration++) {
+            // Normal equations: (J'J + damping * diag(J'J)) step = -J'e, with e the residuals
+            double[] normal = new double[n * n];
+            double[] gradient = new double[n];
+            for (double[] chunk : sumChunks(weights, k, true)) {
+                for (int i = 0; i < n; i++) {
+                    gradient[i] += chunk[1 + i];
+                    for (int j = 0; j < n; j++) {
+                        normal[i * n + j] += chunk[1 + n + i * n + j];
+                    }
+                }
+            }
+
+            double[] next = null;
+            double nextError = error;
+            while (damping < 1e12) {
+                double[] damped = normal.clone();
+                for (int i = 0; i < n; i++) {
+                    damped[i * n + i] += damping * Math.max(normal[i * n + i], 1e-12);
+                }
+                double[] step = solve(damped, negate(gradient), n);
+                double[] candidate = new double[n];
+                for (int i = 0; i < n; i++) {
+                    candidate[i] = weights[i] + step[i];
+                }
+                double candidateError = error(candidate, k);
+                if (candidateError < error) {
+                    next = candidate;
+                    nextError = candidateError;
+                    damping = Math.max(damping / 10, 1e-9);
+                    break;
+                }
+                damping *= 10;
+            }
+            if (next == null) {
+                break; // No step makes it better: at the minimum
+            }
+            double improvement = error - nextError;
+            weights = next;
+            error = nextError;
+            if (progress != null) {
+                progress.printf("step %d: error %.6f%n", iteration, error);
+            }
+            if (improvement < MIN_IMPROVEMENT) {
+                break;
+            }
+        }
+        return weights;
+    }
+
+    /**
+     * Sums over the positions in parallel chunks. Each chunk gives the sum
+     * of squared errors and, if asked, J'e (n values) and J'J (n * n
+     * values), in one array.
+     */
+    private List<double[]> sumChunks(double[] weights, double k, boolean derivatives)
+            throws InterruptedException {
+        int size = positions.size();
+        List<Callable<double[]>> tasks = new ArrayList<>();
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            int from = (int) ((long) size * chunk / chunks);
+            int to = (int) ((long) size * (chunk + 1) / chunks);
+            tasks.add(() -> sum(weights, k, derivatives, from, to));
+        }
+        List<double[]> sums = new ArrayList<>();
+        try {
+            for (Future<double[]> future : pool.invokeAll(tasks)) {
+                sums.add(future.get());
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Summing the error failed", e.getCause());
+        }
+        return sums;
+    }
+
+    /**
+     * Sums one chunk of positions; see sumChunks().
+     */
+    private double[] sum(double[] weights, double k, boolean derivatives, int from, int to) {
+        int n = WeightedEvaluator.FEATURES;
+        double[] sums = new double[derivatives ? 1 + n + n * n : 1];
+        int[] features = positions.features;
+        float[] results = positions.results;
+        double[] slope = new double[n];
+        for (int i = from; i < to; i++) {
+            int offset = i * n;
+            double score = 0;
+            for (int f = 0; f < n; f++) {
+                score += weights[f] * features[offset + f];
+            }
+            double predicted = 1 / (1 + Math.exp(-k * score));
+            double residual = predicted - results[i];
+            sums[0] += residual * residual;
+            if (derivatives) {
+                double scale = k * predicted * (1 - predicted);
+                for (int f = 0; f < n; f++) {
+                    slope[f] = scale * features[offset + f];
+                }
+                for (int a = 0; a < n; a++) {
+                    sums[1 + a] += slope[a] * residual;
+                    for (int b = 0; b < n; b++) {
+                        sums[1 + n + a * n + b] += slope[a] * slope[b];
+                    }
+                }
+            }
+        }
+        return sums;
+    }
+
+    /**
+     * Solves a small linear system by Gaussian elimination with partial
+     * pivoting.
+     *
+     * @param matrix The n by n matrix, row by row (destroyed)
+     * @param vector The right-hand side (destroyed)
+     * @param n The size
+     * @return The solution; 0 for a unknown the system does not determine
+     */
+    private static double[] solve(double[] matrix, double[] vector, int n) {
+        for (int column = 0; column < n; column++) {
+            int pivot = column;
+            for (int row = column + 1; row < n; row++) {
+                if (Math.abs(matrix[row * n + column]) > Math.abs(matrix[pivot * n + column])) {
+                    pivot = row;
+                }
+            }
+            if (Math.abs(matrix[pivot * n + column]) < 1e-300) {
+                continue;
+            }
+            if (pivot != column) {
+                for (int j = 0; j < n; j++) {
+                    double swap = matrix[column * n + j];
+                    matrix[column * n + j] = matrix[pivot * n + j];
+                    matrix[pivot * n + j] = swap;
+                }
+                double swap = vector[column];
+                vector[column] = vector[pivot];
+                vector[pivot] = swap;
+            }
+            for (int row = column + 1; row < n; row++) {
+                double factor = matrix[row * n + column] / matrix[column * n + column];
+                for (int j = column; j < n; j++) {
+                    matrix[row * n + j] -= factor * matrix[column * n + j];
+                }
+                vector[row] -= factor * vector[column];
+            }
+        }
+        double[] solution = new double[n];
+        for (int row = n - 1; row >= 0; row--) {
+            double diagonal = matrix[row * n + row];
+            if (Math.abs(diagonal) < 1e-300) {
+                continue;
+            }
+            double sum = vector[row];
+            for (int j = row + 1; j < n; j++) {
+                sum -= matrix[row * n + j] * solution[j];
+            }
+            solution[row] = sum / diagonal;
+        }
+        return solution;
+    }
+
+    private static double[] negate(double[] values) {
+        double[] negated = new double[values.length];
+        for (int i = 0; i < values.length; i++) {
+            negated[i] = -values[i];
+        }
+        return negated;
+    }
+
+    /**
+     * Rounds fitted weights to whole numbers for WeightedEvaluator.
+     *
+     * @param weights The fitted weights
+     * @return The rounded weights
+     */
+    public static int[] round(double[] weights) {
+        int[] rounded = new int[weights.length];
+        for (int i = 0; i < weights.length; i++) {
+            rounded[i] = (int) Math.round(weights[i]);
+        }
+        return rounded;
+    }
+
+    /**
+     * Command line entry point.
+     *
+     * @param args generate &lt;positions.csv&gt; &lt;games&gt; &lt;depth&gt; &lt;threads&gt; [weights], or
+     *             fit &lt;positions.csv&gt; &lt;threads&gt;
+     * @throws IOException If the positions cannot be written or read
+     * @throws InterruptedException If interrupted while working
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length >= 5 && args[0].equals("generate")) {
+            generate(Path.of(args[1]), Integer.parseInt(args[2]), Integer.parseInt(args[3]),
+                     Integer.parseInt(args[4]), args.length > 5 ? WeightedEvaluator.parse(args[5]) : null);
+        } else if (args.length == 3 && args[0].equals("fit")) {
+            fit(Path.of(args[1]), Integer.parseInt(args[2]));
+        } else {
+            System.err.println("Usage: java mancala.engine.TexelTuner generate <positions.csv> <games> <depth> "
+                               + "<threads> [weights]");
+            System.err.println("       java mancala.engine.TexelTuner fit <positions.csv> <threads>");
+            System.err.println("Example: java mancala.engine.TexelTuner generate positions.csv 20000 6 8");
+            System.exit(2);
+        }
+    }
+
+    /**
+     * Plays the self-play games and writes their positions.
+     */
+    private static void generate(Path file, int games, int depth, int threads, WeightedEvaluator weights)
+            throws IOException, InterruptedException {
+        Evaluator evaluator = weights != null ? weights : Evaluator.STORE_DIFFERENCE;
+        long start = System.nanoTime();
+        Positions positions = selfPlay(games, depth, evaluator, threads, 1);
+        positions.write(file);
+        System.out.printf("%d games, %d positions in %.1f s with %d threads%n", games, positions.size(),
+                          (System.nanoTime() - start) / 1e9, threads);
+    }
+
+    /**
+     * Fits weights to the positions in a file and prints them.
+     */
+    private static void fit(Path file, int threads) throws IOException, InterruptedException {
+        Positions positions = Positions.read(file);
+        TexelTuner tuner = new TexelTuner(positions, threads);
+        try {
+            double[] start = new double[WeightedEvaluator.FEATURES];
+            start[WeightedEvaluator.STORE_MARGIN] = WeightedEvaluator.STONE;
+            double k = tuner.fitScale(start);
+            System.out.printf("%d positions, k = %.6f, store margin alone: error %.6f%n", positions.size(), k,
+                              tuner.error(start, k));
+
+            double[] fitted = tuner.fit(start, k, System.out);
+            int[] rounded = round(fitted);
+            double[] roundedWeights = Arrays.stream(rounded).asDoubleStream().toArray();
+            System.out.printf("fitted: error %.6f (rounded %.6f)%n", tuner.error(fitted, k),
+                              tuner.error(roundedWeights, k));
+            for (int feature = 0; feature < WeightedEvaluator.FEATURES; feature++) {
+                System.out.printf("  %-20s %6d%n", WeightedEvaluator.FEATURE_NAMES[feature], rounded[feature]);
+            }
+            String weights = new WeightedEvaluator(rounded).toString();
+            System.out.println("weights: " + weights);
+            System.out.println("Check them with: java mancala.engine.Tournament results.csv " + threads
+                               + " 100 store:6:1000 tuned:6:1000:" + weights);
+        } finally {
+            tuner.shutdown();
+        }
+    }
+}
@@ -0,0 +1,467 @@
+package mancala.engine;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Round-robin tournament between SearchEngine configurations, for tuning
+ * engine settings by playing them against each other.
+ *
+ * <p>Every pair of engines plays every opening twice, once from each side.
+ * An opening is a few random moves played from the starting position, so
+ * games do not all follow the same line. Games run in parallel, one per
+ * thread; each game creates its own engines, so threads share nothing but
+ * the results.
+ *
+ * <p>Each engine gets a time budget per game, measured in the CPU time of
+ * the thread playing it, and spends a share of what is left on every move.
+ * CPU time does not depend on how many games share the processors, so
+ * results from runs with different thread counts can be compared. An
+ * engine that overruns its budget loses the game.
+ *
+ * <p>Every game is appended to a CSV file as soon as it ends. At the end,
+ * the standings are printed with Elo ratings from a maximum likelihood fit
+ * of all results, with 95% confidence intervals.
+ *
+ * <p>An engine searches with the store difference, or with a
+ * WeightedEvaluator when its configuration ends in weights, such as the
+ * ones TexelTuner prints.
+ *
+ * <p>To run from command line:
+ * <pre>
+ * java mancala.engine.Tournament &lt;results.csv&gt; &lt;threads&gt; &lt;openings&gt; &lt;name:maxDepth:gameMillis[:weights]&gt;...
+ * </pre>
+ *
+ * @author CS151 Group Project
+ * @version 1.0
+ */
+public class Tournament {
+    public static final int PITS_PER_SIDE = 6;
+    public static final int STONES_PER_PIT = 4;
+    public static final int OPENING_PLIES = 4;
+
+    /** Moves an engine plans its remaining time for */
+    private static final int MOVES_TO_GO = 20;
+    private static final double Z_95 = 1.96;
+    private static final double ELO_PER_NATURAL_UNIT = 400 / Math.log(10);
+
+    private final List<Engine> engines;
+    private final int openingCount;
+    private final long seed;
+
+    // Results by engine pair, from the first engine's point of view; guarded by this
+    private final int[][] wins;
+    private final int[][] draws;
+    private final int[][] losses;
+    private int gamesPlayed;
+    private int timeLosses;
+
+    /**
+     * An engine configuration taking part in the tournament.
+     */
+    public static final class Engine {
+        private final String name;
+        private final int maxDepth;
+        private final long gameMillis;
+        private final Evaluator evaluator;
+
+        /**
+         * Constructs a configuration that searches with the store difference.
+         *
+         * @param name Name shown in the results
+         * @param maxDepth Maximum search depth in plies
+         * @param gameMillis CPU time budget per game in milliseconds
+         */
+        public Engine(String name, int maxDepth, long gameMillis) {
+            this(name, maxDepth, gameMillis, Evaluator.STORE_DIFFERENCE);
+        }
+
+        /**
+         * Constructs a configuration.
+         *
+         * @param name Name shown in the results
+         * @param maxDepth Maximum search depth in plies
+         * @param gameMillis CPU time budget per game in milliseconds
+         * @param evaluator Static evaluation; shared by the games, so it must be thread-safe
+         */
+        public Engine(String name, int maxDepth, long gameMillis, Evaluator evaluator) {
+            this.name = name;
+            this.maxDepth = maxDepth;
+            this.gameMillis = gameMillis;
+            this.evaluator = evaluator;
+        }
+
+        /**
+         * Parses "name:maxDepth:gameMillis", optionally followed by
+         * ":weights" for a WeightedEvaluator.
+         *
+         * @param spec The configuration
+         * @return The engine
+         * @throws IllegalArgumentException if the configuration is malformed
+         */
+        public static Engine parse(String spec) {
+            String[] parts = spec.split(":");
+            if (parts.length != 3 && parts.length != 4) {
+                throw new IllegalArgumentException("Expected name:maxDepth:gameMillis[:weights], got " + spec);
+            }
+            Evaluator evaluator = parts.length == 4 ? WeightedEvaluator.parse(parts[3]) : Evaluator.STORE_DIFFERENCE;
+            return new Engine(parts[0], Integer.parseInt(parts[1]), Long.parseLong(parts[2]), evaluator);
+        }
+
+        /**
+         * Getter
+         *
+         * @return Name shown in the results
+         */
+        public String getName() {
+            return name;
+        }
+    }
+
+    /**
+     * One finished game.
+     */
+    private static final class Game {
+        private final int player1;
+        private final int player2;
+        private final int opening;
+        private final int winner;
+        private final int margin;
+        private final int plies;
+        private final long[] cpuNanos;
+        private final int flagged;
+
+        Game(int player1, int player2, int opening, int winner, int margin, int plies, long[] cpuNanos,
+             int flagged) {
+            this.player1 = player1;
+            this.player2 = player2;
+            this.opening = opening;
+            this.winner = winner;
+            this.margin = margin;
+            this.plies = plies;
+            this.cpuNanos = cpuNanos;
+            this.flagged = flagged;
+        }
+    }
+
+    /**
+     * Creates a tournament.
+     *
+     * @param engines The engine configurations, at least two
+     * @param openingCount Number of openings each pair plays from both sides
+     * @param seed Seed for the random openings
+     */
+    public Tournament(List<Engine> engines, int openingCount, long seed) {
+        if (engines.size() < 2) {
+            throw new IllegalArgumentException("A tournament needs at least two engines");
+        }
+        this.engines = new ArrayList<>(engines);
+        this.openingCount = openingCount;
+        this.seed = seed;
+        int count = engines.size();
+        wins = new int[count][count];
+        draws = new int[count][count];
+        losses = new int[count][count];
+    }
+
+    /**
+     * Plays every game and streams the results to a CSV file.
+     *
+     * @param threads Number of games played at once
+     * @param results The CSV file, overwritten
+     * @param progress Where to report progress, or null
+     * @throws IOException if the results cannot be written
+     * @throws InterruptedException if interrupted while waiting for the games
+     */
+    public void run(int threads, Path results, PrintStream progress) throws IOException, InterruptedException {
+        List<int[]> openings = createOpenings();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try (BufferedWriter csv = Files.newBufferedWriter(results)) {
+            csv.write("player1,player2,opening,winner,margin,plies,player1CpuMillis,player2CpuMillis,lostOnTime");
+            csv.newLine();
+
+            List<Future<?>> games = new ArrayList<>();
+            int total = engines.size() * (engines.size() - 1) * openingCount;
+            for (int a = 0; a < engines.size(); a++) {
+                for (int b = a + 1; b < engines.size(); b++) {
+                    for (int opening = 0; opening < openings.size(); opening++) {
+                        for (int swap = 0; swap < 2; swap++) {
+                            int player1 = swap == 0 ? a : b;
+                            int player2 = swap == 0 ? b : a;
+                            int[] moves = openings.get(opening);
+                            int index = opening;
+                            games.add(pool.submit(() -> {
+                                record(play(player1, player2, index, moves), csv, total, progress);
+                                return null;
+                            }));
+                        }
+                    }
+                }
+            }
+            for (Future<?> game : games) {
+                game.get();
+            }
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IllegalStateException("Game failed", cause);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Plays one game. Both engines move on this thread, so the CPU time each
+     * search takes is charged to the engine that made it.
+     */
+    private Game play(int player1, int player2, int opening, int[] openingMoves) {
+        int[] board = Rules.newBoard(PITS_PER_SIDE, STONES_PER_PIT);
+        int player = 1;
+        for (int pit : openingMoves) {
+            player = Rules.applyMove(board, PITS_PER_SIDE, player, pit);
+        }
+
+        Engine[] configs = {engines.get(player1), engines.get(player2)};
+        SearchEngine[] searches = new SearchEngine[2];
+        long[] remaining = new long[2];
+        for (int side = 0; side < 2; side++) {
+            searches[side] = new SearchEngine(configs[side].maxDepth, 0);
+            searches[side].setCpuTime(true);
+            searches[side].setEvaluator(configs[side].evaluator);
+            remaining[side] = configs[side].gameMillis * 1_000_000;
+        }
+
+        long[] used = new long[2];
+        int plies = openingMoves.length;
+        int flagged = 0;
+        while (player != Rules.GAME_OVER) {
+            int side = player - 1;
+            long moveMillis = Math.max(1, remaining[side] / MOVES_TO_GO / 1_000_000);
+            long start = SearchEngine.threadCpuTime();
+            int pit = searches[side].findBestMove(board, PITS_PER_SIDE, player, moveMillis);
+            long spent = SearchEngine.threadCpuTime() - start;
+            used[side] += spent;
+            remaining[side] -= spent;
+            if (remaining[side] < 0) {
+                flagged = player;
+                break;
+            }
+            player = Rules.applyMove(board, PITS_PER_SIDE, player, pit);
+            plies++;
+        }
+
+        int margin = board[Rules.store(PITS_PER_SIDE, 1)] - board[Rules.store(PITS_PER_SIDE, 2)];
+        int winner = flagged != 0 ? 3 - flagged : Rules.winner(board, PITS_PER_SIDE);
+        return new Game(player1, player2, opening, winner, margin, plies, used, flagged);
+    }
+
+    /**
+     * Adds a game to the standings and appends it to the CSV file.
+     */
+    private synchronized void record(Game game, BufferedWriter csv, int total, PrintStream progress)
+            throws IOException {
+        int a = game.player1;
+        int b = game.player2;
+        if (game.winner == 1) {
+            wins[a][b]++;
+            losses[b][a]++;
+        } else if (game.winner == 2) {
+            wins[b][a]++;
+            losses[a][b]++;
+        } else {
+            draws[a][b]++;
+            draws[b][a]++;
+        }
+        gamesPlayed++;
+        if (game.flagged != 0) {
+            timeLosses++;
+        }
+
+        String winner = game.winner == 0 ? "draw" : engines.get(game.winner == 1 ? a : b).name;
+        String flagged = game.flagged == 0 ? "" : engines.get(game.flagged == 1 ? a : b).name;
+        csv.write(String.format("%s,%s,%d,%s,%d,%d,%d,%d,%s", engines.get(a).name, engines.get(b).name,
+                                game.opening, winner, game.margin, game.plies, game.cpuNanos[0] / 1_000_000,
+                                game.cpuNanos[1] / 1_000_000, flagged));
+        csv.newLine();
+        csv.flush();
+
+        if (progress != null && (gamesPlayed % 100 == 0 || gamesPlayed == total)) {
+            progress.printf("%d/%d games%n", gamesPlayed, total);
+        }
+    }
+
+    /**
+     * Creates the openings: random legal moves from the starting position
+     * that leave the game open, the same for every run with the same seed.
+     */
+    private List<int[]> createOpenings() {
+        Random random = new Random(seed);
+        List<int[]> openings = new ArrayList<>();
+        while (openings.size() < openingCount) {
+            int[] board = Rules.newBoard(PITS_PER_SIDE, STONES_PER_PIT);
+            int[] moves = new int[OPENING_PLIES];
+            int player = 1;
+            for (int ply = 0; ply < OPENING_PLIES && player != Rules.GAME_OVER; ply++) {
+                int first = Rules.firstPit(PITS_PER_SIDE, player);
+                int pit;
+                do {
+                    pit = first + random.nextInt(PITS_PER_SIDE);
+                } while (board[pit] == 0);
+                moves[ply] = pit;
+                player = Rules.applyMove(board, PITS_PER_SIDE, player, pit);
+            }
+            if (player != Rules.GAME_OVER) {
+                openings.add(moves);
+            }
+        }
+        return openings;
+    }
+
+    /**
+     * Fits Elo ratings to all results by maximum likelihood (draws count as
+     * half a win), with the average rating at 0.
+     *
+     * @return The rating of each engine
+     */
+    public synchronized double[] ratings() {
+        int count = engines.size();
+        double[] ratings = new double[count];
+        for (int iteration = 0; iteration < 1000; iteration++) {
+            double largestStep = 0;
+            for (int i = 0; i < count; i++) {
+                double score = 0;
+                double expected = 0;
+                double information = 0;
+                for (int j = 0; j < count; j++) {
+                    int games = wins[i][j] + draws[i][j] + losses[i][j];
+                    if (j == i || games == 0) {
+                        continue;
+                    }
+                    double p = expectedScore(ratings[i] - ratings[j]);
+                    score += wins[i][j] + 0.5 * draws[i][j];
+                    expected += games * p;
+                    information += games * p * (1 - p);
+                }
+                if (information > 0) {
+                    // Newton step; clamped so an engine that won or lost everything stays finite
+                    double step = (score - expected) / information * ELO_PER_NATURAL_UNIT;
+                    step = Math.max(-100, Math.min(100, step));
+                    ratings[i] = Math.max(-2000, Math.min(2000, ratings[i] + step));
+                    largestStep = Math.max(largestStep, Math.abs(step));
+                }
+            }
+            double mean = 0;
+            for (double rating : ratings) {
+                mean += rating;
+            }
+            for (int i = 0; i < count; i++) {
+                ratings[i] -= mean / count;
+            }
+            if (largestStep < 0.01) {
+                break;
+            }
+        }
+        return ratings;
+    }
+
+    /**
+     * Prints the standings: every engine's rating and score, then the
+     * result of each pairing.
+     *
+     * @param out Where to print
+     */
+    public synchronized void printStandings(PrintStream out) {
+        double[] ratings = ratings();
+        int count = engines.size();
+
+        out.printf("%d games, %d lost on time%n%n", gamesPlayed, timeLosses);
+        out.printf("%-12s %8s %8s %8s %8s %8s%n", "Engine", "Elo", "+/-95%", "Wins", "Draws", "Losses");
+        for (int i = 0; i < count; i++) {
+            int won = 0;
+            int drawn = 0;
+            int lost = 0;
+            double information = 0;
+            for (int j = 0; j < count; j++) {
+                won += wins[i][j];
+                drawn += draws[i][j];
+                lost += losses[i][j];
+                double p = expectedScore(ratings[i] - ratings[j]);
+                information += (wins[i][j] + draws[i][j] + losses[i][j]) * p * (1 - p);
+            }
+            double margin = information > 0 ? Z_95 * ELO_PER_NATURAL_UNIT / Math.sqrt(information) : Double.NaN;
+            out.printf("%-12s %8.0f %8.0f %8d %8d %8d%n", engines.get(i).name, ratings[i], margin, won, drawn, lost);
+        }
+
+        out.println();
+        out.println("Pairings (Elo difference from the score, with 95% interval):");
+        for (int i = 0; i < count; i++) {
+            for (int j = i + 1; j < count; j++) {
+                int games = wins[i][j] + draws[i][j] + losses[i][j];
+                if (games == 0) {
+                    continue;
+                }
+                double score = (wins[i][j] + 0.5 * draws[i][j]) / games;
+                double variance = (wins[i][j] * Math.pow(1 - score, 2) + draws[i][j] * Math.pow(0.5 - score, 2)
+                                   + losses[i][j] * Math.pow(score, 2)) / games;
+                double error = Z_95 * Math.sqrt(variance / games);
+                out.printf("  %s vs %s: +%d =%d -%d, %.1f%%, Elo %s [%s, %s]%n", engines.get(i).name,
+                           engines.get(j).name, wins[i][j], draws[i][j], losses[i][j], 100 * score,
+                           formatElo(score), formatElo(score - error), formatElo(score + error));
+            }
+        }
+    }
+
+    private static double expectedScore(double difference) {
+        return 1 / (1 + Math.pow(10, -difference / 400));
+    }
+
+    private static String formatElo(double score) {
+        if (score <= 0) {
+            return "-inf";
+        }
+        if (score >= 1) {
+            return "+inf";
+        }
+        return String.format("%+.0f", -400 * Math.log10(1 / score - 1));
+    }
+
+    /**
+     * Command line entry point.
+     *
+     * @param args &lt;results.csv&gt; &lt;threads&gt; &lt;openings&gt; &lt;name:maxDepth:gameMillis[:weights]&gt;...
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 5) {
+            System.err.println("Usage: java mancala.engine.Tournament <results.csv> <threads> <openings> "
+                               + "<name:maxDepth:gameMillis[:weights]>...");
+            System.err.println("Example: java mancala.engine.Tournament results.csv 8 50 d4:4:1000 d8:8:1000 "
+                               + "full:64:1000");
+            System.exit(2);
+        }
+        Path results = Path.of(args[0]);
+        int threads = Integer.parseInt(args[1]);
+        int openings = Integer.parseInt(args[2]);
+        List<Engine> engines = new ArrayList<>();
+        for (int i = 3; i < args.length; i++) {
+            engines.add(Engine.parse(args[i]));
+        }
+
+        Tournament tournament = new Tournament(engines, openings, 1);
+        long start = System.nanoTime();
+        tournament.run(threads, results, System.out);
+        System.out.printf("Played in %.1f s with %d threads%n%n", (System.nanoTime() - start) / 1e9, threads);
+        tournament.printStandings(System.out);
+    }
+}
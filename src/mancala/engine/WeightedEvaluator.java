@@ -0,0 +1,205 @@
+package mancala.engine;
+
+import java.util.Arrays;
+
+/**
+ * Evaluator that adds up weighted features of the position, all from the
+ * point of view of the player to move:
+ * <ul>
+ *   <li>store margin: own store minus the opponent's</li>
+ *   <li>own side and opponent side: the stones left in each row of pits</li>
+ *   <li>own capture and opponent capture: the most stones one move could
+ *       capture now, counting the capturing stone, for each player as if
+ *       it were their turn</li>
+ *   <li>own extra turns and opponent extra turns: the pits whose last
+ *       stone lands in the player's store</li>
+ * </ul>
+ * Captures and extra turns from a move that laps the board are left out.
+ * Weights are whole numbers, and scores come out in hundredths of a stone
+ * when the store margin weighs STONE, as in the default weights. TexelTuner
+ * fits weights to self-play games.
+ *
+ * <p>Evaluating reads the board in one pass, with few branches, and
+ * allocates nothing; an instance has no mutable state, so threads may
+ * share it.
+ *
+ * @author CS151 Group Project
+ * @version 1.0
+ */
+public final class WeightedEvaluator implements Evaluator {
+    /** Index of each feature in a weight or feature array */
+    public static final int STORE_MARGIN = 0;
+    public static final int OWN_SIDE = 1;
+    public static final int OPPONENT_SIDE = 2;
+    public static final int OWN_CAPTURE = 3;
+    public static final int OPPONENT_CAPTURE = 4;
+    public static final int OWN_EXTRA_TURNS = 5;
+    public static final int OPPONENT_EXTRA_TURNS = 6;
+    /** Number of features */
+    public static final int FEATURES = 7;
+
+    /** Feature names, by index, as printed by the tuner */
+    public static final String[] FEATURE_NAMES = {
+        "storeMargin", "ownSide", "opponentSide", "ownCapture", "opponentCapture",
+        "ownExtraTurns", "opponentExtraTurns"
+    };
+
+    /** Weight of the store margin that makes scores hundredths of a stone */
+    public static final int STONE = 100;
+
+    /**
+     * Weights fitted by TexelTuner to 700,000 positions from 20,000 games
+     * between depth 6 engines searching with the store difference
+     */
+    public static final int[] DEFAULT_WEIGHTS = {102, 14, -9, 58, -45, 187, -123};
+
+    private static final WeightedEvaluator[] UNIT = new WeightedEvaluator[FEATURES];
+
+    static {
+        for (int feature = 0; feature < FEATURES; feature++) {
+            int[] weights = new int[FEATURES];
+            weights[feature] = 1;
+            UNIT[feature] = new WeightedEvaluator(weights);
+        }
+    }
+
+    private final int storeMargin;
+    private final int ownSide;
+    private final int opponentSide;
+    private final int ownCapture;
+    private final int opponentCapture;
+    private final int ownExtraTurns;
+    private final int opponentExtraTurns;
+
+    /**
+     * Creates an evaluator.
+     *
+     * @param weights One weight per feature, in feature index order
+     * @throws IllegalArgumentException If there is not one weight per feature
+     */
+    public WeightedEvaluator(int... weights) {
+        if (weights.length != FEATURES) {
+            throw new IllegalArgumentException("Expected " + FEATURES + " weights, got " + weights.length);
+        }
+        storeMargin = weights[STORE_MARGIN];
+        ownSide = weights[OWN_SIDE];
+        opponentSide = weights[OPPONENT_SIDE];
+        ownCapture = weights[OWN_CAPTURE];
+        opponentCapture = weights[OPPONENT_CAPTURE];
+        ownExtraTurns = weights[OWN_EXTRA_TURNS];
+        opponentExtraTurns = weights[OPPONENT_EXTRA_TURNS];
+    }
+
+    /**
+     * Parses weights written as by toString(), comma separated.
+     *
+     * @param weights The weights, in feature index order
+     * @return The evaluator
+     * @throws IllegalArgumentException If the weights are malformed
+     */
+    public static WeightedEvaluator parse(String weights) {
+        String[] parts = weights.split(",");
+        int[] values = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            values[i] = Integer.parseInt(parts[i].trim());
+        }
+        return new WeightedEvaluator(values);
+    }
+
+    @Override
+    public int evaluate(int[] board, int pitsPerSide, int player) {
+        int own = Rules.firstPit(pitsPerSide, player);
+        int opponent = Rules.firstPit(pitsPerSide, 3 - player);
+        int ownStones = 0;
+        int opponentStones = 0;
+        int ownExtra = 0;
+        int opponentExtra = 0;
+        int ownBest = 0;
+        int opponentBest = 0;
+        for (int i = 0; i < pitsPerSide; i++) {
+            int mine = board[own + i];
+            int theirs = board[opponent + i];
+            ownStones += mine;
+            opponentStones += theirs;
+            // The store is pitsPerSide - i steps away from pit i, on either side
+            ownExtra += mine == pitsPerSide - i ? 1 : 0;
+            opponentExtra += theirs == pitsPerSide - i ? 1 : 0;
+            ownBest = Math.max(ownBest, capture(board, pitsPerSide, own, i, mine));
+            opponentBest = Math.max(opponentBest, capture(board, pitsPerSide, opponent, i, theirs));
+        }
+        // Each player's store follows their last pit
+        int margin = board[own + pitsPerSide] - board[opponent + pitsPerSide];
+        return storeMargin * margin
+            + ownSide * ownStones
+            + opponentSide * opponentStones
+            + ownCapture * ownBest
+            + opponentCapture * opponentBest
+            + ownExtraTurns * ownExtra
+            + opponentExtraTurns * opponentExtra;
+    }
+
+    /**
+     * Finds what a move would capture. Positions differ so much that
+     * branches here would often be mispredicted, so the conditions are
+     * worked out as 0 or 1 with shifts and combined with masks.
+     *
+     * @param board The board
+     * @param pitsPerSide Number of pits each side has
+     * @param first The mover's first pit
+     * @param i The pit to move, counted from the mover's first pit
+     * @param stones The stones in that pit
+     * @return The stones captured, counting the capturing stone, or 0
+     */
+    private static int capture(int[] board, int pitsPerSide, int first, int i, int stones) {
+        // Positions one lap takes, from the mover's first pit: pits, own store, opponent pits
+        int lap = 2 * pitsPerSide + 1;
+        int end = i + stones;
+        int wrapped = (lap - 1 - end) >>> 31;
+        int landing = end - (wrapped * lap);
+        // Moves that lap the board are left out
+        int inRow = ((landing - pitsPerSide) >>> 31) & ((-stones) >>> 31) & ((stones - lap) >>> 31);
+        landing *= inRow; // Any pit in the row, to stay on the board when not in it
+        int empty = (board[first + landing] - 1) >>> 31;
+        // A move that wraps around has dropped a stone in the opposite pit too
+        int captured = board[2 * pitsPerSide - first - landing] + wrapped;
+        int captures = inRow & empty & ((-captured) >>> 31);
+        return (captured + 1) & -captures;
+    }
+
+    /**
+     * Computes the features of a position, for fitting weights. Together
+     * with the weights they add up to evaluate().
+     *
+     * @param board The board (not modified)
+     * @param pitsPerSide Number of pits each side has
+     * @param player The player to move
+     * @param features Filled with one value per feature, in feature index order
+     */
+    public static void features(int[] board, int pitsPerSide, int player, int[] features) {
+        // The score is linear in the weights, so one weight of 1 gives one feature
+        for (int feature = 0; feature < FEATURES; feature++) {
+            features[feature] = UNIT[feature].evaluate(board, pitsPerSide, player);
+        }
+    }
+
+    /**
+     * Getter
+     *
+     * @return The weights, in feature index order
+     */
+    public int[] getWeights() {
+        return new int[] {
+            storeMargin, ownSide, opponentSide, ownCapture, opponentCapture, ownExtraTurns, opponentExtraTurns
+        };
+    }
+
+    /**
+     * Gets the weights as parse() reads them.
+     *
+     * @return The weights, comma separated
+     */
+    @Override
+    public String toString() {
+        return Arrays.toString(getWeights()).replaceAll("[\\[\\] ]", "");
+    }
+}
@@ -0,0 +1,332 @@
+/**
+ * Headless exporter that turns a game record into a PNG frame sequence.
+ * Replays a move list through the MancalaModel and renders every ply
+ * (optionally with one frame per sown stone) using offscreen BoardPanels.
+ *
+ * <p>Responsibilities:
+ * <ul>
+ *   <li>Replays and validates the move list with the game rules</li>
+ *   <li>Builds the frame list, including sowing animation frames</li>
+ *   <li>Renders the frames in parallel, one BoardPanel per worker thread</li>
+ *   <li>Writes the frames as numbered PNG files</li>
+ * </ul>
+ *
+ * <p>To run from command line:
+ * <pre>
+ * java mancala.export.ReplayExporter moves.txt out/ --stones 4 --style Neon --animate --threads 8
+ * </pre>
+ * The move list is either a file or an inline list of model pit indices
+ * (e.g. "2,9,3,12"), separated by commas or whitespace.
+ *
+ * @author CS151 Group Project
+ * @version 1.0
+ */
+package mancala.export;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import javax.imageio.ImageIO;
+import mancala.model.MancalaModel;
+import mancala.style.BoardStyle;
+import mancala.style.StyleA;
+import mancala.style.StyleB;
+import mancala.view.BoardPanel;
+
+public class ReplayExporter {
+    private static final int PITS_PER_SIDE = 6;
+
+    private final int stonesPerPit;
+    private final BoardStyle style;
+    private final int width;
+    private final int height;
+    private final int threads;
+
+    /**
+     * A single frame to render: the board and whose turn it shows.
+     */
+    public static class Frame {
+        private final int[] board;
+        private final int currentPlayer;
+        private final boolean gameOver;
+
+        /**
+         * Constructs a frame. The board array is not copied.
+         *
+         * @param board Board state to render
+         * @param currentPlayer The player shown as moving (1 or 2)
+         * @param gameOver Whether the game is over in this frame
+         */
+        public Frame(int[] board, int currentPlayer, boolean gameOver) {
+            this.board = board;
+            this.currentPlayer = currentPlayer;
+            this.gameOver = gameOver;
+        }
+
+        /**
+         * Getter
+         *
+         * @return The board state of this frame
+         */
+        public int[] getBoard() {
+            return board;
+        }
+
+        /**
+         * Getter
+         *
+         * @return The player shown as moving
+         */
+        public int getCurrentPlayer() {
+            return currentPlayer;
+        }
+
+        /**
+         * Getter
+         *
+         * @return True if the game is over in this frame
+         */
+        public boolean isGameOver() {
+            return gameOver;
+        }
+    }
+
+    /**
+     * Constructs an exporter.
+     *
+     * @param stonesPerPit Initial stones per pit of the recorded game
+     * @param style Board style used for rendering
+     * @param width Frame width in pixels
+     * @param height Frame height in pixels
+     * @param threads Number of render threads
+     */
+    public ReplayExporter(int stonesPerPit, BoardStyle style, int width, int height, int threads) {
+        this.stonesPerPit = stonesPerPit;
+        this.style = style;
+        this.width = width;
+        this.height = height;
+        this.threads = Math.max(1, threads);
+    }
+
+    /**
+     * Replays the moves through the model and returns the frames to render.
+     * The first frame is the starting position, then one frame per ply.
+     * With animation, every sown stone gets its own frame before the final
+     * position of the ply (after captures and the end-of-game sweep).
+     *
+     * @param moves Model pit indices in the order they were played
+     * @param animate Whether to add sowing frames between plies
+     * @return The frames in playing order
+     * @throws IllegalArgumentException if a move is not legal in its position
+     */
+    public List<Frame> replay(int[] moves, boolean animate) {
+        MancalaModel model = new MancalaModel(PITS_PER_SIDE, stonesPerPit);
+        model.startGame(1);
+
+        List<Frame> frames = new ArrayList<>();
+        frames.add(new Frame(model.getBoardState(), model.getCurrentPlayer(), false));
+
+        for (int ply = 0; ply < moves.length; ply++) {
+            int pitIndex = moves[ply];
+            if (!model.isValidMove(pitIndex)) {
+                throw new IllegalArgumentException("Illegal move " + pitIndex + " at ply " + (ply + 1));
+            }
+
+            int player = model.getCurrentPlayer();
+            if (animate) {
+                addSowingFrames(frames, model.getBoardState(), pitIndex,
+                                model.getPlayerStore(3 - player), player);
+            }
+
+            model.applyMove(pitIndex);
+            frames.add(new Frame(model.getBoardState(), model.getCurrentPlayer(), model.isGameOver()));
+        }
+        return frames;
+    }
+
+    /**
+     * Adds one frame per stone dropped while sowing from a pit, following the
+     * same path as MancalaModel.applyMove (skipping the opponent's store).
+     *
+     * @param frames Frame list to append to
+     * @param board Board before the move (modified)
+     * @param pitIndex The pit being played
+     * @param opponentStore The store that is skipped
+     * @param player The moving player
+     */
+    private void addSowingFrames(List<Frame> frames, int[] board, int pitIndex,
+                                 int opponentStore, int player) {
+        int stones = board[pitIndex];
+        board[pitIndex] = 0;
+        frames.add(new Frame(board.clone(), player, false));
+
+        int pit = pitIndex;
+        while (stones != 0) {
+            pit = (pit + 1) % board.length;
+            if (pit != opponentStore) {
+                board[pit]++;
+                stones--;
+                frames.add(new Frame(board.clone(), player, false));
+            }
+        }
+    }
+
+    /**
+     * Renders the frames in parallel and writes them as frame_00000.png,
+     * frame_00001.png, ... into the output directory.
+     *
+     * @param frames The frames to render
+     * @param outDir Output directory (created if missing)
+     * @throws IOException if a frame cannot be written
+     */
+    public void export(List<Frame> frames, Path outDir) throws IOException {
+        Files.createDirectories(outDir);
+
+        // Each worker renders with its own BoardPanel; the panels are never
+        // shown, so they are confined to their worker thread
+        ThreadLocal<BoardPanel> panels = ThreadLocal.withInitial(this::createPanel);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> results = new ArrayList<>(frames.size());
+            for (int i = 0; i < frames.size(); i++) {
+                Frame frame = frames.get(i);
+                Path file = outDir.resolve(String.format("frame_%05d.png", i));
+                results.add(pool.submit(() -> writeFrame(panels.get(), frame, file)));
+            }
+            for (Future<?> result : results) {
+                result.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Export interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) e.getCause()).getCause();
+            }
+            throw new IOException("Could not render frame", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Creates an offscreen BoardPanel sized and styled for export.
+     *
+     * @return A new BoardPanel
+     */
+    private BoardPanel createPanel() {
+        BoardPanel panel = new BoardPanel();
+        // Paint straight into the frame image, not the EDT's shared back buffer
+        panel.setDoubleBuffered(false);
+        panel.setSize(width, height);
+        panel.setStyle(style);
+        return panel;
+    }
+
+    /**
+     * Renders a single frame and writes it as PNG.
+     *
+     * @param panel The worker's BoardPanel
+     * @param frame The frame to render
+     * @param file Output file
+     */
+    private void writeFrame(BoardPanel panel, Frame frame, Path file) {
+        panel.setBoardState(frame.getBoard(), frame.getCurrentPlayer(), frame.isGameOver());
+
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2d = image.createGraphics();
+        g2d.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        panel.paint(g2d);
+        g2d.dispose();
+
+        try {
+            ImageIO.write(image, "png", file.toFile());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Parses a move list from a file or an inline string.
+     *
+     * @param source File path or inline move list
+     * @return The pit indices
+     * @throws IOException if the file cannot be read
+     */
+    private static int[] parseMoves(String source) throws IOException {
+        Path path = Paths.get(source);
+        String text = Files.isRegularFile(path) ? Files.readString(path) : source;
+        String[] tokens = text.trim().split("[,\\s]+");
+
+        int[] moves = new int[tokens.length];
+        for (int i = 0; i < tokens.length; i++) {
+            moves[i] = Integer.parseInt(tokens[i]);
+        }
+        return moves;
+    }
+
+    /**
+     * Command line entry point.
+     *
+     * @param args moves outDir [--stones n] [--style Wood|Neon] [--size WxH] [--animate] [--threads n]
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: ReplayExporter <moves> <outDir> [--stones n] [--style Wood|Neon]"
+                    + " [--size WxH] [--animate] [--threads n]");
+            System.exit(1);
+        }
+        System.setProperty("java.awt.headless", "true");
+
+        int stones = 4;
+        BoardStyle style = new StyleA();
+        int width = 800;
+        int height = 400;
+        boolean animate = false;
+        int threads = Runtime.getRuntime().availableProcessors();
+
+        for (int i = 2; i < args.length; i++) {
+            switch (args[i]) {
+                case "--stones":
+                    stones = Integer.parseInt(args[++i]);
+                    break;
+                case "--style":
+                    style = "Neon".equals(args[++i]) ? new StyleB() : new StyleA();
+                    break;
+                case "--size":
+                    String[] size = args[++i].split("x");
+                    width = Integer.parseInt(size[0]);
+                    height = Integer.parseInt(size[1]);
+                    break;
+                case "--animate":
+                    animate = true;
+                    break;
+                case "--threads":
+                    threads = Integer.parseInt(args[++i]);
+                    break;
+                default:
+                    System.err.println("Unknown option: " + args[i]);
+                    System.exit(1);
+            }
+        }
+
+        ReplayExporter exporter = new ReplayExporter(stones, style, width, height, threads);
+        List<Frame> frames = exporter.replay(parseMoves(args[0]), animate);
+
+        long start = System.nanoTime();
+        exporter.export(frames, Paths.get(args[1]));
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        System.out.printf("Wrote %d frames in %d ms with %d threads%n", frames.size(), elapsedMs, threads);
+    }
+}
@@ -0,0 +1,100 @@
+/**
+ * This is the BoardSnapshot class.
+ * This is an immutable copy of the board at some point in time, so it can be
+ * shared between threads and renderers without copying it again.
+ *
+ * <p>Responsibilities:
+ * <ul>
+ *   <li>Holds the board, the player to move and the game over state</li>
+ *   <li>Never changes after it is created</li>
+ * </ul>
+ *
+ * @author CS151 Group Project
+ * @version 1.0
+ */
+
+package mancala.model;
+
+public final class BoardSnapshot {
+  private final int[] board;
+  private final int pitsPerSide;
+  private final int currentPlayer;
+  private final boolean gameOver;
+  private final int winner;
+
+  /**
+   * Initializes the snapshot
+   *
+   * @param board         Board data, copied
+   * @param pitsPerSide   Number of pits each side has
+   * @param currentPlayer The player to move
+   * @param gameOver      True if the game is over
+   * @param winner        The winner, 0 for a tie and -1 if there is no winner yet
+   */
+  public BoardSnapshot(int[] board, int pitsPerSide, int currentPlayer, boolean gameOver, int winner) {
+    this.board = new int[board.length];
+    System.arraycopy(board, 0, this.board, 0, board.length);
+    this.pitsPerSide = pitsPerSide;
+    this.currentPlayer = currentPlayer;
+    this.gameOver = gameOver;
+    this.winner = winner;
+  }
+
+  /**
+   * This get the amount of stones at a specific pit
+   *
+   * @param idx The pit index
+   * @return The amount of stones
+   */
+  public int getStonesAtPit(int idx) {
+    return board[idx];
+  }
+
+  /**
+   * Getter
+   *
+   * @return This copies the board state and returns it
+   */
+  public int[] getBoardState() {
+    int[] arr = new int[board.length];
+    System.arraycopy(board, 0, arr, 0, board.length);
+
+    return arr;
+  }
+
+  /**
+   * Getter
+   *
+   * @return Number of pits each side has
+   */
+  public int getPitsPerSide() {
+    return pitsPerSide;
+  }
+
+  /**
+   * Getter
+   *
+   * @return The player to move
+   */
+  public int getCurrentPlayer() {
+    return currentPlayer;
+  }
+
+  /**
+   * Getter
+   *
+   * @return Returns true if the game is over
+   */
+  public boolean isGameOver() {
+    return gameOver;
+  }
+
+  /**
+   * Getter
+   *
+   * @return The winner of the game. -1 is there is no winner yet.
+   */
+  public int getWinner() {
+    return winner;
+  }
+}
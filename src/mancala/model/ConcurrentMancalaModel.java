@@ -0,0 +1,214 @@
+/**
+ * This is the ConcurrentMancalaModel class.
+ * A thread-safe MancalaModel for games that are read from other threads,
+ * such as a background analyzer, a network thread or spectators.
+ *
+ * <p>Changes go through one writer at a time: a lock serializes them on a
+ * private MancalaModel. After every change the new state is published as
+ * an immutable BoardSnapshot through an atomic reference, so readers get a
+ * consistent board without taking a lock and without copying it; the copy
+ * is made once per change, not once per read.
+ *
+ * <p>Responsibilities:
+ * <ul>
+ *   <li>Serializes moves, undos and restores</li>
+ *   <li>Publishes a snapshot after every change</li>
+ *   <li>Notifies the listeners, on the thread that made the change</li>
+ * </ul>
+ *
+ * @author CS151 Group Project
+ * @version 1.0
+ */
+
+package mancala.model;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import mancala.diag.FlightRecording;
+import mancala.diag.ListenerDispatchEvent;
+import mancala.diag.PerfMonitor;
+import mancala.engine.Rules;
+
+public class ConcurrentMancalaModel {
+  // Only used while holding writeLock
+  private final MancalaModel model;
+  private final ReentrantLock writeLock = new ReentrantLock();
+  private final AtomicReference<BoardSnapshot> snapshot = new AtomicReference<>();
+  private final List<ModelListener> listeners = new CopyOnWriteArrayList<>();
+
+  /**
+   * Initializes the game and publishes its first snapshot
+   *
+   * @param pitsPerSide  Number of pits each side has
+   * @param stonesPerPit The initial amount of stones each pits has
+   */
+  public ConcurrentMancalaModel(int pitsPerSide, int stonesPerPit) {
+    model = new MancalaModel(pitsPerSide, stonesPerPit);
+    publish();
+  }
+
+  /**
+   * This start the game by initializing the starting player
+   *
+   * @param player The starting player 1 for A, 2 for B
+   */
+  public void startGame(int player) {
+    writeLock.lock();
+    try {
+      model.startGame(player);
+      publish();
+    } finally {
+      writeLock.unlock();
+    }
+    notifyListeners();
+  }
+
+  /**
+   * This checks and plays a move as one step, so no other writer can change
+   * the game in between
+   *
+   * @param pitIndex The pit index
+   * @return OK if the move was played, otherwise the reason it is rejected
+   */
+  public MoveCheck applyMove(int pitIndex) {
+    writeLock.lock();
+    try {
+      MoveCheck check = model.checkMove(pitIndex);
+      if (check != MoveCheck.OK) {
+        return check;
+      }
+      model.applyMove(pitIndex);
+      publish();
+    } finally {
+      writeLock.unlock();
+    }
+    notifyListeners();
+    return MoveCheck.OK;
+  }
+
+  /**
+   * This undo the game to the previous game state
+   *
+   * @return True if there was a state to go back to
+   */
+  public boolean undo() {
+    writeLock.lock();
+    try {
+      if (!model.hasHistory()) {
+        return false;
+      }
+      model.undo();
+      publish();
+    } finally {
+      writeLock.unlock();
+    }
+    notifyListeners();
+    return true;
+  }
+
+  /**
+   * This restores a game that was saved outside the model.
+   * See MancalaModel.restore.
+   *
+   * @param board         The board to continue from
+   * @param currentPlayer The player to move
+   * @param lastMove      The pit of the last move, -1 if none
+   * @param undoState     The state undo returns to, or null if there is none
+   */
+  public void restore(int[] board, int currentPlayer, int lastMove, GameState undoState) {
+    writeLock.lock();
+    try {
+      model.restore(board, currentPlayer, lastMove, undoState);
+      publish();
+    } finally {
+      writeLock.unlock();
+    }
+    notifyListeners();
+  }
+
+  /**
+   * Getter. Never blocks; every field of the snapshot belongs to the same
+   * state of the game.
+   *
+   * @return The latest published state
+   */
+  public BoardSnapshot getSnapshot() {
+    return snapshot.get();
+  }
+
+  /**
+   * This checks a move against the latest snapshot. Another writer may
+   * change the game before the move is played; applyMove checks again.
+   *
+   * @param pitIndex The pit index
+   * @return OK if the current player may play that pit, otherwise the reason it is rejected
+   */
+  public MoveCheck checkMove(int pitIndex) {
+    BoardSnapshot state = snapshot.get();
+    if (state.isGameOver()) {
+      return MoveCheck.GAME_OVER;
+    }
+    int pitsPerSide = state.getPitsPerSide();
+    int first = Rules.firstPit(pitsPerSide, state.getCurrentPlayer());
+    if (pitIndex < first || pitIndex >= first + pitsPerSide) {
+      return MoveCheck.NOT_YOUR_PIT;
+    }
+    if (state.getStonesAtPit(pitIndex) == 0) {
+      return MoveCheck.EMPTY_PIT;
+    }
+    return MoveCheck.OK;
+  }
+
+  /**
+   * Checks if there is any history available for undo.
+   *
+   * @return true if history stack is not empty
+   */
+  public boolean hasHistory() {
+    writeLock.lock();
+    try {
+      return model.hasHistory();
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  /**
+   * This is where the listener is added. Listeners may be added from any
+   * thread and are called on the thread that changed the game, after the
+   * new snapshot is published.
+   *
+   * @param listener Listens for updates in the game states
+   */
+  public void addListener(ModelListener listener) {
+    listeners.add(listener);
+  }
+
+  /**
+   * This publishes the model's current state; called with writeLock held
+   */
+  private void publish() {
+    snapshot.set(model.getSnapshot());
+  }
+
+  /**
+   * This notifies all of the listeners
+   */
+  private void notifyListeners() {
+    long start = PerfMonitor.start();
+    ListenerDispatchEvent event = FlightRecording.isActive() ? new ListenerDispatchEvent() : null;
+    if (event != null) {
+      event.begin();
+    }
+    for (ModelListener listener : listeners) {
+      listener.modelChanged();
+    }
+    if (event != null && event.shouldCommit()) {
+      event.listenerCount = listeners.size();
+      event.commit();
+    }
+    PerfMonitor.stop(PerfMonitor.DISPATCH, start);
+  }
+}
@@ -23,13 +23,16 @@ package mancala.model;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Stack;
-import javax.swing.event.ChangeEvent;
-import javax.swing.event.ChangeListener;
+import mancala.diag.FlightRecording;
+import mancala.diag.GameMetrics;
+import mancala.diag.ListenerDispatchEvent;
+import mancala.diag.MoveEvent;
+import mancala.diag.PerfMonitor;
 
 public class MancalaModel {
   private int stonesPerPit;
   private int pitsPerSide;
-  private List<ChangeListener> listeners;
+  private List<ModelListener> listeners;
   private Stack<GameState> history;
   private boolean isGameOver;
 
@@ -72,6 +75,7 @@ public class MancalaModel {
    */
   public void startGame(int player) {
     currentPlayer = player;
+    GameMetrics.gameStarted();
   }
 
   /**
@@ -83,6 +87,7 @@ public class MancalaModel {
       currentMove = state.getCurrentTurn();
       board = state.getBoard();
       currentPlayer = state.getCurrentPlayer();
+      GameMetrics.undone();
       notifyListeners();
     }
   }
@@ -133,12 +138,21 @@ public class MancalaModel {
     return arr;
   }
 
+  /**
+   * Getter
+   * 
+   * @return An immutable snapshot of the current board and turn
+   */
+  public BoardSnapshot getSnapshot() {
+    return new BoardSnapshot(board, pitsPerSide, currentPlayer, isGameOver, winner);
+  }
+
   /**
    * This is where the listener is added
    * 
    * @param listener Listens for updates in the game states
    */
-  public void addListener(ChangeListener listener) {
+  public void addListener(ModelListener listener) {
     listeners.add(listener);
   }
 
@@ -151,6 +165,36 @@ public class MancalaModel {
     currentPlayer = player;
   }
 
+  /**
+   * This checks if a move is allowed: the game is not over, the pit belongs to
+   * the current player and it has stones in it
+   * 
+   * @param pitIndex The pit index
+   * @return OK if the current player may play that pit, otherwise the reason it is rejected
+   */
+  public MoveCheck checkMove(int pitIndex) {
+    if (isGameOver) {
+      return MoveCheck.GAME_OVER;
+    }
+    if (pitIndex < 0 || pitIndex >= board.length || !isPitOwnedBy(pitIndex, currentPlayer)) {
+      return MoveCheck.NOT_YOUR_PIT;
+    }
+    if (board[pitIndex] == 0) {
+      return MoveCheck.EMPTY_PIT;
+    }
+    return MoveCheck.OK;
+  }
+
+  /**
+   * This checks if a move is allowed
+   * 
+   * @param pitIndex The pit index
+   * @return True if the current player may play that pit
+   */
+  public boolean isValidMove(int pitIndex) {
+    return checkMove(pitIndex) == MoveCheck.OK;
+  }
+
   /**
    * This function is where a move is made
    * 
@@ -158,12 +202,23 @@ public class MancalaModel {
    * @return true if there is an extra move to do
    */
   public boolean applyMove(int pitIndex) {
+    long start = PerfMonitor.start();
+    MoveEvent event = FlightRecording.isActive() ? new MoveEvent() : null;
+    if (event != null) {
+      event.begin();
+    }
+
     // save state BEFORE making changes
     addToHistory();
     // Save the original selected pit for history
     currentMove = pitIndex;
 
     int stones = getStonesAtPit(pitIndex);
+    if (event != null) {
+      event.pit = pitIndex;
+      event.player = currentPlayer;
+      event.stonesSown = stones;
+    }
     board[pitIndex] = 0;
 
     int opponentStore = getPlayerStore(3 - currentPlayer);
@@ -188,6 +243,13 @@ public class MancalaModel {
       switchPlayer();
     }
 
+    if (event != null && event.shouldCommit()) {
+      event.extraTurn = extraMove;
+      event.gameOver = isGameOver;
+      event.commit();
+    }
+    GameMetrics.moveApplied(PerfMonitor.stop(PerfMonitor.MOVE, start), isGameOver);
+
     // Save state to history after move is complete
     notifyListeners();
 
@@ -209,12 +271,28 @@ public class MancalaModel {
   }
 
   /**
-   * This notifies all of the listeners
+   * This notifies all of the listeners. Without listeners nothing is timed
+   * or recorded, so a wrapper such as ConcurrentMancalaModel that notifies
+   * its own listeners is not counted twice.
    */
   public void notifyListeners() {
-    for (ChangeListener listener : listeners) {
-      listener.stateChanged(new ChangeEvent(this));
+    if (listeners.isEmpty()) {
+      return;
+    }
+    long start = PerfMonitor.start();
+    ListenerDispatchEvent event = FlightRecording.isActive() ? new ListenerDispatchEvent() : null;
+    if (event != null) {
+      event.begin();
+    }
+    // No iterator, so notifying allocates nothing
+    for (int i = 0, count = listeners.size(); i < count; ++i) {
+      listeners.get(i).modelChanged();
     }
+    if (event != null && event.shouldCommit()) {
+      event.listenerCount = listeners.size();
+      event.commit();
+    }
+    PerfMonitor.stop(PerfMonitor.DISPATCH, start);
   }
 
   /**
@@ -262,11 +340,11 @@ public class MancalaModel {
   }
 
   /**
-   * This checks if the game ended
+   * This checks if the game ended. Package-private for the benchmarks.
    * 
    * @return True if the game ended
    */
-  private boolean checkGameEnd() {
+  boolean checkGameEnd() {
     boolean player1 = true, player2 = true;
 
     for (int i = getPlayerPitStart(1); i <= getPlayerPitEnd(1); ++i) {
@@ -348,8 +426,8 @@ public class MancalaModel {
    * history.
    */
   private void addToHistory() {
-    int[] currentBoard = getBoardState();
-    GameState state = new GameState(currentBoard, currentMove, currentPlayer);
+    // GameState makes its own copy of the board
+    GameState state = new GameState(board, currentMove, currentPlayer);
     history.push(state);
   }
 
@@ -367,16 +445,68 @@ public class MancalaModel {
       }
     }
 
+    winner = decideWinner();
+  }
+
+  /**
+   * This compares the stores of a finished game
+   * 
+   * @return 1 or 2 for the winner, 0 for a tie
+   */
+  private int decideWinner() {
     int player1score = board[getPlayerStore(1)];
     int player2score = board[getPlayerStore(2)];
 
     if (player1score > player2score) {
-      winner = 1;
+      return 1;
     } else if (player1score < player2score) {
-      winner = 2;
+      return 2;
     } else {
-      winner = 0;
+      return 0;
+    }
+  }
+
+  /**
+   * Getter
+   * 
+   * @return The state undo would return to, or null if there is no history
+   */
+  public GameState getUndoState() {
+    return history.empty() ? null : history.peek();
+  }
+
+  /**
+   * Getter
+   * 
+   * @return The pit of the last move, -1 if no move was made
+   */
+  public int getLastMove() {
+    return currentMove;
+  }
+
+  /**
+   * This restores a game that was saved outside the model, such as by a
+   * session store. Only one undo level is kept, which is all the undo rules
+   * allow (no two undos in a row). Whether the game is over and who won is
+   * worked out from the board.
+   * 
+   * @param board         The board to continue from
+   * @param currentPlayer The player to move
+   * @param lastMove      The pit of the last move, -1 if none
+   * @param undoState     The state undo returns to, or null if there is none
+   */
+  public void restore(int[] board, int currentPlayer, int lastMove, GameState undoState) {
+    System.arraycopy(board, 0, this.board, 0, this.board.length);
+    this.currentPlayer = currentPlayer;
+    this.currentMove = lastMove;
+
+    history.clear();
+    if (undoState != null) {
+      history.push(undoState);
     }
+
+    isGameOver = checkGameEnd();
+    winner = isGameOver ? decideWinner() : -1;
   }
 
   /**
@@ -0,0 +1,22 @@
+/**
+ * This is the ModelListener interface.
+ * This is told when a game changes, so the model needs no user interface
+ * classes: a move, an undo or a restore. The listener reads the new state
+ * from the model it was added to; nothing is allocated per notification.
+ * Swing code can wrap a ChangeListener with the controller's
+ * ChangeListenerAdapter.
+ * 
+ * @author CS151 Group Project
+ * @version 1.0
+ */
+
+package mancala.model;
+
+@FunctionalInterface
+public interface ModelListener {
+  /**
+   * This is called after the game state changed, on the thread that
+   * changed it
+   */
+  void modelChanged();
+}
@@ -0,0 +1,21 @@
+/**
+ * This is the MoveCheck enum.
+ * This is the result of checking a move before it is applied, so every
+ * front end (Swing, network, tools) rejects illegal moves the same way.
+ * 
+ * @author CS151 Group Project
+ * @version 1.0
+ */
+
+package mancala.model;
+
+public enum MoveCheck {
+  /** The move is legal */
+  OK,
+  /** The game is already over */
+  GAME_OVER,
+  /** The pit is not one of the current player's pits */
+  NOT_YOUR_PIT,
+  /** The pit has no stones */
+  EMPTY_PIT
+}
@@ -0,0 +1,67 @@
+package mancala.net;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import mancala.engine.SearchEngine;
+import mancala.model.MancalaModel;
+import mancala.model.MoveCheck;
+
+/**
+ * A seat played by SearchEngine. The search is CPU-bound, and a virtual
+ * thread is never preempted, so it runs on a bounded pool of platform
+ * threads instead of the game's own thread; the game blocks on the result,
+ * which parks a virtual thread and frees its carrier for other sessions.
+ *
+ * @author CS151 Group Project
+ * @version 1.0
+ */
+class EngineSeat implements Seat {
+    private final SearchEngine engine;
+    private final int pitsPerSide;
+    private final ExecutorService searches;
+
+    /**
+     * Creates an engine seat.
+     *
+     * @param engine The engine, used only by this seat
+     * @param pitsPerSide Number of pits each side has
+     * @param searches Platform threads the searches run on, shared by all engine seats
+     */
+    EngineSeat(SearchEngine engine, int pitsPerSide, ExecutorService searches) {
+        this.engine = engine;
+        this.pitsPerSide = pitsPerSide;
+        this.searches = searches;
+    }
+
+    @Override
+    public int nextMove(MancalaModel model) throws IOException {
+        int[] board = model.getBoardState();
+        int player = model.getCurrentPlayer();
+        Future<Integer> search = searches.submit(() -> engine.findBestMove(board, pitsPerSide, player));
+        try {
+            return search.get();
+        } catch (InterruptedException e) {
+            search.cancel(true);
+            Thread.currentThread().interrupt();
+            return -1; // The session is being stopped
+        } catch (ExecutionException e) {
+            throw new IOException("Engine search failed", e.getCause());
+        }
+    }
+
+    @Override
+    public void sendState(MancalaModel model, boolean full) {
+        // The engine reads the model when it is asked for a move
+    }
+
+    @Override
+    public void sendError(MoveCheck check) {
+        // The engine only plays legal moves
+    }
+
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,299 @@
+package mancala.net;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import mancala.diag.GameMetrics;
+import mancala.model.MancalaModel;
+import mancala.model.MoveCheck;
+
+/**
+ * One remote game hosted by NioGameServer.
+ * The game itself lives packed in the event loop's PackedSessionStore and is
+ * only rehydrated into a MancalaModel while a message is handled, so an idle
+ * session costs little more than its connection.
+ *
+ * <p>The client always knows the board as it was before a move, so every
+ * move reply only carries the pits that changed (see WireCodec).
+ *
+ * <p>Undo follows the same rules as MancalaController, with its counters
+ * kept in the store. When the event loop has a SessionLog, every accepted
+ * move, undo and new game is logged so the game survives a crash.
+ *
+ * <p>Only ever used by the event loop thread that owns its channel.
+ *
+ * @author CS151 Group Project
+ * @version 1.0
+ */
+class GameSession {
+    /** handle() results */
+    static final int HANDLED = 0;
+    static final int MOVED = 1;
+    static final int RESUME = 2;
+
+    private static final int MAX_UNDOS_PER_TURN = 3;
+
+    private final long id;
+    private final SocketChannel channel;
+    private final PackedSessionStore store;
+    private final int slot;
+    private final SessionLog log;
+
+    private Queue<ByteBuffer> pendingWrites;
+    private boolean firstMessage = true;
+    private int resumeBytesLeft;
+    private long resumeId;
+
+    /**
+     * Creates a session and starts its first game.
+     *
+     * @param id Session id
+     * @param channel The client connection
+     * @param store The event loop's store, which holds the game
+     * @param log The event loop's log, or null
+     */
+    GameSession(long id, SocketChannel channel, PackedSessionStore store, SessionLog log) {
+        this(id, channel, store, store.create(), log);
+        GameMetrics.gameStarted();
+        if (log != null) {
+            log.open(id);
+        }
+    }
+
+    /**
+     * Creates a session for a game already in the store, such as one
+     * recovered after a crash.
+     *
+     * @param id Session id
+     * @param channel The client connection
+     * @param store The event loop's store, which holds the game
+     * @param slot The game's slot
+     * @param log The event loop's log, or null
+     */
+    GameSession(long id, SocketChannel channel, PackedSessionStore store, int slot, SessionLog log) {
+        this.id = id;
+        this.channel = channel;
+        this.store = store;
+        this.slot = slot;
+        this.log = log;
+    }
+
+    /**
+     * Handles one client message byte and writes the reply.
+     *
+     * @param message The message byte: a pit index, WireCodec.MSG_NEW_GAME,
+     *                WireCodec.MSG_RESYNC, WireCodec.MSG_UNDO, or part of
+     *                WireCodec.MSG_RESUME
+     * @param out Buffer the reply is appended to
+     * @return MOVED if a move was applied, RESUME once a resume request is
+     *         complete (see getResumeId), otherwise HANDLED
+     */
+    int handle(int message, ByteBuffer out) {
+        if (resumeBytesLeft > 0) {
+            resumeId = resumeId << 8 | (message & 0xFF);
+            if (--resumeBytesLeft > 0) {
+                return HANDLED;
+            }
+            return firstMessage ? RESUME : refuseResume(out);
+        }
+        if (message == WireCodec.MSG_RESUME) {
+            resumeBytesLeft = 8;
+            resumeId = 0;
+            return HANDLED;
+        }
+        firstMessage = false;
+
+        if (message == WireCodec.MSG_NEW_GAME) {
+            store.reset(slot);
+            GameMetrics.gameStarted();
+            if (log != null) {
+                log.newGame(id);
+            }
+            writeSnapshot(out);
+            return HANDLED;
+        }
+        if (message == WireCodec.MSG_RESYNC) {
+            writeSnapshot(out);
+            return HANDLED;
+        }
+
+        MancalaModel model = store.load(slot);
+        int[] clientBoard = model.getBoardState();
+
+        if (message == WireCodec.MSG_UNDO) {
+            if (!canUndo(store, slot, model)) {
+                // Nothing changed; the snapshot tells the client so
+                writeSnapshot(out);
+                return HANDLED;
+            }
+            undo(store, slot, model);
+            if (log != null) {
+                log.undo(id);
+            }
+            WireCodec.encodeDiff(out, model.getBoardState(), model.getCurrentPlayer(), model.isGameOver(),
+                                 clientBoard);
+            return HANDLED;
+        }
+
+        // Same rules as MancalaController.onPitClicked
+        MoveCheck check = model.checkMove(message);
+        if (check != MoveCheck.OK) {
+            WireCodec.encodeError(out, check);
+            return HANDLED;
+        }
+
+        move(store, slot, model, message);
+        if (log != null) {
+            log.move(id, message);
+        }
+        WireCodec.encodeDiff(out, model.getBoardState(), model.getCurrentPlayer(), model.isGameOver(),
+                             clientBoard);
+        return MOVED;
+    }
+
+    /**
+     * Replies to a resume request the event loop could not honour: the
+     * session stays as it is.
+     *
+     * @param out Buffer the reply is appended to
+     * @return HANDLED
+     */
+    int refuseResume(ByteBuffer out) {
+        firstMessage = false;
+        WireCodec.encodeSession(out, id);
+        writeSnapshot(out);
+        return HANDLED;
+    }
+
+    /**
+     * Plays a checked move and updates the undo counters the way
+     * MancalaController does.
+     *
+     * @param store The store holding the game
+     * @param slot The game's slot
+     * @param model The game, loaded from the slot
+     * @param pit The pit to play
+     */
+    static void move(PackedSessionStore store, int slot, MancalaModel model, int pit) {
+        int playerBefore = model.getCurrentPlayer();
+        model.applyMove(pit);
+        store.save(slot, model);
+        store.setMoveCount(slot, store.getMoveCount(slot) + 1);
+
+        int undosThisTurn = store.getUndosThisTurn(slot);
+        int undoPlayer = store.getUndoPlayer(slot);
+        if (undoPlayer == model.getCurrentPlayer()) {
+            // Turn changed - reset undo counter for the new player's turn
+            undosThisTurn = 0;
+            undoPlayer = playerBefore;
+        }
+        store.setUndoCounters(slot, undosThisTurn, undoPlayer, false);
+    }
+
+    /**
+     * Checks the undo rules of MancalaController: game not over, at most
+     * three undos per turn, no two undos in a row and some history.
+     *
+     * @param store The store holding the game
+     * @param slot The game's slot
+     * @param model The game, loaded from the slot
+     * @return true if undo is allowed
+     */
+    static boolean canUndo(PackedSessionStore store, int slot, MancalaModel model) {
+        return !model.isGameOver() && !store.isLastActionUndo(slot)
+            && store.getUndosThisTurn(slot) < MAX_UNDOS_PER_TURN && model.hasHistory();
+    }
+
+    /**
+     * Takes back the last move and counts the undo.
+     *
+     * @param store The store holding the game
+     * @param slot The game's slot
+     * @param model The game, loaded from the slot
+     */
+    static void undo(PackedSessionStore store, int slot, MancalaModel model) {
+        model.undo();
+        store.save(slot, model);
+        store.setMoveCount(slot, store.getMoveCount(slot) - 1);
+        store.setUndoCounters(slot, store.getUndosThisTurn(slot) + 1, model.getCurrentPlayer(), true);
+    }
+
+    /**
+     * Writes the whole board, as sent on join, new game and resync.
+     *
+     * @param out Buffer the message is appended to
+     */
+    void writeSnapshot(ByteBuffer out) {
+        MancalaModel model = store.load(slot);
+        WireCodec.encodeSnapshot(out, model.getBoardState(), model.getCurrentPlayer(), model.isGameOver(), null);
+    }
+
+    /**
+     * Frees the game's slot once the connection is gone or the client has
+     * taken over another session.
+     */
+    void release() {
+        store.release(slot);
+        if (log != null) {
+            log.close(id);
+        }
+    }
+
+    /**
+     * Getter
+     *
+     * @return The session id
+     */
+    long getId() {
+        return id;
+    }
+
+    /**
+     * Getter
+     *
+     * @return The game's slot in the store
+     */
+    int getSlot() {
+        return slot;
+    }
+
+    /**
+     * Getter
+     *
+     * @return The session id of the last complete resume request
+     */
+    long getResumeId() {
+        return resumeId;
+    }
+
+    /**
+     * Getter
+     *
+     * @return The client connection
+     */
+    SocketChannel getChannel() {
+        return channel;
+    }
+
+    /**
+     * Getter
+     *
+     * @return true if replies are waiting for the socket to become writable
+     */
+    boolean hasPendingWrites() {
+        return pendingWrites != null && !pendingWrites.isEmpty();
+    }
+
+    /**
+     * Getter
+     *
+     * @return Replies the socket has not accepted yet, created on first use
+     */
+    Queue<ByteBuffer> getPendingWrites() {
+        if (pendingWrites == null) {
+            pendingWrites = new ArrayDeque<>(2);
+        }
+        return pendingWrites;
+    }
+}
@@ -0,0 +1,267 @@
+package mancala.net;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import mancala.model.MancalaModel;
+import mancala.model.MoveCheck;
+
+/**
+ * Compares running VirtualThreadGameHost sessions on virtual threads with
+ * running them on a platform thread pool.
+ * Sessions use in-memory seats instead of sockets, so the numbers show the
+ * cost of the threads and game state rather than of the network stack.
+ *
+ * <p>For each executor the benchmark:
+ * <ol>
+ *   <li>starts many idle hot seat sessions, each blocked waiting for a move,
+ *       and reports the memory used per session (resident set size where
+ *       /proc/self/status is available, and Java heap)</li>
+ *   <li>plays random moves on some of them from one driver thread per core
+ *       and reports the move round trip latency, which includes waking the
+ *       parked session thread</li>
+ * </ol>
+ *
+ * <p>Platform threads reserve a native stack each, so the platform run uses
+ * fewer sessions by default to stay within the operating system's thread limit.
+ *
+ * <p>To run from command line:
+ * <pre>
+ * java mancala.net.HostBenchmark [virtualSessions] [platformSessions] [activeSessions] [movesPerSession]
+ * </pre>
+ *
+ * @author CS151 Group Project
+ * @version 1.0
+ */
+public class HostBenchmark {
+    private static final int PITS_PER_SIDE = 6;
+    private static final int STONES_PER_PIT = 4;
+
+    /**
+     * A player living in the benchmark: moves and replies go through queues.
+     * The game thread copies the board into the seat before replying, so the
+     * driver sees it once it takes the reply.
+     */
+    private static class QueueSeat implements Seat {
+        private final BlockingQueue<Integer> moves = new ArrayBlockingQueue<>(1);
+        private final BlockingQueue<Byte> replies = new ArrayBlockingQueue<>(1);
+        private final int[] board = new int[PITS_PER_SIDE * 2 + 2];
+        private int currentPlayer;
+        private boolean gameOver;
+
+        @Override
+        public int nextMove(MancalaModel model) {
+            try {
+                return moves.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return -1;
+            }
+        }
+
+        @Override
+        public void sendState(MancalaModel model, boolean full) {
+            for (int pit = 0; pit < board.length; pit++) {
+                board[pit] = model.getStonesAtPit(pit);
+            }
+            currentPlayer = model.getCurrentPlayer();
+            gameOver = model.isGameOver();
+            reply(WireCodec.MSG_DIFF);
+        }
+
+        @Override
+        public void sendError(MoveCheck check) {
+            reply(WireCodec.MSG_ERROR);
+        }
+
+        private void reply(byte type) {
+            try {
+                replies.put(type);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public void close() {
+        }
+
+        /**
+         * Sends one move from the driver and waits for the reply.
+         */
+        byte play(int message) throws InterruptedException {
+            moves.put(message);
+            return replies.take();
+        }
+
+        /**
+         * Picks a random legal move, or a new game if the game is over.
+         */
+        int randomMove() {
+            if (gameOver) {
+                return WireCodec.MSG_NEW_GAME;
+            }
+            int first = currentPlayer == 1 ? 0 : PITS_PER_SIDE + 1;
+            int offset = ThreadLocalRandom.current().nextInt(PITS_PER_SIDE);
+            for (int i = 0; i < PITS_PER_SIDE; i++) {
+                int pit = first + (offset + i) % PITS_PER_SIDE;
+                if (board[pit] > 0) {
+                    return pit;
+                }
+            }
+            return WireCodec.MSG_NEW_GAME;
+        }
+    }
+
+    /**
+     * Runs one benchmark pass.
+     *
+     * @param name Name printed with the results
+     * @param executor Executor running one task per session, shut down afterwards
+     * @param sessions Number of sessions to start
+     * @param active Number of sessions that play moves
+     * @param movesPerSession Moves played by each active session
+     */
+    private static void run(String name, ExecutorService executor, int sessions,
+                            int active, int movesPerSession) throws InterruptedException {
+        long rssBefore = residentBytes();
+        long heapBefore = usedHeapBytes();
+
+        AtomicLong movesApplied = new AtomicLong();
+        QueueSeat[] seats = new QueueSeat[sessions];
+        long startTime = System.nanoTime();
+        for (int i = 0; i < sessions; i++) {
+            seats[i] = new QueueSeat();
+            executor.execute(new HostedGame(seats[i], seats[i], PITS_PER_SIDE, STONES_PER_PIT, movesApplied, null));
+        }
+        // Every session replies with its first board once its thread runs
+        for (QueueSeat seat : seats) {
+            seat.replies.take();
+        }
+        long startMillis = (System.nanoTime() - startTime) / 1_000_000;
+
+        long rss = residentBytes() - rssBefore;
+        long heap = usedHeapBytes() - heapBefore;
+        System.out.printf("%s: %d idle sessions started in %d ms%n", name, sessions, startMillis);
+        if (rssBefore > 0) {
+            System.out.printf("  resident memory: %.1f MB, %d bytes per session%n", rss / 1e6, rss / sessions);
+        }
+        System.out.printf("  heap: %.1f MB, %d bytes per session%n", heap / 1e6, heap / sessions);
+
+        long[] latencies = drive(Arrays.copyOf(seats, Math.min(active, sessions)), movesPerSession);
+        Arrays.sort(latencies);
+        System.out.printf("  move latency over %d moves: p50 %d us, p99 %d us, p99.9 %d us, max %d us%n",
+                          latencies.length, percentile(latencies, 0.5), percentile(latencies, 0.99),
+                          percentile(latencies, 0.999), percentile(latencies, 1.0));
+
+        executor.shutdownNow();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Plays random moves on the given sessions from one driver thread per
+     * core, each driver cycling through its share of the sessions.
+     *
+     * @return Every round trip latency in microseconds
+     */
+    private static long[] drive(QueueSeat[] seats, int movesPerSession) throws InterruptedException {
+        int drivers = Math.max(1, Math.min(seats.length, Runtime.getRuntime().availableProcessors()));
+        long[][] results = new long[drivers][];
+        List<Thread> threads = new ArrayList<>();
+        for (int d = 0; d < drivers; d++) {
+            int driver = d;
+            Thread thread = new Thread(() -> {
+                List<QueueSeat> mine = new ArrayList<>();
+                for (int i = driver; i < seats.length; i += drivers) {
+                    mine.add(seats[i]);
+                }
+                long[] samples = new long[mine.size() * movesPerSession];
+                int count = 0;
+                try {
+                    for (int move = 0; move < movesPerSession; move++) {
+                        for (QueueSeat seat : mine) {
+                            long sentAt = System.nanoTime();
+                            seat.play(seat.randomMove());
+                            samples[count++] = (System.nanoTime() - sentAt) / 1000;
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                results[driver] = Arrays.copyOf(samples, count);
+            }, "Mancala-Bench-Driver-" + d);
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        long[] all = new long[0];
+        for (long[] samples : results) {
+            int offset = all.length;
+            all = Arrays.copyOf(all, offset + samples.length);
+            System.arraycopy(samples, 0, all, offset, samples.length);
+        }
+        return all;
+    }
+
+    private static long percentile(long[] sorted, double fraction) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(sorted.length * fraction) - 1;
+        return sorted[Math.max(0, index)];
+    }
+
+    /**
+     * Gets the heap in use after a collection.
+     */
+    private static long usedHeapBytes() {
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * Gets the resident set size of the process, which includes thread
+     * stacks, or 0 where /proc is not available.
+     */
+    private static long residentBytes() {
+        try {
+            for (String line : Files.readAllLines(Path.of("/proc/self/status"))) {
+                if (line.startsWith("VmRSS:")) {
+                    return Long.parseLong(line.replaceAll("[^0-9]", "")) * 1024;
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            // Not Linux
+        }
+        return 0;
+    }
+
+    /**
+     * Command line entry point.
+     *
+     * @param args [virtualSessions] [platformSessions] [activeSessions] [movesPerSession]
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int virtualSessions = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int platformSessions = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+        int active = args.length > 2 ? Integer.parseInt(args[2]) : 1_000;
+        int moves = args.length > 3 ? Integer.parseInt(args[3]) : 200;
+
+        run("Virtual threads", Executors.newVirtualThreadPerTaskExecutor(), virtualSessions, active, moves);
+        run("Platform thread pool", Executors.newCachedThreadPool(), platformSessions, active, moves);
+    }
+}
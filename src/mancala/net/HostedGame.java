@@ -0,0 +1,125 @@
+package mancala.net;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+import mancala.model.MancalaModel;
+import mancala.model.MoveCheck;
+import mancala.persist.GameJournal;
+import mancala.persist.GameRecorder;
+
+/**
+ * One session of VirtualThreadGameHost: a MancalaModel and the two seats
+ * playing it, run as plain blocking code on a single thread.
+ * The game asks the seat whose turn it is for a move, checks and applies it
+ * the same way MancalaController does, and sends the new state to both seats.
+ * Once a game is over, player 1's seat decides whether to start a new one.
+ *
+ * <p>Both players may be the same seat (hot seat); then every state is sent
+ * once. With a journal, every game is recorded in it.
+ *
+ * @author CS151 Group Project
+ * @version 1.0
+ */
+class HostedGame implements Runnable {
+    private final Seat player1;
+    private final Seat player2;
+    private final int pitsPerSide;
+    private final int stonesPerPit;
+    private final AtomicLong movesApplied;
+    private final GameJournal journal;
+
+    private MancalaModel model;
+    private GameRecorder recorder;
+
+    /**
+     * Creates a session.
+     *
+     * @param player1 Seat playing player 1
+     * @param player2 Seat playing player 2, possibly the same as player1
+     * @param pitsPerSide Number of pits each side has
+     * @param stonesPerPit The initial amount of stones each pits has
+     * @param movesApplied Counter incremented for every applied move
+     * @param journal Journal to record the games in, or null
+     */
+    HostedGame(Seat player1, Seat player2, int pitsPerSide, int stonesPerPit, AtomicLong movesApplied,
+               GameJournal journal) {
+        this.player1 = player1;
+        this.player2 = player2;
+        this.pitsPerSide = pitsPerSide;
+        this.stonesPerPit = stonesPerPit;
+        this.movesApplied = movesApplied;
+        this.journal = journal;
+    }
+
+    /**
+     * Plays games until a seat leaves or the thread is interrupted.
+     */
+    @Override
+    public void run() {
+        try {
+            newGame();
+            while (!Thread.currentThread().isInterrupted()) {
+                Seat seat = model.isGameOver() || model.getCurrentPlayer() == 1 ? player1 : player2;
+                int message = seat.nextMove(model);
+                if (message < 0) {
+                    return;
+                }
+                if (message == WireCodec.MSG_NEW_GAME) {
+                    newGame();
+                    continue;
+                }
+                if (message == WireCodec.MSG_RESYNC) {
+                    seat.sendState(model, true);
+                    continue;
+                }
+
+                // Same rules as MancalaController.onPitClicked
+                MoveCheck check = model.checkMove(message);
+                if (check != MoveCheck.OK) {
+                    seat.sendError(check);
+                    continue;
+                }
+                int mover = model.getCurrentPlayer();
+                model.applyMove(message);
+                movesApplied.incrementAndGet();
+                if (recorder != null) {
+                    recorder.move(message, mover);
+                    if (model.isGameOver()) {
+                        recorder.finish();
+                    }
+                }
+                broadcast(false);
+            }
+        } catch (IOException e) {
+            // A seat disconnected; the session ends
+        } finally {
+            if (recorder != null) {
+                recorder.abandon();
+            }
+            player1.close();
+            if (player2 != player1) {
+                player2.close();
+            }
+        }
+    }
+
+    /**
+     * Starts a new game and sends the full board to both seats.
+     */
+    private void newGame() throws IOException {
+        if (recorder != null) {
+            recorder.abandon(); // No-op if the game finished
+        }
+        model = new MancalaModel(pitsPerSide, stonesPerPit);
+        model.startGame(1);
+        recorder = journal != null ? journal.startGame(pitsPerSide, stonesPerPit, 1) : null;
+        broadcast(true);
+    }
+
+    private void broadcast(boolean full) throws IOException {
+        player1.sendState(model, full);
+        if (player2 != player1) {
+            player2.sendState(model, full);
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package mancala.net;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Load generator for NioGameServer and VirtualThreadGameHost.
+ * Opens many client sessions from one selector thread. Each session plays
+ * random legal moves for both sides, waiting for the server's reply before
+ * the next move, and starts a new game when one ends.
+ *
+ * <p>Reports connected sessions, moves per second and the move round trip
+ * latency distribution (from sending a move to receiving its state update).
+ *
+ * <p>To run from command line:
+ * <pre>
+ * java mancala.net.LoadGenerator [host] [port] [sessions] [seconds] [hostMode]
+ * </pre>
+ * Pass hostMode (VirtualThreadGameHost.MODE_HOT_SEAT) when testing
+ * VirtualThreadGameHost, which expects a mode byte first.
+ *
+ * @author CS151 Group Project
+ * @version 1.0
+ */
+public class LoadGenerator {
+    private static final int MAX_LATENCY_MICROS = 1_000_000;
+
+    private final InetSocketAddress address;
+    private final int sessions;
+    private final int hostMode;
+
+    // Latency histogram with one bucket per microsecond; only used by the selector thread
+    private final long[] latencyHistogram = new long[MAX_LATENCY_MICROS + 1];
+    private long moves;
+    private long rejected;
+    private int connected;
+
+    /**
+     * The client side of one session: the board as known from state messages.
+     */
+    private static class ClientSession {
+        private final WireCodec.ClientState state = new WireCodec.ClientState();
+        private final ByteBuffer in = ByteBuffer.allocate(4096);
+        private final ByteBuffer out = ByteBuffer.allocate(1);
+        private long sentAt;
+    }
+
+    /**
+     * Constructs a load generator.
+     *
+     * @param address Server address
+     * @param sessions Number of concurrent sessions
+     * @param hostMode Mode byte sent first on every connection, or -1 for none
+     */
+    public LoadGenerator(InetSocketAddress address, int sessions, int hostMode) {
+        this.address = address;
+        this.sessions = sessions;
+        this.hostMode = hostMode;
+    }
+
+    /**
+     * Runs the load for the given time and prints the results.
+     *
+     * @param seconds How long to run after all sessions are opened
+     * @throws IOException if the connections cannot be opened
+     */
+    public void run(int seconds) throws IOException {
+        Selector selector = Selector.open();
+        for (int i = 0; i < sessions; i++) {
+            SocketChannel channel = SocketChannel.open();
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            channel.connect(address);
+            channel.register(selector, SelectionKey.OP_CONNECT, new ClientSession());
+        }
+
+        long start = System.nanoTime();
+        long end = start + seconds * 1_000_000_000L;
+        long nextReport = start + 1_000_000_000L;
+        long reportMoves = 0;
+
+        while (System.nanoTime() < end) {
+            selector.select(100);
+            Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+            while (keys.hasNext()) {
+                SelectionKey key = keys.next();
+                keys.remove();
+                ClientSession session = (ClientSession) key.attachment();
+                SocketChannel channel = (SocketChannel) key.channel();
+                try {
+                    if (key.isConnectable() && channel.finishConnect()) {
+                        connected++;
+                        key.interestOps(SelectionKey.OP_READ);
+                        if (hostMode >= 0) {
+                            session.out.clear();
+                            session.out.put((byte) hostMode).flip();
+                            channel.write(session.out);
+                        }
+                    } else if (key.isReadable()) {
+                        read(channel, session);
+                    }
+                } catch (IOException e) {
+                    key.cancel();
+                    channel.close();
+                    connected--;
+                }
+            }
+
+            long now = System.nanoTime();
+            if (now >= nextReport) {
+                System.out.printf("%d sessions, %d moves/s%n", connected, moves - reportMoves);
+                reportMoves = moves;
+                nextReport += 1_000_000_000L;
+            }
+        }
+
+        double elapsed = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Total: %d moves in %.1f s (%.0f moves/s), %d rejected%n",
+                          moves, elapsed, moves / elapsed, rejected);
+        System.out.printf("Latency: p50 %d us, p99 %d us, p99.9 %d us, max %d us%n",
+                          percentile(0.5), percentile(0.99), percentile(0.999), percentile(1.0));
+
+        for (SelectionKey key : selector.keys()) {
+            key.channel().close();
+        }
+        selector.close();
+    }
+
+    /**
+     * Reads and applies all complete server messages, then sends the next move.
+     */
+    private void read(SocketChannel channel, ClientSession session) throws IOException {
+        if (channel.read(session.in) < 0) {
+            throw new IOException("Server closed the connection");
+        }
+        session.in.flip();
+
+        boolean replied = false;
+        try {
+            int type;
+            while ((type = WireCodec.decode(session.in, session.state)) != WireCodec.INCOMPLETE) {
+                if (type == WireCodec.MSG_ERROR) {
+                    rejected++;
+                }
+                // MSG_HELLO and MSG_SESSION are followed by the first snapshot, the reply to wait for
+                replied |= type != WireCodec.MSG_HELLO && type != WireCodec.MSG_SESSION;
+            }
+        } catch (IllegalArgumentException e) {
+            throw new IOException(e.getMessage());
+        }
+        session.in.compact();
+
+        if (replied) {
+            if (session.sentAt != 0) {
+                long micros = (System.nanoTime() - session.sentAt) / 1000;
+                latencyHistogram[(int) Math.min(micros, MAX_LATENCY_MICROS)]++;
+                moves++;
+            }
+            sendNextMove(channel, session);
+        }
+    }
+
+    /**
+     * Sends a random legal move, or a new game request if the game is over.
+     */
+    private void sendNextMove(SocketChannel channel, ClientSession session) throws IOException {
+        WireCodec.ClientState state = session.state;
+        int pitsPerSide = state.getPitsPerSide();
+        int message = WireCodec.MSG_NEW_GAME;
+        if (!state.isGameOver()) {
+            int first = state.getCurrentPlayer() == 1 ? 0 : pitsPerSide + 1;
+            int offset = ThreadLocalRandom.current().nextInt(pitsPerSide);
+            for (int i = 0; i < pitsPerSide; i++) {
+                int pit = first + (offset + i) % pitsPerSide;
+                if (state.getBoard()[pit] > 0) {
+                    message = pit;
+                    break;
+                }
+            }
+        }
+
+        session.out.clear();
+        WireCodec.encodeMove(session.out, message);
+        session.out.flip();
+        session.sentAt = System.nanoTime();
+        channel.write(session.out);
+    }
+
+    /**
+     * Calculates a latency percentile from the histogram.
+     *
+     * @param fraction Percentile as a fraction (0.99 for p99)
+     * @return The latency in microseconds
+     */
+    private long percentile(double fraction) {
+        long total = 0;
+        for (long count : latencyHistogram) {
+            total += count;
+        }
+        long target = (long) Math.ceil(total * fraction);
+        long seen = 0;
+        for (int micros = 0; micros < latencyHistogram.length; micros++) {
+            seen += latencyHistogram[micros];
+            if (seen >= target && seen > 0) {
+                return micros;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Command line entry point.
+     *
+     * @param args [host] [port] [sessions] [seconds] [hostMode]
+     */
+    public static void main(String[] args) throws IOException {
+        String host = args.length > 0 ? args[0] : "localhost";
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : NioGameServer.DEFAULT_PORT;
+        int sessions = args.length > 2 ? Integer.parseInt(args[2]) : 10_000;
+        int seconds = args.length > 3 ? Integer.parseInt(args[3]) : 30;
+        int hostMode = args.length > 4 ? Integer.parseInt(args[4]) : -1;
+
+        new LoadGenerator(new InetSocketAddress(host, port), sessions, hostMode).run(seconds);
+    }
+}
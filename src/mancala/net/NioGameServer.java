@@ -0,0 +1,603 @@
+package mancala.net;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.SecureRandom;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import mancala.diag.Metrics;
+
+/**
+ * Non-blocking game server that hosts many Mancala games in one process.
+ * Every connection is a session that owns its own MancalaModel; the client
+ * plays both sides by sending pit indices.
+ *
+ * <p>Sessions are spread over a few event loops, each with its own Selector
+ * and thread. A session is only ever touched by its event loop, so no locking
+ * is needed on the move path. Each loop keeps its sessions' games in a
+ * PackedSessionStore, so idle games stay off the Java heap.
+ *
+ * <p>Messages use WireCodec: the client sends one byte per move, and the
+ * server replies with the changed pits, sending the whole board on connect,
+ * new game and resync.
+ *
+ * <p>Given a log directory, every event loop keeps a SessionLog of its
+ * sessions. After a crash or restart the games are rebuilt from it and kept
+ * for ORPHAN_TIMEOUT_MILLIS, so a client can reconnect and send MSG_RESUME
+ * with the session id it was given to carry on where it left off. Session
+ * ids are random, so they also serve as the key to resume a game.
+ *
+ * <p>To run from command line:
+ * <pre>
+ * java mancala.net.NioGameServer [port] [eventLoops] [logDirectory] [NONE|INTERVAL|ALWAYS]
+ * </pre>
+ * Add -Dmancala.jmx=true to publish game and engine metrics over JMX.
+ *
+ * @author CS151 Group Project
+ * @version 1.0
+ */
+public class NioGameServer implements Closeable {
+    public static final int DEFAULT_PORT = 7777;
+
+    private static final int PITS_PER_SIDE = 6;
+    private static final int STONES_PER_PIT = 4;
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+    private static final int READ_BUFFER_SIZE = 4096;
+    private static final int INITIAL_SLOTS_PER_LOOP = 1024;
+
+    /** How long recovered games wait for their client to resume them */
+    public static final long ORPHAN_TIMEOUT_MILLIS = 10 * 60 * 1000;
+    /** Log size at which an event loop writes a snapshot and starts over */
+    private static final long SNAPSHOT_LOG_BYTES = 32 * 1024 * 1024;
+    /** How often an event loop with a log wakes up to sync and expire orphans */
+    private static final long TICK_MILLIS = 100;
+
+    private final ServerSocketChannel serverChannel;
+    private final EventLoop[] loops;
+    private final SecureRandom sessionIds = new SecureRandom();
+    private final Map<Long, EventLoop> orphanOwners = new ConcurrentHashMap<>();
+    private final AtomicLong movesApplied = new AtomicLong();
+    private long acceptCount;
+    private int recoveredSessions;
+    private long recoveredRecords;
+
+    /**
+     * Opens the server socket. Call start() to begin accepting connections.
+     *
+     * @param address Address to listen on; port 0 picks a free port
+     * @param loopCount Number of event loop threads
+     * @throws IOException if the socket cannot be opened
+     */
+    public NioGameServer(InetSocketAddress address, int loopCount) throws IOException {
+        this(address, loopCount, null, SyncPolicy.INTERVAL);
+    }
+
+    /**
+     * Opens the server socket, first recovering the sessions logged in the
+     * log directory, if any. Call start() to begin accepting connections.
+     *
+     * @param address Address to listen on; port 0 picks a free port
+     * @param loopCount Number of event loop threads
+     * @param logDirectory Directory for the session logs, or null for none
+     * @param syncPolicy When to force the session logs to disk
+     * @throws IOException if the socket cannot be opened or the logs cannot be read
+     */
+    public NioGameServer(InetSocketAddress address, int loopCount, Path logDirectory, SyncPolicy syncPolicy)
+            throws IOException {
+        loops = new EventLoop[Math.max(1, loopCount)];
+        SessionLog.Recovered recovered = null;
+        if (logDirectory != null) {
+            Files.createDirectories(logDirectory);
+            recovered = SessionLog.recover(logDirectory, PITS_PER_SIDE, STONES_PER_PIT);
+        }
+        for (int i = 0; i < loops.length; i++) {
+            SessionLog log = null;
+            if (logDirectory != null) {
+                log = new SessionLog(logDirectory, i, recovered.getGeneration(), syncPolicy);
+            }
+            loops[i] = new EventLoop(i, log);
+        }
+        if (recovered != null) {
+            adoptRecovered(recovered);
+            SessionLog.deleteFrom(logDirectory, loops.length);
+        }
+
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.configureBlocking(false);
+        serverChannel.bind(address, 4096);
+        // The first loop also accepts connections
+        serverChannel.register(loops[0].selector, SelectionKey.OP_ACCEPT);
+    }
+
+    /**
+     * Spreads the recovered games over the event loops, where they wait for
+     * their clients, and writes each loop's first snapshot.
+     */
+    private void adoptRecovered(SessionLog.Recovered recovered) throws IOException {
+        PackedSessionStore from = recovered.getStore();
+        ByteBuffer slot = ByteBuffer.allocate(from.getSlotSize());
+        int next = 0;
+        for (Map.Entry<Long, Integer> session : recovered.getSessions().entrySet()) {
+            EventLoop loop = loops[next++ % loops.length];
+            slot.clear();
+            from.exportSlot(session.getValue(), slot);
+            slot.flip();
+            loop.orphans.put(session.getKey(), loop.store.importSlot(slot));
+            orphanOwners.put(session.getKey(), loop);
+        }
+        long deadline = System.currentTimeMillis() + ORPHAN_TIMEOUT_MILLIS;
+        for (EventLoop loop : loops) {
+            loop.orphanDeadline = deadline;
+            loop.writeSnapshot();
+        }
+        recoveredSessions = recovered.getSessions().size();
+        recoveredRecords = recovered.getRecords();
+    }
+
+    /**
+     * Starts the event loop threads.
+     */
+    public void start() {
+        for (EventLoop loop : loops) {
+            loop.thread.start();
+        }
+    }
+
+    /**
+     * Gets the port the server listens on.
+     *
+     * @return The local port
+     * @throws IOException if the socket is closed
+     */
+    public int getPort() throws IOException {
+        return ((InetSocketAddress) serverChannel.getLocalAddress()).getPort();
+    }
+
+    /**
+     * Gets the number of moves applied since the server started.
+     *
+     * @return The move count
+     */
+    public long getMovesApplied() {
+        return movesApplied.get();
+    }
+
+    /**
+     * Gets the number of connected sessions.
+     *
+     * @return The session count
+     */
+    public int getSessionCount() {
+        int count = 0;
+        for (EventLoop loop : loops) {
+            count += loop.sessionCount;
+        }
+        return count;
+    }
+
+    /**
+     * Gets the number of sessions rebuilt from the session logs on startup.
+     *
+     * @return The session count
+     */
+    public int getRecoveredSessions() {
+        return recoveredSessions;
+    }
+
+    /**
+     * Gets the number of log records replayed on startup.
+     *
+     * @return The record count
+     */
+    public long getRecoveredRecords() {
+        return recoveredRecords;
+    }
+
+    /**
+     * Stops all event loops and closes every connection. With session logs,
+     * every game is kept in a final snapshot, to be resumed after a restart.
+     */
+    @Override
+    public void close() throws IOException {
+        for (EventLoop loop : loops) {
+            loop.running = false;
+            loop.selector.wakeup();
+        }
+        for (EventLoop loop : loops) {
+            try {
+                loop.thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        serverChannel.close();
+    }
+
+    /**
+     * Accepts all pending connections and hands them to the event loops
+     * round-robin.
+     */
+    private void acceptConnections() throws IOException {
+        SocketChannel channel;
+        while ((channel = serverChannel.accept()) != null) {
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            EventLoop loop = loops[(int) (acceptCount++ % loops.length)];
+            loop.newChannels.add(channel);
+            if (loop != loops[0]) {
+                loop.selector.wakeup();
+            }
+        }
+    }
+
+    /**
+     * A connection that asked to resume a session owned by another loop.
+     */
+    private static class Resume {
+        private final SocketChannel channel;
+        private final long sessionId;
+
+        Resume(SocketChannel channel, long sessionId) {
+            this.channel = channel;
+            this.sessionId = sessionId;
+        }
+    }
+
+    /**
+     * One selector thread and the sessions registered with it.
+     */
+    private class EventLoop implements Runnable {
+        private final Selector selector;
+        private final Thread thread;
+        private final Queue<SocketChannel> newChannels = new ConcurrentLinkedQueue<>();
+        private final Queue<Resume> resumes = new ConcurrentLinkedQueue<>();
+        private final ByteBuffer readBuffer = ByteBuffer.allocateDirect(READ_BUFFER_SIZE);
+        private final ByteBuffer writeBuffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE);
+        private final PackedSessionStore store = new PackedSessionStore(PITS_PER_SIDE, STONES_PER_PIT,
+                                                                        INITIAL_SLOTS_PER_LOOP);
+        private final SessionLog log;
+        // Recovered games waiting for their client: slot by session id
+        private final Map<Long, Integer> orphans = new HashMap<>();
+        private long orphanDeadline;
+        private volatile boolean running = true;
+        private volatile int sessionCount;
+
+        EventLoop(int index, SessionLog log) throws IOException {
+            this.log = log;
+            selector = Selector.open();
+            thread = new Thread(this, "Mancala-NIO-" + index);
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (running) {
+                    selector.select(log != null ? TICK_MILLIS : 0);
+                    registerNewChannels();
+
+                    Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                    while (keys.hasNext()) {
+                        SelectionKey key = keys.next();
+                        keys.remove();
+                        if (!key.isValid()) {
+                            continue;
+                        }
+                        if (key.isAcceptable()) {
+                            acceptConnections();
+                            registerNewChannels();
+                            continue;
+                        }
+                        GameSession session = (GameSession) key.attachment();
+                        try {
+                            if (key.isReadable()) {
+                                read(key, session);
+                            }
+                            if (key.isValid() && key.isWritable()) {
+                                flushPending(key, session);
+                            }
+                        } catch (IOException e) {
+                            closeSession(key, session);
+                        }
+                    }
+                    if (log != null) {
+                        maintainLog();
+                    }
+                }
+            } catch (IOException | UncheckedIOException e) {
+                System.err.println("Event loop failed: " + e.getMessage());
+            } finally {
+                shutDown();
+            }
+        }
+
+        /**
+         * Syncs the log when due, keeps it short with a snapshot and gives up
+         * on recovered games nobody came back for.
+         */
+        private void maintainLog() throws IOException {
+            log.commit();
+            if (!orphans.isEmpty() && System.currentTimeMillis() >= orphanDeadline) {
+                for (Iterator<Map.Entry<Long, Integer>> it = orphans.entrySet().iterator(); it.hasNext();) {
+                    Map.Entry<Long, Integer> orphan = it.next();
+                    // A resume already on its way to this loop keeps the game
+                    if (orphanOwners.remove(orphan.getKey(), this)) {
+                        store.release(orphan.getValue());
+                        log.close(orphan.getKey());
+                        it.remove();
+                    }
+                }
+                log.commit();
+            }
+            if (log.getSize() >= SNAPSHOT_LOG_BYTES) {
+                writeSnapshot();
+            }
+        }
+
+        /**
+         * Writes every game of this loop, connected or waiting to be
+         * resumed, to a new snapshot.
+         */
+        private void writeSnapshot() throws IOException {
+            Map<Long, Integer> sessions = new LinkedHashMap<>(orphans);
+            for (SelectionKey key : selector.keys()) {
+                if (key.isValid() && key.attachment() instanceof GameSession) {
+                    GameSession session = (GameSession) key.attachment();
+                    sessions.put(session.getId(), session.getSlot());
+                }
+            }
+            log.snapshot(store, sessions);
+        }
+
+        /**
+         * Closes every connection when the loop stops. With a log, the games
+         * are snapshotted first rather than logged as closed, so clients can
+         * resume them after a restart.
+         */
+        private void shutDown() {
+            if (log != null) {
+                try {
+                    writeSnapshot();
+                    log.close();
+                } catch (IOException | UncheckedIOException e) {
+                    System.err.println("Could not write final session snapshot: " + e.getMessage());
+                }
+            }
+            for (SelectionKey key : selector.keys()) {
+                if (key.attachment() instanceof GameSession) {
+                    GameSession session = (GameSession) key.attachment();
+                    if (log != null) {
+                        key.cancel();
+                        closeChannel(session);
+                    } else {
+                        closeSession(key, session);
+                    }
+                }
+            }
+            try {
+                selector.close();
+            } catch (IOException e) {
+                // Closing anyway
+            }
+        }
+
+        /**
+         * Registers channels accepted for this loop and sends each the
+         * protocol version, its session id and the initial board. Then takes
+         * over connections that resume a game waiting in this loop.
+         */
+        private void registerNewChannels() throws IOException {
+            SocketChannel channel;
+            while ((channel = newChannels.poll()) != null) {
+                GameSession session = new GameSession(newSessionId(), channel, store, log);
+                writeBuffer.clear();
+                WireCodec.encodeHello(writeBuffer);
+                register(session);
+            }
+
+            Resume resume;
+            while ((resume = resumes.poll()) != null) {
+                Integer slot = orphans.remove(resume.sessionId);
+                GameSession session = new GameSession(resume.sessionId, resume.channel, store, slot, log);
+                writeBuffer.clear();
+                register(session);
+            }
+        }
+
+        /**
+         * Starts serving a session: sends its id and board after whatever
+         * is already in the write buffer.
+         */
+        private void register(GameSession session) throws IOException {
+            SelectionKey key = session.getChannel().register(selector, SelectionKey.OP_READ, session);
+            sessionCount++;
+
+            WireCodec.encodeSession(writeBuffer, session.getId());
+            session.writeSnapshot(writeBuffer);
+            try {
+                commitLog();
+                send(key, session);
+            } catch (IOException e) {
+                closeSession(key, session);
+            }
+        }
+
+        /**
+         * Hands the connection to the loop holding the requested game. The
+         * session it had so far is closed.
+         *
+         * @return true if the connection left this loop
+         */
+        private boolean resume(SelectionKey key, GameSession session) throws IOException {
+            long sessionId = session.getResumeId();
+            EventLoop owner = session.hasPendingWrites() ? null : orphanOwners.remove(sessionId);
+            if (owner == null) {
+                session.refuseResume(writeBuffer);
+                return false;
+            }
+            key.cancel();
+            session.release();
+            sessionCount--;
+            commitLog();
+            owner.resumes.add(new Resume(session.getChannel(), sessionId));
+            owner.selector.wakeup();
+            return true;
+        }
+
+        /**
+         * Reads client messages and replies to each of them. Client messages
+         * are single bytes, so everything read is handled right away and the
+         * loop's read buffer can be shared by all its sessions.
+         */
+        private void read(SelectionKey key, GameSession session) throws IOException {
+            ByteBuffer in = readBuffer;
+            in.clear();
+            int read = session.getChannel().read(in);
+            if (read < 0) {
+                closeSession(key, session);
+                return;
+            }
+
+            in.flip();
+            writeBuffer.clear();
+            while (in.hasRemaining()) {
+                if (writeBuffer.remaining() < 1024) {
+                    commitLog();
+                    send(key, session);
+                    writeBuffer.clear();
+                }
+                int result = session.handle(in.get(), writeBuffer);
+                if (result == GameSession.MOVED) {
+                    movesApplied.incrementAndGet();
+                } else if (result == GameSession.RESUME && resume(key, session)) {
+                    // Anything sent after MSG_RESUME and before the reply is dropped
+                    return;
+                }
+            }
+            commitLog();
+            send(key, session);
+        }
+
+        /**
+         * Makes the logged records durable as the sync policy requires,
+         * before any reply to them goes out.
+         */
+        private void commitLog() {
+            if (log != null) {
+                log.commit();
+            }
+        }
+
+        /**
+         * Writes the replies in the loop's write buffer. Whatever the socket
+         * does not take right away is queued and sent when it becomes writable.
+         */
+        private void send(SelectionKey key, GameSession session) throws IOException {
+            writeBuffer.flip();
+            if (!session.hasPendingWrites()) {
+                session.getChannel().write(writeBuffer);
+            }
+            if (writeBuffer.hasRemaining()) {
+                ByteBuffer rest = ByteBuffer.allocate(writeBuffer.remaining());
+                rest.put(writeBuffer).flip();
+                session.getPendingWrites().add(rest);
+                key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+            }
+        }
+
+        /**
+         * Sends queued replies once the socket is writable again.
+         */
+        private void flushPending(SelectionKey key, GameSession session) throws IOException {
+            if (!session.hasPendingWrites()) {
+                key.interestOps(SelectionKey.OP_READ);
+                return;
+            }
+            Queue<ByteBuffer> pending = session.getPendingWrites();
+            while (!pending.isEmpty()) {
+                ByteBuffer buffer = pending.peek();
+                session.getChannel().write(buffer);
+                if (buffer.hasRemaining()) {
+                    return;
+                }
+                pending.poll();
+            }
+            key.interestOps(SelectionKey.OP_READ);
+        }
+
+        private void closeSession(SelectionKey key, GameSession session) {
+            if (!key.isValid()) {
+                return;
+            }
+            key.cancel();
+            session.release();
+            sessionCount--;
+            closeChannel(session);
+        }
+
+        private void closeChannel(GameSession session) {
+            try {
+                session.getChannel().close();
+            } catch (IOException e) {
+                // Already closed
+            }
+        }
+    }
+
+    /**
+     * Picks a random positive session id.
+     */
+    private long newSessionId() {
+        long id;
+        do {
+            id = sessionIds.nextLong() & Long.MAX_VALUE;
+        } while (id == 0 || orphanOwners.containsKey(id));
+        return id;
+    }
+
+    /**
+     * Command line entry point.
+     *
+     * @param args [port] [eventLoops] [logDirectory] [NONE|INTERVAL|ALWAYS]
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        int loopCount = args.length > 1 ? Integer.parseInt(args[1])
+                                        : Runtime.getRuntime().availableProcessors();
+        Path logDirectory = args.length > 2 ? Path.of(args[2]) : null;
+        SyncPolicy syncPolicy = args.length > 3 ? SyncPolicy.valueOf(args[3]) : SyncPolicy.INTERVAL;
+        Metrics.registerIfRequested();
+
+        long start = System.nanoTime();
+        NioGameServer server = new NioGameServer(new InetSocketAddress(port), loopCount, logDirectory, syncPolicy);
+        if (logDirectory != null) {
+            System.out.printf("Recovered %d sessions (%d log records) in %.0f ms%n", server.getRecoveredSessions(),
+                              server.getRecoveredRecords(), (System.nanoTime() - start) / 1e6);
+        }
+        server.start();
+        System.out.printf("Listening on port %d with %d event loops%n", server.getPort(), loopCount);
+
+        long lastMoves = 0;
+        while (true) {
+            Thread.sleep(5000);
+            long moves = server.getMovesApplied();
+            System.out.printf("%d sessions, %.0f moves/s%n", server.getSessionCount(), (moves - lastMoves) / 5.0);
+            lastMoves = moves;
+        }
+    }
+}
@@ -0,0 +1,450 @@
+package mancala.net;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import mancala.model.GameState;
+import mancala.model.MancalaModel;
+
+/**
+ * Keeps idle games packed into fixed-width slots of one direct or
+ * memory-mapped buffer instead of one MancalaModel each.
+ * A game is rehydrated into a MancalaModel with load() when a move arrives
+ * and packed again with save() afterwards, so an idle game costs a few dozen
+ * bytes outside the Java heap and nothing for the garbage collector to trace.
+ *
+ * <p>Each slot holds the board, the side to move, the last move, the move
+ * count, the controller's undo counters and one undo level (the previous
+ * board). One level is enough because the undo rules never allow two undos
+ * in a row. Stone counts take one byte per pit when every stone of the game
+ * fits in a byte, otherwise two or four.
+ *
+ * <p>Slot layout:
+ * <pre>
+ * 0     flags: player (bits 0-1), in use, has undo state, last action was undo
+ * 1     undos this turn (bits 0-3), undo player (bits 4-5), undo state player (bits 6-7)
+ * 2     last move + 1 (0 for none)
+ * 3     undo state's last move + 1
+ * 4-7   move count; next free slot while the slot is free
+ * 8-    board, then the undo state's board
+ * </pre>
+ *
+ * <p>Not thread-safe: every store belongs to one thread, such as an event loop.
+ *
+ * @author CS151 Group Project
+ * @version 1.0
+ */
+public class PackedSessionStore implements Closeable {
+    private static final int IN_USE = 0x04;
+    private static final int HAS_UNDO = 0x08;
+    private static final int LAST_ACTION_UNDO = 0x10;
+    private static final int HEADER_SIZE = 8;
+    private static final int NO_FREE_SLOT = -1;
+
+    private final int pitsPerSide;
+    private final int stonesPerPit;
+    private final int boardLength;
+    private final int countWidth;
+    private final int slotSize;
+    private final FileChannel file;
+
+    private ByteBuffer slots;
+    private int capacity;
+    private int nextUnused;
+    private int freeHead = NO_FREE_SLOT;
+    private int size;
+
+    /**
+     * Creates a store backed by a direct buffer.
+     *
+     * @param pitsPerSide Number of pits each side has
+     * @param stonesPerPit The initial amount of stones each pits has
+     * @param initialCapacity Number of slots to allocate up front; grows when full
+     */
+    public PackedSessionStore(int pitsPerSide, int stonesPerPit, int initialCapacity) {
+        this.pitsPerSide = pitsPerSide;
+        this.stonesPerPit = stonesPerPit;
+        this.boardLength = pitsPerSide * 2 + 2;
+        this.countWidth = countWidth(pitsPerSide * 2 * stonesPerPit);
+        this.slotSize = HEADER_SIZE + boardLength * countWidth * 2;
+        this.file = null;
+        this.capacity = Math.max(1, initialCapacity);
+        this.slots = ByteBuffer.allocateDirect(capacity * slotSize);
+    }
+
+    /**
+     * Creates a store backed by a memory-mapped file, so the operating system
+     * can page idle games out. The file is overwritten.
+     *
+     * @param path The file to map
+     * @param pitsPerSide Number of pits each side has
+     * @param stonesPerPit The initial amount of stones each pits has
+     * @param initialCapacity Number of slots to map up front; grows when full
+     * @throws IOException if the file cannot be created or mapped
+     */
+    public PackedSessionStore(Path path, int pitsPerSide, int stonesPerPit, int initialCapacity)
+            throws IOException {
+        this.pitsPerSide = pitsPerSide;
+        this.stonesPerPit = stonesPerPit;
+        this.boardLength = pitsPerSide * 2 + 2;
+        this.countWidth = countWidth(pitsPerSide * 2 * stonesPerPit);
+        this.slotSize = HEADER_SIZE + boardLength * countWidth * 2;
+        this.file = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                                     StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        this.capacity = Math.max(1, initialCapacity);
+        this.slots = map(capacity);
+    }
+
+    /**
+     * Takes a free slot and starts a new game in it.
+     *
+     * @return The slot number
+     */
+    public int create() {
+        int slot;
+        if (freeHead != NO_FREE_SLOT) {
+            slot = freeHead;
+            freeHead = slots.getInt(slot * slotSize + 4);
+        } else {
+            if (nextUnused == capacity) {
+                grow();
+            }
+            slot = nextUnused++;
+        }
+        size++;
+        reset(slot);
+        return slot;
+    }
+
+    /**
+     * Starts a new game in a slot: the starting board with player 1 to move,
+     * no history and cleared counters.
+     *
+     * @param slot The slot number
+     */
+    public void reset(int slot) {
+        int base = slot * slotSize;
+        slots.put(base, (byte) (IN_USE | 1));
+        slots.put(base + 1, (byte) 0);
+        slots.put(base + 2, (byte) 0);
+        slots.put(base + 3, (byte) 0);
+        slots.putInt(base + 4, 0);
+        for (int pit = 0; pit < boardLength; pit++) {
+            boolean store = pit == pitsPerSide || pit == boardLength - 1;
+            putCount(base + HEADER_SIZE, pit, store ? 0 : stonesPerPit);
+        }
+    }
+
+    /**
+     * Frees a slot for reuse.
+     *
+     * @param slot The slot number
+     */
+    public void release(int slot) {
+        int base = slot * slotSize;
+        if ((slots.get(base) & IN_USE) == 0) {
+            return;
+        }
+        slots.put(base, (byte) 0);
+        slots.putInt(base + 4, freeHead);
+        freeHead = slot;
+        size--;
+    }
+
+    /**
+     * Rehydrates the game in a slot into a new MancalaModel.
+     *
+     * @param slot The slot number
+     * @return A live model; changes to it are not stored until save()
+     */
+    public MancalaModel load(int slot) {
+        int base = slot * slotSize;
+        int flags = slots.get(base);
+        int counters = slots.get(base + 1);
+
+        GameState undoState = null;
+        if ((flags & HAS_UNDO) != 0) {
+            undoState = new GameState(readBoard(base + HEADER_SIZE + boardLength * countWidth),
+                                      (slots.get(base + 3) & 0xFF) - 1, (counters >> 6) & 0x03);
+        }
+
+        MancalaModel model = new MancalaModel(pitsPerSide, stonesPerPit);
+        model.restore(readBoard(base + HEADER_SIZE), flags & 0x03, (slots.get(base + 2) & 0xFF) - 1, undoState);
+        return model;
+    }
+
+    /**
+     * Packs a model back into its slot. Keeps the move count and undo counters.
+     *
+     * @param slot The slot number
+     * @param model The game to store
+     */
+    public void save(int slot, MancalaModel model) {
+        int base = slot * slotSize;
+        GameState undoState = model.getUndoState();
+        int flags = slots.get(base) & LAST_ACTION_UNDO;
+        flags |= IN_USE | model.getCurrentPlayer() & 0x03;
+        int counters = slots.get(base + 1) & 0x3F;
+
+        for (int pit = 0; pit < boardLength; pit++) {
+            putCount(base + HEADER_SIZE, pit, model.getStonesAtPit(pit));
+        }
+        if (undoState != null) {
+            flags |= HAS_UNDO;
+            counters |= (undoState.getCurrentPlayer() & 0x03) << 6;
+            int[] undoBoard = undoState.getBoard();
+            for (int pit = 0; pit < boardLength; pit++) {
+                putCount(base + HEADER_SIZE + boardLength * countWidth, pit, undoBoard[pit]);
+            }
+            slots.put(base + 3, (byte) (undoState.getCurrentTurn() + 1));
+        }
+        slots.put(base, (byte) flags);
+        slots.put(base + 1, (byte) counters);
+        slots.put(base + 2, (byte) (model.getLastMove() + 1));
+    }
+
+    /**
+     * Copies the board of a slot without rehydrating the game.
+     *
+     * @param slot The slot number
+     * @param board Array of pitsPerSide * 2 + 2 counts to fill
+     */
+    public void readBoard(int slot, int[] board) {
+        int offset = slot * slotSize + HEADER_SIZE;
+        for (int pit = 0; pit < boardLength; pit++) {
+            board[pit] = getCount(offset, pit);
+        }
+    }
+
+    /**
+     * Copies a slot's raw bytes, for writing a snapshot of the store.
+     *
+     * @param slot The slot number
+     * @param out Buffer getSlotSize() bytes are appended to
+     */
+    public void exportSlot(int slot, ByteBuffer out) {
+        out.put(slots.slice(slot * slotSize, slotSize));
+    }
+
+    /**
+     * Takes a free slot and fills it with bytes from exportSlot of a store
+     * with the same board size.
+     *
+     * @param in Buffer getSlotSize() bytes are read from
+     * @return The slot number
+     * @throws IllegalArgumentException if the bytes are not a slot in use
+     */
+    public int importSlot(ByteBuffer in) {
+        if ((in.get(in.position()) & IN_USE) == 0) {
+            throw new IllegalArgumentException("Not a game slot");
+        }
+        int slot = create();
+        slots.put(slot * slotSize, in, in.position(), slotSize);
+        in.position(in.position() + slotSize);
+        return slot;
+    }
+
+    /**
+     * Getter
+     *
+     * @param slot The slot number
+     * @return The player to move in the slot's game
+     */
+    public int getCurrentPlayer(int slot) {
+        return slots.get(slot * slotSize) & 0x03;
+    }
+
+    /**
+     * Getter
+     *
+     * @param slot The slot number
+     * @return Moves played in the slot's game
+     */
+    public int getMoveCount(int slot) {
+        return slots.getInt(slot * slotSize + 4);
+    }
+
+    /**
+     * Setter
+     *
+     * @param slot The slot number
+     * @param moveCount Moves played in the slot's game
+     */
+    public void setMoveCount(int slot, int moveCount) {
+        slots.putInt(slot * slotSize + 4, moveCount);
+    }
+
+    /**
+     * Getter
+     *
+     * @param slot The slot number
+     * @return Undos used in the current turn
+     */
+    public int getUndosThisTurn(int slot) {
+        return slots.get(slot * slotSize + 1) & 0x0F;
+    }
+
+    /**
+     * Getter
+     *
+     * @param slot The slot number
+     * @return The player the undo counter belongs to, 0 if none
+     */
+    public int getUndoPlayer(int slot) {
+        return (slots.get(slot * slotSize + 1) >> 4) & 0x03;
+    }
+
+    /**
+     * Getter
+     *
+     * @param slot The slot number
+     * @return true if the last action was an undo
+     */
+    public boolean isLastActionUndo(int slot) {
+        return (slots.get(slot * slotSize) & LAST_ACTION_UNDO) != 0;
+    }
+
+    /**
+     * Stores the undo counters kept by MancalaController.
+     *
+     * @param slot The slot number
+     * @param undosThisTurn Undos used in the current turn (0-15)
+     * @param undoPlayer The player the undo counter belongs to
+     * @param lastActionWasUndo true if the last action was an undo
+     */
+    public void setUndoCounters(int slot, int undosThisTurn, int undoPlayer, boolean lastActionWasUndo) {
+        int base = slot * slotSize;
+        int counters = slots.get(base + 1) & 0xC0;
+        slots.put(base + 1, (byte) (counters | (undoPlayer & 0x03) << 4 | undosThisTurn & 0x0F));
+        int flags = slots.get(base) & ~LAST_ACTION_UNDO;
+        slots.put(base, (byte) (lastActionWasUndo ? flags | LAST_ACTION_UNDO : flags));
+    }
+
+    /**
+     * Getter
+     *
+     * @return Number of slots holding a game
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Getter
+     *
+     * @return Number of pits each side has
+     */
+    public int getPitsPerSide() {
+        return pitsPerSide;
+    }
+
+    /**
+     * Getter
+     *
+     * @return The initial amount of stones each pits has
+     */
+    public int getStonesPerPit() {
+        return stonesPerPit;
+    }
+
+    /**
+     * Getter
+     *
+     * @return Bytes per slot
+     */
+    public int getSlotSize() {
+        return slotSize;
+    }
+
+    /**
+     * Getter
+     *
+     * @return Bytes reserved for all slots
+     */
+    public long getReservedBytes() {
+        return (long) capacity * slotSize;
+    }
+
+    /**
+     * Closes the mapped file, if any. The store must not be used afterwards.
+     */
+    @Override
+    public void close() throws IOException {
+        if (file != null) {
+            file.close();
+        }
+    }
+
+    private int[] readBoard(int offset) {
+        int[] board = new int[boardLength];
+        for (int pit = 0; pit < boardLength; pit++) {
+            board[pit] = getCount(offset, pit);
+        }
+        return board;
+    }
+
+    private int getCount(int offset, int pit) {
+        switch (countWidth) {
+            case 1:
+                return slots.get(offset + pit) & 0xFF;
+            case 2:
+                return slots.getShort(offset + pit * 2) & 0xFFFF;
+            default:
+                return slots.getInt(offset + pit * 4);
+        }
+    }
+
+    private void putCount(int offset, int pit, int count) {
+        switch (countWidth) {
+            case 1:
+                slots.put(offset + pit, (byte) count);
+                break;
+            case 2:
+                slots.putShort(offset + pit * 2, (short) count);
+                break;
+            default:
+                slots.putInt(offset + pit * 4, count);
+        }
+    }
+
+    /**
+     * Doubles the capacity, copying the slots into a new buffer or remapping
+     * a larger part of the file.
+     */
+    private void grow() {
+        int newCapacity = capacity * 2;
+        if ((long) newCapacity * slotSize > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Session store is full");
+        }
+        if (file != null) {
+            try {
+                slots = map(newCapacity);
+            } catch (IOException e) {
+                throw new IllegalStateException("Cannot grow session store", e);
+            }
+        } else {
+            ByteBuffer bigger = ByteBuffer.allocateDirect(newCapacity * slotSize);
+            bigger.put(0, slots, 0, capacity * slotSize);
+            slots = bigger;
+        }
+        capacity = newCapacity;
+    }
+
+    private MappedByteBuffer map(int slotCount) throws IOException {
+        return file.map(FileChannel.MapMode.READ_WRITE, 0, (long) slotCount * slotSize);
+    }
+
+    /**
+     * Picks the bytes per stone count: enough for every stone in the game.
+     */
+    private static int countWidth(int totalStones) {
+        if (totalStones <= 0xFF) {
+            return 1;
+        }
+        return totalStones <= 0xFFFF ? 2 : 4;
+    }
+}
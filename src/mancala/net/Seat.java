@@ -0,0 +1,48 @@
+package mancala.net;
+
+import java.io.IOException;
+import mancala.model.MancalaModel;
+import mancala.model.MoveCheck;
+
+/**
+ * One side of a game hosted by VirtualThreadGameHost: a remote player,
+ * the engine, or an in-memory player in the benchmark.
+ * Every call is made from the game's own thread and may block.
+ *
+ * @author CS151 Group Project
+ * @version 1.0
+ */
+interface Seat {
+    /**
+     * Waits for this seat's next message.
+     *
+     * @param model The game being played (read only)
+     * @return A pit index, WireCodec.MSG_NEW_GAME,
+     *         WireCodec.MSG_RESYNC, or -1 if the seat left
+     * @throws IOException if the seat's connection failed
+     */
+    int nextMove(MancalaModel model) throws IOException;
+
+    /**
+     * Tells the seat about the current state of the game.
+     *
+     * @param model The game being played (read only)
+     * @param full true to send the whole board (new game or resync) rather
+     *             than only the pits that changed
+     * @throws IOException if the seat's connection failed
+     */
+    void sendState(MancalaModel model, boolean full) throws IOException;
+
+    /**
+     * Tells the seat its last move was rejected.
+     *
+     * @param check Why the move was rejected
+     * @throws IOException if the seat's connection failed
+     */
+    void sendError(MoveCheck check) throws IOException;
+
+    /**
+     * Releases the seat's connection, if any.
+     */
+    void close();
+}
@@ -0,0 +1,487 @@
+package mancala.net;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32C;
+import mancala.model.MancalaModel;
+import mancala.model.MoveCheck;
+
+/**
+ * Write-ahead log of one event loop's sessions, so NioGameServer can rebuild
+ * every game, undo history included, after a crash.
+ *
+ * <p>Each loop has two files in the log directory:
+ * <ul>
+ *   <li>loop-N.snap: every live session's id and raw PackedSessionStore
+ *       slot, written to a temporary file and renamed into place</li>
+ *   <li>loop-N.wal: what happened since that snapshot, as frames of
+ *       (length, CRC32C, records) with one record per session opened,
+ *       move, undo, new game or session closed</li>
+ * </ul>
+ * Both carry a generation number. Writing a snapshot starts a new
+ * generation and truncates the log, so a log is only replayed on top of
+ * the snapshot of its own generation; a log left over from a crash between
+ * the two steps is ignored, as the snapshot already holds everything in it.
+ *
+ * <p>Recovery loads each snapshot and replays its log up to the first
+ * damaged frame, which is where a crash cut the last write short. The log
+ * is kept short by taking a snapshot whenever it grows past a limit, so
+ * recovery time depends on the number of sessions rather than on how long
+ * the server ran.
+ *
+ * <p>Records are gathered in a buffer and written as one frame per
+ * commit(), which the event loop calls before sending replies. The
+ * SyncPolicy decides when the file is also forced to disk.
+ *
+ * <p>Not thread-safe: every log belongs to one event loop.
+ *
+ * @author CS151 Group Project
+ * @version 1.0
+ */
+class SessionLog implements Closeable {
+    static final byte OPEN = 1;
+    static final byte MOVE = 2;
+    static final byte UNDO = 3;
+    static final byte NEW_GAME = 4;
+    static final byte CLOSE = 5;
+
+    /** How often the INTERVAL policy forces the log */
+    static final long SYNC_INTERVAL_MILLIS = 200;
+
+    private static final int LOG_MAGIC = 0x4D57414C; // "MWAL"
+    private static final int SNAPSHOT_MAGIC = 0x4D534E50; // "MSNP"
+    private static final int VERSION = 1;
+    private static final int LOG_HEADER_SIZE = 16;
+    private static final int SNAPSHOT_HEADER_SIZE = 32;
+    private static final int FRAME_HEADER_SIZE = 8;
+    private static final int MAX_RECORD_SIZE = 10;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Path logPath;
+    private final Path snapshotPath;
+    private final SyncPolicy policy;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final CRC32C crc = new CRC32C();
+
+    private FileChannel file;
+    private long generation;
+    private long size;
+    private boolean unsynced;
+    private long lastSync;
+
+    /**
+     * Result of recover(): the games of every session found in a log
+     * directory, packed into one store.
+     */
+    static class Recovered {
+        private final PackedSessionStore store;
+        private final Map<Long, Integer> sessions = new LinkedHashMap<>();
+        private long generation;
+        private long records;
+
+        Recovered(PackedSessionStore store) {
+            this.store = store;
+        }
+
+        /**
+         * Getter
+         *
+         * @return The store holding the recovered games
+         */
+        PackedSessionStore getStore() {
+            return store;
+        }
+
+        /**
+         * Getter
+         *
+         * @return Slot in the store by session id
+         */
+        Map<Long, Integer> getSessions() {
+            return sessions;
+        }
+
+        /**
+         * Getter
+         *
+         * @return The newest generation found, 0 if none
+         */
+        long getGeneration() {
+            return generation;
+        }
+
+        /**
+         * Getter
+         *
+         * @return Number of log records replayed
+         */
+        long getRecords() {
+            return records;
+        }
+    }
+
+    /**
+     * Creates the log of one event loop. Nothing is written until the first
+     * snapshot(), which must come before any record.
+     *
+     * @param directory The log directory
+     * @param index The event loop's index
+     * @param generation The generation to continue from
+     * @param policy When to force the log to disk
+     */
+    SessionLog(Path directory, int index, long generation, SyncPolicy policy) {
+        this.logPath = directory.resolve("loop-" + index + ".wal");
+        this.snapshotPath = directory.resolve("loop-" + index + ".snap");
+        this.generation = generation;
+        this.policy = policy;
+        buffer.position(FRAME_HEADER_SIZE);
+    }
+
+    void open(long sessionId) {
+        append(OPEN, sessionId);
+    }
+
+    void move(long sessionId, int pit) {
+        append(MOVE, sessionId);
+        buffer.put((byte) pit);
+    }
+
+    void undo(long sessionId) {
+        append(UNDO, sessionId);
+    }
+
+    void newGame(long sessionId) {
+        append(NEW_GAME, sessionId);
+    }
+
+    void close(long sessionId) {
+        append(CLOSE, sessionId);
+    }
+
+    /**
+     * Writes the records gathered since the last commit as one frame and
+     * forces the file if the policy says so.
+     *
+     * @throws UncheckedIOException if the log cannot be written
+     */
+    void commit() {
+        try {
+            if (buffer.position() > FRAME_HEADER_SIZE) {
+                writeFrame();
+            }
+            if (unsynced && (policy == SyncPolicy.ALWAYS || policy == SyncPolicy.INTERVAL
+                             && System.currentTimeMillis() - lastSync >= SYNC_INTERVAL_MILLIS)) {
+                file.force(false);
+                unsynced = false;
+                lastSync = System.currentTimeMillis();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write session log " + logPath, e);
+        }
+    }
+
+    /**
+     * Writes a snapshot of the given sessions and starts a new, empty log
+     * generation. Records not yet committed are dropped: the snapshot
+     * already holds their effect.
+     *
+     * @param store The event loop's store
+     * @param sessions Slot in the store of every live session, by id
+     * @throws IOException if the snapshot cannot be written
+     */
+    void snapshot(PackedSessionStore store, Map<Long, Integer> sessions) throws IOException {
+        long next = generation + 1;
+        Path temporary = snapshotPath.resolveSibling(snapshotPath.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer chunk = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            chunk.putInt(SNAPSHOT_MAGIC);
+            chunk.putInt(VERSION);
+            chunk.putLong(next);
+            chunk.putInt(store.getPitsPerSide());
+            chunk.putInt(store.getStonesPerPit());
+            chunk.putInt(store.getSlotSize());
+            chunk.putInt(sessions.size());
+            for (Map.Entry<Long, Integer> session : sessions.entrySet()) {
+                if (chunk.remaining() < 8 + store.getSlotSize()) {
+                    writeFully(out, chunk);
+                }
+                chunk.putLong(session.getKey());
+                store.exportSlot(session.getValue(), chunk);
+            }
+            writeFully(out, chunk);
+            out.force(true);
+        }
+        Files.move(temporary, snapshotPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+        // The snapshot is in place, so the old log is no longer needed
+        generation = next;
+        if (file == null) {
+            file = FileChannel.open(logPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        }
+        file.truncate(0);
+        ByteBuffer header = ByteBuffer.allocate(LOG_HEADER_SIZE);
+        header.putInt(LOG_MAGIC).putInt(VERSION).putLong(generation);
+        writeFully(file, header);
+        file.force(true);
+        size = LOG_HEADER_SIZE;
+        unsynced = false;
+        lastSync = System.currentTimeMillis();
+        buffer.clear().position(FRAME_HEADER_SIZE);
+    }
+
+    /**
+     * Getter
+     *
+     * @return Bytes in the log since the last snapshot
+     */
+    long getSize() {
+        return size;
+    }
+
+    /**
+     * Commits and forces what is left and closes the file.
+     */
+    @Override
+    public void close() throws IOException {
+        if (file == null) {
+            return;
+        }
+        try {
+            commit();
+            file.force(false);
+        } finally {
+            file.close();
+        }
+    }
+
+    /**
+     * Deletes the files of the event loops from count on, left over from a
+     * server that ran with more loops.
+     *
+     * @param directory The log directory
+     * @param count Number of event loops now
+     * @throws IOException if a file cannot be deleted
+     */
+    static void deleteFrom(Path directory, int count) throws IOException {
+        for (Path path : list(directory)) {
+            if (loopIndex(path) >= count) {
+                Files.deleteIfExists(path);
+                Files.deleteIfExists(logFor(path));
+            }
+        }
+    }
+
+    /**
+     * Rebuilds every session found in a log directory. A session found in
+     * more than one snapshot, as can happen if a crash interrupts the
+     * snapshots written after a recovery, is taken from the first.
+     *
+     * @param directory The log directory
+     * @param pitsPerSide Number of pits each side has
+     * @param stonesPerPit The initial amount of stones each pits has
+     * @return The recovered sessions
+     * @throws IOException if a snapshot cannot be read or is for another board
+     */
+    static Recovered recover(Path directory, int pitsPerSide, int stonesPerPit) throws IOException {
+        Recovered recovered = new Recovered(new PackedSessionStore(pitsPerSide, stonesPerPit, 1024));
+        PackedSessionStore store = recovered.store;
+        for (Path snapshot : list(directory)) {
+            Map<Long, Integer> sessions = new HashMap<>();
+            long generation = readSnapshot(snapshot, store, sessions);
+            recovered.generation = Math.max(recovered.generation, generation);
+            recovered.records += replay(logFor(snapshot), generation, store, sessions);
+
+            for (Map.Entry<Long, Integer> session : sessions.entrySet()) {
+                if (recovered.sessions.putIfAbsent(session.getKey(), session.getValue()) != null) {
+                    store.release(session.getValue());
+                }
+            }
+        }
+        return recovered;
+    }
+
+    private void append(byte type, long sessionId) {
+        if (buffer.remaining() < MAX_RECORD_SIZE) {
+            commit();
+        }
+        buffer.put(type);
+        buffer.putLong(sessionId);
+    }
+
+    private void writeFrame() throws IOException {
+        int length = buffer.position() - FRAME_HEADER_SIZE;
+        crc.reset();
+        crc.update(buffer.slice(FRAME_HEADER_SIZE, length));
+        buffer.putInt(0, length);
+        buffer.putInt(4, (int) crc.getValue());
+        writeFully(file, buffer);
+        size += FRAME_HEADER_SIZE + length;
+        unsynced = true;
+        buffer.clear().position(FRAME_HEADER_SIZE);
+    }
+
+    /**
+     * Writes everything put into the buffer so far and clears it.
+     */
+    private static void writeFully(FileChannel channel, ByteBuffer source) throws IOException {
+        source.flip();
+        while (source.hasRemaining()) {
+            channel.write(source);
+        }
+        source.clear();
+    }
+
+    /**
+     * Loads a snapshot's sessions into the store.
+     *
+     * @return The snapshot's generation
+     */
+    private static long readSnapshot(Path path, PackedSessionStore store, Map<Long, Integer> sessions)
+            throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (in.remaining() < SNAPSHOT_HEADER_SIZE || in.getInt() != SNAPSHOT_MAGIC || in.getInt() != VERSION) {
+                throw new IOException("Not a session snapshot: " + path);
+            }
+            long generation = in.getLong();
+            if (in.getInt() != store.getPitsPerSide() || in.getInt() != store.getStonesPerPit()
+                || in.getInt() != store.getSlotSize()) {
+                throw new IOException("Session snapshot " + path + " is for another board");
+            }
+            int count = in.getInt();
+            if (in.remaining() != (long) count * (8 + store.getSlotSize())) {
+                throw new IOException("Session snapshot " + path + " is truncated");
+            }
+            for (int i = 0; i < count; i++) {
+                long sessionId = in.getLong();
+                sessions.put(sessionId, store.importSlot(in));
+            }
+            return generation;
+        }
+    }
+
+    /**
+     * Replays a log on top of its snapshot, stopping at the first damaged
+     * frame.
+     *
+     * @return Number of records replayed
+     */
+    private static long replay(Path path, long generation, PackedSessionStore store, Map<Long, Integer> sessions)
+            throws IOException {
+        if (!Files.exists(path)) {
+            return 0;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (in.remaining() < LOG_HEADER_SIZE || in.getInt() != LOG_MAGIC || in.getInt() != VERSION
+                || in.getLong() != generation) {
+                return 0; // Older than the snapshot
+            }
+
+            CRC32C crc = new CRC32C();
+            long records = 0;
+            while (in.remaining() >= FRAME_HEADER_SIZE) {
+                int length = in.getInt(in.position());
+                if (length <= 0 || length > in.remaining() - FRAME_HEADER_SIZE) {
+                    break;
+                }
+                ByteBuffer frame = in.slice(in.position() + FRAME_HEADER_SIZE, length);
+                crc.reset();
+                crc.update(frame.duplicate());
+                if ((int) crc.getValue() != in.getInt(in.position() + 4)) {
+                    break;
+                }
+                in.position(in.position() + FRAME_HEADER_SIZE + length);
+                records += replayFrame(frame, store, sessions);
+            }
+            return records;
+        }
+    }
+
+    private static long replayFrame(ByteBuffer frame, PackedSessionStore store, Map<Long, Integer> sessions) {
+        long records = 0;
+        while (frame.hasRemaining()) {
+            byte type = frame.get();
+            long sessionId = frame.getLong();
+            if (type == OPEN) {
+                sessions.put(sessionId, store.create());
+                records++;
+                continue;
+            }
+            int pit = type == MOVE ? frame.get() : 0;
+            Integer slot = sessions.get(sessionId);
+            if (slot == null) {
+                continue;
+            }
+            switch (type) {
+                case MOVE:
+                    MancalaModel model = store.load(slot);
+                    if (model.checkMove(pit) == MoveCheck.OK) {
+                        GameSession.move(store, slot, model, pit);
+                    }
+                    break;
+                case UNDO:
+                    model = store.load(slot);
+                    if (GameSession.canUndo(store, slot, model)) {
+                        GameSession.undo(store, slot, model);
+                    }
+                    break;
+                case NEW_GAME:
+                    store.reset(slot);
+                    break;
+                case CLOSE:
+                    store.release(sessions.remove(sessionId));
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown session log record " + type);
+            }
+            records++;
+        }
+        return records;
+    }
+
+    /**
+     * Lists the snapshot files in a log directory in loop order.
+     */
+    private static List<Path> list(Path directory) throws IOException {
+        List<Path> snapshots = new ArrayList<>();
+        try (DirectoryStream<Path> paths = Files.newDirectoryStream(directory, "loop-*.snap")) {
+            for (Path path : paths) {
+                if (loopIndex(path) >= 0) {
+                    snapshots.add(path);
+                }
+            }
+        }
+        snapshots.sort((a, b) -> Integer.compare(loopIndex(a), loopIndex(b)));
+        return snapshots;
+    }
+
+    private static int loopIndex(Path snapshot) {
+        String name = snapshot.getFileName().toString();
+        try {
+            return Integer.parseInt(name.substring("loop-".length(), name.length() - ".snap".length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static Path logFor(Path snapshot) {
+        String name = snapshot.getFileName().toString();
+        return snapshot.resolveSibling(name.substring(0, name.length() - ".snap".length()) + ".wal");
+    }
+}
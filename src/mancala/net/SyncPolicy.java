@@ -0,0 +1,20 @@
+package mancala.net;
+
+/**
+ * When NioGameServer forces its session logs to disk.
+ * Under every policy a batch of log records is handed to the operating
+ * system before the replies to it are sent, so a crash of the server
+ * process loses nothing. The policies differ in what a crash of the whole
+ * machine can lose.
+ *
+ * @author CS151 Group Project
+ * @version 1.0
+ */
+public enum SyncPolicy {
+    /** Never force; the operating system writes the log back on its own */
+    NONE,
+    /** Force at most every few hundred milliseconds, bounding what a power loss can lose */
+    INTERVAL,
+    /** Force before every reply; nothing acknowledged is ever lost, at one flush per read */
+    ALWAYS
+}
@@ -0,0 +1,379 @@
+package mancala.net;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import mancala.diag.Metrics;
+import mancala.engine.SearchEngine;
+import mancala.model.MancalaModel;
+import mancala.model.MoveCheck;
+import mancala.persist.GameJournal;
+
+/**
+ * Game host that runs every session as plain blocking code on its own
+ * virtual thread. A simpler alternative to NioGameServer: a session reads
+ * a move, applies it and writes the reply, and the JDK parks the virtual
+ * thread while it waits, so mostly idle sessions cost little more than
+ * their game state.
+ *
+ * <p>Speaks the same WireCodec protocol as NioGameServer, except that the
+ * first byte a client sends picks the mode:
+ * <ul>
+ *   <li>MODE_HOT_SEAT: the client plays both sides</li>
+ *   <li>MODE_VS_ENGINE: the client plays player 1 against SearchEngine;
+ *       the searches share one platform thread per processor, so they
+ *       never hold the carrier threads the sessions run on</li>
+ *   <li>MODE_PAIR: the client is paired with the next MODE_PAIR client;
+ *       the first one plays player 1</li>
+ * </ul>
+ * A client waiting for a partner keeps its thread, which checks every
+ * PAIR_CHECK_MILLIS that the client is still connected, so one that leaves
+ * while waiting is dropped instead of being paired.
+ * A player's messages are only read on their own turn.
+ *
+ * <p>To run from command line:
+ * <pre>
+ * java mancala.net.VirtualThreadGameHost [port] [journal]
+ * </pre>
+ * Add -Dmancala.jmx=true to publish game and engine metrics over JMX.
+ *
+ * @author CS151 Group Project
+ * @version 1.0
+ */
+public class VirtualThreadGameHost implements Closeable {
+    public static final int DEFAULT_PORT = 7778;
+
+    public static final int MODE_HOT_SEAT = 0;
+    public static final int MODE_VS_ENGINE = 1;
+    public static final int MODE_PAIR = 2;
+
+    private static final int PITS_PER_SIDE = 6;
+    private static final int STONES_PER_PIT = 4;
+    private static final int ENGINE_DEPTH = 10;
+    private static final long ENGINE_MOVE_MILLIS = 200;
+    private static final int PAIR_CHECK_MILLIS = 500;
+
+    private final ServerSocket serverSocket;
+    private final ExecutorService sessions;
+    private final ExecutorService engineSearches;
+    private final Set<Socket> sockets = ConcurrentHashMap.newKeySet();
+    private final AtomicReference<RemoteSeat> waitingForPair = new AtomicReference<>();
+    private final AtomicLong movesApplied = new AtomicLong();
+    private volatile GameJournal journal;
+
+    /**
+     * Opens the server socket. Call start() to begin accepting connections.
+     *
+     * @param address Address to listen on; port 0 picks a free port
+     * @param sessions Executor that runs the accept loop and every session,
+     *                 normally Executors.newVirtualThreadPerTaskExecutor()
+     * @throws IOException if the socket cannot be opened
+     */
+    public VirtualThreadGameHost(InetSocketAddress address, ExecutorService sessions) throws IOException {
+        this.serverSocket = new ServerSocket();
+        this.serverSocket.bind(address, 4096);
+        this.sessions = sessions;
+        this.engineSearches = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), runnable -> {
+            Thread thread = new Thread(runnable, "Mancala-HostEngine");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts accepting connections.
+     */
+    public void start() {
+        sessions.execute(this::acceptLoop);
+    }
+
+    /**
+     * Sets the journal that games started from now on are recorded in.
+     *
+     * @param journal The game journal, or null to stop recording
+     */
+    public void setJournal(GameJournal journal) {
+        this.journal = journal;
+    }
+
+    /**
+     * Gets the port the host listens on.
+     *
+     * @return The local port
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Gets the number of moves applied since the host started.
+     *
+     * @return The move count
+     */
+    public long getMovesApplied() {
+        return movesApplied.get();
+    }
+
+    /**
+     * Gets the number of open client connections.
+     *
+     * @return The connection count
+     */
+    public int getConnectionCount() {
+        return sockets.size();
+    }
+
+    /**
+     * Stops accepting, closes every connection and stops the executor.
+     */
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        for (Socket socket : sockets) {
+            socket.close();
+        }
+        sessions.shutdownNow();
+        engineSearches.shutdownNow();
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                sockets.add(socket);
+                sessions.execute(() -> serve(socket));
+            } catch (IOException e) {
+                if (!serverSocket.isClosed()) {
+                    System.err.println("Accept failed: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs on the connection's own thread: reads the mode byte and plays.
+     */
+    private void serve(Socket socket) {
+        RemoteSeat seat;
+        int mode;
+        try {
+            socket.setTcpNoDelay(true);
+            seat = new RemoteSeat(socket, PITS_PER_SIDE);
+            seat.sendHello();
+            mode = seat.in.read();
+        } catch (IOException e) {
+            closeSocket(socket);
+            return;
+        }
+
+        switch (mode) {
+            case MODE_HOT_SEAT:
+                play(seat, seat);
+                break;
+            case MODE_VS_ENGINE:
+                play(seat, new EngineSeat(new SearchEngine(ENGINE_DEPTH, ENGINE_MOVE_MILLIS), PITS_PER_SIDE,
+                                             engineSearches));
+                break;
+            case MODE_PAIR:
+                pair(seat);
+                break;
+            default:
+                seat.close();
+        }
+    }
+
+    /**
+     * Pairs a seat with the one waiting, or makes it wait for the next one.
+     * The waiting seat's thread runs the game.
+     */
+    private void pair(RemoteSeat seat) {
+        while (true) {
+            RemoteSeat first = waitingForPair.getAndSet(null);
+            if (first != null) {
+                first.partner.complete(seat);
+                return; // The waiting seat's thread runs the game
+            }
+            if (waitingForPair.compareAndSet(null, seat)) {
+                waitForPartner(seat);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Waits on the seat's own thread until a partner arrives, then plays.
+     * Drops the seat if it disconnects first.
+     */
+    private void waitForPartner(RemoteSeat seat) {
+        try {
+            while (true) {
+                try {
+                    RemoteSeat partner = seat.partner.get(PAIR_CHECK_MILLIS, TimeUnit.MILLISECONDS);
+                    play(seat, partner);
+                    return;
+                } catch (TimeoutException e) {
+                    // No partner yet
+                }
+                if (!seat.isConnected()) {
+                    if (waitingForPair.compareAndSet(seat, null)) {
+                        seat.close();
+                        return;
+                    }
+                    // A partner has just taken this seat; find it another one
+                    RemoteSeat partner = seat.partner.join();
+                    seat.close();
+                    pair(partner);
+                    return;
+                }
+            }
+        } catch (InterruptedException | ExecutionException e) {
+            // The host is closing
+            waitingForPair.compareAndSet(seat, null);
+            seat.close();
+        }
+    }
+
+    private void play(Seat player1, Seat player2) {
+        new HostedGame(player1, player2, PITS_PER_SIDE, STONES_PER_PIT, movesApplied, journal).run();
+    }
+
+    private void closeSocket(Socket socket) {
+        sockets.remove(socket);
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // Already closed
+        }
+    }
+
+    /**
+     * A player connected over TCP, using blocking streams.
+     */
+    private class RemoteSeat implements Seat {
+        private final Socket socket;
+        private final InputStream in;
+        private final OutputStream out;
+        private final int[] sentBoard;
+        private final ByteBuffer buffer = ByteBuffer.allocate(1024);
+        // Completed with the partner of a seat waiting in MODE_PAIR
+        private final CompletableFuture<RemoteSeat> partner = new CompletableFuture<>();
+
+        RemoteSeat(Socket socket, int pitsPerSide) throws IOException {
+            this.socket = socket;
+            this.in = new BufferedInputStream(socket.getInputStream(), 64);
+            this.out = socket.getOutputStream();
+            this.sentBoard = new int[pitsPerSide * 2 + 2];
+        }
+
+        @Override
+        public int nextMove(MancalaModel model) throws IOException {
+            return in.read();
+        }
+
+        /**
+         * Checks, without waiting more than a moment or consuming anything,
+         * that the client has not closed the connection. Only call while no
+         * game reads from this seat.
+         */
+        boolean isConnected() {
+            try {
+                socket.setSoTimeout(1);
+                in.mark(1);
+                if (in.read() < 0) {
+                    return false;
+                }
+                in.reset(); // Keep a byte sent early for the game
+                return true;
+            } catch (SocketTimeoutException e) {
+                return true; // Nothing to read, but still connected
+            } catch (IOException e) {
+                return false;
+            } finally {
+                try {
+                    socket.setSoTimeout(0);
+                } catch (IOException e) {
+                    // Closed; the next read fails
+                }
+            }
+        }
+
+        void sendHello() throws IOException {
+            buffer.clear();
+            WireCodec.encodeHello(buffer);
+            flush();
+        }
+
+        @Override
+        public void sendState(MancalaModel model, boolean full) throws IOException {
+            buffer.clear();
+            if (full) {
+                WireCodec.encodeSnapshot(buffer, model.getBoardState(), model.getCurrentPlayer(),
+                                         model.isGameOver(), sentBoard);
+            } else {
+                WireCodec.encodeDiff(buffer, model.getBoardState(), model.getCurrentPlayer(),
+                                     model.isGameOver(), sentBoard);
+            }
+            flush();
+        }
+
+        @Override
+        public void sendError(MoveCheck check) throws IOException {
+            buffer.clear();
+            WireCodec.encodeError(buffer, check);
+            flush();
+        }
+
+        private void flush() throws IOException {
+            out.write(buffer.array(), 0, buffer.position());
+        }
+
+        @Override
+        public void close() {
+            closeSocket(socket);
+        }
+    }
+
+    /**
+     * Command line entry point.
+     *
+     * @param args [port] [journal]
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        Metrics.registerIfRequested();
+
+        VirtualThreadGameHost host = new VirtualThreadGameHost(new InetSocketAddress(port),
+                                                               Executors.newVirtualThreadPerTaskExecutor());
+        if (args.length > 1) {
+            host.setJournal(GameJournal.open(Path.of(args[1])));
+        }
+        host.start();
+        System.out.printf("Listening on port %d, one virtual thread per session%n", host.getPort());
+
+        long lastMoves = 0;
+        while (true) {
+            Thread.sleep(5000);
+            long moves = host.getMovesApplied();
+            System.out.printf("%d connections, %.0f moves/s%n", host.getConnectionCount(), (moves - lastMoves) / 5.0);
+            lastMoves = moves;
+        }
+    }
+}
@@ -0,0 +1,451 @@
+package mancala.net;
+
+import java.nio.ByteBuffer;
+import mancala.model.MoveCheck;
+
+/**
+ * Binary wire protocol shared by the game servers and their clients.
+ * Encodes straight into and decodes straight out of ByteBuffers, with no
+ * intermediate arrays or objects, so it can run on every move.
+ *
+ * <p>Client messages are a single byte: a pit index to move, MSG_NEW_GAME,
+ * MSG_RESYNC or MSG_UNDO. The one exception is MSG_RESUME, followed by the
+ * 8-byte id of a session to take over after a reconnect; it is only
+ * honoured as the first message on a connection.
+ *
+ * <p>Server messages start with a type byte:
+ * <ul>
+ *   <li>MSG_HELLO, version: sent once when a client connects</li>
+ *   <li>MSG_SESSION, 8-byte session id: sent before the first snapshot and
+ *       after MSG_RESUME, where it holds the resumed id if it succeeded</li>
+ *   <li>MSG_SNAPSHOT, flags, pitsPerSide, then every pit count: sent on
+ *       join, new game and resync</li>
+ *   <li>MSG_DIFF, flags, count, then (pit, stones) pairs for the pits that
+ *       changed: sent after every move</li>
+ *   <li>MSG_ERROR, MoveCheck ordinal: sent when a move is rejected</li>
+ * </ul>
+ * The flags byte holds the current player in bits 0-1 and the game over
+ * flag in bit 2. All numbers after it are unsigned varints (7 bits per
+ * byte, low bits first), so a typical move reply is about a dozen bytes.
+ *
+ * @author CS151 Group Project
+ * @version 1.0
+ */
+public final class WireCodec {
+    /** Protocol version sent in MSG_HELLO */
+    public static final int VERSION = 2;
+
+    public static final byte MSG_NEW_GAME = 0x7F;
+    public static final byte MSG_RESYNC = 0x7E;
+    public static final byte MSG_UNDO = 0x7D;
+    public static final byte MSG_RESUME = 0x7C;
+
+    public static final byte MSG_DIFF = 0x01;
+    public static final byte MSG_ERROR = 0x02;
+    public static final byte MSG_SNAPSHOT = 0x03;
+    public static final byte MSG_HELLO = 0x04;
+    public static final byte MSG_SESSION = 0x05;
+
+    /** Returned by decode when the buffer does not hold a whole message yet */
+    public static final int INCOMPLETE = -1;
+
+    /** Largest board whose pit indices all fit below the control bytes */
+    public static final int MAX_PITS_PER_SIDE = 61;
+
+    private static final int GAME_OVER_FLAG = 0x04;
+    private static final MoveCheck[] CHECKS = MoveCheck.values();
+
+    /**
+     * The board as known by a client, kept up to date by decode.
+     */
+    public static class ClientState {
+        private int[] board = new int[0];
+        private int pitsPerSide;
+        private int currentPlayer;
+        private boolean gameOver;
+        private int version;
+        private long sessionId;
+        private MoveCheck lastError;
+
+        /**
+         * Getter
+         *
+         * @return The board; replaced by the next snapshot if its size changes
+         */
+        public int[] getBoard() {
+            return board;
+        }
+
+        /**
+         * Getter
+         *
+         * @return Number of pits each side has, 0 before the first snapshot
+         */
+        public int getPitsPerSide() {
+            return pitsPerSide;
+        }
+
+        /**
+         * Getter
+         *
+         * @return The player to move
+         */
+        public int getCurrentPlayer() {
+            return currentPlayer;
+        }
+
+        /**
+         * Getter
+         *
+         * @return true if the game is over
+         */
+        public boolean isGameOver() {
+            return gameOver;
+        }
+
+        /**
+         * Getter
+         *
+         * @return The server's protocol version, 0 before MSG_HELLO
+         */
+        public int getVersion() {
+            return version;
+        }
+
+        /**
+         * Getter
+         *
+         * @return The id to resume the session with, 0 before MSG_SESSION
+         */
+        public long getSessionId() {
+            return sessionId;
+        }
+
+        /**
+         * Getter
+         *
+         * @return Why the last move was rejected, or null
+         */
+        public MoveCheck getLastError() {
+            return lastError;
+        }
+    }
+
+    private WireCodec() {
+    }
+
+    /**
+     * Writes a client move.
+     *
+     * @param out Buffer the message is appended to
+     * @param message A pit index, MSG_NEW_GAME, MSG_RESYNC or MSG_UNDO
+     */
+    public static void encodeMove(ByteBuffer out, int message) {
+        out.put((byte) message);
+    }
+
+    /**
+     * Writes a request to take over a session after reconnecting.
+     *
+     * @param out Buffer the message is appended to
+     * @param sessionId The id from the session's MSG_SESSION
+     */
+    public static void encodeResume(ByteBuffer out, long sessionId) {
+        out.put(MSG_RESUME);
+        out.putLong(sessionId);
+    }
+
+    /**
+     * Writes MSG_HELLO with this protocol's version.
+     *
+     * @param out Buffer the message is appended to
+     */
+    public static void encodeHello(ByteBuffer out) {
+        out.put(MSG_HELLO);
+        putVarint(out, VERSION);
+    }
+
+    /**
+     * Writes MSG_SESSION.
+     *
+     * @param out Buffer the message is appended to
+     * @param sessionId The session's id
+     */
+    public static void encodeSession(ByteBuffer out, long sessionId) {
+        out.put(MSG_SESSION);
+        out.putLong(sessionId);
+    }
+
+    /**
+     * Writes MSG_ERROR.
+     *
+     * @param out Buffer the message is appended to
+     * @param check Why the move was rejected
+     */
+    public static void encodeError(ByteBuffer out, MoveCheck check) {
+        out.put(MSG_ERROR);
+        out.put((byte) check.ordinal());
+    }
+
+    /**
+     * Writes the whole board and remembers it as sent.
+     *
+     * @param out Buffer the message is appended to
+     * @param board The current board
+     * @param currentPlayer The player to move
+     * @param gameOver true if the game is over
+     * @param sentBoard The board as last sent to the client, overwritten; may be null
+     */
+    public static void encodeSnapshot(ByteBuffer out, int[] board, int currentPlayer, boolean gameOver,
+                                      int[] sentBoard) {
+        out.put(MSG_SNAPSHOT);
+        out.put(flags(currentPlayer, gameOver));
+        putVarint(out, (board.length - 2) / 2);
+        for (int pit = 0; pit < board.length; pit++) {
+            putVarint(out, board[pit]);
+        }
+        if (sentBoard != null) {
+            System.arraycopy(board, 0, sentBoard, 0, board.length);
+        }
+    }
+
+    /**
+     * Writes the pits that differ from sentBoard and updates sentBoard.
+     *
+     * @param out Buffer the message is appended to
+     * @param board The current board
+     * @param currentPlayer The player to move
+     * @param gameOver true if the game is over
+     * @param sentBoard The board as last sent to the client, updated in place
+     */
+    public static void encodeDiff(ByteBuffer out, int[] board, int currentPlayer, boolean gameOver,
+                                  int[] sentBoard) {
+        int changed = 0;
+        for (int pit = 0; pit < board.length; pit++) {
+            if (board[pit] != sentBoard[pit]) {
+                changed++;
+            }
+        }
+
+        out.put(MSG_DIFF);
+        out.put(flags(currentPlayer, gameOver));
+        putVarint(out, changed);
+        for (int pit = 0; pit < board.length; pit++) {
+            if (board[pit] != sentBoard[pit]) {
+                putVarint(out, pit);
+                putVarint(out, board[pit]);
+                sentBoard[pit] = board[pit];
+            }
+        }
+    }
+
+    /**
+     * Decodes one server message into the client state. If the buffer does
+     * not hold the whole message, nothing is consumed and INCOMPLETE is
+     * returned, so the caller can read more and try again.
+     *
+     * @param in Buffer in read mode
+     * @param state The client state to update
+     * @return The message type, or INCOMPLETE
+     * @throws IllegalArgumentException if the message is malformed
+     */
+    public static int decode(ByteBuffer in, ClientState state) {
+        if (messageLength(in) == INCOMPLETE) {
+            return INCOMPLETE;
+        }
+
+        byte type = in.get();
+        switch (type) {
+            case MSG_HELLO:
+                state.version = getVarint(in);
+                if (state.version != VERSION) {
+                    throw new IllegalArgumentException("Unsupported protocol version " + state.version);
+                }
+                break;
+            case MSG_SESSION:
+                state.sessionId = in.getLong();
+                break;
+            case MSG_ERROR:
+                int ordinal = in.get();
+                if (ordinal < 0 || ordinal >= CHECKS.length) {
+                    throw new IllegalArgumentException("Unknown error " + ordinal);
+                }
+                state.lastError = CHECKS[ordinal];
+                break;
+            case MSG_SNAPSHOT:
+                readFlags(in, state);
+                int pitsPerSide = getVarint(in);
+                if (state.board.length != pitsPerSide * 2 + 2) {
+                    state.board = new int[pitsPerSide * 2 + 2];
+                }
+                state.pitsPerSide = pitsPerSide;
+                for (int pit = 0; pit < state.board.length; pit++) {
+                    state.board[pit] = checkStones(getVarint(in));
+                }
+                state.lastError = null;
+                break;
+            case MSG_DIFF:
+                readFlags(in, state);
+                int count = getVarint(in);
+                for (int i = 0; i < count; i++) {
+                    int pit = getVarint(in);
+                    int stones = checkStones(getVarint(in));
+                    if (pit < 0 || pit >= state.board.length) {
+                        throw new IllegalArgumentException("Pit " + pit + " outside the board");
+                    }
+                    state.board[pit] = stones;
+                }
+                state.lastError = null;
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown message type " + type);
+        }
+        return type;
+    }
+
+    /**
+     * Gets the length of the server message at the buffer's position
+     * without consuming it.
+     *
+     * @param in Buffer in read mode
+     * @return The message length in bytes, or INCOMPLETE
+     * @throws IllegalArgumentException if the message describes an impossible board or diff
+     */
+    public static int messageLength(ByteBuffer in) {
+        int start = in.position();
+        int limit = in.limit();
+        if (start >= limit) {
+            return INCOMPLETE;
+        }
+
+        int pos = start + 1;
+        switch (in.get(start)) {
+            case MSG_HELLO:
+                pos = skipVarints(in, pos, limit, 1);
+                break;
+            case MSG_SESSION:
+                pos = pos + 8 <= limit ? pos + 8 : INCOMPLETE;
+                break;
+            case MSG_ERROR:
+                pos = pos + 1 <= limit ? pos + 1 : INCOMPLETE;
+                break;
+            case MSG_SNAPSHOT:
+                pos = skipVarints(in, pos + 1, limit, 1);
+                if (pos != INCOMPLETE) {
+                    int pitsPerSide = varintAt(in, start + 2);
+                    checkPitsPerSide(pitsPerSide);
+                    pos = skipVarints(in, pos, limit, pitsPerSide * 2 + 2);
+                }
+                break;
+            case MSG_DIFF:
+                pos = skipVarints(in, pos + 1, limit, 1);
+                if (pos != INCOMPLETE) {
+                    int count = varintAt(in, start + 2);
+                    checkDiffCount(count);
+                    pos = skipVarints(in, pos, limit, count * 2);
+                }
+                break;
+            default:
+                return 1; // decode reports the unknown type
+        }
+        return pos == INCOMPLETE || pos > limit ? INCOMPLETE : pos - start;
+    }
+
+    /**
+     * Writes an unsigned varint.
+     *
+     * @param out Buffer the value is appended to
+     * @param value A non-negative value
+     */
+    public static void putVarint(ByteBuffer out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+
+    /**
+     * Reads an unsigned varint.
+     *
+     * @param in Buffer in read mode
+     * @return The value
+     */
+    public static int getVarint(ByteBuffer in) {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = in.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Varint too long");
+    }
+
+    private static int varintAt(ByteBuffer in, int pos) {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = in.get(pos++);
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Varint too long");
+    }
+
+    /**
+     * Skips count varints starting at pos.
+     *
+     * @return The position after them, or INCOMPLETE if the buffer ends first
+     */
+    private static int skipVarints(ByteBuffer in, int pos, int limit, int count) {
+        if (pos > limit) {
+            return INCOMPLETE;
+        }
+        for (int i = 0; i < count; i++) {
+            do {
+                if (pos >= limit) {
+                    return INCOMPLETE;
+                }
+            } while (in.get(pos++) < 0);
+        }
+        return pos;
+    }
+
+    private static void checkPitsPerSide(int pitsPerSide) {
+        if (pitsPerSide < 1 || pitsPerSide > MAX_PITS_PER_SIDE) {
+            throw new IllegalArgumentException("Impossible board: " + pitsPerSide + " pits per side");
+        }
+    }
+
+    /**
+     * Checks a diff's pit count: at most every pit of the largest board.
+     */
+    private static void checkDiffCount(int count) {
+        if (count < 0 || count > MAX_PITS_PER_SIDE * 2 + 2) {
+            throw new IllegalArgumentException("Impossible diff: " + count + " pits");
+        }
+    }
+
+    /**
+     * Checks a stone count, which a varint long enough can make negative.
+     */
+    private static int checkStones(int stones) {
+        if (stones < 0) {
+            throw new IllegalArgumentException("Negative stone count " + stones);
+        }
+        return stones;
+    }
+
+    private static byte flags(int currentPlayer, boolean gameOver) {
+        return (byte) ((currentPlayer & 0x03) | (gameOver ? GAME_OVER_FLAG : 0));
+    }
+
+    private static void readFlags(ByteBuffer in, ClientState state) {
+        int flags = in.get();
+        state.currentPlayer = flags & 0x03;
+        state.gameOver = (flags & GAME_OVER_FLAG) != 0;
+    }
+}
@@ -0,0 +1,371 @@
+package mancala.net;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import mancala.engine.Rules;
+import mancala.model.MoveCheck;
+
+/**
+ * Round trip fuzz check for WireCodec.
+ * Encodes random message streams (random board sizes, counts of every
+ * varint length, random diffs and errors), feeds the bytes back to the
+ * decoder in random sized pieces, and checks that the client state matches
+ * after every message. Checks that every truncated message is reported
+ * incomplete without consuming anything, that malformed input (random
+ * bytes and known bad messages) only ever fails with
+ * IllegalArgumentException, and that the largest legal messages decode.
+ * Then plays random games and reports the average size of a move reply.
+ *
+ * <p>To run from command line:
+ * <pre>
+ * java mancala.net.WireCodecFuzz [streams] [seed]
+ * </pre>
+ * Exits with status 1 on the first mismatch.
+ *
+ * @author CS151 Group Project
+ * @version 1.0
+ */
+public class WireCodecFuzz {
+    private static final int MESSAGES_PER_STREAM = 200;
+
+    /**
+     * The state a client should have after one message.
+     */
+    private static class Expected {
+        private final int type;
+        private final int[] board;
+        private final int currentPlayer;
+        private final boolean gameOver;
+        private final MoveCheck error;
+
+        Expected(int type, int[] board, int currentPlayer, boolean gameOver, MoveCheck error) {
+            this.type = type;
+            this.board = board.clone();
+            this.currentPlayer = currentPlayer;
+            this.gameOver = gameOver;
+            this.error = error;
+        }
+    }
+
+    /**
+     * Encodes, splits and decodes one random stream.
+     *
+     * @return null if it round tripped, otherwise a description of the mismatch
+     */
+    private static String checkStream(Random random) {
+        int pitsPerSide = 1 + random.nextInt(WireCodec.MAX_PITS_PER_SIDE);
+        int[] board = new int[pitsPerSide * 2 + 2];
+        int[] sentBoard = new int[board.length];
+        ByteBuffer encoded = ByteBuffer.allocate(MESSAGES_PER_STREAM * board.length * 12 + 64);
+        List<Expected> expected = new ArrayList<>();
+
+        WireCodec.encodeHello(encoded);
+        expected.add(new Expected(WireCodec.MSG_HELLO, new int[0], 0, false, null));
+        MoveCheck error = null;
+        int player = 1;
+        boolean gameOver = false;
+        for (int m = 0; m < MESSAGES_PER_STREAM; m++) {
+            int kind = m == 0 ? 0 : random.nextInt(10);
+            if (kind == 1) {
+                error = MoveCheck.values()[random.nextInt(MoveCheck.values().length)];
+                WireCodec.encodeError(encoded, error);
+                expected.add(new Expected(WireCodec.MSG_ERROR, board, player, gameOver, error));
+                continue;
+            }
+
+            int changes = kind == 0 ? board.length : random.nextInt(board.length + 1);
+            for (int i = 0; i < changes; i++) {
+                board[random.nextInt(board.length)] = randomCount(random);
+            }
+            player = 1 + random.nextInt(2);
+            gameOver = random.nextInt(8) == 0;
+            error = null;
+            if (kind == 0 || kind == 2) {
+                WireCodec.encodeSnapshot(encoded, board, player, gameOver, sentBoard);
+                expected.add(new Expected(WireCodec.MSG_SNAPSHOT, board, player, gameOver, null));
+            } else {
+                WireCodec.encodeDiff(encoded, board, player, gameOver, sentBoard);
+                expected.add(new Expected(WireCodec.MSG_DIFF, board, player, gameOver, null));
+            }
+        }
+        encoded.flip();
+
+        // Feed the stream in random pieces, like reads from a socket
+        WireCodec.ClientState state = new WireCodec.ClientState();
+        ByteBuffer in = ByteBuffer.allocate(encoded.remaining());
+        int next = 0;
+        while (encoded.hasRemaining() || in.position() > 0) {
+            int piece = Math.min(encoded.remaining(), 1 + random.nextInt(64));
+            ByteBuffer slice = encoded.slice(encoded.position(), piece);
+            encoded.position(encoded.position() + piece);
+            in.put(slice);
+            in.flip();
+
+            int type;
+            while (true) {
+                int start = in.position();
+                int length = WireCodec.messageLength(in);
+                type = WireCodec.decode(in, state);
+                if (type == WireCodec.INCOMPLETE) {
+                    if (in.position() != start) {
+                        return "incomplete message consumed bytes";
+                    }
+                    break;
+                }
+                if (in.position() - start != length) {
+                    return "message " + next + " length " + length + " but decoded " + (in.position() - start);
+                }
+                String mismatch = compare(expected.get(next), type, state);
+                if (mismatch != null) {
+                    return "message " + next + ": " + mismatch;
+                }
+                next++;
+            }
+            in.compact();
+            if (!encoded.hasRemaining() && in.position() > 0) {
+                return in.position() + " bytes left over";
+            }
+        }
+        return next == expected.size() ? null : "decoded " + next + " of " + expected.size() + " messages";
+    }
+
+    /**
+     * Encodes one random message and decodes every proper prefix of it.
+     *
+     * @return null if every prefix was incomplete, otherwise a description of the failure
+     */
+    private static String checkTruncated(Random random) {
+        int pitsPerSide = 1 + random.nextInt(WireCodec.MAX_PITS_PER_SIDE);
+        int[] board = new int[pitsPerSide * 2 + 2];
+        for (int pit = 0; pit < board.length; pit++) {
+            board[pit] = randomCount(random);
+        }
+        ByteBuffer encoded = ByteBuffer.allocate(board.length * 12 + 16);
+        if (random.nextBoolean()) {
+            WireCodec.encodeSnapshot(encoded, board, 1, false, new int[board.length]);
+        } else {
+            WireCodec.encodeDiff(encoded, board, 2, false, new int[board.length]);
+        }
+        encoded.flip();
+
+        WireCodec.ClientState state = new WireCodec.ClientState();
+        WireCodec.decode(ByteBuffer.allocate(0), state);
+        for (int length = 0; length < encoded.limit(); length++) {
+            ByteBuffer prefix = encoded.slice(0, length);
+            if (WireCodec.messageLength(prefix) != WireCodec.INCOMPLETE
+                    || WireCodec.decode(prefix, state) != WireCodec.INCOMPLETE) {
+                return "prefix of " + length + " of " + encoded.limit() + " bytes not incomplete";
+            }
+            if (prefix.position() != 0) {
+                return "prefix of " + length + " bytes consumed " + prefix.position();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Decodes random bytes, mostly starting with a valid message type.
+     *
+     * @return null if decoding only ever failed with IllegalArgumentException,
+     *         otherwise a description of the failure
+     */
+    private static String checkMalformed(Random random) {
+        byte[] bytes = new byte[1 + random.nextInt(48)];
+        random.nextBytes(bytes);
+        if (random.nextInt(4) != 0) {
+            bytes[0] = (byte) (WireCodec.MSG_DIFF + random.nextInt(WireCodec.MSG_SESSION));
+        }
+        return decodeMalformed(bytes);
+    }
+
+    /**
+     * Decodes every message in the bytes, as a client would, with a board
+     * from a snapshot already in place.
+     *
+     * @return null if decoding ended or failed with IllegalArgumentException,
+     *         otherwise a description of the failure
+     */
+    private static String decodeMalformed(byte[] bytes) {
+        WireCodec.ClientState state = new WireCodec.ClientState();
+        ByteBuffer snapshot = ByteBuffer.allocate(32);
+        WireCodec.encodeSnapshot(snapshot, Rules.newBoard(6, 4), 1, false, new int[14]);
+        WireCodec.decode(snapshot.flip(), state);
+
+        ByteBuffer in = ByteBuffer.wrap(bytes);
+        try {
+            while (WireCodec.decode(in, state) != WireCodec.INCOMPLETE) {
+                // Keep decoding
+            }
+        } catch (IllegalArgumentException e) {
+            // Rejected as malformed
+        } catch (RuntimeException e) {
+            return e + " decoding " + Arrays.toString(bytes);
+        }
+        return null;
+    }
+
+    /**
+     * Checks known bad messages and the largest legal ones.
+     *
+     * @return null if they all behave, otherwise a description of the failure
+     */
+    private static String checkEdgeCases() {
+        // Five-byte varints that decode to negative numbers
+        byte[] negative = {(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x0F};
+        byte[][] rejected = {
+            concat(new byte[] {WireCodec.MSG_SNAPSHOT, 1}, negative),
+            concat(new byte[] {WireCodec.MSG_SNAPSHOT, 1, 0}),
+            concat(new byte[] {WireCodec.MSG_SNAPSHOT, 1, 62}),
+            concat(new byte[] {WireCodec.MSG_DIFF, 1}, negative),
+            concat(new byte[] {WireCodec.MSG_DIFF, 1, 1}, negative, new byte[] {4}),
+            concat(new byte[] {WireCodec.MSG_DIFF, 1, 1, 0}, negative),
+            concat(new byte[] {WireCodec.MSG_SNAPSHOT, 1, 1, 0, 0}, negative, new byte[] {0}),
+            concat(new byte[] {WireCodec.MSG_ERROR, -1}),
+        };
+        for (byte[] bytes : rejected) {
+            WireCodec.ClientState state = new WireCodec.ClientState();
+            try {
+                WireCodec.decode(ByteBuffer.wrap(bytes), state);
+                return "accepted " + Arrays.toString(bytes);
+            } catch (IllegalArgumentException e) {
+                // Expected
+            } catch (RuntimeException e) {
+                return e + " decoding " + Arrays.toString(bytes);
+            }
+        }
+
+        // Every pit of the largest board changing at once
+        int pitsPerSide = WireCodec.MAX_PITS_PER_SIDE;
+        int[] board = new int[pitsPerSide * 2 + 2];
+        Arrays.fill(board, 1);
+        ByteBuffer out = ByteBuffer.allocate(board.length * 12 + 16);
+        WireCodec.encodeSnapshot(out, new int[board.length], 1, false, new int[board.length]);
+        WireCodec.encodeDiff(out, board, 2, false, new int[board.length]);
+        out.flip();
+        WireCodec.ClientState state = new WireCodec.ClientState();
+        try {
+            WireCodec.decode(out, state);
+            if (WireCodec.decode(out, state) != WireCodec.MSG_DIFF || !Arrays.equals(state.getBoard(), board)) {
+                return "full diff of the largest board decoded wrong";
+            }
+        } catch (RuntimeException e) {
+            return "full diff of the largest board: " + e;
+        }
+        return null;
+    }
+
+    private static byte[] concat(byte[]... parts) {
+        ByteBuffer out = ByteBuffer.allocate(Arrays.stream(parts).mapToInt(part -> part.length).sum());
+        for (byte[] part : parts) {
+            out.put(part);
+        }
+        return out.array();
+    }
+
+    private static String compare(Expected expected, int type, WireCodec.ClientState state) {
+        if (type != expected.type) {
+            return "type " + type + ", expected " + expected.type;
+        }
+        if (type == WireCodec.MSG_HELLO) {
+            return state.getVersion() == WireCodec.VERSION ? null : "version " + state.getVersion();
+        }
+        if (!Arrays.equals(state.getBoard(), expected.board)) {
+            return "board " + Arrays.toString(state.getBoard()) + ", expected " + Arrays.toString(expected.board);
+        }
+        if (state.getPitsPerSide() != (expected.board.length - 2) / 2) {
+            return "pitsPerSide " + state.getPitsPerSide();
+        }
+        if (state.getCurrentPlayer() != expected.currentPlayer || state.isGameOver() != expected.gameOver) {
+            return "player/game over " + state.getCurrentPlayer() + "/" + state.isGameOver();
+        }
+        if (state.getLastError() != expected.error) {
+            return "error " + state.getLastError() + ", expected " + expected.error;
+        }
+        return null;
+    }
+
+    /**
+     * Picks a stone count, favouring small ones but covering every varint length.
+     */
+    private static int randomCount(Random random) {
+        switch (random.nextInt(4)) {
+            case 0:
+                return random.nextInt(128);
+            case 1:
+                return random.nextInt(1 << 14);
+            case 2:
+                return random.nextInt(1 << 21);
+            default:
+                return random.nextInt(Integer.MAX_VALUE);
+        }
+    }
+
+    /**
+     * Plays random games with the standard board and measures the move replies.
+     *
+     * @return The average move reply size in bytes
+     */
+    private static double averageMoveReply(Random random, int games) {
+        ByteBuffer out = ByteBuffer.allocate(256);
+        long bytes = 0;
+        long moves = 0;
+        for (int g = 0; g < games; g++) {
+            int[] board = Rules.newBoard(6, 4);
+            int[] sentBoard = board.clone();
+            int player = 1;
+            while (player != Rules.GAME_OVER) {
+                int first = Rules.firstPit(6, player);
+                int pit;
+                do {
+                    pit = first + random.nextInt(6);
+                } while (board[pit] == 0);
+                int mover = player;
+                player = Rules.applyMove(board, 6, player, pit);
+
+                out.clear();
+                WireCodec.encodeDiff(out, board, player == Rules.GAME_OVER ? mover : player,
+                                     player == Rules.GAME_OVER, sentBoard);
+                bytes += out.position();
+                moves++;
+            }
+        }
+        return (double) bytes / moves;
+    }
+
+    /**
+     * Command line entry point.
+     *
+     * @param args [streams] [seed]
+     */
+    public static void main(String[] args) {
+        int streams = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : System.nanoTime();
+        Random random = new Random(seed);
+
+        for (int i = 0; i < streams; i++) {
+            String mismatch = checkStream(random);
+            if (mismatch != null) {
+                System.out.printf("Stream %d (seed %d) failed: %s%n", i, seed, mismatch);
+                System.exit(1);
+            }
+        }
+        System.out.printf("%d streams round tripped (seed %d)%n", streams, seed);
+
+        String failure = checkEdgeCases();
+        for (int i = 0; failure == null && i < streams; i++) {
+            failure = checkTruncated(random);
+        }
+        for (int i = 0; failure == null && i < streams * 100; i++) {
+            failure = checkMalformed(random);
+        }
+        if (failure != null) {
+            System.out.printf("Malformed input check failed (seed %d): %s%n", seed, failure);
+            System.exit(1);
+        }
+        System.out.printf("%d truncated and %d malformed inputs rejected cleanly%n", streams, streams * 100);
+        System.out.printf("Average move reply: %.1f bytes%n", averageMoveReply(random, 10_000));
+    }
+}
@@ -0,0 +1,320 @@
+package mancala.persist;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Append-only journal of played games, written through a memory-mapped file.
+ * Games are recorded with a GameRecorder, which keeps the moves packed in
+ * memory; finished games and checkpoints of games in progress are handed to
+ * a single writer thread.
+ *
+ * <p>The writer uses group commit: it copies every record waiting in its
+ * queue into the mapped file, then forces them to disk with one flush, so
+ * the cost of the flush is shared by all records that arrived while the
+ * previous one ran. Nothing on the move path waits for the disk; callers
+ * that need a durability point use sync().
+ *
+ * <p>See JournalFormat for the file layout and JournalReader to read it back.
+ *
+ * @author CS151 Group Project
+ * @version 1.0
+ */
+public class GameJournal implements Closeable {
+    /** How often games in progress are written as checkpoints */
+    public static final long DEFAULT_CHECKPOINT_MILLIS = 1000;
+
+    private final FileChannel file;
+    private final int regionSize;
+    private final long checkpointMillis;
+    private final BlockingQueue<Entry> queue = new LinkedBlockingQueue<>();
+    private final Set<GameRecorder> openGames = ConcurrentHashMap.newKeySet();
+    private final AtomicLong nextGameId;
+    private final Thread writer;
+
+    // Only used by the writer thread
+    private MappedByteBuffer region;
+    private long regionStart;
+    private int dirtyFrom;
+    private long lastCheckpoint;
+
+    private volatile boolean running = true;
+    private volatile IOException failure;
+    private final AtomicLong recordsWritten = new AtomicLong();
+    private final AtomicLong commits = new AtomicLong();
+
+    /**
+     * A record waiting for the writer, or a sync request (record is null).
+     */
+    private static class Entry {
+        private final byte[] record;
+        private final GameRecorder recorder;
+        private final CountDownLatch committed;
+
+        Entry(byte[] record, GameRecorder recorder, CountDownLatch committed) {
+            this.record = record;
+            this.recorder = recorder;
+            this.committed = committed;
+        }
+    }
+
+    /**
+     * Opens a journal with the default checkpoint interval, creating it if
+     * needed. New games are appended after the existing ones.
+     *
+     * @param path The journal file
+     * @return The open journal
+     * @throws IOException if the file cannot be opened or is not a journal
+     */
+    public static GameJournal open(Path path) throws IOException {
+        return new GameJournal(path, DEFAULT_CHECKPOINT_MILLIS);
+    }
+
+    /**
+     * Opens a journal, creating it if needed. New games are appended after
+     * the existing ones.
+     *
+     * @param path The journal file
+     * @param checkpointMillis How often games in progress are written, 0 to
+     *                         only write them when they end
+     * @throws IOException if the file cannot be opened or is not a journal
+     */
+    public GameJournal(Path path, long checkpointMillis) throws IOException {
+        this.checkpointMillis = checkpointMillis;
+        boolean exists = Files.exists(path) && Files.size(path) >= JournalFormat.HEADER_SIZE;
+        this.file = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                                     StandardOpenOption.WRITE);
+
+        long position;
+        long maxGameId = 0;
+        if (exists) {
+            // Continue after the last intact record
+            JournalReader reader = new JournalReader(FileChannel.open(path, StandardOpenOption.READ));
+            try {
+                JournalRecord record;
+                while ((record = reader.next()) != null) {
+                    maxGameId = Math.max(maxGameId, record.getGameId());
+                }
+                position = reader.getPosition();
+                regionSize = reader.getRegionSize();
+            } finally {
+                reader.close();
+            }
+        } else {
+            regionSize = JournalFormat.DEFAULT_REGION_SIZE;
+            position = JournalFormat.HEADER_SIZE;
+        }
+        this.nextGameId = new AtomicLong(maxGameId + 1);
+
+        mapRegion(position - position % regionSize);
+        region.position((int) (position - regionStart));
+        dirtyFrom = region.position();
+        if (!exists) {
+            region.putInt(0, JournalFormat.MAGIC);
+            region.putInt(4, JournalFormat.VERSION);
+            region.putInt(8, regionSize);
+            region.force(0, JournalFormat.HEADER_SIZE);
+        }
+
+        writer = new Thread(this::writeLoop, "Mancala-Journal");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Starts recording a new game.
+     *
+     * @param pitsPerSide Number of pits each side has
+     * @param stonesPerPit The initial amount of stones each pits has
+     * @param startPlayer The player who moves first
+     * @return The recorder for the game's moves
+     */
+    public GameRecorder startGame(int pitsPerSide, int stonesPerPit, int startPlayer) {
+        GameRecorder recorder = new GameRecorder(this, nextGameId.getAndIncrement(), pitsPerSide,
+                                                 stonesPerPit, startPlayer);
+        openGames.add(recorder);
+        return recorder;
+    }
+
+    /**
+     * Waits until every record handed to the journal so far is on disk.
+     *
+     * @throws IOException if the journal failed to write
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void sync() throws IOException, InterruptedException {
+        CountDownLatch committed = new CountDownLatch(1);
+        queue.add(new Entry(null, null, committed));
+        committed.await();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Gets the number of records written.
+     *
+     * @return The record count
+     */
+    public long getRecordsWritten() {
+        return recordsWritten.get();
+    }
+
+    /**
+     * Gets the number of group commits (flushes to disk).
+     *
+     * @return The commit count
+     */
+    public long getCommits() {
+        return commits.get();
+    }
+
+    /**
+     * Writes a checkpoint of every game in progress, stops the writer and
+     * closes the file.
+     */
+    @Override
+    public void close() throws IOException {
+        if (!running) {
+            return;
+        }
+        for (GameRecorder recorder : openGames) {
+            byte[] record = recorder.checkpoint();
+            if (record != null) {
+                queue.add(new Entry(record, null, null));
+            }
+        }
+        running = false;
+        queue.add(new Entry(null, null, new CountDownLatch(1)));
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        file.close();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Called by a recorder whose game ended.
+     */
+    void submit(byte[] record, GameRecorder recorder) {
+        queue.add(new Entry(record, recorder, null));
+    }
+
+    private void writeLoop() {
+        List<Entry> batch = new ArrayList<>();
+        lastCheckpoint = System.currentTimeMillis();
+        while (running || !queue.isEmpty()) {
+            try {
+                long wait = checkpointMillis > 0 ? checkpointMillis : Long.MAX_VALUE;
+                Entry first = queue.poll(wait, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch);
+                }
+                if (checkpointMillis > 0 && System.currentTimeMillis() - lastCheckpoint >= checkpointMillis) {
+                    checkpointOpenGames();
+                }
+                commit(batch);
+            } catch (InterruptedException e) {
+                break;
+            } catch (IOException | RuntimeException e) {
+                if (failure == null) {
+                    failure = e instanceof IOException ? (IOException) e : new IOException(e);
+                }
+                System.err.println("Game journal failed: " + e.getMessage());
+            } finally {
+                for (Entry entry : batch) {
+                    if (entry.committed != null) {
+                        entry.committed.countDown();
+                    }
+                }
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Appends the batch and forces it to disk with one flush.
+     */
+    private void commit(List<Entry> batch) throws IOException {
+        if (failure != null) {
+            return;
+        }
+        for (Entry entry : batch) {
+            if (entry.record != null) {
+                append(entry.record);
+            }
+            if (entry.recorder != null) {
+                openGames.remove(entry.recorder);
+            }
+        }
+        force();
+    }
+
+    private void checkpointOpenGames() throws IOException {
+        lastCheckpoint = System.currentTimeMillis();
+        for (GameRecorder recorder : openGames) {
+            byte[] record = recorder.checkpoint();
+            if (record != null) {
+                append(record);
+            }
+        }
+    }
+
+    private void append(byte[] body) throws IOException {
+        int size = JournalFormat.RECORD_HEADER_SIZE + body.length;
+        if (size > regionSize - JournalFormat.HEADER_SIZE) {
+            throw new IOException("Record of " + size + " bytes does not fit in a journal region");
+        }
+        // Keep one int free at the end of the region for the end marker
+        if (region.remaining() < size + 4) {
+            region.putInt(region.position(), JournalFormat.END_OF_REGION);
+            region.position(region.position() + 4);
+            force();
+            mapRegion(regionStart + regionSize);
+            dirtyFrom = 0;
+        }
+
+        int start = region.position();
+        region.position(start + JournalFormat.RECORD_HEADER_SIZE);
+        region.put(body);
+        region.putInt(start + 4, JournalFormat.crc(region, start + JournalFormat.RECORD_HEADER_SIZE, body.length));
+        // The length goes in last: it is what makes the record visible to readers
+        region.putInt(start, body.length);
+        recordsWritten.incrementAndGet();
+    }
+
+    private void force() {
+        int to = region.position();
+        if (to > dirtyFrom) {
+            region.force(dirtyFrom, to - dirtyFrom);
+            commits.incrementAndGet();
+            dirtyFrom = to;
+        }
+    }
+
+    private void mapRegion(long start) throws IOException {
+        regionStart = start;
+        region = file.map(FileChannel.MapMode.READ_WRITE, start, regionSize);
+        region.position(0);
+    }
+}
@@ -0,0 +1,158 @@
+package mancala.persist;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import mancala.engine.Rules;
+
+/**
+ * Records the moves of one game for a GameJournal.
+ * Recording a move only packs 4 bits into memory, so it can sit next to
+ * MancalaModel.applyMove without adding I/O to the move. The game is written
+ * to the journal when it finishes, and as an in-progress record at the
+ * journal's checkpoints and when it is abandoned.
+ *
+ * <p>Undo drops the last recorded move, so the journal holds the moves that
+ * lead to the position on the board.
+ *
+ * @author CS151 Group Project
+ * @version 1.0
+ */
+public class GameRecorder {
+    private final GameJournal journal;
+    private final long gameId;
+    private final int pitsPerSide;
+    private final int stonesPerPit;
+    private final int startPlayer;
+
+    private byte[] moves = new byte[32];
+    private int moveCount;
+    private boolean dirty;
+    private boolean closed;
+
+    GameRecorder(GameJournal journal, long gameId, int pitsPerSide, int stonesPerPit, int startPlayer) {
+        this.journal = journal;
+        this.gameId = gameId;
+        this.pitsPerSide = pitsPerSide;
+        this.stonesPerPit = stonesPerPit;
+        this.startPlayer = startPlayer;
+    }
+
+    /**
+     * Records a move.
+     *
+     * @param pit The pit index that was played
+     * @param player The player who played it
+     */
+    public synchronized void move(int pit, int player) {
+        if (closed) {
+            return;
+        }
+        int relative = pit - Rules.firstPit(pitsPerSide, player);
+        if (JournalFormat.packsNibbles(pitsPerSide)) {
+            int index = moveCount >> 1;
+            ensureCapacity(index + 1);
+            if ((moveCount & 1) == 0) {
+                moves[index] = (byte) relative;
+            } else {
+                moves[index] |= (byte) (relative << 4);
+            }
+        } else {
+            ensureCapacity(moveCount + 1);
+            moves[moveCount] = (byte) relative;
+        }
+        moveCount++;
+        dirty = true;
+    }
+
+    /**
+     * Drops the last recorded move.
+     */
+    public synchronized void undo() {
+        if (closed || moveCount == 0) {
+            return;
+        }
+        moveCount--;
+        if (JournalFormat.packsNibbles(pitsPerSide) && (moveCount & 1) == 1) {
+            moves[moveCount >> 1] &= 0x0F; // The next move fills the high nibble again
+        }
+        dirty = true;
+    }
+
+    /**
+     * Writes the game as finished and stops recording.
+     */
+    public void finish() {
+        close(JournalFormat.RECORD_FINISHED);
+    }
+
+    /**
+     * Writes the game as in progress and stops recording, for games left
+     * before they ended.
+     */
+    public void abandon() {
+        close(JournalFormat.RECORD_IN_PROGRESS);
+    }
+
+    /**
+     * Getter
+     *
+     * @return The id of the game in the journal
+     */
+    public long getGameId() {
+        return gameId;
+    }
+
+    /**
+     * Getter
+     *
+     * @return Number of moves recorded
+     */
+    public synchronized int getMoveCount() {
+        return moveCount;
+    }
+
+    private void close(byte type) {
+        byte[] record;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            record = encode(type);
+        }
+        journal.submit(record, this);
+    }
+
+    /**
+     * Encodes an in-progress record if moves were recorded since the last one.
+     * Called by the journal's writer thread.
+     *
+     * @return The record, or null if nothing changed
+     */
+    synchronized byte[] checkpoint() {
+        if (closed || !dirty) {
+            return null;
+        }
+        return encode(JournalFormat.RECORD_IN_PROGRESS);
+    }
+
+    private byte[] encode(byte type) {
+        dirty = false;
+        int movesSize = JournalFormat.movesSize(pitsPerSide, moveCount);
+        ByteBuffer body = ByteBuffer.allocate(1 + 10 * 4 + 1 + movesSize);
+        body.put(type);
+        JournalFormat.putVarint(body, gameId);
+        JournalFormat.putVarint(body, pitsPerSide);
+        JournalFormat.putVarint(body, stonesPerPit);
+        body.put((byte) startPlayer);
+        JournalFormat.putVarint(body, moveCount);
+        body.put(moves, 0, movesSize);
+        return Arrays.copyOf(body.array(), body.position());
+    }
+
+    private void ensureCapacity(int size) {
+        if (size > moves.length) {
+            moves = Arrays.copyOf(moves, Math.max(size, moves.length * 2));
+        }
+    }
+}
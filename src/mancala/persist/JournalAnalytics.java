@@ -0,0 +1,324 @@
+package mancala.persist;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import mancala.engine.Rules;
+
+/**
+ * Aggregate statistics over the finished games in a GameJournal: win rate
+ * by opening move, capture frequency by ply and average margin by
+ * stonesPerPit.
+ *
+ * <p>One thread scans the journal, which only means checking record lengths
+ * and checksums, and hands chunks of record bodies (views of the mapped
+ * file, not copies) to a fork-join pool. The workers decode the records and
+ * replay them with Rules, each into its own Stats, and the per-thread Stats
+ * are merged at the end. Only a few chunks are in flight at a time, so
+ * memory use does not depend on the size of the journal.
+ *
+ * <p>To run from command line:
+ * <pre>
+ * java mancala.persist.JournalAnalytics &lt;journal&gt; [threads]
+ * </pre>
+ *
+ * @author CS151 Group Project
+ * @version 1.0
+ */
+public class JournalAnalytics {
+    private static final int CHUNK_SIZE = 4096;
+    private static final int CHUNKS_PER_THREAD = 2;
+
+    /**
+     * Accumulated statistics. Not thread-safe: each worker fills its own and
+     * they are merged afterwards.
+     */
+    public static class Stats {
+        private long games;
+        private long moves;
+        private long captures;
+        private long inProgress;
+        private long invalid;
+
+        // [relative opening pit][0 = starter won, 1 = starter lost, 2 = tie]
+        private long[][] openings = new long[0][3];
+        private long[] positionsAtPly = new long[0];
+        private long[] capturesAtPly = new long[0];
+        // stonesPerPit -> {games, sum of final margins}
+        private final Map<Integer, long[]> marginByStones = new TreeMap<>();
+
+        private int[] board = new int[0];
+
+        /**
+         * Replays one record and adds it to the statistics.
+         * Records of games in progress are only counted.
+         *
+         * @param record The record
+         */
+        public void add(JournalRecord record) {
+            if (!record.isFinished()) {
+                inProgress++;
+                return;
+            }
+
+            int pitsPerSide = record.getPitsPerSide();
+            int moveCount = record.getMoveCount();
+            resetBoard(pitsPerSide, record.getStonesPerPit());
+            ensurePlies(moveCount);
+
+            int player = record.getStartPlayer();
+            int gameCaptures = 0;
+            for (int ply = 0; ply < moveCount; ply++) {
+                int first = Rules.firstPit(pitsPerSide, player);
+                int pit = first + record.getRelativeMove(ply);
+                if (player == Rules.GAME_OVER || !Rules.isLegal(board, pitsPerSide, player, pit)) {
+                    invalid++;
+                    return;
+                }
+                int landing = Rules.landingPit(board, pitsPerSide, player, pit);
+                int next = Rules.applyMove(board, pitsPerSide, player, pit);
+
+                positionsAtPly[ply]++;
+                if (landing >= first && landing < first + pitsPerSide && board[landing] == 0) {
+                    capturesAtPly[ply]++;
+                    gameCaptures++;
+                }
+                player = next;
+            }
+            if (player != Rules.GAME_OVER) {
+                invalid++; // Recorded as finished but the game did not end
+                return;
+            }
+
+            games++;
+            moves += moveCount;
+            captures += gameCaptures;
+
+            int winner = Rules.winner(board, pitsPerSide);
+            if (moveCount > 0) {
+                int opening = record.getRelativeMove(0);
+                if (opening >= openings.length) {
+                    openings = Arrays.copyOf(openings, opening + 1);
+                    for (int i = 0; i < openings.length; i++) {
+                        if (openings[i] == null) {
+                            openings[i] = new long[3];
+                        }
+                    }
+                }
+                openings[opening][winner == 0 ? 2 : winner == record.getStartPlayer() ? 0 : 1]++;
+            }
+
+            int margin = Math.abs(board[Rules.store(pitsPerSide, 1)] - board[Rules.store(pitsPerSide, 2)]);
+            long[] total = marginByStones.computeIfAbsent(record.getStonesPerPit(), k -> new long[2]);
+            total[0]++;
+            total[1] += margin;
+        }
+
+        /**
+         * Adds another worker's statistics to these.
+         *
+         * @param other The statistics to add
+         */
+        public void merge(Stats other) {
+            games += other.games;
+            moves += other.moves;
+            captures += other.captures;
+            inProgress += other.inProgress;
+            invalid += other.invalid;
+
+            if (other.openings.length > openings.length) {
+                long[][] bigger = new long[other.openings.length][3];
+                for (int i = 0; i < openings.length; i++) {
+                    bigger[i] = openings[i];
+                }
+                openings = bigger;
+            }
+            for (int i = 0; i < other.openings.length; i++) {
+                for (int result = 0; result < 3; result++) {
+                    openings[i][result] += other.openings[i][result];
+                }
+            }
+
+            ensurePlies(other.positionsAtPly.length);
+            for (int ply = 0; ply < other.positionsAtPly.length; ply++) {
+                positionsAtPly[ply] += other.positionsAtPly[ply];
+                capturesAtPly[ply] += other.capturesAtPly[ply];
+            }
+
+            for (Map.Entry<Integer, long[]> entry : other.marginByStones.entrySet()) {
+                long[] total = marginByStones.computeIfAbsent(entry.getKey(), k -> new long[2]);
+                total[0] += entry.getValue()[0];
+                total[1] += entry.getValue()[1];
+            }
+        }
+
+        /**
+         * Prints a report.
+         *
+         * @param out Where to print
+         */
+        public void print(PrintStream out) {
+            out.printf("%d finished games, %d moves (%.1f per game), %d captures%n",
+                       games, moves, games > 0 ? (double) moves / games : 0, captures);
+            out.printf("%d in-progress records skipped, %d invalid records%n", inProgress, invalid);
+
+            out.println();
+            out.println("Win rate by opening move (pit position in the starter's row):");
+            for (int i = 0; i < openings.length; i++) {
+                long played = openings[i][0] + openings[i][1] + openings[i][2];
+                if (played > 0) {
+                    out.printf("  pit %2d: %8d games, won %5.1f%%, lost %5.1f%%, tied %5.1f%%%n", i, played,
+                               100.0 * openings[i][0] / played, 100.0 * openings[i][1] / played,
+                               100.0 * openings[i][2] / played);
+                }
+            }
+
+            out.println();
+            out.println("Capture frequency by ply:");
+            for (int ply = 0; ply < positionsAtPly.length; ply++) {
+                if (positionsAtPly[ply] > 0 && (ply < 20 || ply % 10 == 0)) {
+                    out.printf("  ply %3d: %5.1f%% of %d moves%n", ply + 1,
+                               100.0 * capturesAtPly[ply] / positionsAtPly[ply], positionsAtPly[ply]);
+                }
+            }
+
+            out.println();
+            out.println("Average final margin by stones per pit:");
+            for (Map.Entry<Integer, long[]> entry : marginByStones.entrySet()) {
+                long[] total = entry.getValue();
+                out.printf("  %2d stones: %6.2f over %d games%n", entry.getKey(), (double) total[1] / total[0],
+                           total[0]);
+            }
+        }
+
+        /**
+         * Getter
+         *
+         * @return Number of finished games analysed
+         */
+        public long getGames() {
+            return games;
+        }
+
+        private void resetBoard(int pitsPerSide, int stonesPerPit) {
+            if (board.length != pitsPerSide * 2 + 2) {
+                board = new int[pitsPerSide * 2 + 2];
+            }
+            for (int i = 0; i < pitsPerSide; i++) {
+                board[i] = board[i + pitsPerSide + 1] = stonesPerPit;
+            }
+            board[pitsPerSide] = board[pitsPerSide * 2 + 1] = 0;
+        }
+
+        private void ensurePlies(int plies) {
+            if (plies > positionsAtPly.length) {
+                int size = Math.max(plies, positionsAtPly.length * 2);
+                positionsAtPly = Arrays.copyOf(positionsAtPly, size);
+                capturesAtPly = Arrays.copyOf(capturesAtPly, size);
+            }
+        }
+    }
+
+    /**
+     * Analyses every finished game in a journal.
+     *
+     * @param journal The journal file
+     * @param threads Number of worker threads
+     * @return The merged statistics
+     * @throws IOException if the journal cannot be read
+     * @throws InterruptedException if interrupted while waiting for the workers
+     */
+    public static Stats analyze(Path journal, int threads) throws IOException, InterruptedException {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        Semaphore inFlight = new Semaphore(threads * CHUNKS_PER_THREAD);
+        Queue<Stats> perThread = new ConcurrentLinkedQueue<>();
+        ThreadLocal<Stats> local = ThreadLocal.withInitial(() -> {
+            Stats stats = new Stats();
+            perThread.add(stats);
+            return stats;
+        });
+        AtomicReference<RuntimeException> failure = new AtomicReference<>();
+
+        try (JournalReader reader = new JournalReader(journal)) {
+            ByteBuffer[] chunk = new ByteBuffer[CHUNK_SIZE];
+            int size = 0;
+            ByteBuffer body;
+            while ((body = reader.nextBody()) != null && failure.get() == null) {
+                chunk[size++] = body;
+                if (size == CHUNK_SIZE) {
+                    submit(pool, inFlight, chunk, size, local, failure);
+                    chunk = new ByteBuffer[CHUNK_SIZE];
+                    size = 0;
+                }
+            }
+            if (size > 0) {
+                submit(pool, inFlight, chunk, size, local, failure);
+            }
+        } finally {
+            pool.shutdown();
+            pool.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        }
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+
+        Stats total = new Stats();
+        for (Stats stats : perThread) {
+            total.merge(stats);
+        }
+        return total;
+    }
+
+    /**
+     * Hands a chunk to the pool, waiting first if too many are in flight.
+     */
+    private static void submit(ForkJoinPool pool, Semaphore inFlight, ByteBuffer[] chunk, int size,
+                               ThreadLocal<Stats> local, AtomicReference<RuntimeException> failure)
+            throws InterruptedException {
+        inFlight.acquire();
+        pool.execute(() -> {
+            try {
+                Stats stats = local.get();
+                for (int i = 0; i < size; i++) {
+                    stats.add(JournalRecord.decode(chunk[i]));
+                }
+            } catch (RuntimeException e) {
+                failure.compareAndSet(null, e);
+            } finally {
+                inFlight.release();
+            }
+        });
+    }
+
+    /**
+     * Command line entry point.
+     *
+     * @param args &lt;journal&gt; [threads]
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 1) {
+            System.err.println("Usage: java mancala.persist.JournalAnalytics <journal> [threads]");
+            System.exit(2);
+        }
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+
+        long start = System.nanoTime();
+        Stats stats = analyze(Path.of(args[0]), threads);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        stats.print(System.out);
+        System.out.println();
+        System.out.printf("Analysed in %.2f s with %d threads (%.0f games/s)%n", seconds, threads,
+                          stats.getGames() / seconds);
+    }
+}
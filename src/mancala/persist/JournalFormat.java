@@ -0,0 +1,81 @@
+package mancala.persist;
+
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32C;
+
+/**
+ * Layout of the game journal file, shared by GameJournal and JournalReader.
+ *
+ * <p>The file starts with a header (magic, version, region size) and is
+ * mapped one region at a time. Each record is:
+ * <pre>
+ * int    body length (0 marks the end of the journal, -1 the end of a region)
+ * int    CRC32C of the body
+ * byte   type (RECORD_FINISHED or RECORD_IN_PROGRESS)
+ * varint game id
+ * varint pitsPerSide
+ * varint stonesPerPit
+ * byte   start player
+ * varint move count
+ * moves  4 bits each (two per byte, low nibble first) when pitsPerSide is at
+ *        most 16, otherwise one byte each; a move is the pit's position in
+ *        the mover's row
+ * </pre>
+ * The length is written after the body, so a record only becomes visible
+ * once it is complete.
+ *
+ * @author CS151 Group Project
+ * @version 1.0
+ */
+final class JournalFormat {
+    static final int MAGIC = 0x4D4A4E4C; // "MJNL"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 16;
+    static final int RECORD_HEADER_SIZE = 8;
+    static final int DEFAULT_REGION_SIZE = 16 * 1024 * 1024;
+
+    static final int END_OF_REGION = -1;
+
+    static final byte RECORD_FINISHED = 1;
+    static final byte RECORD_IN_PROGRESS = 2;
+
+    /** Largest row that still packs two moves per byte */
+    static final int MAX_NIBBLE_PITS = 16;
+
+    private JournalFormat() {
+    }
+
+    static boolean packsNibbles(int pitsPerSide) {
+        return pitsPerSide <= MAX_NIBBLE_PITS;
+    }
+
+    static int movesSize(int pitsPerSide, int moveCount) {
+        return packsNibbles(pitsPerSide) ? (moveCount + 1) / 2 : moveCount;
+    }
+
+    static void putVarint(ByteBuffer out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+
+    static long getVarint(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Varint too long");
+    }
+
+    static int crc(ByteBuffer buffer, int offset, int length) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(offset, length));
+        return (int) crc.getValue();
+    }
+}
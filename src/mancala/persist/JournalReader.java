@@ -0,0 +1,198 @@
+package mancala.persist;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Streams the records of a GameJournal back in the order they were written.
+ * Maps one region of the file at a time, so journals larger than memory can
+ * be read. Stops at the end of the journal or at the first damaged record,
+ * such as one cut short by a crash.
+ *
+ * <p>To run from command line:
+ * <pre>
+ * java mancala.persist.JournalReader &lt;journal&gt;
+ * </pre>
+ *
+ * @author CS151 Group Project
+ * @version 1.0
+ */
+public class JournalReader implements Closeable {
+    private final FileChannel file;
+    private final long fileSize;
+    private final int regionSize;
+
+    private MappedByteBuffer region;
+    private long regionStart;
+    private boolean damaged;
+
+    /**
+     * Opens a journal for reading.
+     *
+     * @param path The journal file
+     * @throws IOException if the file cannot be read or is not a journal
+     */
+    public JournalReader(Path path) throws IOException {
+        this(FileChannel.open(path, StandardOpenOption.READ));
+    }
+
+    /**
+     * Reads from an already open journal channel, which is closed with the reader.
+     */
+    JournalReader(FileChannel file) throws IOException {
+        this.file = file;
+        this.fileSize = file.size();
+
+        ByteBuffer header = ByteBuffer.allocate(JournalFormat.HEADER_SIZE);
+        file.read(header, 0);
+        header.flip();
+        if (header.remaining() < JournalFormat.HEADER_SIZE || header.getInt() != JournalFormat.MAGIC) {
+            throw new IOException("Not a game journal");
+        }
+        int version = header.getInt();
+        if (version != JournalFormat.VERSION) {
+            throw new IOException("Unsupported journal version " + version);
+        }
+        this.regionSize = header.getInt();
+        mapRegion(0);
+        region.position(JournalFormat.HEADER_SIZE);
+    }
+
+    /**
+     * Reads the next record.
+     *
+     * @return The record, or null at the end of the journal
+     * @throws IOException if the next region cannot be mapped
+     */
+    public JournalRecord next() throws IOException {
+        ByteBuffer body = nextBody();
+        return body != null ? JournalRecord.decode(body) : null;
+    }
+
+    /**
+     * Finds the next intact record without decoding it.
+     *
+     * @return The record body, a view of the mapped file, or null at the end
+     * @throws IOException if the next region cannot be mapped
+     */
+    ByteBuffer nextBody() throws IOException {
+        while (true) {
+            if (region.remaining() < JournalFormat.RECORD_HEADER_SIZE) {
+                if (!nextRegion()) {
+                    return null;
+                }
+                continue;
+            }
+            int start = region.position();
+            int length = region.getInt(start);
+            if (length == JournalFormat.END_OF_REGION) {
+                if (!nextRegion()) {
+                    return null;
+                }
+                continue;
+            }
+            if (length <= 0 || length > region.remaining() - JournalFormat.RECORD_HEADER_SIZE) {
+                damaged = length != 0;
+                return null;
+            }
+
+            int bodyStart = start + JournalFormat.RECORD_HEADER_SIZE;
+            if (JournalFormat.crc(region, bodyStart, length) != region.getInt(start + 4)) {
+                damaged = true;
+                return null;
+            }
+            region.position(bodyStart + length);
+            return region.slice(bodyStart, length);
+        }
+    }
+
+    /**
+     * Gets the file position after the last record read, where a writer
+     * continues the journal.
+     *
+     * @return The position in bytes
+     */
+    public long getPosition() {
+        return regionStart + region.position();
+    }
+
+    /**
+     * Getter
+     *
+     * @return true if reading stopped at a damaged record rather than the end
+     */
+    public boolean isDamaged() {
+        return damaged;
+    }
+
+    /**
+     * Getter
+     *
+     * @return The region size the journal was written with
+     */
+    public int getRegionSize() {
+        return regionSize;
+    }
+
+    @Override
+    public void close() throws IOException {
+        file.close();
+    }
+
+    private boolean nextRegion() throws IOException {
+        long next = regionStart + regionSize;
+        if (next >= fileSize) {
+            return false;
+        }
+        mapRegion(next);
+        return true;
+    }
+
+    private void mapRegion(long start) throws IOException {
+        regionStart = start;
+        long length = Math.min(regionSize, fileSize - start);
+        region = file.map(FileChannel.MapMode.READ_ONLY, start, length);
+    }
+
+    /**
+     * Command line entry point: prints a summary of a journal.
+     *
+     * @param args &lt;journal&gt;
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: java mancala.persist.JournalReader <journal>");
+            System.exit(2);
+        }
+
+        long records = 0;
+        long moves = 0;
+        Map<Long, JournalRecord> latest = new HashMap<>();
+        try (JournalReader reader = new JournalReader(Path.of(args[0]))) {
+            JournalRecord record;
+            while ((record = reader.next()) != null) {
+                records++;
+                latest.put(record.getGameId(), record);
+            }
+            int finished = 0;
+            for (JournalRecord game : latest.values()) {
+                moves += game.getMoveCount();
+                if (game.isFinished()) {
+                    finished++;
+                }
+            }
+            System.out.printf("%d records, %d games (%d finished, %d in progress), %d moves%n",
+                              records, latest.size(), finished, latest.size() - finished, moves);
+            if (reader.isDamaged()) {
+                System.out.printf("Stopped at a damaged record at byte %d%n", reader.getPosition());
+            }
+        }
+    }
+}
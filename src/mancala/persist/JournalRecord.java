@@ -0,0 +1,163 @@
+package mancala.persist;
+
+import java.nio.ByteBuffer;
+import mancala.engine.Rules;
+
+/**
+ * One game read back from a GameJournal.
+ * A game can appear several times: as in-progress records from checkpoints
+ * and finally as a finished record. The latest record of a game wins.
+ *
+ * @author CS151 Group Project
+ * @version 1.0
+ */
+public final class JournalRecord {
+    private final long gameId;
+    private final boolean finished;
+    private final int pitsPerSide;
+    private final int stonesPerPit;
+    private final int startPlayer;
+    private final byte[] relativeMoves;
+
+    JournalRecord(long gameId, boolean finished, int pitsPerSide, int stonesPerPit, int startPlayer,
+                  byte[] relativeMoves) {
+        this.gameId = gameId;
+        this.finished = finished;
+        this.pitsPerSide = pitsPerSide;
+        this.stonesPerPit = stonesPerPit;
+        this.startPlayer = startPlayer;
+        this.relativeMoves = relativeMoves;
+    }
+
+    /**
+     * Decodes a record body.
+     *
+     * @param body The body, positioned at its type byte
+     * @return The record
+     */
+    static JournalRecord decode(ByteBuffer body) {
+        byte type = body.get();
+        long gameId = JournalFormat.getVarint(body);
+        int pitsPerSide = (int) JournalFormat.getVarint(body);
+        int stonesPerPit = (int) JournalFormat.getVarint(body);
+        int startPlayer = body.get();
+        int moveCount = (int) JournalFormat.getVarint(body);
+
+        byte[] moves = new byte[moveCount];
+        if (JournalFormat.packsNibbles(pitsPerSide)) {
+            for (int i = 0; i < moveCount; i += 2) {
+                int packed = body.get();
+                moves[i] = (byte) (packed & 0x0F);
+                if (i + 1 < moveCount) {
+                    moves[i + 1] = (byte) ((packed >> 4) & 0x0F);
+                }
+            }
+        } else {
+            body.get(moves);
+        }
+        return new JournalRecord(gameId, type == JournalFormat.RECORD_FINISHED, pitsPerSide, stonesPerPit,
+                                 startPlayer, moves);
+    }
+
+    /**
+     * Replays the game and returns its moves as board pit indices.
+     *
+     * @return The pit played by each move, in order
+     * @throws IllegalStateException if the recorded moves are not legal
+     */
+    public int[] getMoves() {
+        int[] pits = new int[relativeMoves.length];
+        replay(pits);
+        return pits;
+    }
+
+    /**
+     * Replays the game and returns the board it ended on.
+     *
+     * @return The board after the last recorded move
+     * @throws IllegalStateException if the recorded moves are not legal
+     */
+    public int[] getFinalBoard() {
+        return replay(null);
+    }
+
+    private int[] replay(int[] pits) {
+        int[] board = Rules.newBoard(pitsPerSide, stonesPerPit);
+        int player = startPlayer;
+        for (int i = 0; i < relativeMoves.length; i++) {
+            int pit = Rules.firstPit(pitsPerSide, player) + relativeMoves[i];
+            if (player == Rules.GAME_OVER || !Rules.isLegal(board, pitsPerSide, player, pit)) {
+                throw new IllegalStateException("Game " + gameId + ": illegal move " + i);
+            }
+            if (pits != null) {
+                pits[i] = pit;
+            }
+            player = Rules.applyMove(board, pitsPerSide, player, pit);
+        }
+        return board;
+    }
+
+    /**
+     * Getter
+     *
+     * @return The id of the game in the journal
+     */
+    public long getGameId() {
+        return gameId;
+    }
+
+    /**
+     * Getter
+     *
+     * @return true if the game was recorded as finished, false for in progress
+     */
+    public boolean isFinished() {
+        return finished;
+    }
+
+    /**
+     * Getter
+     *
+     * @return Number of pits each side has
+     */
+    public int getPitsPerSide() {
+        return pitsPerSide;
+    }
+
+    /**
+     * Getter
+     *
+     * @return The initial amount of stones each pits has
+     */
+    public int getStonesPerPit() {
+        return stonesPerPit;
+    }
+
+    /**
+     * Getter
+     *
+     * @return The player who moved first
+     */
+    public int getStartPlayer() {
+        return startPlayer;
+    }
+
+    /**
+     * Getter
+     *
+     * @return Number of recorded moves
+     */
+    public int getMoveCount() {
+        return relativeMoves.length;
+    }
+
+    /**
+     * Gets a move as the pit's position in the mover's row, as stored.
+     *
+     * @param index The move number, from 0
+     * @return The position in the row, from 0
+     */
+    public int getRelativeMove(int index) {
+        return relativeMoves[index];
+    }
+}
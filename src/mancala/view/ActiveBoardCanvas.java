@@ -0,0 +1,326 @@
+package mancala.view;
+
+import java.awt.Canvas;
+import java.awt.Color;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Point;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.image.BufferStrategy;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import javax.swing.SwingUtilities;
+import mancala.diag.PaintMetrics;
+import mancala.model.BoardSnapshot;
+import mancala.style.BoardStyle;
+
+/**
+ * Board view that uses active rendering instead of Swing's repaint manager.
+ * A dedicated render thread draws the current board snapshot to this Canvas
+ * through a BufferStrategy at a fixed target rate, so frame timing does not
+ * depend on how busy the EDT is. Swing keeps handling input.
+ *
+ * <p>Threading:
+ * <ul>
+ *   <li>The EDT publishes immutable snapshots, the style and mouse input</li>
+ *   <li>The render thread owns an offscreen BoardPanel that does the actual
+ *       drawing; it is never touched by any other thread</li>
+ *   <li>Pit clicks are hit-tested on the render thread and delivered to the
+ *       PitClickListener on the EDT</li>
+ * </ul>
+ *
+ * <p>Frame pacing is measured over one second windows and available through
+ * {@link #getAverageFrameIntervalMillis()} and {@link #getMaxFrameIntervalMillis()},
+ * in the performance overlay (F3, as on BoardPanel) and in the JMX Paint bean.
+ *
+ * @author CS151 Group Project
+ * @version 1.0
+ */
+public class ActiveBoardCanvas extends Canvas implements BoardView {
+    private static final int PITS_PER_SIDE = 6;
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private final long frameIntervalNanos;
+
+    // Written by the EDT, read by the render thread
+    private volatile BoardSnapshot snapshot;
+    private volatile BoardStyle style;
+    private volatile MoveHints moveHints;
+    private volatile PitClickListener pitClickListener;
+    private volatile Point mousePosition;
+    private final Queue<Point> clicks = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger perfOverlayToggles = new AtomicInteger(); // Counted by F3, applied by the render thread
+
+    // The current render thread; a render loop exits as soon as it is replaced
+    private volatile Thread renderThread;
+
+    // Written by the render thread, read by anyone
+    private volatile double averageFrameIntervalMillis;
+    private volatile double maxFrameIntervalMillis;
+
+    /**
+     * Constructs a canvas that renders at the given target rate.
+     *
+     * @param targetFps Target frames per second
+     */
+    public ActiveBoardCanvas(int targetFps) {
+        frameIntervalNanos = NANOS_PER_SECOND / Math.max(1, targetFps);
+        setBackground(Color.LIGHT_GRAY);
+        setIgnoreRepaint(true);
+
+        MouseAdapter mouseAdapter = new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                clicks.add(e.getPoint());
+                requestFocusInWindow(); // For F3
+            }
+
+            @Override
+            public void mouseMoved(MouseEvent e) {
+                mousePosition = e.getPoint();
+            }
+
+            @Override
+            public void mouseExited(MouseEvent e) {
+                mousePosition = null;
+            }
+        };
+        addMouseListener(mouseAdapter);
+        addMouseMotionListener(mouseAdapter);
+
+        // F3 toggles the render thread's performance overlay
+        setFocusable(true);
+        addKeyListener(new KeyAdapter() {
+            @Override
+            public void keyPressed(KeyEvent e) {
+                if (e.getKeyCode() == KeyEvent.VK_F3) {
+                    togglePerfOverlay();
+                }
+            }
+        });
+    }
+
+    @Override
+    public void setStyle(BoardStyle style) {
+        this.style = style;
+    }
+
+    @Override
+    public void setBoardState(int[] boardState, int currentPlayer, boolean gameOver) {
+        snapshot = new BoardSnapshot(boardState, PITS_PER_SIDE, currentPlayer, gameOver, -1);
+    }
+
+    @Override
+    public void setMoveHints(int[] moveScores, int depth) {
+        moveHints = new MoveHints(moveScores, depth);
+    }
+
+    @Override
+    public void setPitClickListener(PitClickListener listener) {
+        this.pitClickListener = listener;
+    }
+
+    /**
+     * Gets the average time between frames over the last second.
+     *
+     * @return Average frame interval in milliseconds
+     */
+    public double getAverageFrameIntervalMillis() {
+        return averageFrameIntervalMillis;
+    }
+
+    /**
+     * Gets the longest time between two frames over the last second.
+     *
+     * @return Worst frame interval in milliseconds
+     */
+    public double getMaxFrameIntervalMillis() {
+        return maxFrameIntervalMillis;
+    }
+
+    /**
+     * Shows the performance overlay if it is hidden and hides it otherwise,
+     * as F3 does. The render thread applies it before its next frame.
+     */
+    public void togglePerfOverlay() {
+        perfOverlayToggles.incrementAndGet();
+    }
+
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        createBufferStrategy(2);
+        Thread thread = new Thread(this::renderLoop, "Mancala-Render");
+        thread.setDaemon(true);
+        renderThread = thread;
+        thread.start();
+    }
+
+    @Override
+    public void removeNotify() {
+        // The buffer strategy goes away with the peer. This runs under the AWT
+        // tree lock, so the render thread is only told to stop, never joined;
+        // a frame that is still in flight fails harmlessly in renderFrame
+        Thread thread = renderThread;
+        renderThread = null;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+        super.removeNotify();
+    }
+
+    @Override
+    public void paint(Graphics g) {
+        // Rendering is done by the render thread
+    }
+
+    @Override
+    public void update(Graphics g) {
+        // Rendering is done by the render thread
+    }
+
+    /**
+     * Render thread body. Renders one frame per interval, sleeping until the
+     * next frame deadline, and records frame pacing statistics.
+     */
+    private void renderLoop() {
+        BoardPanel renderer = new BoardPanel();
+        // Paint straight into the strategy buffer, not the EDT's shared back buffer
+        renderer.setDoubleBuffered(false);
+        renderer.setPitClickListener(pitIndex -> {
+            PitClickListener listener = pitClickListener;
+            if (listener != null) {
+                SwingUtilities.invokeLater(() -> listener.onPitClicked(pitIndex));
+            }
+        });
+
+        BoardSnapshot renderedSnapshot = null;
+        BoardStyle renderedStyle = null;
+        MoveHints renderedHints = null;
+
+        long nextFrame = System.nanoTime();
+        long lastFrame = nextFrame;
+        long windowStart = nextFrame;
+        long windowMax = 0;
+        int windowFrames = 0;
+
+        Thread self = Thread.currentThread();
+        while (renderThread == self) {
+            // Apply the latest state published by the EDT
+            BoardStyle currentStyle = style;
+            if (currentStyle != renderedStyle) {
+                renderer.setStyle(currentStyle);
+                renderedStyle = currentStyle;
+            }
+            BoardSnapshot currentSnapshot = snapshot;
+            if (currentSnapshot != renderedSnapshot && currentSnapshot != null) {
+                renderer.setBoardState(currentSnapshot.getBoardState(), currentSnapshot.getCurrentPlayer(),
+                                       currentSnapshot.isGameOver());
+                renderedSnapshot = currentSnapshot;
+            }
+            MoveHints currentHints = moveHints;
+            if (currentHints != renderedHints) {
+                renderer.setMoveHints(currentHints.scores, currentHints.depth);
+                renderedHints = currentHints;
+            }
+
+            if ((perfOverlayToggles.getAndSet(0) & 1) != 0) {
+                renderer.setPerfOverlayVisible(!renderer.isPerfOverlayVisible());
+            }
+
+            if (isShowing() && getWidth() > 0 && getHeight() > 0) {
+                renderer.setSize(getWidth(), getHeight());
+                handleInput(renderer);
+                renderFrame(renderer);
+            }
+
+            long now = System.nanoTime();
+            long interval = now - lastFrame;
+            lastFrame = now;
+            windowMax = Math.max(windowMax, interval);
+            windowFrames++;
+            if (now - windowStart >= NANOS_PER_SECOND) {
+                averageFrameIntervalMillis = (now - windowStart) / 1e6 / windowFrames;
+                maxFrameIntervalMillis = windowMax / 1e6;
+                PaintMetrics.activeFramePacing(averageFrameIntervalMillis, maxFrameIntervalMillis);
+                windowStart = now;
+                windowMax = 0;
+                windowFrames = 0;
+            }
+
+            // Sleep until the next deadline; skip missed frames instead of bursting
+            nextFrame += frameIntervalNanos;
+            if (nextFrame < now) {
+                nextFrame = now + frameIntervalNanos;
+            }
+            while (renderThread == self && (now = System.nanoTime()) < nextFrame) {
+                LockSupport.parkNanos(nextFrame - now);
+            }
+        }
+    }
+
+    /**
+     * Applies the mouse input collected on the EDT to the renderer.
+     *
+     * @param renderer The render thread's BoardPanel
+     */
+    private void handleInput(BoardPanel renderer) {
+        Point mouse = mousePosition;
+        if (mouse == null) {
+            renderer.handleMouseMove(-1, -1);
+        } else {
+            renderer.handleMouseMove(mouse.x, mouse.y);
+        }
+
+        Point click;
+        while ((click = clicks.poll()) != null) {
+            renderer.handleMouseClick(click.x, click.y);
+        }
+    }
+
+    /**
+     * Draws one frame through the buffer strategy, retrying if the buffer
+     * contents were lost (e.g. display mode change).
+     *
+     * @param renderer The render thread's BoardPanel
+     */
+    private void renderFrame(BoardPanel renderer) {
+        BufferStrategy strategy = getBufferStrategy();
+        if (strategy == null) {
+            return;
+        }
+        try {
+            do {
+                do {
+                    Graphics2D g2d = (Graphics2D) strategy.getDrawGraphics();
+                    try {
+                        renderer.paint(g2d);
+                    } finally {
+                        g2d.dispose();
+                    }
+                } while (strategy.contentsRestored());
+                strategy.show();
+            } while (strategy.contentsLost());
+        } catch (IllegalStateException e) {
+            // The canvas was removed while this frame was being drawn
+        }
+    }
+
+    /**
+     * Hints published by the EDT, so the scores and their depth arrive together.
+     */
+    private static final class MoveHints {
+        private final int[] scores;
+        private final int depth;
+
+        MoveHints(int[] scores, int depth) {
+            this.scores = scores;
+            this.depth = depth;
+        }
+    }
+}
@@ -9,6 +9,8 @@
  *   <li>Provides visual feedback on hover (thicker borders)</li>
  *   <li>Updates display based on model state changes</li>
  *   <li>Supports different visual styles (Wood, Neon)</li>
+ *   <li>Shows a performance overlay, toggled with F3</li>
+ *   <li>Labels the current player's pits with the engine's scores, in hint mode</li>
  * </ul>
  * 
  * <p>Layout:
@@ -25,12 +27,21 @@
 package mancala.view;
 
 import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.KeyEvent;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
+import java.util.Arrays;
 import javax.swing.*;
+import mancala.diag.BoardUpdateEvent;
+import mancala.diag.FlightRecording;
+import mancala.diag.PaintEvent;
+import mancala.diag.PaintMetrics;
+import mancala.diag.PerfMonitor;
+import mancala.engine.SearchEngine;
 import mancala.style.BoardStyle;
 
-public class BoardPanel extends JPanel {
+public class BoardPanel extends JPanel implements BoardView {
     private BoardStyle style;
     private int pitsPerSide;
     private Pit[][] pits; // Regular pits: pits[0] = Player A (bottom), pits[1] = Player B (top)
@@ -41,6 +52,20 @@ public class BoardPanel extends JPanel {
     private int[] boardState;
     private int currentPlayer;
     private boolean gameOver;
+    private int boardVersion; // Incremented on every setBoardState, part of the layer cache key
+    private boolean layerRendered; // Set when the board layer is rendered, for the paint event
+    
+    // Hints: the engine's score of each pit for the current player, null when not shown
+    private int[] moveHints;
+    private int hintDepth;
+    
+    // Performance overlay, null while hidden
+    private PerfOverlay perfOverlay;
+    private Timer perfOverlayTimer;
+    private static final int PERF_OVERLAY_REFRESH_MILLIS = 500;
+    
+    // Rendered board (everything except hover feedback and hints), cached per device scale
+    private final ScaledRasterCache boardLayer = new ScaledRasterCache();
     
     // Hit-testing and interaction
     private PitClickListener pitClickListener;
@@ -109,6 +134,49 @@ public class BoardPanel extends JPanel {
                 repaint();
             }
         });
+        
+        // F3 toggles the performance overlay
+        getInputMap(WHEN_IN_FOCUSED_WINDOW).put(KeyStroke.getKeyStroke(KeyEvent.VK_F3, 0), "togglePerfOverlay");
+        getActionMap().put("togglePerfOverlay", new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                setPerfOverlayVisible(!isPerfOverlayVisible());
+            }
+        });
+    }
+    
+    /**
+     * Shows or hides the performance overlay. Timings are collected while
+     * it, or any other panel's overlay, is shown; it is refreshed twice a second so its numbers stay
+     * current when nothing else repaints the board.
+     * 
+     * @param visible True to show the overlay
+     */
+    public void setPerfOverlayVisible(boolean visible) {
+        if (visible == isPerfOverlayVisible()) {
+            return;
+        }
+        if (visible) {
+            perfOverlay = new PerfOverlay();
+            perfOverlayTimer = new Timer(PERF_OVERLAY_REFRESH_MILLIS, e -> repaint());
+            perfOverlayTimer.start();
+            PerfMonitor.acquire();
+        } else {
+            perfOverlayTimer.stop();
+            perfOverlayTimer = null;
+            perfOverlay = null;
+            PerfMonitor.release();
+        }
+        repaint();
+    }
+    
+    /**
+     * Checks if the performance overlay is shown.
+     * 
+     * @return true if the overlay is shown
+     */
+    public boolean isPerfOverlayVisible() {
+        return perfOverlay != null;
     }
     
     /**
@@ -117,6 +185,7 @@ public class BoardPanel extends JPanel {
      * 
      * @param style The BoardStyle to apply (e.g., StyleA for "Wood", StyleB for "Neon")
      */
+    @Override
     public void setStyle(BoardStyle style) {
         this.style = style;
         if (style != null) {
@@ -142,10 +211,17 @@ public class BoardPanel extends JPanel {
      * @param currentPlayer The current player (1 or 2)
      * @param gameOver Whether the game is over
      */
+    @Override
     public void setBoardState(int[] boardState, int currentPlayer, boolean gameOver) {
+        BoardUpdateEvent event = FlightRecording.isActive() ? new BoardUpdateEvent() : null;
+        if (event != null) {
+            event.begin();
+        }
+        int[] previousState = this.boardState;
         this.boardState = boardState;
         this.currentPlayer = currentPlayer;
         this.gameOver = gameOver;
+        boardVersion++;
         
         if (boardState != null && boardState.length == (pitsPerSide * 2 + 2)) {
             // Update regular pits
@@ -161,16 +237,76 @@ public class BoardPanel extends JPanel {
             // Update Mancalas
             playerAMancala.setStoneCount(boardState[6]);  // Index 6
             playerBMancala.setStoneCount(boardState[13]); // Index 13
+            
+            if (event != null && event.shouldCommit()) {
+                commitBoardUpdate(event, previousState);
+            }
         }
         
         repaint();
     }
     
+    /**
+     * Sets the engine's scores of the current player's moves, shown on their pits.
+     * 
+     * @param moveScores Score of each pit for the current player, as from
+     *                   SearchEngine.getMoveScores, or null to show no hints
+     * @param depth The search depth the scores come from
+     */
+    @Override
+    public void setMoveHints(int[] moveScores, int depth) {
+        if (moveScores == null && moveHints == null) {
+            return;
+        }
+        this.moveHints = moveScores;
+        this.hintDepth = depth;
+        repaint(); // Hints are drawn over the cached layer, which stays valid
+    }
+    
+    /**
+     * Fills in and commits the JFR event for a board update.
+     * 
+     * @param event The event, begun before the update
+     * @param previousState The board state before the update, or null
+     */
+    private void commitBoardUpdate(BoardUpdateEvent event, int[] previousState) {
+        for (int i = 0; i < boardState.length; i++) {
+            event.stones += boardState[i];
+            if (previousState == null || previousState.length != boardState.length
+                    || previousState[i] != boardState[i]) {
+                event.pitsChanged++;
+                // Only pits whose count changed re-render their stones
+                event.rocksRebuilt += pitAt(i).getRockCount();
+            }
+        }
+        event.commit();
+    }
+    
+    /**
+     * Gets the pit that shows a board index.
+     * 
+     * @param index The board index, stores included
+     * @return The pit or Mancala
+     */
+    private Pit pitAt(int index) {
+        if (index < pitsPerSide) {
+            return pits[0][index];
+        }
+        if (index == pitsPerSide) {
+            return playerAMancala;
+        }
+        if (index <= pitsPerSide * 2) {
+            return pits[1][index - pitsPerSide - 1];
+        }
+        return playerBMancala;
+    }
+    
     /**
      * Sets the listener for pit click events.
      * 
      * @param listener The PitClickListener to notify when a pit is clicked
      */
+    @Override
     public void setPitClickListener(PitClickListener listener) {
         this.pitClickListener = listener;
     }
@@ -183,7 +319,7 @@ public class BoardPanel extends JPanel {
      * @param y Mouse Y coordinate
      * @return Pit index (0-13) or -1 if not on a pit
      */
-    private int getPitIndexAt(int x, int y) {
+    int getPitIndexAt(int x, int y) {
         // Ensure layout is calculated (pitXPositions must be initialized)
         if (pitXPositions == null || pitXPositions.length != pitsPerSide) {
             return -1;
@@ -271,7 +407,7 @@ public class BoardPanel extends JPanel {
      * @param x Mouse X coordinate
      * @param y Mouse Y coordinate
      */
-    private void handleMouseClick(int x, int y) {
+    void handleMouseClick(int x, int y) {
         if (gameOver || pitClickListener == null) {
             return;
         }
@@ -289,7 +425,7 @@ public class BoardPanel extends JPanel {
      * @param x Mouse X coordinate
      * @param y Mouse Y coordinate
      */
-    private void handleMouseMove(int x, int y) {
+    void handleMouseMove(int x, int y) {
         int newHoveredPit = getPitIndexAt(x, y);
         if (newHoveredPit != hoveredPitIndex) {
             hoveredPitIndex = newHoveredPit;
@@ -299,6 +435,11 @@ public class BoardPanel extends JPanel {
     
     @Override
     protected void paintComponent(Graphics g) {
+        long paintStart = PerfMonitor.start();
+        PaintEvent event = FlightRecording.isActive() ? new PaintEvent() : null;
+        if (event != null) {
+            event.begin();
+        }
         super.paintComponent(g);
         
         Graphics2D g2d = (Graphics2D) g;
@@ -312,6 +453,58 @@ public class BoardPanel extends JPanel {
             return;
         }
         
+        // Calculate layout dimensions
+        calculateLayout(width, height);
+        
+        // The board only changes with the model state, style or size, so it is
+        // rendered once per device scale and reused for every hover and hint repaint
+        Object layerKey = Arrays.asList(width, height, style, getBackground(), 
+                                        currentPlayer, gameOver, boardVersion);
+        layerRendered = false;
+        boardLayer.draw(g2d, 0, 0, width, height, layerKey, this::paintBoardLayer);
+        
+        // Hints change with every search depth, so like hover they are drawn live
+        drawMoveHints(g2d, style != null && "Neon".equals(style.getName()));
+        drawHoverHighlight(g2d);
+        
+        if (event != null && event.shouldCommit()) {
+            event.width = width;
+            event.height = height;
+            event.layerRendered = layerRendered;
+            if (layerRendered && boardState != null) {
+                for (int stones : boardState) {
+                    event.stonesPainted += stones;
+                }
+            }
+            event.commit();
+        }
+        
+        // The overlay is drawn after the paint is timed, so it does not count itself
+        long paintNanos = PerfMonitor.stop(PerfMonitor.PAINT, paintStart);
+        if (isPerfOverlayVisible()) {
+            PerfMonitor.FRAMES.record(System.nanoTime());
+        }
+        if (SwingUtilities.isEventDispatchThread()) {
+            PaintMetrics.edtPainted(paintNanos);
+        }
+        if (perfOverlay != null) {
+            perfOverlay.draw(g2d);
+        }
+    }
+    
+    /**
+     * Renders the complete board without hover feedback or hints.
+     * Used as the painter for the cached board layer.
+     * 
+     * @param g2d Graphics context for drawing
+     * @param width Panel width
+     * @param height Panel height
+     */
+    private void paintBoardLayer(Graphics2D g2d, int width, int height) {
+        layerRendered = true;
+        g2d.setColor(getBackground());
+        g2d.fillRect(0, 0, width, height);
+        
         // If no style is set, use default colors (shouldn't happen in normal flow)
         Color pitColor, stoneColor, borderColor;
         boolean isNeonStyle = false;
@@ -335,9 +528,6 @@ public class BoardPanel extends JPanel {
             borderColor = style.getBorderColor();
         }
         
-        // Calculate layout dimensions
-        calculateLayout(width, height);
-        
         // Draw the board area border (rounded rectangle) - matches original design
         g2d.setColor(getBackground().darker());
         g2d.fillRoundRect(boardRectX, boardRectY, boardRectWidth, boardRectHeight, 20, 20);
@@ -350,37 +540,172 @@ public class BoardPanel extends JPanel {
         // Left Mancala (Player A, index pitsPerSide) - to the left of the board border
         drawMancala(g2d, rightMancalaX, mancalaY, mancalaWidth, mancalaHeight, 
                    playerAMancala, pitColor, stoneColor, borderColor, "A", 
-                   6 == hoveredPitIndex, isNeonStyle, stoneBaseColor);
+                   false, isNeonStyle, stoneBaseColor);
         
         // Right Mancala (Player B, index pitsPerSide * 2 + 1) - to the right of the board border
         drawMancala(g2d, leftMancalaX, mancalaY, mancalaWidth, mancalaHeight, 
                    playerBMancala, pitColor, stoneColor, borderColor, "B", 
-                   13 == hoveredPitIndex, isNeonStyle, stoneBaseColor);
+                   false, isNeonStyle, stoneBaseColor);
         
         // Draw regular pits INSIDE the board area (within the black border)
         // pitXPositions is already calculated in calculateLayout() above
         
         // Bottom row: Player A (indices 0-5)
         for (int j = 0; j < pitsPerSide; j++) {
-            int pitIndex = j;
             int x = pitXPositions[j];
             int y = bottomRowY;
             boolean isCurrentPlayer = (currentPlayer == 1);
-            boolean isHovered = (pitIndex == hoveredPitIndex);
             drawPit(g2d, x, y, pitWidth, pitHeight, pits[0][j], pitColor, stoneColor, 
-                   borderColor, "A" + (j + 1), isCurrentPlayer, isHovered, false, isNeonStyle, stoneBaseColor);
+                   borderColor, "A" + (j + 1), isCurrentPlayer, false, false, isNeonStyle, stoneBaseColor);
         }
         
         // Top row: Player B (indices pitsPerSide + 1 - pitsPerSide * 2)
         for (int j = 0; j < pitsPerSide; j++) {
-            int pitIndex = pitsPerSide + 1 + j;
             int x = pitXPositions[pitsPerSide - j - 1];
             int y = topRowY;
             boolean isCurrentPlayer = (currentPlayer == 2);
-            boolean isHovered = (pitIndex == hoveredPitIndex);
             drawPit(g2d, x, y, pitWidth, pitHeight, pits[1][j], pitColor, stoneColor, 
-                   borderColor, "B" + (j + 1), isCurrentPlayer, isHovered, true, isNeonStyle, stoneBaseColor);
+                   borderColor, "B" + (j + 1), isCurrentPlayer, false, true, isNeonStyle, stoneBaseColor);
+        }
+    }
+    
+    /**
+     * Draws the hints over the cached board layer: each playable pit of the
+     * current player gets its score in a badge at the bottom of the pit,
+     * green for the best move, and the search depth is shown in the board's corner.
+     * 
+     * @param g2d Graphics context for drawing
+     * @param isNeonStyle Whether Neon style is active
+     */
+    private void drawMoveHints(Graphics2D g2d, boolean isNeonStyle) {
+        if (moveHints == null || gameOver || boardState == null || moveHints.length != boardState.length) {
+            return;
+        }
+        int first = currentPlayer == 1 ? 0 : pitsPerSide + 1;
+        int best = -1;
+        for (int pit = first; pit < first + pitsPerSide; pit++) {
+            if (moveHints[pit] != SearchEngine.NO_SCORE && (best < 0 || moveHints[pit] > moveHints[best])) {
+                best = pit;
+            }
         }
+        if (best < 0) {
+            return;
+        }
+        
+        int size = Math.min(pitWidth, pitHeight);
+        int badgeHeight = 16;
+        g2d.setFont(new Font(Font.SANS_SERIF, Font.BOLD, 11));
+        FontMetrics fm = g2d.getFontMetrics();
+        for (int j = 0; j < pitsPerSide; j++) {
+            int score = moveHints[first + j];
+            if (score == SearchEngine.NO_SCORE) {
+                continue;
+            }
+            // Same placement as paintBoardLayer: Player B's row runs right to left
+            int x = currentPlayer == 1 ? pitXPositions[j] : pitXPositions[pitsPerSide - j - 1];
+            int y = currentPlayer == 1 ? bottomRowY : topRowY;
+            String text = formatHint(score);
+            int badgeWidth = fm.stringWidth(text) + 8;
+            int badgeX = x + pitWidth / 2 - badgeWidth / 2;
+            int badgeY = y + pitHeight / 2 + size / 2 - badgeHeight - 2;
+            
+            g2d.setColor(first + j == best ? new Color(46, 160, 67) : Color.WHITE);
+            g2d.fillRoundRect(badgeX, badgeY, badgeWidth, badgeHeight, badgeHeight, badgeHeight);
+            g2d.setColor(Color.BLACK);
+            g2d.setStroke(new BasicStroke(1));
+            g2d.drawRoundRect(badgeX, badgeY, badgeWidth, badgeHeight, badgeHeight, badgeHeight);
+            g2d.setColor(first + j == best ? Color.WHITE : Color.BLACK);
+            g2d.drawString(text, badgeX + 4, badgeY + (badgeHeight + fm.getAscent()) / 2 - 2);
+        }
+        
+        g2d.setFont(new Font(Font.SANS_SERIF, Font.PLAIN, 10));
+        g2d.setColor(isNeonStyle ? Color.WHITE : Color.BLACK);
+        g2d.drawString("Hints, depth " + hintDepth, boardRectX + 10, boardRectY + 14);
+    }
+    
+    /**
+     * Formats a hint score: the store difference the move leads to, or the
+     * result of a game the engine sees to its end.
+     * 
+     * @param score The move's score for the current player
+     * @return The text shown on the pit
+     */
+    static String formatHint(int score) {
+        if (score >= SearchEngine.WIN_SCORE) {
+            return "Win";
+        }
+        if (score <= -SearchEngine.WIN_SCORE) {
+            return "Loss";
+        }
+        return score > 0 ? "+" + score : String.valueOf(score);
+    }
+    
+    /**
+     * Draws the hover feedback (thicker black border) over the cached board layer,
+     * on pits and stores alike and also once the game is over.
+     * The pit's count badge is drawn again so it stays on top of the border.
+     * 
+     * @param g2d Graphics context for drawing
+     */
+    private void drawHoverHighlight(Graphics2D g2d) {
+        if (hoveredPitIndex < 0 || hoveredPitIndex > pitsPerSide * 2 + 1) {
+            return;
+        }
+        if (hoveredPitIndex == pitsPerSide || hoveredPitIndex == pitsPerSide * 2 + 1) {
+            drawStoreHoverHighlight(g2d);
+            return;
+        }
+        
+        int x;
+        int y;
+        Pit pit;
+        if (hoveredPitIndex < pitsPerSide) {
+            x = pitXPositions[hoveredPitIndex];
+            y = bottomRowY;
+            pit = pits[0][hoveredPitIndex];
+        } else {
+            int j = hoveredPitIndex - pitsPerSide - 1;
+            x = pitXPositions[pitsPerSide - j - 1];
+            y = topRowY;
+            pit = pits[1][j];
+        }
+        
+        int size = Math.min(pitWidth, pitHeight);
+        int drawX = x + pitWidth / 2 - size / 2;
+        int drawY = y + pitHeight / 2 - size / 2;
+        
+        Stroke originalStroke = g2d.getStroke();
+        g2d.setStroke(new BasicStroke(3));
+        g2d.setColor(Color.BLACK);
+        g2d.drawOval(drawX, drawY, size, size);
+        
+        drawCountBadge(g2d, drawX, drawY, 20, 11, pit.getStoneCount());
+        g2d.setStroke(originalStroke);
+    }
+    
+    /**
+     * Draws the hover feedback on a store, placed as paintBoardLayer places it.
+     * 
+     * @param g2d Graphics context for drawing
+     */
+    private void drawStoreHoverHighlight(Graphics2D g2d) {
+        boolean playerA = hoveredPitIndex == pitsPerSide;
+        Pit store = playerA ? playerAMancala : playerBMancala;
+        int x = playerA ? rightMancalaX : leftMancalaX;
+        
+        int size = Math.min(mancalaWidth, mancalaHeight);
+        int centerX = x + mancalaWidth / 2;
+        int drawX = centerX - size / 2;
+        int drawY = mancalaY + mancalaHeight / 2 - size / 2;
+        
+        Stroke originalStroke = g2d.getStroke();
+        g2d.setStroke(new BasicStroke(3));
+        g2d.setColor(Color.BLACK);
+        g2d.drawOval(drawX, drawY, size, size);
+        
+        int badgeSize = 24; // Same badge as drawMancala
+        drawCountBadge(g2d, centerX - badgeSize / 2, drawY - badgeSize, badgeSize, 13, store.getStoneCount());
+        g2d.setStroke(originalStroke);
     }
     
     /**
@@ -559,27 +884,8 @@ public class BoardPanel extends JPanel {
         g2d.drawString(label, labelX, labelY);
         
      // Draw stone count as a badge in top-left corner (like a notification)
-        int badgeSize = 20;
-        int badgeX = drawX; // Overlap the pit edge
-        int badgeY = drawY; // Overlap the pit edge
-
-        // Draw white circle background
-        g2d.setColor(Color.WHITE);
-        g2d.fillOval(badgeX, badgeY, badgeSize, badgeSize);
-
-        // Draw black border
-        g2d.setColor(Color.BLACK);
-        g2d.setStroke(new BasicStroke(2));
-        g2d.drawOval(badgeX, badgeY, badgeSize, badgeSize);
-
-        // Draw count text in the badge
-        g2d.setFont(new Font(Font.SANS_SERIF, Font.BOLD, 11));
-        String countText = String.valueOf(pit.getStoneCount());
-        FontMetrics badgeFm = g2d.getFontMetrics();
-        int textX = badgeX + (badgeSize - badgeFm.stringWidth(countText)) / 2;
-        int textY = badgeY + (badgeSize + badgeFm.getAscent()) / 2 - 2;
-        g2d.setColor(Color.BLACK);
-        g2d.drawString(countText, textX, textY);
+        // Overlap the pit edge
+        drawCountBadge(g2d, drawX, drawY, 20, 11, pit.getStoneCount());
 
         // Reset stroke
         g2d.setStroke(originalStroke);
@@ -650,21 +956,39 @@ public class BoardPanel extends JPanel {
         int badgeSize = 24; // Slightly larger for Mancalas
         int badgeX = centerX - badgeSize / 2; // Centered horizontally
         int badgeY = drawY - badgeSize;   // At the top edge
-
+        drawCountBadge(g2d, badgeX, badgeY, badgeSize, 13, mancala.getStoneCount());
+    }
+    
+    /**
+     * Draws a stone count as a white circular badge with a black border.
+     * 
+     * @param g2d Graphics context for drawing
+     * @param badgeX X position of the badge
+     * @param badgeY Y position of the badge
+     * @param badgeSize Diameter of the badge
+     * @param fontSize Font size of the count text
+     * @param count The stone count to display
+     */
+    private void drawCountBadge(Graphics2D g2d, int badgeX, int badgeY, int badgeSize, 
+                                int fontSize, int count) {
+        g2d.setFont(new Font(Font.SANS_SERIF, Font.BOLD, fontSize));
+        String countText = String.valueOf(count);
+        FontMetrics badgeFm = g2d.getFontMetrics();
+        
+        // Widen the circle into a pill for counts that don't fit (heavily loaded pits)
+        int badgeWidth = Math.max(badgeSize, badgeFm.stringWidth(countText) + 8);
+        
         // Draw white circle background
         g2d.setColor(Color.WHITE);
-        g2d.fillOval(badgeX, badgeY, badgeSize, badgeSize);
+        g2d.fillRoundRect(badgeX, badgeY, badgeWidth, badgeSize, badgeSize, badgeSize);
 
         // Draw black border
         g2d.setColor(Color.BLACK);
         g2d.setStroke(new BasicStroke(2));
-        g2d.drawOval(badgeX, badgeY, badgeSize, badgeSize);
+        g2d.drawRoundRect(badgeX, badgeY, badgeWidth, badgeSize, badgeSize, badgeSize);
 
         // Draw count text in the badge
-        g2d.setFont(new Font(Font.SANS_SERIF, Font.BOLD, 13));
-        String countText = String.valueOf(mancala.getStoneCount());
-        FontMetrics badgeFm = g2d.getFontMetrics();
-        int textX = badgeX + (badgeSize - badgeFm.stringWidth(countText)) / 2;
+        int textX = badgeX + (badgeWidth - badgeFm.stringWidth(countText)) / 2;
         int textY = badgeY + (badgeSize + badgeFm.getAscent()) / 2 - 2;
         g2d.setColor(Color.BLACK);
         g2d.drawString(countText, textX, textY);
@@ -678,15 +1002,15 @@ public class BoardPanel extends JPanel {
     private void initializePits() {
         pits = new Pit[2][pitsPerSide];
         
-        // Initialize regular pits
+        // Initialize regular pits, each seeded with its board index for a fixed stone layout
         for (int i = 0; i < 2; i++) {
             for (int j = 0; j < pitsPerSide; j++) {
-                pits[i][j] = new Pit(0); // Start with 0, will be set by setBoardState
+                pits[i][j] = new Pit(0, i * (pitsPerSide + 1) + j); // Start with 0, will be set by setBoardState
             }
         }
         
         // Initialize Mancalas
-        playerAMancala = new Pit(0);
-        playerBMancala = new Pit(0);
+        playerAMancala = new Pit(0, pitsPerSide);
+        playerBMancala = new Pit(0, pitsPerSide * 2 + 1);
     }
 }
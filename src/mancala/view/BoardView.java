@@ -0,0 +1,46 @@
+package mancala.view;
+
+import mancala.style.BoardStyle;
+
+/**
+ * Interface for the component that displays the game board.
+ * Implemented by BoardPanel (passive Swing painting) and ActiveBoardCanvas
+ * (active rendering on a dedicated thread), so the controller can drive
+ * either one.
+ * 
+ * @author CS151 Group Project
+ * @version 1.0
+ */
+public interface BoardView {
+    /**
+     * Sets the visual style for the board.
+     * 
+     * @param style The BoardStyle to apply
+     */
+    void setStyle(BoardStyle style);
+    
+    /**
+     * Sets the board state from the model.
+     * 
+     * @param boardState Array of 14 integers representing the board state
+     * @param currentPlayer The current player (1 or 2)
+     * @param gameOver Whether the game is over
+     */
+    void setBoardState(int[] boardState, int currentPlayer, boolean gameOver);
+    
+    /**
+     * Sets the engine's scores of the current player's moves, shown on their pits.
+     * 
+     * @param moveScores Score of each pit for the current player, as from
+     *                   SearchEngine.getMoveScores, or null to show no hints
+     * @param depth The search depth the scores come from
+     */
+    void setMoveHints(int[] moveScores, int depth);
+    
+    /**
+     * Sets the listener for pit click events.
+     * 
+     * @param listener The PitClickListener to notify when a pit is clicked
+     */
+    void setPitClickListener(PitClickListener listener);
+}
@@ -5,7 +5,7 @@ import java.awt.*;
 
 /**
  * Control panel that displays game controls and status information.
- * Contains undo button, new game button, status label, and style switching buttons.
+ * Contains undo button, new game button, status label, hints toggle, and style switching buttons.
  * 
  * @author CS151 Group Project
  * @version 1.0
@@ -16,6 +16,7 @@ public class ControlPanel extends JPanel {
     private JButton woodButton;
     private JButton neonButton;
     private JButton newGameButton; 
+    private JToggleButton hintsButton;
     
     /**
      * Constructs a new ControlPanel with all UI components.
@@ -39,10 +40,12 @@ public class ControlPanel extends JPanel {
         statusLabel.setHorizontalAlignment(SwingConstants.CENTER);
         add(statusLabel, BorderLayout.CENTER);
         
-        // EAST: Style buttons for switching during gameplay
+        // EAST: Hints toggle and style buttons for switching during gameplay
         JPanel styleButtonsPanel = new JPanel(new FlowLayout());
+        hintsButton = new JToggleButton("Hints");
         woodButton = new JButton("Wood");
         neonButton = new JButton("Neon");
+        styleButtonsPanel.add(hintsButton);
         styleButtonsPanel.add(woodButton);
         styleButtonsPanel.add(neonButton);
         add(styleButtonsPanel, BorderLayout.EAST);
@@ -93,6 +96,15 @@ public class ControlPanel extends JPanel {
         return neonButton;
     }
     
+    /**
+     * Gets the hints toggle button for attaching action listeners.
+     * 
+     * @return The hints toggle button, selected while hints are shown
+     */
+    public JToggleButton getHintsButton() {
+        return hintsButton;
+    }
+    
     /**
      * Gets the new game button for attaching action listeners.
      * 
@@ -1,54 +1,208 @@
 package mancala.view;
 
 import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
 import javax.swing.*;
 
 /**
  * Main application window that manages the game screens.
  * Uses CardLayout to switch between style selection and game screens.
  * 
+ * <p>The game screen draws the board either with a BoardPanel (default) or,
+ * in active rendering mode, with an ActiveBoardCanvas that renders on its own
+ * thread. Active rendering is enabled with -Dmancala.activeRendering=true,
+ * and the board's performance overlay is shown from the start with
+ * -Dmancala.perfOverlay=true.
+ * 
+ * <p>A lazy frame shows the style selection screen without building the
+ * game screen, so the first window appears sooner; the game screen is built
+ * in the background after that, or when the game starts, whichever is first.
+ * 
  * @author CS151 Group Project
  * @version 1.0
  */
 public class MancalaFrame extends JFrame {
     private static final String STYLE_SELECT_CARD = "STYLE_SELECT";
     private static final String GAME_CARD = "GAME";
+    private static final int ACTIVE_RENDERING_FPS = 60;
     
+    private final boolean activeRendering;
+    private final boolean perfOverlay; // Show the on-screen board's performance overlay at once
     private CardLayout cardLayout;
     private StyleSelectPanel styleSelectPanel;
     private JPanel gameScreen;
     private BoardPanel boardPanel;
+    private BoardView boardView;
     private ControlPanel controlPanel;
+    private final List<Runnable> gameScreenListeners = new ArrayList<>();
+    private Runnable firstPaintListener;
     
     /**
      * Constructs a new MancalaFrame and initializes all screens.
-     * Starts with the style selection screen visible.
+     * Uses active rendering if the mancala.activeRendering system property is set.
      */
     public MancalaFrame() {
+        this(Boolean.getBoolean("mancala.activeRendering"));
+    }
+    
+    /**
+     * Constructs a new MancalaFrame and initializes all screens.
+     * Starts with the style selection screen visible.
+     * 
+     * @param activeRendering true to render the board on a dedicated render thread
+     */
+    public MancalaFrame(boolean activeRendering) {
+        this(activeRendering, false);
+    }
+    
+    /**
+     * Constructs a new MancalaFrame with the style selection screen visible.
+     * A lazy frame builds only that screen; the game screen follows when it
+     * is first needed, or earlier with prepareGameScreen().
+     * 
+     * @param activeRendering true to render the board on a dedicated render thread
+     * @param lazyGameScreen true to build the game screen on first use
+     */
+    public MancalaFrame(boolean activeRendering, boolean lazyGameScreen) {
+        this.activeRendering = activeRendering;
+        this.perfOverlay = Boolean.getBoolean("mancala.perfOverlay");
         setTitle("Mancala");
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         setSize(900, 600);
         setLocationRelativeTo(null);
         
         cardLayout = new CardLayout();
-        setLayout(cardLayout);
+        setContentPane(new JPanel(cardLayout) {
+            @Override
+            public void paint(Graphics g) {
+                super.paint(g);
+                firstPainted();
+            }
+        });
         
         // Create style select screen
         styleSelectPanel = new StyleSelectPanel();
         add(styleSelectPanel, STYLE_SELECT_CARD);
         
-        // Create game screen
+        if (!lazyGameScreen) {
+            buildGameScreen();
+        }
+        
+        // Start with style select screen
+        showStyleSelect();
+    }
+    
+    /**
+     * Builds the game screen, unless it is built already, and tells the
+     * listeners waiting for it.
+     */
+    private void buildGameScreen() {
+        if (gameScreen != null) {
+            return;
+        }
         gameScreen = new JPanel(new BorderLayout());
-        boardPanel = new BoardPanel();
+        Component boardComponent;
+        if (activeRendering) {
+            ActiveBoardCanvas canvas = new ActiveBoardCanvas(ACTIVE_RENDERING_FPS);
+            if (perfOverlay) {
+                canvas.togglePerfOverlay();
+            }
+            boardView = canvas;
+            boardComponent = canvas;
+        } else {
+            boardPanel = new BoardPanel();
+            boardPanel.setPerfOverlayVisible(perfOverlay);
+            boardView = boardPanel;
+            boardComponent = boardPanel;
+        }
         controlPanel = new ControlPanel();
 
-        gameScreen.add(boardPanel, BorderLayout.CENTER);
+        gameScreen.add(boardComponent, BorderLayout.CENTER);
         gameScreen.add(controlPanel, BorderLayout.SOUTH);
         
         add(gameScreen, GAME_CARD);
         
-        // Start with style select screen
-        showStyleSelect();
+        for (Runnable listener : gameScreenListeners) {
+            listener.run();
+        }
+        gameScreenListeners.clear();
+    }
+    
+    /**
+     * Gets the game screen ready ahead of time. The classes it needs are
+     * loaded and initialized on a background thread, then the screen is
+     * built on the Event Dispatch Thread (EDT), which Swing requires, once
+     * the events already queued are handled. Call on the EDT after the frame
+     * is shown.
+     */
+    public void prepareGameScreen() {
+        if (gameScreen != null) {
+            return;
+        }
+        Thread loader = new Thread(() -> {
+            ClassLoader classLoader = MancalaFrame.class.getClassLoader();
+            String[] classNames = {
+                activeRendering ? "mancala.view.ActiveBoardCanvas" : "mancala.view.BoardPanel",
+                "mancala.view.ControlPanel", "mancala.view.Pit", "mancala.view.Rock",
+                "mancala.view.ScaledRasterCache", "mancala.view.PerfOverlay",
+                "mancala.style.StyleA", "mancala.style.StyleB"
+            };
+            for (String className : classNames) {
+                try {
+                    Class.forName(className, true, classLoader);
+                } catch (ClassNotFoundException e) {
+                    System.err.println("Could not load " + className + ": " + e.getMessage());
+                }
+            }
+            SwingUtilities.invokeLater(this::buildGameScreen);
+        }, "Mancala-Preload");
+        loader.setDaemon(true);
+        loader.setPriority(Thread.MIN_PRIORITY);
+        loader.start();
+    }
+    
+    /**
+     * Runs a listener on the EDT once the game screen is built: right away
+     * if it is built already.
+     * 
+     * @param listener Called with the game screen's components available
+     */
+    public void whenGameScreenBuilt(Runnable listener) {
+        if (gameScreen != null) {
+            listener.run();
+        } else {
+            gameScreenListeners.add(listener);
+        }
+    }
+    
+    /**
+     * Checks if the game screen is built.
+     * 
+     * @return true once the game screen exists
+     */
+    public boolean isGameScreenBuilt() {
+        return gameScreen != null;
+    }
+    
+    /**
+     * Runs a listener once, after the frame's content is first painted.
+     * 
+     * @param listener Called on the EDT after the first paint
+     */
+    public void whenFirstPainted(Runnable listener) {
+        firstPaintListener = listener;
+    }
+    
+    /**
+     * Tells the first paint listener, if it has not been told yet.
+     */
+    private void firstPainted() {
+        Runnable listener = firstPaintListener;
+        if (listener != null) {
+            firstPaintListener = null;
+            listener.run();
+        }
     }
     
     /**
@@ -59,9 +213,11 @@ public class MancalaFrame extends JFrame {
     }
     
     /**
-     * Shows the main game screen with board and controls.
+     * Shows the main game screen with board and controls, building it first
+     * if needed.
      */
     public void showGame() {
+        buildGameScreen();
         cardLayout.show(getContentPane(), GAME_CARD);
     }
     
@@ -75,20 +231,35 @@ public class MancalaFrame extends JFrame {
     }
     
     /**
-     * Gets the board panel for game rendering.
+     * Gets the board panel for game rendering, building the game screen
+     * first if needed.
      * 
-     * @return The BoardPanel instance
+     * @return The BoardPanel instance, or null in active rendering mode
      */
     public BoardPanel getBoardPanel() {
+        buildGameScreen();
         return boardPanel;
     }
     
     /**
-     * Gets the control panel for game controls.
+     * Gets the board view, which is the BoardPanel or, in active rendering
+     * mode, the ActiveBoardCanvas. Builds the game screen first if needed.
+     * 
+     * @return The BoardView instance
+     */
+    public BoardView getBoardView() {
+        buildGameScreen();
+        return boardView;
+    }
+    
+    /**
+     * Gets the control panel for game controls, building the game screen
+     * first if needed.
      * 
      * @return The ControlPanel instance
      */
     public ControlPanel getControlPanel() {
+        buildGameScreen();
         return controlPanel;
     }
 }
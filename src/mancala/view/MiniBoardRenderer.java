@@ -0,0 +1,192 @@
+package mancala.view;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.util.Arrays;
+import mancala.model.BoardSnapshot;
+import mancala.style.BoardStyle;
+
+/**
+ * Lightweight renderer that draws a small board from a BoardSnapshot.
+ * Used where a full BoardPanel per game would be too expensive, such as the
+ * spectator grid. Stones are shown as counts instead of individual rocks.
+ *
+ * <p>The empty board (background, stores and pit outlines) is the same for
+ * every board of a given size and style, so it is rendered once and shared.
+ *
+ * <p>Layout matches BoardPanel: Player A on the bottom row with the store on
+ * the right, Player B on the top row with the store on the left.
+ *
+ * @author CS151 Group Project
+ * @version 1.0
+ */
+public class MiniBoardRenderer {
+    private static final Font COUNT_FONT = new Font(Font.SANS_SERIF, Font.BOLD, 10);
+    private static final Font LABEL_FONT = new Font(Font.SANS_SERIF, Font.PLAIN, 10);
+
+    private final ScaledRasterCache emptyBoardLayer = new ScaledRasterCache();
+    private BoardStyle style;
+
+    /**
+     * Sets the style whose colors are used for all boards.
+     *
+     * @param style The BoardStyle to apply, or null for default colors
+     */
+    public void setStyle(BoardStyle style) {
+        this.style = style;
+    }
+
+    /**
+     * Draws one board.
+     *
+     * @param g2d Graphics context for drawing
+     * @param width Width of the board area
+     * @param height Height of the board area
+     * @param snapshot The board to draw, or null for an empty board
+     * @param label Caption drawn in the top-left corner (may be null)
+     */
+    public void paint(Graphics2D g2d, int width, int height, BoardSnapshot snapshot, String label) {
+        int pitsPerSide = snapshot == null ? 6 : snapshot.getPitsPerSide();
+        emptyBoardLayer.draw(g2d, 0, 0, width, height, Arrays.asList(width, height, style, pitsPerSide),
+                (bg, w, h) -> paintEmptyBoard(bg, w, h, pitsPerSide));
+
+        if (snapshot != null) {
+            paintCounts(g2d, width, height, snapshot);
+        }
+
+        if (label != null) {
+            g2d.setFont(LABEL_FONT);
+            g2d.setColor(getTextColor());
+            g2d.drawString(label, 3, g2d.getFontMetrics().getAscent());
+        }
+    }
+
+    /**
+     * Draws the background, the stores and the empty pits.
+     */
+    private void paintEmptyBoard(Graphics2D g2d, int width, int height, int pitsPerSide) {
+        g2d.setColor(getBackgroundColor());
+        g2d.fillRect(0, 0, width, height);
+
+        int cell = getCellSize(width, height, pitsPerSide);
+        int boardX = cell;
+        int boardY = (height - cell * 2) / 2;
+        g2d.setColor(getBackgroundColor().darker());
+        g2d.fillRoundRect(boardX, boardY, cell * pitsPerSide, cell * 2, 8, 8);
+
+        g2d.setStroke(new BasicStroke(1));
+        for (int i = 0; i < pitsPerSide * 2 + 2; i++) {
+            int[] bounds = getPitBounds(i, width, height, pitsPerSide);
+            g2d.setColor(getPitColor());
+            g2d.fillOval(bounds[0], bounds[1], bounds[2], bounds[3]);
+            g2d.setColor(Color.BLACK);
+            g2d.drawOval(bounds[0], bounds[1], bounds[2], bounds[3]);
+        }
+    }
+
+    /**
+     * Draws the stone counts, highlighting the side to move.
+     */
+    private void paintCounts(Graphics2D g2d, int width, int height, BoardSnapshot snapshot) {
+        int pitsPerSide = snapshot.getPitsPerSide();
+        g2d.setFont(COUNT_FONT);
+        FontMetrics fm = g2d.getFontMetrics();
+
+        for (int i = 0; i < pitsPerSide * 2 + 2; i++) {
+            int[] bounds = getPitBounds(i, width, height, pitsPerSide);
+            boolean store = i == pitsPerSide || i == pitsPerSide * 2 + 1;
+            int owner = i <= pitsPerSide ? 1 : 2;
+
+            if (!store && !snapshot.isGameOver() && owner == snapshot.getCurrentPlayer()) {
+                g2d.setColor(getStoneColor());
+                g2d.drawOval(bounds[0], bounds[1], bounds[2], bounds[3]);
+            }
+
+            String count = String.valueOf(snapshot.getStonesAtPit(i));
+            int textX = bounds[0] + (bounds[2] - fm.stringWidth(count)) / 2;
+            int textY = bounds[1] + (bounds[3] + fm.getAscent()) / 2 - 1;
+            g2d.setColor(getTextColor());
+            g2d.drawString(count, textX, textY);
+        }
+
+        if (snapshot.isGameOver()) {
+            int winner = snapshot.getWinner();
+            String result = winner == 1 ? "A wins" : winner == 2 ? "B wins" : "Tie";
+            g2d.setFont(LABEL_FONT);
+            g2d.setColor(getTextColor());
+            g2d.drawString(result, width - g2d.getFontMetrics().stringWidth(result) - 3,
+                           g2d.getFontMetrics().getAscent());
+        }
+    }
+
+    /**
+     * Calculates the size of one pit cell so the board fits the area.
+     */
+    private int getCellSize(int width, int height, int pitsPerSide) {
+        return Math.max(4, Math.min(width / (pitsPerSide + 2), height / 2));
+    }
+
+    /**
+     * Calculates the bounds of a pit or store.
+     *
+     * @param pitIndex Model pit index
+     * @return {x, y, width, height}
+     */
+    private int[] getPitBounds(int pitIndex, int width, int height, int pitsPerSide) {
+        int cell = getCellSize(width, height, pitsPerSide);
+        int boardY = (height - cell * 2) / 2;
+        int inset = Math.max(1, cell / 10);
+        int size = cell - inset * 2;
+
+        if (pitIndex == pitsPerSide) {
+            // Player A store, right side
+            return new int[] {cell * (pitsPerSide + 1) + inset, boardY + inset, size, cell * 2 - inset * 2};
+        }
+        if (pitIndex == pitsPerSide * 2 + 1) {
+            // Player B store, left side
+            return new int[] {inset, boardY + inset, size, cell * 2 - inset * 2};
+        }
+        if (pitIndex < pitsPerSide) {
+            // Player A, bottom row left to right
+            return new int[] {cell * (pitIndex + 1) + inset, boardY + cell + inset, size, size};
+        }
+        // Player B, top row right to left
+        int column = pitsPerSide * 2 - pitIndex;
+        return new int[] {cell * (column + 1) + inset, boardY + inset, size, size};
+    }
+
+    /**
+     * Returns the background color for the current style
+     */
+    private Color getBackgroundColor() {
+        return style == null ? Color.LIGHT_GRAY : style.getBackgroundColor();
+    }
+
+    /**
+     * Returns the pit fill color for the current style
+     */
+    private Color getPitColor() {
+        // Neon pits are filled with the background color, as in BoardPanel
+        if (style == null) {
+            return Color.LIGHT_GRAY;
+        }
+        return "Neon".equals(style.getName()) ? style.getBackgroundColor() : style.getPitColor();
+    }
+
+    /**
+     * Returns the color used to highlight the side to move for the current style
+     */
+    private Color getStoneColor() {
+        return style == null ? Color.DARK_GRAY : style.getStoneColor();
+    }
+
+    /**
+     * Returns the color for counts and captions for the current style
+     */
+    private Color getTextColor() {
+        return style != null && "Neon".equals(style.getName()) ? Color.WHITE : Color.BLACK;
+    }
+}
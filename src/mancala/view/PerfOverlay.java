@@ -0,0 +1,124 @@
+package mancala.view;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.util.ArrayList;
+import java.util.List;
+import mancala.diag.LatencyRing;
+import mancala.diag.PaintMetrics;
+import mancala.diag.PerfMonitor;
+
+/**
+ * Draws live performance numbers over the board: frames per second, paint
+ * time, model move time, listener dispatch time and the allocation rate.
+ * With active rendering it adds the average and longest time between
+ * frames over the last second, as reported to PaintMetrics.
+ *
+ * <p>The numbers come from the rings in PerfMonitor; drawing them copies
+ * and sorts a few hundred samples and allocates only the text. Frames per
+ * second counts the board paints in the last second, including the
+ * refreshes that keep the overlay itself up to date.
+ *
+ * @author CS151 Group Project
+ * @version 1.0
+ */
+public class PerfOverlay {
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+    private static final long ALLOCATION_SAMPLE_NANOS = NANOS_PER_SECOND / 2;
+    private static final int MARGIN = 8;
+    private static final int PADDING = 6;
+    private static final Font FONT = new Font(Font.MONOSPACED, Font.PLAIN, 12);
+    private static final Color BACKGROUND = new Color(0, 0, 0, 170);
+
+    private final long[] scratch = new long[PerfMonitor.SAMPLES];
+    private long allocationSampleTime;
+    private long allocationSampleBytes = -1;
+    private double allocationMegabytesPerSecond = -1;
+
+    /**
+     * Draws the overlay in the top left corner.
+     *
+     * @param g2d Graphics context for drawing
+     */
+    public void draw(Graphics2D g2d) {
+        long now = System.nanoTime();
+        sampleAllocation(now);
+
+        List<String> lines = new ArrayList<>();
+        lines.add(String.format("FPS        %d", framesInLastSecond(now)));
+        double frameAverage = PaintMetrics.INSTANCE.getActiveFrameIntervalAverageMillis();
+        if (frameAverage >= 0) {
+            lines.add(String.format("frame      avg %6.2f ms  max %6.2f ms", frameAverage,
+                PaintMetrics.INSTANCE.getActiveFrameIntervalMaxMillis()));
+        }
+        lines.add(timing("paint", PerfMonitor.PAINT));
+        lines.add(timing("applyMove", PerfMonitor.MOVE));
+        lines.add(timing("dispatch", PerfMonitor.DISPATCH));
+        lines.add(allocationMegabytesPerSecond < 0
+            ? "alloc      n/a"
+            : String.format("alloc      %.1f MB/s", allocationMegabytesPerSecond));
+
+        g2d.setFont(FONT);
+        FontMetrics metrics = g2d.getFontMetrics();
+        int width = 0;
+        for (String line : lines) {
+            width = Math.max(width, metrics.stringWidth(line));
+        }
+        int lineHeight = metrics.getHeight();
+        g2d.setColor(BACKGROUND);
+        g2d.fillRoundRect(MARGIN, MARGIN, width + PADDING * 2, lineHeight * lines.size() + PADDING * 2, 8, 8);
+        g2d.setColor(Color.WHITE);
+        int y = MARGIN + PADDING + metrics.getAscent();
+        for (String line : lines) {
+            g2d.drawString(line, MARGIN + PADDING, y);
+            y += lineHeight;
+        }
+    }
+
+    /**
+     * Formats the last and 99th percentile duration of a ring.
+     */
+    private String timing(String name, LatencyRing ring) {
+        if (ring.count() == 0) {
+            return String.format("%-10s -", name);
+        }
+        return String.format("%-10s last %6.2f ms  p99 %6.2f ms", name,
+            ring.last() / 1e6, ring.percentile(99, scratch) / 1e6);
+    }
+
+    /**
+     * Counts the frames that ended in the last second.
+     */
+    private int framesInLastSecond(long now) {
+        int count = PerfMonitor.FRAMES.copyTo(scratch);
+        int frames = 0;
+        for (int i = 0; i < count; i++) {
+            if (now - scratch[i] <= NANOS_PER_SECOND) {
+                frames++;
+            }
+        }
+        return frames;
+    }
+
+    /**
+     * Updates the allocation rate, at most twice a second so it averages
+     * over several frames.
+     */
+    private void sampleAllocation(long now) {
+        if (allocationSampleBytes >= 0 && now - allocationSampleTime < ALLOCATION_SAMPLE_NANOS) {
+            return;
+        }
+        long bytes = PerfMonitor.allocatedBytes();
+        if (bytes < 0) {
+            return;
+        }
+        if (allocationSampleBytes >= 0) {
+            allocationMegabytesPerSecond = (bytes - allocationSampleBytes) / 1e6
+                / ((now - allocationSampleTime) / 1e9);
+        }
+        allocationSampleBytes = bytes;
+        allocationSampleTime = now;
+    }
+}
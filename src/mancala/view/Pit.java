@@ -9,7 +9,15 @@
  * </ul>
  * 
  * <p>Stones are rendered with random color variations based on a base color,
- * creating visual variety while maintaining style consistency.
+ * creating visual variety while maintaining style consistency. The variations
+ * come from a generator seeded with the pit's seed and the stone's place in
+ * the pit, so a pit with the same seed and count always looks the same: stones
+ * do not move between frames, and two exports of a game match.
+ * 
+ * <p>Heavily loaded pits use a level-of-detail mode: above a threshold that
+ * depends on the pit's pixel size, the pit is drawn as a density texture
+ * instead of individual stones, and the stone count is shown by the board's
+ * count badge. This caps the paint cost no matter how many stones there are.
  * 
  * @author CS151 Group Project
  * @version 1.0
@@ -19,10 +27,25 @@ package mancala.view;
 import java.awt.Color;
 import java.awt.Graphics2D;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
 
 public class Pit {
+    // Pits with more stones than this are never drawn stone by stone, so no more rocks are created
+    private static final int MAX_DETAIL_ROCKS = 64;
+    // Pits with at most this many stones are always drawn stone by stone
+    private static final int MIN_DETAIL_ROCKS = 16;
+    // Area in square pixels that individual stones may cover before switching to the texture
+    private static final int DETAIL_PIXEL_BUDGET = 48000;
+    private static final int MAX_DENSITY_LEVEL = 4;
+
     private List<Rock> rocks;
+    private int stoneCount;
+    private final long seed;
+    
+    // Rendered stones, cached per device scale until the stones change
+    private final ScaledRasterCache rockLayer = new ScaledRasterCache();
 
     /**
      * Constructs a new Pit with the specified initial number of stones.
@@ -30,6 +53,17 @@ public class Pit {
      * @param initialRocks The number of stones to initially place in this pit
      */
     public Pit(int initialRocks) {
+        this(initialRocks, 0);
+    }
+
+    /**
+     * Constructs a new Pit whose stones are laid out from the given seed.
+     * 
+     * @param initialRocks The number of stones to initially place in this pit
+     * @param seed         Seed of the stone layout, e.g. the pit's board index
+     */
+    public Pit(int initialRocks, long seed) {
+        this.seed = seed;
         rocks = new ArrayList<>();
         addRocks(initialRocks);
     }
@@ -63,6 +97,80 @@ public class Pit {
      * @param color Base color for stone color mixing
      */
     protected void drawRocks(Graphics2D g2d, int x, int y, int size, Color color) {
+        if (stoneCount == 0) {
+            return;
+        }
+
+        int threshold = getDetailThreshold(size);
+        if (stoneCount > threshold) {
+            // Level of detail: the texture only gets denser in a few steps as the count grows
+            int level = Math.min(MAX_DENSITY_LEVEL,
+                    31 - Integer.numberOfLeadingZeros(stoneCount / threshold));
+            rockLayer.draw(g2d, x - 1, y - 1, size + 2, size + 2, Arrays.asList(size, color, level),
+                    (rg, width, height) -> paintDensityTexture(rg, 1, 1, size, color, level));
+            return;
+        }
+
+        // Pad by one pixel on each side for the stone outlines
+        rockLayer.draw(g2d, x - 1, y - 1, size + 2, size + 2, Arrays.asList(size, color),
+                (rg, width, height) -> paintRocks(rg, 1, 1, size, color));
+    }
+
+    /**
+     * Calculates how many stones are drawn individually for a pit of the given
+     * size. Stones are a third of the pit's diameter, so larger pits reach the
+     * pixel budget with fewer stones.
+     * 
+     * @param size Diameter of the circular pit
+     * @return The maximum number of individually drawn stones
+     */
+    private int getDetailThreshold(int size) {
+        int rockSize = Math.max(1, size / 3);
+        return Math.clamp(DETAIL_PIXEL_BUDGET / (rockSize * rockSize), MIN_DETAIL_ROCKS, MAX_DETAIL_ROCKS);
+    }
+
+    /**
+     * Renders a dense field of small stones that stands in for a heavily
+     * loaded pit. The field is the same for every pit of the same size, and
+     * covers more of the pit at higher density levels.
+     * 
+     * @param g2d   Graphics context for drawing
+     * @param x     X position of the pit (top-left corner)
+     * @param y     Y position of the pit (top-left corner)
+     * @param size  Diameter of the circular pit
+     * @param color Base color for stone color mixing
+     * @param level Density level, 0 to MAX_DENSITY_LEVEL
+     */
+    private void paintDensityTexture(Graphics2D g2d, int x, int y, int size, Color color, int level) {
+        Random random = new Random(size);
+        int rockSize = Math.max(2, size / 8);
+        double radius = size / 2.0 * (0.7 + 0.05 * level) - rockSize / 2.0;
+        // Enough stones to cover the field about three times over
+        int count = (int) (Math.PI * radius * radius / (rockSize * rockSize) * 3);
+
+        int xCenter = x + size / 2 - rockSize / 2;
+        int yCenter = y + size / 2 - rockSize / 2;
+        for (int i = 0; i < count; i++) {
+            // Uniform position in the disk, expressed in stone diameters
+            double angle = random.nextDouble() * Math.PI * 2;
+            double distance = Math.sqrt(random.nextDouble()) * radius / rockSize;
+            Rock rock = new Rock(Math.cos(angle) * distance, Math.sin(angle) * distance,
+                    random.nextDouble() * 2 - 1, random.nextDouble() * 2 - 1, random.nextDouble() * 2 - 1);
+            rock.draw(g2d, xCenter, yCenter, rockSize, color);
+        }
+    }
+
+    /**
+     * Renders every stone individually. Used as the painter for the cached
+     * stone layer.
+     * 
+     * @param g2d   Graphics context for drawing
+     * @param x     X position of the pit (top-left corner)
+     * @param y     Y position of the pit (top-left corner)
+     * @param size  Diameter of the circular pit
+     * @param color Base color for stone color mixing
+     */
+    private void paintRocks(Graphics2D g2d, int x, int y, int size, Color color) {
         int rockSize = size * 1 / 3;
         int xCenter = x + size / 2 - rockSize / 2;
         int yCenter = y + size / 2 - rockSize / 2;
@@ -79,9 +187,28 @@ public class Pit {
      * @param amount The number of stones to add
      */
     public void addRocks(int amount) {
-        for (int i = 0; i < amount; ++i) {
+        stoneCount += amount;
+        // Only stones that can be drawn individually are created
+        int target = Math.min(stoneCount, MAX_DETAIL_ROCKS);
+        while (rocks.size() < target) {
             rocks.add(createRock());
         }
+        rockLayer.invalidate();
+    }
+
+    /**
+     * Removes the specified number of stones from this pit, the most
+     * recently added first. The other stones stay where they are.
+     * 
+     * @param amount The number of stones to remove
+     */
+    public void removeRocks(int amount) {
+        stoneCount = Math.max(0, stoneCount - amount);
+        int target = Math.min(stoneCount, MAX_DETAIL_ROCKS);
+        while (rocks.size() > target) {
+            rocks.remove(rocks.size() - 1);
+        }
+        rockLayer.invalidate();
     }
 
     /**
@@ -89,46 +216,63 @@ public class Pit {
      */
     public void clear() {
         rocks.clear();
+        stoneCount = 0;
+        rockLayer.invalidate();
     }
 
     /**
      * Sets the number of stones in this pit to match the model state.
-     * Clears existing rocks and adds the specified amount.
+     * Only the difference is added or removed, so the stones already in the
+     * pit keep their places, and a pit whose count is unchanged keeps its
+     * rendered stones.
      * 
      * @param stoneCount The number of stones to display
      */
     public void setStoneCount(int stoneCount) {
-        clear();
-        if (stoneCount > 0) {
-            addRocks(stoneCount);
+        if (stoneCount > this.stoneCount) {
+            addRocks(stoneCount - this.stoneCount);
+        } else if (stoneCount < this.stoneCount) {
+            removeRocks(this.stoneCount - stoneCount);
         }
     }
 
     /**
-     * Gets the current number of stones (rocks) in this pit.
+     * Gets the number of stones that are drawn one by one.
      * 
      * @return The number of rocks
      */
-    public int getStoneCount() {
+    public int getRockCount() {
         return rocks.size();
     }
 
+    /**
+     * Gets the current number of stones in this pit.
+     * 
+     * @return The number of stones
+     */
+    public int getStoneCount() {
+        return stoneCount;
+    }
+
     /**
      * Creates a new Rock with random color and position variations.
      * Colors are randomized within a range, and positions have slight random
      * offsets
      * to create visual variety while keeping stones centered in the pit.
+     * The generator is seeded with the pit's seed and the number of stones
+     * before this one, which are always the same stones.
      * 
      * @return A new Rock instance with randomized properties
      */
     private Rock createRock() {
+        Random random = new Random(seed * 1_000_003L + rocks.size());
         double RANDOMNESS_MAX = 0.7;
         double OVERLAPPING_THRESHOLD = 0.5;
         int ITER_THRESHOLD = 32;
 
-        double r = Math.random() * 2 - 1;
-        double g = Math.random() * 2 - 1;
-        double b = Math.random() * 2 - 1;
+        double r = random.nextDouble() * 2 - 1;
+        double g = random.nextDouble() * 2 - 1;
+        double b = random.nextDouble() * 2 - 1;
         
         double dx = 0;
         double dy = 0;
@@ -136,8 +280,8 @@ public class Pit {
         // Iterate until it found a valid position
         int i = 0;
         while (i++ < ITER_THRESHOLD) {
-            dx = Math.random() * 2 - 1;
-            dy = Math.random() * 2 - 1;
+            dx = random.nextDouble() * 2 - 1;
+            dy = random.nextDouble() * 2 - 1;
 
             dx = Math.clamp(dx, -RANDOMNESS_MAX, RANDOMNESS_MAX);
             dy = Math.clamp(dy, -RANDOMNESS_MAX, RANDOMNESS_MAX);
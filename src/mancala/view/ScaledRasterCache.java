@@ -0,0 +1,177 @@
+package mancala.view;
+
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Point2D;
+import java.awt.image.BufferedImage;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Caches an expensive piece of rendering as a raster at device resolution.
+ * One raster is kept per device transform scale, so a window moved between
+ * monitors with different scaling switches rasters instead of re-rendering
+ * every frame, and moving back reuses the raster rendered earlier.
+ *
+ * <p>The cached content is described by a content key. When the key changes
+ * (e.g. new board state, style or size), the content is rendered again once
+ * for the current scale. The raster is cleared and reused for that, so a
+ * change of content allocates nothing; only a new pixel size allocates a
+ * new raster.
+ *
+ * @author CS151 Group Project
+ * @version 1.0
+ */
+public class ScaledRasterCache {
+    private static final int MAX_SCALES = 4; // Enough for a multi-monitor setup
+
+    /**
+     * Renders the cached content in logical (unscaled) coordinates.
+     */
+    public interface Painter {
+        /**
+         * Paints the content with its top-left corner at (0, 0).
+         *
+         * @param g2d    Graphics context, already scaled to device resolution
+         * @param width  Logical width of the content
+         * @param height Logical height of the content
+         */
+        void paint(Graphics2D g2d, int width, int height);
+    }
+
+    /** Content key of a raster that must be rendered again; equal to no other key */
+    private static final Object STALE = new Object();
+
+    /**
+     * The raster for one scale and the content key it was rendered for.
+     */
+    private static final class Raster {
+        private BufferedImage image;
+        private Object contentKey = STALE;
+    }
+
+    private final Map<Long, Raster> rasters;
+
+    /**
+     * Constructs an empty cache.
+     */
+    public ScaledRasterCache() {
+        rasters = new LinkedHashMap<Long, Raster>(MAX_SCALES, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Raster> eldest) {
+                return size() > MAX_SCALES;
+            }
+        };
+    }
+
+    /**
+     * Marks all cached rasters stale. The next draw call renders the content
+     * again, into the same raster if its size has not changed.
+     */
+    public void invalidate() {
+        for (Raster raster : rasters.values()) {
+            raster.contentKey = STALE;
+        }
+    }
+
+    /**
+     * Draws the cached content, rendering it first if there is no raster for
+     * the current content key and device scale.
+     *
+     * <p>If the graphics transform is not a plain scale/translate (e.g. rotated
+     * printing), the content is painted directly instead.
+     *
+     * @param g2d        Graphics context to draw into
+     * @param x          Logical X position of the content
+     * @param y          Logical Y position of the content
+     * @param width      Logical width of the content
+     * @param height     Logical height of the content
+     * @param contentKey Describes the content; a different key renders it again
+     * @param painter    Renders the content when the raster is missing or stale
+     */
+    public void draw(Graphics2D g2d, int x, int y, int width, int height,
+                     Object contentKey, Painter painter) {
+        if (width <= 0 || height <= 0) {
+            return;
+        }
+
+        AffineTransform transform = g2d.getTransform();
+        int type = transform.getType() & ~AffineTransform.TYPE_TRANSLATION;
+        if ((type & ~(AffineTransform.TYPE_UNIFORM_SCALE | AffineTransform.TYPE_GENERAL_SCALE)) != 0) {
+            Graphics2D direct = (Graphics2D) g2d.create(x, y, width, height);
+            painter.paint(direct, width, height);
+            direct.dispose();
+            return;
+        }
+
+        double scaleX = transform.getScaleX();
+        double scaleY = transform.getScaleY();
+        Long scaleKey = scaleKey(scaleX, scaleY);
+        Raster raster = rasters.get(scaleKey);
+        if (raster == null) {
+            raster = new Raster();
+            rasters.put(scaleKey, raster);
+        }
+        int rasterWidth = (int) Math.ceil(width * scaleX);
+        int rasterHeight = (int) Math.ceil(height * scaleY);
+        boolean sized = raster.image != null
+            && raster.image.getWidth() == rasterWidth && raster.image.getHeight() == rasterHeight;
+        if (!sized || !Objects.equals(raster.contentKey, contentKey)) {
+            render(raster, sized, g2d.getDeviceConfiguration(), rasterWidth, rasterHeight,
+                   width, height, scaleX, scaleY, painter);
+            raster.contentKey = contentKey;
+        }
+
+        // Draw 1:1 in device space so the raster is never resampled
+        Point2D origin = transform.transform(new Point2D.Double(x, y), null);
+        g2d.setTransform(AffineTransform.getTranslateInstance(
+                Math.round(origin.getX()), Math.round(origin.getY())));
+        g2d.drawImage(raster.image, 0, 0, null);
+        g2d.setTransform(transform);
+    }
+
+    /**
+     * Renders the content into a raster sized for the given scale: the old
+     * image, cleared, if it already has that pixel size, or else a new one.
+     */
+    private static void render(Raster raster, boolean reused, GraphicsConfiguration config,
+                               int rasterWidth, int rasterHeight, int width, int height,
+                               double scaleX, double scaleY, Painter painter) {
+        BufferedImage image = raster.image;
+        if (!reused) {
+            if (config != null) {
+                image = config.createCompatibleImage(rasterWidth, rasterHeight, Transparency.TRANSLUCENT);
+            } else {
+                image = new BufferedImage(rasterWidth, rasterHeight, BufferedImage.TYPE_INT_ARGB_PRE);
+            }
+            raster.image = image;
+        }
+
+        Graphics2D g2d = image.createGraphics();
+        if (reused) {
+            g2d.setComposite(AlphaComposite.Clear);
+            g2d.fillRect(0, 0, rasterWidth, rasterHeight);
+            g2d.setComposite(AlphaComposite.SrcOver);
+        }
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g2d.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g2d.scale(scaleX, scaleY);
+        painter.paint(g2d, width, height);
+        g2d.dispose();
+    }
+
+    /**
+     * Packs a scale pair into a map key, rounded to 1/1000 so that tiny
+     * floating point differences between frames don't create new rasters.
+     */
+    private static Long scaleKey(double scaleX, double scaleY) {
+        long sx = Math.round(scaleX * 1000);
+        long sy = Math.round(scaleY * 1000);
+        return (sx << 32) | (sy & 0xFFFFFFFFL);
+    }
+}
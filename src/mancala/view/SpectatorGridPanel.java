@@ -0,0 +1,195 @@
+package mancala.view;
+
+import java.awt.Dimension;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.swing.JPanel;
+import javax.swing.Timer;
+import mancala.model.BoardSnapshot;
+import mancala.style.BoardStyle;
+
+/**
+ * Panel that shows many live games at once as a grid of mini boards.
+ * Intended for a tournament monitor screen with dozens to hundreds of games.
+ *
+ * <p>Games publish BoardSnapshots from any thread. The panel never repaints
+ * per update: a 60 Hz timer on the EDT collects the boards that changed since
+ * the last tick and issues one repaint for their combined area. Each board is
+ * kept as a cached raster that is only re-rendered when its snapshot changes,
+ * so repainting the grid is mostly copying rasters.
+ *
+ * @author CS151 Group Project
+ * @version 1.0
+ */
+public class SpectatorGridPanel extends JPanel {
+    private static final int FRAME_INTERVAL_MS = 1000 / 60;
+    private static final int CELL_GAP = 4;
+
+    private final MiniBoardRenderer renderer = new MiniBoardRenderer();
+    private final List<Cell> cells = new CopyOnWriteArrayList<>(); // Added on the EDT, read by any thread
+    private final Timer frameTimer;
+
+    private final int columns;
+    private final int cellWidth;
+    private final int cellHeight;
+    private BoardStyle style;
+
+    /**
+     * One board in the grid. The snapshot is written by game threads and read
+     * on the EDT; the raster cache is only used on the EDT.
+     */
+    private static class Cell {
+        private final String label;
+        private final AtomicReference<BoardSnapshot> snapshot = new AtomicReference<>();
+        private final AtomicBoolean dirty = new AtomicBoolean();
+        private final ScaledRasterCache raster = new ScaledRasterCache();
+
+        Cell(String label) {
+            this.label = label;
+        }
+    }
+
+    /**
+     * Constructs a grid with the given number of columns and mini board size.
+     *
+     * @param columns Boards per row
+     * @param cellWidth Width of each mini board
+     * @param cellHeight Height of each mini board
+     */
+    public SpectatorGridPanel(int columns, int cellWidth, int cellHeight) {
+        this.columns = Math.max(1, columns);
+        this.cellWidth = cellWidth;
+        this.cellHeight = cellHeight;
+
+        frameTimer = new Timer(FRAME_INTERVAL_MS, e -> repaintChangedCells());
+        frameTimer.setCoalesce(true);
+    }
+
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        frameTimer.start();
+    }
+
+    @Override
+    public void removeNotify() {
+        frameTimer.stop();
+        super.removeNotify();
+    }
+
+    /**
+     * Sets the style whose colors are used for all boards.
+     * Must be called on the EDT.
+     *
+     * @param style The BoardStyle to apply
+     */
+    public void setStyle(BoardStyle style) {
+        this.style = style;
+        renderer.setStyle(style);
+        if (style != null) {
+            setBackground(style.getBackgroundColor());
+        }
+        repaint();
+    }
+
+    /**
+     * Adds a board to the grid. Must be called on the EDT.
+     *
+     * @param label Caption shown on the board (e.g. table number)
+     * @return The slot used to publish snapshots for this board
+     */
+    public int addBoard(String label) {
+        cells.add(new Cell(label));
+        revalidate();
+        repaint();
+        return cells.size() - 1;
+    }
+
+    /**
+     * Gets the number of boards in the grid.
+     *
+     * @return The board count
+     */
+    public int getBoardCount() {
+        return cells.size();
+    }
+
+    /**
+     * Publishes a new position for a board. Safe to call from any thread;
+     * the board is redrawn on the next frame tick.
+     *
+     * @param slot The slot returned by addBoard
+     * @param snapshot The new position
+     */
+    public void publish(int slot, BoardSnapshot snapshot) {
+        Cell cell = cells.get(slot);
+        cell.snapshot.set(snapshot);
+        cell.dirty.set(true);
+    }
+
+    /**
+     * Runs on every frame tick. Collects all changed boards and requests one
+     * repaint covering them.
+     */
+    private void repaintChangedCells() {
+        Rectangle area = null;
+        for (int i = 0; i < cells.size(); i++) {
+            if (cells.get(i).dirty.getAndSet(false)) {
+                Rectangle bounds = getCellBounds(i);
+                area = area == null ? bounds : area.union(bounds);
+            }
+        }
+        if (area != null) {
+            repaint(area);
+        }
+    }
+
+    /**
+     * Calculates the bounds of a board in the grid.
+     *
+     * @param slot The board slot
+     * @return The bounds in panel coordinates
+     */
+    private Rectangle getCellBounds(int slot) {
+        int x = CELL_GAP + (slot % columns) * (cellWidth + CELL_GAP);
+        int y = CELL_GAP + (slot / columns) * (cellHeight + CELL_GAP);
+        return new Rectangle(x, y, cellWidth, cellHeight);
+    }
+
+    @Override
+    public Dimension getPreferredSize() {
+        int rows = (cells.size() + columns - 1) / columns;
+        return new Dimension(CELL_GAP + columns * (cellWidth + CELL_GAP),
+                             CELL_GAP + Math.max(1, rows) * (cellHeight + CELL_GAP));
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        super.paintComponent(g);
+
+        Graphics2D g2d = (Graphics2D) g;
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        Rectangle clip = g2d.getClipBounds();
+
+        for (int i = 0; i < cells.size(); i++) {
+            Rectangle bounds = getCellBounds(i);
+            if (clip != null && !clip.intersects(bounds)) {
+                continue;
+            }
+
+            Cell cell = cells.get(i);
+            BoardSnapshot snapshot = cell.snapshot.get();
+            // Snapshots are immutable, so the snapshot itself identifies the raster content
+            cell.raster.draw(g2d, bounds.x, bounds.y, bounds.width, bounds.height,
+                    Arrays.asList(snapshot, style),
+                    (cg, w, h) -> renderer.paint(cg, w, h, snapshot, cell.label));
+        }
+    }
+}